@@ -36,6 +36,7 @@ import com.movielabs.mddflib.logging.IssueLogger;
 import com.movielabs.mddflib.logging.LogMgmt;
 import com.movielabs.mddflib.logging.LogReference;
 import com.movielabs.mddflib.util.CMValidator;
+import com.movielabs.mddflib.util.ValidationPlan;
 import com.movielabs.mddflib.util.xml.MddfTarget;
 import com.movielabs.mddflib.util.xml.SchemaWrapper;
 import com.movielabs.mddflib.util.xml.XsdValidation;
@@ -111,14 +112,17 @@ public class AvailValidator extends CMValidator implements IssueLogger {
 		curFileName = curFile.getName();
 		this.pedigreeMap = pedigreeMap;
 		curFileIsValid = true;
+		resetBudget();
 
-		validateXml(target);
+		if (isSelected(ValidationPlan.Check.SCHEMA)) {
+			validateXml(target);
+		}
 		if (!curFileIsValid) {
 			msg = "Schema validation check FAILED";
 			loggingMgr.log(LogMgmt.LEV_INFO, LogMgmt.TAG_AVAIL, msg, curFile, logMsgSrcId);
 		} else {
 			curRootEl = target.getXmlDoc().getRootElement();
-			msg = "Schema validation check PASSED";
+			msg = "Schema validation check " + (isSelected(ValidationPlan.Check.SCHEMA) ? "PASSED" : "SKIPPED");
 			loggingMgr.log(LogMgmt.LEV_INFO, LogMgmt.TAG_AVAIL, msg, curFile, logMsgSrcId);
 			if (validateC) {
 				validateConstraints();
@@ -148,21 +152,37 @@ public class AvailValidator extends CMValidator implements IssueLogger {
 	protected void validateConstraints() {
 		loggingMgr.log(LogMgmt.LEV_DEBUG, LogMgmt.LEV_INFO, "Validating constraints", curFile, LOGMSG_ID);
 		super.validateConstraints();
+		if (isBudgetExhausted()) {
+			return;
+		}
 
 		SchemaWrapper availSchema = SchemaWrapper.factory("avails-v" + availSchemaVer);
 
-		validateNotEmpty(availSchema);
+		if (isSelected(ValidationPlan.Check.STRUCTURE)) {
+			validateNotEmpty(availSchema);
+		}
+		if (isSelected(ValidationPlan.Check.IDS)) {
+			validateEidrValues();
+		}
+		if (isBudgetExhausted()) {
+			return;
+		}
 
 		/*
 		 * Validate the usage of controlled vocab (i.e., places where XSD specifies a
 		 * xs:string but the documentation specifies an enumerated set of allowed
 		 * values).
 		 */
-		// start with Common Metadata spec..
-		validateCMVocab();
+		if (isSelected(ValidationPlan.Check.VOCAB)) {
+			// start with Common Metadata spec..
+			validateCMVocab();
 
-		// Now do any defined in Avails spec..
-		validateAvailVocab();
+			// Now do any defined in Avails spec..
+			validateAvailVocab();
+		}
+		if (isBudgetExhausted() || !isSelected(ValidationPlan.Check.STRUCTURE)) {
+			return;
+		}
 
 		validateUsage();
 
@@ -398,7 +418,10 @@ public class AvailValidator extends CMValidator implements IssueLogger {
 	 * Note that validation of XLSX files is only supported by the Avails validator
 	 * and that other validator classes do not, therefore, require this intermediate
 	 * stage when logging.
-	 * 
+	 * <p>
+	 * The issue is then passed to the base class so that it is counted against
+	 * the validation budget.
+	 * </p>
 	 * 
 	 * @param tag
 	 * @param level
@@ -419,6 +442,6 @@ public class AvailValidator extends CMValidator implements IssueLogger {
 				target = ped.getSource();
 			}
 		}
-		loggingMgr.logIssue(tag, level, target, msg, explanation, srcRef, moduleId);
+		super.logIssue(tag, level, target, msg, explanation, srcRef, moduleId);
 	}
 }
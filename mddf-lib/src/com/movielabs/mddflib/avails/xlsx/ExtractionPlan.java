@@ -0,0 +1,489 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.avails.xlsx;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jdom2.Attribute;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.filter.Filters;
+import org.jdom2.xpath.XPathExpression;
+import org.jdom2.xpath.XPathFactory;
+
+/**
+ * Evaluates a set of compiled XPaths, all relative to the same base element,
+ * in a single traversal of the base element's subtree.
+ * <p>
+ * The location paths of the XPaths are merged into a tree of steps so that
+ * paths with a common prefix (e.g., the many <tt>avails:Metadata/...</tt>
+ * mappings used for an Asset) share the navigation to that prefix. Each
+ * element's children are examined once and dispatched to every step matching
+ * their name. Only the predicates (e.g., <tt>[../@termName='SRP']</tt>) are
+ * evaluated with the XPath engine and then only for the candidate nodes that
+ * a step has already matched by name.
+ * </p>
+ * <p>
+ * Matches are returned in document order and are the same nodes that
+ * <tt>XPathExpression.evaluate()</tt> would return. An XPath using any syntax
+ * other than the child (<tt>/</tt>) and descendant (<tt>//</tt>) steps,
+ * attribute terminals, and non-positional predicates is evaluated directly
+ * when its matches are requested.
+ * </p>
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class ExtractionPlan {
+
+	private static final Pattern STEP_PATTERN = Pattern.compile(
+			"(@)?(?:([A-Za-z_][\\w.\\-]*):)?([A-Za-z_][\\w.\\-]*)((?:\\[.*\\])?)");
+	private static final Pattern POSITIONAL = Pattern.compile("\\s*\\d+\\s*|.*\\b(position|last)\\(\\).*");
+
+	private XPathFactory xpfac = XPathFactory.instance();
+	private Namespace[] namespaces;
+	private Step rootStep = new Step();
+	private Map<XPathExpression<?>, Integer> slots = new IdentityHashMap<XPathExpression<?>, Integer>();
+	private int slotCnt = 0;
+	private Map<String, XPathExpression<Boolean>> predicates = new HashMap<String, XPathExpression<Boolean>>();
+
+	/**
+	 * A single location step. The root step represents the base element.
+	 */
+	private static class Step {
+		boolean descendant = false;
+		boolean attribute = false;
+		String name;
+		Namespace ns;
+		List<XPathExpression<Boolean>> predicates = new ArrayList<XPathExpression<Boolean>>();
+		List<Integer> slots = new ArrayList<Integer>();
+		/* sub-steps keyed by their text (i.e., axis, name, and predicates) */
+		Map<String, Step> subSteps = new LinkedHashMap<String, Step>();
+		/* element child steps keyed by the expanded name they match */
+		Map<String, List<Step>> childIndex = new HashMap<String, List<Step>>();
+
+		boolean accepts(Object node) {
+			for (XPathExpression<Boolean> predicate : predicates) {
+				Boolean result = predicate.evaluateFirst(node);
+				if (result == null || !result) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * The nodes matched by each of the plan's XPaths when applied to a specific
+	 * base element.
+	 */
+	public class Matches {
+		private Element baseEl;
+		private List<?>[] results;
+
+		private Matches(Element baseEl) {
+			this.baseEl = baseEl;
+			this.results = new List<?>[slotCnt];
+		}
+
+		/**
+		 * @return the element the plan was applied to
+		 */
+		public Element getBase() {
+			return baseEl;
+		}
+
+		/**
+		 * Returns the nodes matched by an XPath. The result is the same as
+		 * invoking <tt>xpe.evaluate(getBase())</tt>. XPaths that were not added
+		 * to the plan, or that the plan is unable to merge, are evaluated in
+		 * that manner.
+		 *
+		 * @param xpe
+		 * @return the matching nodes in document order
+		 */
+		public <T> List<T> get(XPathExpression<T> xpe) {
+			Integer slot = slots.get(xpe);
+			if (slot == null) {
+				return xpe.evaluate(baseEl);
+			}
+			List<?> found = results[slot];
+			if (found == null) {
+				return new ArrayList<T>();
+			}
+			return xpe.getFilter().filter(found);
+		}
+
+		/**
+		 * @param xpe
+		 * @return the first node matched by an XPath or <tt>null</tt> if there
+		 *         are none
+		 */
+		public <T> T getFirst(XPathExpression<T> xpe) {
+			List<T> found = get(xpe);
+			return found.isEmpty() ? null : found.get(0);
+		}
+	}
+
+	/**
+	 * @param namespaces
+	 *            the namespaces used when compiling the XPaths that will be
+	 *            added to the plan
+	 */
+	public ExtractionPlan(Namespace... namespaces) {
+		this.namespaces = namespaces;
+	}
+
+	/**
+	 * Add an XPath to the plan. A <tt>null</tt> XPath is ignored.
+	 *
+	 * @param xpe
+	 */
+	public void add(XPathExpression<?> xpe) {
+		if (xpe == null || slots.containsKey(xpe)) {
+			return;
+		}
+		List<String> stepTextList = splitPath(xpe.getExpression());
+		if (stepTextList == null) {
+			return;
+		}
+		/*
+		 * Parse everything before modifying the tree so that an unsupported XPath
+		 * leaves the tree untouched.
+		 */
+		List<Step> parsed = new ArrayList<Step>();
+		List<String> keys = new ArrayList<String>();
+		boolean descendant = false;
+		for (int i = 0; i < stepTextList.size(); i++) {
+			String stepText = stepTextList.get(i).trim();
+			if (stepText.equals(".") && i == 0) {
+				continue;
+			}
+			if (stepText.isEmpty()) {
+				if (i == 0 || descendant || i == stepTextList.size() - 1) {
+					return;
+				}
+				descendant = true;
+				continue;
+			}
+			Step step = parseStep(stepText, xpe);
+			if (step == null || (step.attribute && (descendant || i != stepTextList.size() - 1))) {
+				return;
+			}
+			step.descendant = descendant;
+			parsed.add(step);
+			keys.add(stepKey(step));
+			descendant = false;
+		}
+		if (parsed.isEmpty()) {
+			return;
+		}
+		Step parent = rootStep;
+		for (int i = 0; i < parsed.size(); i++) {
+			Step next = parent.subSteps.get(keys.get(i));
+			if (next == null) {
+				next = parsed.get(i);
+				parent.subSteps.put(keys.get(i), next);
+				if (!next.descendant && !next.attribute) {
+					String nameKey = expandedName(next.ns.getURI(), next.name);
+					List<Step> indexed = parent.childIndex.get(nameKey);
+					if (indexed == null) {
+						indexed = new ArrayList<Step>();
+						parent.childIndex.put(nameKey, indexed);
+					}
+					indexed.add(next);
+				}
+			}
+			parent = next;
+		}
+		int slot = slotCnt++;
+		parent.slots.add(slot);
+		slots.put(xpe, slot);
+	}
+
+	/**
+	 * Apply every XPath in the plan to the <tt>baseEl</tt>.
+	 *
+	 * @param baseEl
+	 * @return the matches for each XPath
+	 */
+	public Matches visit(Element baseEl) {
+		Matches matches = new Matches(baseEl);
+		List<Object> baseList = new ArrayList<Object>(1);
+		baseList.add(baseEl);
+		walk(rootStep, baseList, false, matches);
+		return matches;
+	}
+
+	/**
+	 * @param step
+	 * @param contexts
+	 *            the nodes matched by the <tt>step</tt>, in document order
+	 * @param mayNest
+	 *            <tt>true</tt> if one of the <tt>contexts</tt> may be a
+	 *            descendant of another
+	 * @param matches
+	 */
+	private void walk(Step step, List<Object> contexts, boolean mayNest, Matches matches) {
+		for (Integer slot : step.slots) {
+			matches.results[slot] = contexts;
+		}
+		if (step.subSteps.isEmpty()) {
+			return;
+		}
+		/* child steps: examine each child of each context exactly once */
+		Map<Step, List<Object>> childMatches = new IdentityHashMap<Step, List<Object>>();
+		if (!step.childIndex.isEmpty()) {
+			for (Object context : contexts) {
+				for (Element childEl : ((Element) context).getChildren()) {
+					List<Step> candidates = step.childIndex.get(expandedName(childEl.getNamespaceURI(), childEl.getName()));
+					if (candidates == null) {
+						continue;
+					}
+					for (Step next : candidates) {
+						if (next.accepts(childEl)) {
+							List<Object> found = childMatches.get(next);
+							if (found == null) {
+								found = new ArrayList<Object>();
+								childMatches.put(next, found);
+							}
+							found.add(childEl);
+						}
+					}
+				}
+			}
+		}
+		for (Step next : step.subSteps.values()) {
+			List<Object> found;
+			boolean nested = mayNest;
+			if (next.attribute) {
+				found = new ArrayList<Object>();
+				for (Object context : contexts) {
+					Attribute att = ((Element) context).getAttribute(next.name, next.ns);
+					if (att != null && next.accepts(att)) {
+						found.add(att);
+					}
+				}
+			} else if (next.descendant) {
+				found = new ArrayList<Object>();
+				Element lastScope = null;
+				for (Object context : contexts) {
+					Element contextEl = (Element) context;
+					/* a nested context's descendants have already been visited */
+					if (lastScope != null && lastScope.isAncestor(contextEl)) {
+						continue;
+					}
+					lastScope = contextEl;
+					for (Element descEl : contextEl.getDescendants(Filters.element(next.name, next.ns))) {
+						if (next.accepts(descEl)) {
+							found.add(descEl);
+						}
+					}
+				}
+				nested = true;
+			} else {
+				found = childMatches.get(next);
+				if (found != null && mayNest && contexts.size() > 1) {
+					sortInDocumentOrder(found);
+				}
+			}
+			if (found != null && !found.isEmpty()) {
+				walk(next, found, nested, matches);
+			}
+		}
+	}
+
+	private Step parseStep(String stepText, XPathExpression<?> xpe) {
+		Matcher m = STEP_PATTERN.matcher(stepText);
+		if (!m.matches()) {
+			return null;
+		}
+		Step step = new Step();
+		step.attribute = (m.group(1) != null);
+		step.name = m.group(3);
+		String prefix = m.group(2);
+		if (prefix == null) {
+			step.ns = Namespace.NO_NAMESPACE;
+		} else {
+			try {
+				step.ns = xpe.getNamespace(prefix);
+			} catch (IllegalArgumentException e) {
+				return null;
+			}
+			if (step.ns == null) {
+				return null;
+			}
+		}
+		String predicateText = m.group(4);
+		while (!predicateText.isEmpty()) {
+			int end = closingBracket(predicateText);
+			if (end < 0) {
+				return null;
+			}
+			String expression = predicateText.substring(1, end);
+			if (POSITIONAL.matcher(expression).matches()) {
+				return null;
+			}
+			try {
+				step.predicates.add(compilePredicate(expression));
+			} catch (IllegalArgumentException e) {
+				return null;
+			}
+			predicateText = predicateText.substring(end + 1);
+		}
+		return step;
+	}
+
+	/**
+	 * @param step
+	 * @return text that identifies steps matching the same nodes
+	 */
+	private static String stepKey(Step step) {
+		StringBuilder key = new StringBuilder(step.descendant ? "//" : "/");
+		if (step.attribute) {
+			key.append("@");
+		}
+		key.append(expandedName(step.ns.getURI(), step.name));
+		for (XPathExpression<Boolean> predicate : step.predicates) {
+			key.append("[").append(predicate.getExpression()).append("]");
+		}
+		return key.toString();
+	}
+
+	private XPathExpression<Boolean> compilePredicate(String expression) {
+		XPathExpression<Boolean> predicate = predicates.get(expression);
+		if (predicate == null) {
+			predicate = xpfac.compile("boolean(" + expression + ")", Filters.fboolean(), null, namespaces);
+			predicates.put(expression, predicate);
+		}
+		return predicate;
+	}
+
+	/**
+	 * Split a location path into the text of its steps. An empty step indicates
+	 * the following step uses the descendant axis.
+	 *
+	 * @param path
+	 * @return the steps or <tt>null</tt> if the path can not be split
+	 */
+	private static List<String> splitPath(String path) {
+		List<String> stepList = new ArrayList<String>();
+		int depth = 0;
+		char quote = 0;
+		int start = 0;
+		for (int i = 0; i < path.length(); i++) {
+			char c = path.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '\'' || c == '"') {
+				quote = c;
+			} else if (c == '[') {
+				depth++;
+			} else if (c == ']') {
+				depth--;
+			} else if (c == '/' && depth == 0) {
+				stepList.add(path.substring(start, i));
+				start = i + 1;
+			} else if (c == '|' && depth == 0) {
+				return null;
+			}
+		}
+		if (depth != 0 || quote != 0) {
+			return null;
+		}
+		stepList.add(path.substring(start));
+		return stepList;
+	}
+
+	/**
+	 * @param text
+	 *            text starting with a '['
+	 * @return the index of the matching ']' or -1
+	 */
+	private static int closingBracket(String text) {
+		int depth = 0;
+		char quote = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '\'' || c == '"') {
+				quote = c;
+			} else if (c == '[') {
+				depth++;
+			} else if (c == ']') {
+				depth--;
+				if (depth == 0) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	private static String expandedName(String uri, String name) {
+		return "{" + uri + "}" + name;
+	}
+
+	private static void sortInDocumentOrder(List<Object> nodeList) {
+		Collections.sort(nodeList, new Comparator<Object>() {
+			@Override
+			public int compare(Object o1, Object o2) {
+				List<Element> path1 = ancestry((Element) o1);
+				List<Element> path2 = ancestry((Element) o2);
+				int i = 0;
+				while (i < path1.size() && i < path2.size() && path1.get(i) == path2.get(i)) {
+					i++;
+				}
+				if (i == path1.size() || i == path2.size()) {
+					/* one is an ancestor of the other */
+					return path1.size() - path2.size();
+				}
+				Element parentEl = path1.get(i - 1);
+				return parentEl.indexOf(path1.get(i)) - parentEl.indexOf(path2.get(i));
+			}
+		});
+	}
+
+	private static List<Element> ancestry(Element element) {
+		List<Element> path = new ArrayList<Element>();
+		for (Element next = element; next != null; next = next.getParentElement()) {
+			path.add(next);
+		}
+		Collections.reverse(path);
+		return path;
+	}
+}
@@ -36,13 +36,16 @@ import org.apache.poi.ss.usermodel.FillPatternType;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFColor;
 import org.apache.poi.xssf.usermodel.XSSFFont;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import com.movielabs.mddflib.avails.xml.AbstractRowHelper;
+import com.movielabs.mddflib.avails.xml.AvailsRow;
 import com.movielabs.mddflib.avails.xml.AvailsSheet;
 import com.movielabs.mddflib.avails.xml.AvailsSheet.Version;
 import com.movielabs.mddflib.avails.xml.AvailsWrkBook;
@@ -57,34 +60,80 @@ import net.sf.json.JSONObject;
  * Avails (e.g. when converting an XML-formatted Avails to the XLSX format).
  * This is in contrast to the <tt>AvailsWrkBook</tt> class that is used to wrap
  * pre-existing Avails XLSX files.
+ * <p>
+ * By default all rows are retained in memory until the workbook is exported.
+ * Alternatively, a <i>row window</i> may be specified when the
+ * <tt>TemplateWorkBook</tt> is created. The streaming API (i.e., an
+ * <tt>SXSSFWorkbook</tt>) is then used and, for each sheet, only the most
+ * recently added rows are retained in memory with older rows being written to
+ * a temporary file. Memory usage is then independent of the number of rows but
+ * rows may not be accessed once they have been flushed and the workbook may
+ * only be exported once.
+ * </p>
+ * <p>
+ * When exported, the width of each column is adjusted to fit its contents. The
+ * <tt>ColumnSizing</tt> determines whether this is done by measuring the
+ * rendered text of every cell (the default) or by estimating the width based
+ * on the number of characters in the longest value added to the column.
+ * </p>
  * 
  * @author L. Levin, Critical Architectures LLC
  *
  */
 public class TemplateWorkBook {
+	/**
+	 * How column widths are determined when a workbook is exported.
+	 */
+	public static enum ColumnSizing {
+		/**
+		 * Each column is sized to fit the rendered text of its cells (i.e., via
+		 * <tt>Sheet.autoSizeColumn()</tt>). The cost is proportional to the
+		 * number of cells.
+		 */
+		EXACT,
+		/**
+		 * Each column is sized based on the number of characters in the longest
+		 * value added to it. The lengths are tracked as rows are added so there
+		 * is no additional cost when the workbook is exported.
+		 */
+		ESTIMATED
+	}
+
 	/**
 	 * @author L. Levin, Critical Architectures LLC
 	 *
 	 */
 	protected class SheetProperties {
 
-		XSSFSheet sheet;
+		Sheet sheet;
 		List<String> colIdList;
+		/**
+		 * Index of each column keyed by its column ID.
+		 */
+		Map<String, Integer> colIndex;
 		boolean[] isEmptyCol;
+		/**
+		 * Number of characters in the longest line of any value in each column,
+		 * including the header rows.
+		 */
+		int[] maxLength;
 
 		/**
 		 * @param sheet
 		 * @param colIdList
 		 */
-		public SheetProperties(XSSFSheet sheet, List<String> colIdList) {
+		public SheetProperties(Sheet sheet, List<String> colIdList) {
 			this.sheet = sheet;
 			this.colIdList = colIdList;
 			/*
 			 * init data structure used to identify empty columns
 			 */
 			isEmptyCol = new boolean[colIdList.size()];
+			maxLength = new int[colIdList.size()];
+			colIndex = new HashMap<String, Integer>();
 			for (int i = 0; i < colIdList.size(); i++) {
 				isEmptyCol[i] = true;
+				colIndex.put(colIdList.get(i), i);
 			}
 		}
 
@@ -93,11 +142,26 @@ public class TemplateWorkBook {
 	private LogMgmt logger;
 	private int logMsgDefaultTag = LogMgmt.TAG_XLSX;
 	protected static String logMsgSrcId = "TemplateWorkBook";
-	private XSSFWorkbook workbook;
+	/**
+	 * Row window used by the streaming API when the default window size is
+	 * requested.
+	 */
+	public static final int DEFAULT_ROW_WINDOW = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+	/**
+	 * Maximum width of a column, in characters, allowed by Excel.
+	 */
+	private static final int MAX_COLUMN_CHARS = 255;
+	/**
+	 * Characters added to an estimated column width to allow for cell margins.
+	 */
+	private static final int ESTIMATE_PADDING = 2;
+	private Workbook workbook;
+	private int rowWindow;
+	private ColumnSizing columnSizing = ColumnSizing.EXACT;
 	private Map<String, XSSFCellStyle> headerColors = new HashMap<String, XSSFCellStyle>();
 	private XSSFCellStyle defaultStyle;
 	private XSSFCellStyle headerStyleFill;
-	private Map<XSSFSheet, SheetProperties> sheetData = new HashMap<XSSFSheet, SheetProperties>();
+	private Map<Sheet, SheetProperties> sheetData = new HashMap<Sheet, SheetProperties>();
 
 	/**
 	 * Create a clean copy of an Avails workbook. The copy will have the same
@@ -120,7 +184,7 @@ public class TemplateWorkBook {
 			AvailsWrkBook srcWrkBook = new AvailsWrkBook(srcFile, log, true, false);
 			AvailsSheet srcSheet = srcWrkBook.ingestSheet(0);
 
-			TemplateWorkBook clone = new TemplateWorkBook(log);
+			TemplateWorkBook clone = new TemplateWorkBook(log, DEFAULT_ROW_WINDOW);
 			/*
 			 * column headers are derived from the keys used in the XML-to-XLSX
 			 * mappingDefs. The defs are version and category dependent.
@@ -132,10 +196,10 @@ public class TemplateWorkBook {
 			JSONObject mappingDefs = mappingsByVersion.getJSONObject(category);
 			ArrayList<String> colIdList = new ArrayList<String>();
 			colIdList.addAll(mappingDefs.keySet());
-			XSSFSheet clonedSheet = clone.addSheet(category, colIdList);
+			Sheet clonedSheet = clone.addSheet(category, colIdList);
 			// now we can copy the rows.
 
-			rowLoop: for (Row row : srcSheet.getRows()) {
+			rowLoop: for (AvailsRow row : srcSheet.getRows()) {
 				AbstractRowHelper rowHelper = AbstractRowHelper.createHelper(srcSheet, row, log);
 				if (rowHelper != null) {
 					clone.addDataRow(rowHelper, clonedSheet);
@@ -154,28 +218,76 @@ public class TemplateWorkBook {
 	}
 
 	/**
+	 * Create a workbook that retains all rows in memory.
+	 * 
 	 * @param logger
 	 */
 	public TemplateWorkBook(LogMgmt logger) {
+		this(logger, 0);
+	}
+
+	/**
+	 * Create a workbook that will use the streaming API if a positive
+	 * <tt>rowWindow</tt> is specified.
+	 * 
+	 * @param logger
+	 * @param rowWindow
+	 *            the number of rows of each sheet that are retained in memory
+	 *            or zero if all rows are to be retained
+	 */
+	public TemplateWorkBook(LogMgmt logger, int rowWindow) {
 		super();
 		this.logger = logger;
+		this.rowWindow = Math.max(0, rowWindow);
 		initializeWorkbook();
 	}
 
+	/**
+	 * Set how column widths are determined when the workbook is exported. With
+	 * the streaming API, this should be set before any sheets are added as
+	 * <tt>EXACT</tt> sizing requires the widths of rows to be measured as they
+	 * are flushed. The widths of columns in a streaming sheet that was added
+	 * while using <tt>ESTIMATED</tt> sizing are always estimated.
+	 * 
+	 * @param columnSizing
+	 */
+	public void setColumnSizing(ColumnSizing columnSizing) {
+		this.columnSizing = columnSizing;
+	}
+
+	/**
+	 * @return how column widths are determined when the workbook is exported
+	 */
+	public ColumnSizing getColumnSizing() {
+		return columnSizing;
+	}
+
+	/**
+	 * @return <tt>true</tt> if the workbook is using the streaming API
+	 */
+	public boolean isStreaming() {
+		return rowWindow > 0;
+	}
+
 	/**
 	 * Initialize workbook styles to match as closely as possible the 'template'
 	 * spreadsheets.
 	 */
 	private void initializeWorkbook() {
-		workbook = new XSSFWorkbook();
+		/*
+		 * Styles are always created via the XSSFWorkbook. With the streaming API
+		 * it is the template that the SXSSFWorkbook is based on and the styles are
+		 * shared.
+		 */
+		XSSFWorkbook xssfBook = new XSSFWorkbook();
 		/* Initialize any styles used to make output more readable */
-		XSSFFont font = workbook.createFont();
+		XSSFFont font = xssfBook.createFont();
 		font.setBold(true);
 		font.setFontHeightInPoints((short) 8);
 		XSSFColor hdrFontColor = new XSSFColor();
 		hdrFontColor.setARGBHex("FFFFFF");
 		font.setColor(hdrFontColor);
-		XSSFCellStyle headerStyle1 = workbook.createCellStyle();
+		XSSFCellStyle headerStyle1 = xssfBook.createCellStyle();
 		headerStyle1.setFont(font);
 		XSSFColor c1 = new XSSFColor();
 		c1.setARGBHex("3776DB");
@@ -185,7 +297,7 @@ public class TemplateWorkBook {
 		headerColors.put("Avail", headerStyle1);
 		defaultStyle = headerStyle1;
 
-		XSSFCellStyle headerStyle2 = workbook.createCellStyle();
+		XSSFCellStyle headerStyle2 = xssfBook.createCellStyle();
 		headerStyle2.setFont(font);
 		XSSFColor c2 = new XSSFColor();
 		c2.setARGBHex("B54E9B");
@@ -194,7 +306,7 @@ public class TemplateWorkBook {
 		headerStyle2.setAlignment(HorizontalAlignment.CENTER);
 		headerColors.put("AvailAsset", headerStyle2);
 
-		XSSFCellStyle headerStyle3 = workbook.createCellStyle();
+		XSSFCellStyle headerStyle3 = xssfBook.createCellStyle();
 		headerStyle3.setFont(font);
 		XSSFColor c3 = new XSSFColor();
 		c3.setARGBHex("38761d");
@@ -203,7 +315,7 @@ public class TemplateWorkBook {
 		headerStyle3.setAlignment(HorizontalAlignment.CENTER);
 		headerColors.put("AvailMetadata", headerStyle3);
 
-		XSSFCellStyle headerStyle4 = workbook.createCellStyle();
+		XSSFCellStyle headerStyle4 = xssfBook.createCellStyle();
 		headerStyle4.setFont(font);
 		XSSFColor c4 = new XSSFColor();
 		c4.setARGBHex("85200c");
@@ -212,20 +324,35 @@ public class TemplateWorkBook {
 		headerStyle4.setAlignment(HorizontalAlignment.CENTER);
 		headerColors.put("AvailTrans", headerStyle4);
 
-		headerStyleFill = workbook.createCellStyle();
+		headerStyleFill = xssfBook.createCellStyle();
 		headerStyleFill.setFont(font);
 		XSSFColor c5 = new XSSFColor();
 		c5.setARGBHex("0c0c0c");
 		headerStyleFill.setFillForegroundColor(c5);
 		headerStyleFill.setFillPattern(FillPatternType.SOLID_FOREGROUND);
 		headerStyleFill.setAlignment(HorizontalAlignment.CENTER);
+
+		if (isStreaming()) {
+			workbook = new SXSSFWorkbook(xssfBook, rowWindow);
+		} else {
+			workbook = xssfBook;
+		}
 	}
 
-	public XSSFSheet addSheet(String name, List<String> colIdList) {
-		XSSFSheet sheet = workbook.createSheet(name);
+	public Sheet addSheet(String name, List<String> colIdList) {
+		Sheet sheet = workbook.createSheet(name);
+		if ((sheet instanceof SXSSFSheet) && (columnSizing == ColumnSizing.EXACT)) {
+			/* column widths must be tracked before any rows are flushed */
+			((SXSSFSheet) sheet).trackAllColumnsForAutoSizing();
+		}
 		SheetProperties sheetProps = new SheetProperties(sheet, colIdList);
 		sheetData.put(sheet, sheetProps);
 		addHeaderRows(sheet, colIdList);
+		for (int i = 0; i < colIdList.size(); i++) {
+			for (String part : colIdList.get(i).split(":")) {
+				trackLength(sheetProps, i, part);
+			}
+		}
 		return sheet;
 	}
 
@@ -235,49 +362,106 @@ public class TemplateWorkBook {
 	 * 
 	 * @param sheet
 	 */
-	private void addHeaderRows(XSSFSheet sheet, List<String> colIdList) {
-		Row row1 = sheet.createRow(0);
-		Row row2 = sheet.createRow(1);
+	private void addHeaderRows(Sheet sheet, List<String> colIdList) {
+		/*
+		 * Each row is completed before the next is created as, with the streaming
+		 * API, creating a row may flush the preceding rows.
+		 */
+		for (int partIdx = 0; partIdx < 2; partIdx++) {
+			Row row = sheet.createRow(partIdx);
+			for (int i = 0; i < colIdList.size(); i++) {
+				String colTag = colIdList.get(i);
+				String[] part = colTag.split(":");
+				Cell cell = row.createCell(i);
+				cell.setCellValue(part[partIdx]);
+				/* add styling to make it more readable */
+				XSSFCellStyle headerStyle = headerColors.get(part[0]);
+				if (headerStyle == null) {
+					headerStyle = defaultStyle;
+				}
+				cell.setCellStyle(headerStyle);
+			}
+		}
 		// need to add an empty row cause spec sez Avails start on Row 4 :(
 		Row row3 = sheet.createRow(2);
 		for (int i = 0; i < colIdList.size(); i++) {
-			String colTag = colIdList.get(i);
-			String[] part = colTag.split(":");
-			Cell cell1 = row1.createCell(i);
-			cell1.setCellValue(part[0]);
-			Cell cell2 = row2.createCell(i);
-			cell2.setCellValue(part[1]);
-			/* add styling to make it more readable */
-			XSSFCellStyle headerStyle = headerColors.get(part[0]);
-			if (headerStyle == null) {
-				headerStyle = defaultStyle;
-			}
-			cell1.setCellStyle(headerStyle);
-			cell2.setCellStyle(headerStyle);
 			// empty header cell..
 			Cell cell3 = row3.createCell(i);
 			cell3.setCellStyle(headerStyleFill);
 		}
 	}
 
+	/**
+	 * @param sheet
+	 * @return the number of columns in the sheet
+	 */
+	public int getColumnCount(Sheet sheet) {
+		return sheetData.get(sheet).colIdList.size();
+	}
+
+	/**
+	 * @param sheet
+	 * @param colId
+	 *            the ID of a column (e.g. "AvailTrans:Start")
+	 * @return the index of the column or -1 if the sheet has no such column
+	 */
+	public int getColumnIndex(Sheet sheet, String colId) {
+		Integer colIdx = sheetData.get(sheet).colIndex.get(colId);
+		return (colIdx == null) ? -1 : colIdx;
+	}
+
 	/**
 	 * @param cellData
 	 * @param sheet
 	 */
-	public void addDataRow(Map<String, String> cellData, XSSFSheet sheet) {
+	public void addDataRow(Map<String, String> cellData, Sheet sheet) {
 		SheetProperties sProps = sheetData.get(sheet);
-		boolean[] isEmptyCol = sProps.isEmptyCol;
 		List<String> colIdList = sProps.colIdList;
 		int rowCount = sheet.getLastRowNum();
 		Row row = sheet.createRow(rowCount + 1);
 		for (int i = 0; i < colIdList.size(); i++) {
 			String colTag = colIdList.get(i);
-			String cellValue = cellData.get(colTag);
-			if ((cellValue != null) && !cellValue.isEmpty()) {
-				Cell cell = row.createCell(i);
-				cell.setCellValue(cellValue);
-				isEmptyCol[i] = false;
+			addDataCell(sProps, row, i, cellData.get(colTag));
+		}
+	}
+
+	/**
+	 * Add a row whose values are provided as one or more <i>layers</i>. Each
+	 * layer is an array indexed by column number (see
+	 * <tt>getColumnIndex()</tt>) in which a <tt>null</tt> entry indicates the
+	 * layer does not provide a value for that column. When more than one layer
+	 * provides a value for a column, the one in the last such layer is used.
+	 * <p>
+	 * This allows values shared by several rows (e.g., those of an Avail that
+	 * has multiple Assets and Transactions) to be passed by reference rather
+	 * than copied into each row's data.
+	 * </p>
+	 * 
+	 * @param sheet
+	 * @param layers
+	 */
+	public void addDataRow(Sheet sheet, String[]... layers) {
+		SheetProperties sProps = sheetData.get(sheet);
+		int colCnt = sProps.colIdList.size();
+		int rowCount = sheet.getLastRowNum();
+		Row row = sheet.createRow(rowCount + 1);
+		for (int i = 0; i < colCnt; i++) {
+			String cellValue = null;
+			for (int j = layers.length - 1; (j >= 0) && (cellValue == null); j--) {
+				if (i < layers[j].length) {
+					cellValue = layers[j][i];
+				}
 			}
+			addDataCell(sProps, row, i, cellValue);
+		}
+	}
+
+	private void addDataCell(SheetProperties sProps, Row row, int colIdx, String cellValue) {
+		if ((cellValue != null) && !cellValue.isEmpty()) {
+			Cell cell = row.createCell(colIdx);
+			cell.setCellValue(cellValue);
+			sProps.isEmptyCol[colIdx] = false;
+			trackLength(sProps, colIdx, cellValue);
 		}
 	}
 
@@ -287,7 +471,7 @@ public class TemplateWorkBook {
 	 * @param srcRow
 	 * @param destSheet
 	 */
-	public void addDataRow(AbstractRowHelper srcRow, XSSFSheet destSheet) {
+	public void addDataRow(AbstractRowHelper srcRow, Sheet destSheet) {
 		SheetProperties sProps = sheetData.get(destSheet);
 		boolean[] isEmptyCol = sProps.isEmptyCol;
 		List<String> colIdList = sProps.colIdList;
@@ -306,12 +490,40 @@ public class TemplateWorkBook {
 				Cell cell = row.createCell(i);
 				cell.setCellValue(pg.getRawValue());
 				isEmptyCol[i] = false;
+				trackLength(sProps, i, pg.getRawValue());
 			}
 		}
 
 	}
 
 	/**
+	 * Update the length of the longest value in a column. For a value spanning
+	 * multiple lines, only the longest line is considered.
+	 * 
+	 * @param sProps
+	 * @param colIdx
+	 * @param value
+	 */
+	private void trackLength(SheetProperties sProps, int colIdx, String value) {
+		int longest = 0;
+		int lineStart = 0;
+		int length = value.length();
+		for (int i = 0; i <= length; i++) {
+			if ((i == length) || (value.charAt(i) == '\n')) {
+				longest = Math.max(longest, i - lineStart);
+				lineStart = i + 1;
+			}
+		}
+		if (longest > sProps.maxLength[colIdx]) {
+			sProps.maxLength[colIdx] = longest;
+		}
+	}
+
+	/**
+	 * Write the workbook to a file. If the streaming API is being used, the
+	 * temporary files holding the flushed rows are deleted and the workbook may
+	 * not be exported again.
+	 * 
 	 * @param destPath
 	 * @throws IOException
 	 * @throws FileNotFoundException
@@ -326,8 +538,17 @@ public class TemplateWorkBook {
 			if (sheet != null) {
 				SheetProperties sProps = sheetData.get(sheet);
 				int colCount = sProps.colIdList.size();
+				boolean exact = (columnSizing == ColumnSizing.EXACT);
+				if (exact && (sheet instanceof SXSSFSheet)) {
+					exact = ((SXSSFSheet) sheet).isColumnTrackedForAutoSizing(0);
+				}
 				for (int j = 0; j < colCount; j++) {
-					sheet.autoSizeColumn(j);
+					if (exact) {
+						sheet.autoSizeColumn(j);
+					} else {
+						int chars = Math.min(MAX_COLUMN_CHARS, sProps.maxLength[j] + ESTIMATE_PADDING);
+						sheet.setColumnWidth(j, chars * 256);
+					}
 				}
 			}
 		}
@@ -335,6 +556,10 @@ public class TemplateWorkBook {
 			workbook.write(outputStream);
 			logger.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "XLSX saved to " + destPath, null, logMsgSrcId);
 
+		} finally {
+			if (workbook instanceof SXSSFWorkbook) {
+				((SXSSFWorkbook) workbook).dispose();
+			}
 		}
 	}
 
@@ -26,7 +26,17 @@ import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.*;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.poi.ss.usermodel.Sheet;
 import org.jdom2.Attribute;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
@@ -36,6 +46,7 @@ import org.jdom2.xpath.XPathFactory;
 
 import com.movielabs.mddf.MddfContext;
 import com.movielabs.mddflib.avails.xml.AvailsSheet.Version;
+import com.movielabs.mddflib.avails.xml.DeferredLogger;
 import com.movielabs.mddflib.avails.xml.MetadataBuilder;
 import com.movielabs.mddflib.logging.LogMgmt;
 import com.movielabs.mddflib.util.xml.FormatConverter;
@@ -122,8 +133,6 @@ public class XlsxBuilder {
 	private JSONObject mappingVersion;
 	private String availPrefix;
 	private String mdPrefix;
-	private HashMap<String, JSONObject> functionList;
-	private JSONObject mappingDefs;
 
 	static {
 		/*
@@ -155,11 +164,158 @@ public class XlsxBuilder {
 	}
 
 	/**
+	 * The mappings used to generate a specific sheet. All XPaths used to extract
+	 * the sheet's data are compiled, and its header rows are added to the
+	 * workbook, when an instance is created. As XPaths may not be evaluated
+	 * concurrently, those of each sheet are distinct.
+	 * 
+	 * @author L. Levin, Critical Architectures LLC
+	 *
+	 */
+	private class SheetMappings {
+		List<Element> availList;
+		Sheet sheet;
+		int colCnt;
+		HashMap<String, JSONObject> functionList = new HashMap<String, JSONObject>();
+		HashMap<String, XPathExpression<?>> functionPaths = new HashMap<String, XPathExpression<?>>();
+		XPathExpression<Element> usCountryPath;
+		Map<String, List<XPathExpression>> availMappings;
+		Map<String, List<XPathExpression>> assetMappings;
+		Map<String, List<XPathExpression>> metadataMappings;
+		Map<String, List<XPathExpression>> transMappings;
+		ExtractionPlan availPlan;
+		ExtractionPlan assetPlan;
+		ExtractionPlan transPlan;
+
+		/**
+		 * @param category
+		 * @param availList
+		 */
+		@SuppressWarnings("unchecked")
+		SheetMappings(String category, List<Element> availList) {
+			this.availList = availList;
+			// get mappings that will be used for this specific sheet..
+			JSONObject mappingDefs = mappingVersion.getJSONObject(category);
+			ArrayList<String> colIdList = new ArrayList<String>();
+			colIdList.addAll(mappingDefs.keySet());
+			colCnt = colIdList.size();
+
+			sheet = workbook.addSheet(category, colIdList);
+
+			/* Initialize xpaths that implement the data mappings */
+			Map<String, Map<String, List<XPathExpression>>> xpathSets = initializeMappings(this, mappingDefs);
+			availMappings = xpathSets.get("Avail");
+			assetMappings = xpathSets.get("AvailAsset");
+			metadataMappings = xpathSets.get("AvailMetadata");
+			transMappings = xpathSets.get("AvailTrans");
+			String includedPath = "./{avail}Transaction/{avail}Territory/{md}country[. = 'US']";
+			usCountryPath = (XPathExpression<Element>) createXPath(includedPath);
+			/*
+			 * Each entity is visited once with all of the xpaths applicable to it rather
+			 * than evaluating each xpath separately.
+			 */
+			availPlan = createPlan(availMappings);
+			assetPlan = createPlan(assetMappings, metadataMappings);
+			for (XPathExpression<?> xpe : functionPaths.values()) {
+				assetPlan.add(xpe);
+			}
+			transPlan = createPlan(transMappings);
+		}
+	}
+
+	/**
+	 * The data extracted from an Avail and any issues logged while doing so.
+	 * 
+	 * @author L. Levin, Critical Architectures LLC
+	 *
+	 */
+	private static class ExtractedAvail {
+		String[] commonData;
+		List<String[]> perAssetData = new ArrayList<String[]>();
+		List<String[]> perTransData = new ArrayList<String[]>();
+		List<Consumer<LogMgmt>> logEntries;
+		Throwable failure;
+
+		ExtractedAvail(String[] commonData) {
+			this.commonData = commonData;
+		}
+
+		ExtractedAvail(Throwable failure) {
+			this.failure = failure;
+		}
+	}
+
+	/**
+	 * Generate a workbook that retains all rows in memory.
+	 * 
 	 * @param docRootEl
 	 * @param xlsxVersion
 	 * @param logger
 	 */
 	public XlsxBuilder(Element docRootEl, Version xlsxVersion, LogMgmt logger) {
+		this(docRootEl, xlsxVersion, logger, 0);
+	}
+
+	/**
+	 * Generate a workbook that uses the streaming API if a positive
+	 * <tt>rowWindow</tt> is specified. Such a workbook may only be exported
+	 * once.
+	 * 
+	 * @param docRootEl
+	 * @param xlsxVersion
+	 * @param logger
+	 * @param rowWindow
+	 *            the number of rows of each sheet that are retained in memory
+	 *            or zero if all rows are to be retained
+	 * @see TemplateWorkBook#TemplateWorkBook(LogMgmt, int)
+	 */
+	public XlsxBuilder(Element docRootEl, Version xlsxVersion, LogMgmt logger, int rowWindow) {
+		this(docRootEl, xlsxVersion, logger, rowWindow, TemplateWorkBook.ColumnSizing.EXACT);
+	}
+
+	/**
+	 * Generate a workbook that uses the streaming API if a positive
+	 * <tt>rowWindow</tt> is specified and that will size its columns as
+	 * specified when exported.
+	 * 
+	 * @param docRootEl
+	 * @param xlsxVersion
+	 * @param logger
+	 * @param rowWindow
+	 *            the number of rows of each sheet that are retained in memory
+	 *            or zero if all rows are to be retained
+	 * @param columnSizing
+	 * @see TemplateWorkBook#setColumnSizing(TemplateWorkBook.ColumnSizing)
+	 */
+	public XlsxBuilder(Element docRootEl, Version xlsxVersion, LogMgmt logger, int rowWindow,
+			TemplateWorkBook.ColumnSizing columnSizing) {
+		this(docRootEl, xlsxVersion, logger, rowWindow, columnSizing, false);
+	}
+
+	/**
+	 * Generate a workbook that uses the streaming API if a positive
+	 * <tt>rowWindow</tt> is specified, that will size its columns as specified
+	 * when exported, and that, if <tt>parallel</tt> is <tt>true</tt>, extracts
+	 * the data for each sheet (i.e., the movie and TV avails) concurrently.
+	 * <p>
+	 * With concurrent extraction the rows are still added to the workbook, and
+	 * any issues logged, by the invoking thread in the same order as when the
+	 * sheets are generated one after another. The resulting workbook and log
+	 * entries are therefore identical.
+	 * </p>
+	 * 
+	 * @param docRootEl
+	 * @param xlsxVersion
+	 * @param logger
+	 * @param rowWindow
+	 *            the number of rows of each sheet that are retained in memory
+	 *            or zero if all rows are to be retained
+	 * @param columnSizing
+	 * @param parallel
+	 * @see TemplateWorkBook#setColumnSizing(TemplateWorkBook.ColumnSizing)
+	 */
+	public XlsxBuilder(Element docRootEl, Version xlsxVersion, LogMgmt logger, int rowWindow,
+			TemplateWorkBook.ColumnSizing columnSizing, boolean parallel) {
 		this.logger = logger;
 		mappingVersion = mappings.getJSONObject(xlsxVersion.name());
 		rootEl = docRootEl;
@@ -170,25 +326,34 @@ public class XlsxBuilder {
 		availPrefix = availsNSpace.getPrefix() + ":";
 		mdPrefix = mdNSpace.getPrefix() + ":";
 		sortAvails();
-		workbook = new TemplateWorkBook(logger);
-		addMovieAvails();
-		addTvAvails();
+		workbook = new TemplateWorkBook(logger, rowWindow);
+		workbook.setColumnSizing(columnSizing);
+		List<SheetMappings> sheetList = new ArrayList<SheetMappings>();
+		addMovieAvails(sheetList);
+		addTvAvails(sheetList);
+		if (parallel && sheetList.size() > 1) {
+			addAvailsConcurrently(sheetList);
+		} else {
+			for (SheetMappings sheetMappings : sheetList) {
+				addAvails(sheetMappings);
+			}
+		}
 	}
 
 	/**
-	 * 
+	 * @param sheetList
 	 */
-	private void addMovieAvails() {
+	private void addMovieAvails(List<SheetMappings> sheetList) {
 		if (movieAvailsList.isEmpty()) {
 			return;
 		}
-		addAvails("Movies", movieAvailsList);
+		sheetList.add(new SheetMappings("Movies", movieAvailsList));
 	}
 
 	/**
-	 * 
+	 * @param sheetList
 	 */
-	private void addTvAvails() {
+	private void addTvAvails(List<SheetMappings> sheetList) {
 		/*
 		 * XLSX format will only support TV avails of type 'episode' or 'season'.
 		 * Anything else will have been filtered out when the Avails were sorted.
@@ -196,97 +361,214 @@ public class XlsxBuilder {
 		if (tvAvailsList.isEmpty()) {
 			return;
 		}
-		addAvails("TV", tvAvailsList);
+		sheetList.add(new SheetMappings("TV", tvAvailsList));
 	}
 
-	private void addAvails(String category, List<Element> availList) {
-		// get mappings that will be used for this specific sheet..
-		mappingDefs = mappingVersion.getJSONObject(category);
-		ArrayList<String> colIdList = new ArrayList<String>();
-		colIdList.addAll(mappingDefs.keySet());
-
-		XSSFSheet sheet = workbook.addSheet(category, colIdList);
-
-		/* Initialize xpaths that implement the data mappings */
-		Map<String, Map<String, List<XPathExpression>>> xpathSets = initializeMappings(mappingDefs);
+	private void addAvails(SheetMappings sheetMappings) {
+		for (Element availEl : sheetMappings.availList) {
+			appendRows(sheetMappings, extractAvail(sheetMappings, availEl));
+		}
+	}
 
-		for (int i = 0; i < availList.size(); i++) {
-			Element availEl = availList.get(i);
-			/*
-			 * one row is added for each combination of Asset and Transaction included in
-			 * the Avail which means there are usually multiple rows for each Avail. Start
-			 * by getting the info that will be common to each row.
-			 */
-			Map<String, List<XPathExpression>> availMappings = xpathSets.get("Avail");
-			Map<String, String> commonData = extractData(availEl, availMappings, "");
-			Set<String> foo = commonData.keySet();
-			/*
-			 * now identify each Asset that is a child of this Avail and prepare its data.
-			 */
-			List<Element> assetList = availEl.getChildren("Asset", availsNSpace);
-			Map<String, List<XPathExpression>> assetMappings = xpathSets.get("AvailAsset");
-			Map<String, List<XPathExpression>> metadataMappings = xpathSets.get("AvailMetadata");
-			List<Map<String, String>> perAssetData = new ArrayList<Map<String, String>>(assetList.size());
-			for (int j = 0; j < assetList.size(); j++) {
-				Element assetEl = assetList.get(j);
-				/*
-				 * Mappings for Assets are in some cases dependent on the WorkType so 1st step
-				 * is get that value
-				 */
-				String context = assetEl.getChildTextNormalize("WorkType", availsNSpace);
-				Map<String, String> assetData = extractData(assetEl, assetMappings, context);
-				assetData.putAll(commonData);
-				Map<String, String> assetMetadataData = extractData(assetEl, metadataMappings, context);
-				assetData.putAll(assetMetadataData);
-				// now save it
-				perAssetData.add(assetData);
+	/**
+	 * Add the avails of each sheet using a separate thread for each sheet to
+	 * extract the data. Rows are appended to the workbook, and the issues logged
+	 * during their extraction are passed on to the logger, by the invoking thread
+	 * one sheet at a time. Appending to a sheet therefore starts as soon as the
+	 * data for its first avail has been extracted.
+	 * 
+	 * @param sheetList
+	 */
+	private void addAvailsConcurrently(List<SheetMappings> sheetList) {
+		DeferredLogger deferredLog = new DeferredLogger(logger);
+		List<BlockingQueue<ExtractedAvail>> queueList = new ArrayList<BlockingQueue<ExtractedAvail>>();
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for (SheetMappings sheetMappings : sheetList) {
+			BlockingQueue<ExtractedAvail> queue = new LinkedBlockingQueue<ExtractedAvail>();
+			queueList.add(queue);
+			tasks.add(new Callable<Void>() {
+				public Void call() throws InterruptedException {
+					for (Element availEl : sheetMappings.availList) {
+						if (Thread.currentThread().isInterrupted()) {
+							/* another sheet failed */
+							break;
+						}
+						ExtractedAvail extracted;
+						deferredLog.capture();
+						try {
+							extracted = extractAvail(sheetMappings, availEl);
+						} catch (RuntimeException | Error e) {
+							extracted = new ExtractedAvail(e);
+						}
+						/* the log entries are passed on along with the data */
+						extracted.logEntries = deferredLog.release();
+						queue.put(extracted);
+						if (extracted.failure != null) {
+							break;
+						}
+					}
+					return null;
+				}
+			});
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+		LogMgmt seqLogger = logger;
+		logger = deferredLog;
+		try {
+			List<Future<Void>> results = new ArrayList<Future<Void>>();
+			for (Callable<Void> task : tasks) {
+				results.add(executor.submit(task));
+			}
+			for (int i = 0; i < sheetList.size(); i++) {
+				SheetMappings sheetMappings = sheetList.get(i);
+				BlockingQueue<ExtractedAvail> queue = queueList.get(i);
+				for (int j = 0; j < sheetMappings.availList.size(); j++) {
+					ExtractedAvail extracted = queue.take();
+					deferredLog.replay(extracted.logEntries);
+					if (extracted.failure instanceof RuntimeException) {
+						throw (RuntimeException) extracted.failure;
+					} else if (extracted.failure != null) {
+						throw (Error) extracted.failure;
+					}
+					appendRows(sheetMappings, extracted);
+				}
+				results.get(i).get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while generating XLSX", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Failure while generating XLSX", e.getCause());
+		} finally {
+			/* workers must be finished before the logger is restored */
+			executor.shutdownNow();
+			boolean interrupted = false;
+			while (!executor.isTerminated()) {
+				try {
+					executor.awaitTermination(1, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
 			}
+			logger = seqLogger;
+		}
+	}
+
+	/**
+	 * Extract the data for each of an Avail's rows. One row is added for each
+	 * combination of Asset and Transaction included in the Avail which means there
+	 * are usually multiple rows for each Avail.
+	 * 
+	 * @param sheetMappings
+	 * @param availEl
+	 * @return
+	 */
+	private ExtractedAvail extractAvail(SheetMappings sheetMappings, Element availEl) {
+		int colCnt = sheetMappings.colCnt;
+		/*
+		 * Start by getting the info that will be common to each row.
+		 */
+		String[] commonData = new String[colCnt];
+		extractData(sheetMappings.availPlan.visit(availEl), sheetMappings.availMappings, "", sheetMappings,
+				commonData);
+		ExtractedAvail extracted = new ExtractedAvail(commonData);
+		/*
+		 * now identify each Asset that is a child of this Avail and prepare its data.
+		 */
+		List<Element> assetList = availEl.getChildren("Asset", availsNSpace);
+		for (int j = 0; j < assetList.size(); j++) {
+			Element assetEl = assetList.get(j);
 			/*
-			 * now identify each Transaction that is a child of this Avail and prepare its
-			 * data.
+			 * Mappings for Assets are in some cases dependent on the WorkType so 1st step
+			 * is get that value
 			 */
-			List<Element> transList = availEl.getChildren("Transaction", availsNSpace);
-			Map<String, List<XPathExpression>> transMappings = xpathSets.get("AvailTrans");
-			List<Map<String, String>> perTransData = new ArrayList<Map<String, String>>(transList.size());
-			for (int j = 0; j < transList.size(); j++) {
-				Element transEl = transList.get(j);
-				Map<String, String> transData = extractData(transEl, transMappings, "");
-				// now save it
-				perTransData.add(transData);
+			String context = assetEl.getChildTextNormalize("WorkType", availsNSpace);
+			ExtractionPlan.Matches assetMatches = sheetMappings.assetPlan.visit(assetEl);
+			String[] assetData = new String[colCnt];
+			extractData(assetMatches, sheetMappings.assetMappings, context, sheetMappings, assetData);
+			extractData(assetMatches, sheetMappings.metadataMappings, context, sheetMappings, assetData);
+			// now save it
+			extracted.perAssetData.add(assetData);
+		}
+		/*
+		 * now identify each Transaction that is a child of this Avail and prepare its
+		 * data.
+		 */
+		List<Element> transList = availEl.getChildren("Transaction", availsNSpace);
+		for (int j = 0; j < transList.size(); j++) {
+			Element transEl = transList.get(j);
+			String[] transData = new String[colCnt];
+			extractData(sheetMappings.transPlan.visit(transEl), sheetMappings.transMappings, "", sheetMappings,
+					transData);
+			// now save it
+			extracted.perTransData.add(transData);
+		}
+		return extracted;
+	}
+
+	/**
+	 * Add 1 row for each unique combo of Asset and Transaction. The categories map
+	 * to disjoint sets of columns so each row is simply the layering of the
+	 * Transaction, Asset, and Avail values, all of which are shared rather than
+	 * copied.
+	 * 
+	 * @param sheetMappings
+	 * @param extracted
+	 */
+	private void appendRows(SheetMappings sheetMappings, ExtractedAvail extracted) {
+		for (String[] assetData : extracted.perAssetData) {
+			for (String[] transData : extracted.perTransData) {
+				workbook.addDataRow(sheetMappings.sheet, transData, assetData, extracted.commonData);
 			}
+		}
+	}
 
-			/* Now add 1 row for each unique combo of Asset and Transaction */
-			for (int aIdx = 0; aIdx < perAssetData.size(); aIdx++) {
-				Map<String, String> assetData = perAssetData.get(aIdx);
-				for (int tIdx = 0; tIdx < perTransData.size(); tIdx++) {
-					Map<String, String> rowData = perTransData.get(tIdx);
-					rowData.putAll(assetData);
-					workbook.addDataRow(rowData, sheet);
+	/**
+	 * @param mappingSets
+	 * @return an <tt>ExtractionPlan</tt> that evaluates all the xpaths in the
+	 *         <tt>mappingSets</tt>
+	 */
+	@SafeVarargs
+	private final ExtractionPlan createPlan(Map<String, List<XPathExpression>>... mappingSets) {
+		ExtractionPlan plan = new ExtractionPlan(availsNSpace, mdNSpace);
+		for (Map<String, List<XPathExpression>> categoryMappings : mappingSets) {
+			for (List<XPathExpression> xpeList : categoryMappings.values()) {
+				if (xpeList != null) {
+					for (XPathExpression<?> xpe : xpeList) {
+						plan.add(xpe);
+					}
 				}
 			}
 		}
-
+		return plan;
 	}
 
 	/**
-	 * @param baseEl
+	 * @param matches
+	 *            the results of applying an <tt>ExtractionPlan</tt> that includes
+	 *            the <tt>categoryMappings</tt> to the base element
 	 * @param categoryMappings
 	 * @param context
-	 * @return
+	 * @param sheetMappings
+	 * @param rowData
+	 *            values indexed by the number of the sheet's column they belong
+	 *            in
 	 */
-	private Map<String, String> extractData(Element baseEl, Map<String, List<XPathExpression>> categoryMappings,
-			String context) {
-		Map<String, String> dataMap = new HashMap<String, String>();
+	private void extractData(ExtractionPlan.Matches matches, Map<String, List<XPathExpression>> categoryMappings,
+			String context, SheetMappings sheetMappings, String[] rowData) {
 		/* Now continue with everything else */
 		Iterator<String> keyIt = categoryMappings.keySet().iterator();
 		while (keyIt.hasNext()) {
 			String mappingKey = keyIt.next();
 			if (mappingKey.contains(FUNCTION_IDENTIFIER)) {
 				try {
-					String value = processFunction(mappingKey, baseEl, context, categoryMappings);
+					String value = processFunction(mappingKey, matches, context, categoryMappings, sheetMappings);
 					if (value != null) {
 						String colKey = mappingKey.replace(FUNCTION_IDENTIFIER, "");
-						dataMap.put(colKey, value);
+						setValue(sheetMappings.sheet, rowData, colKey, value);
 					}
 				} catch (Exception e) {
 					e.printStackTrace();
@@ -305,31 +587,37 @@ public class XlsxBuilder {
 			}
 			if (xpeList != null) {
 				for (int i = 0; i < xpeList.size(); i++) {
-					XPathExpression xpe = xpeList.get(i);
+					XPathExpression<?> xpe = xpeList.get(i);
 					String value = null;
+					List<?> targetList = matches.get(xpe);
 					if (allowsMultiples.contains(xpe)) {
-						value = extractMultiple(xpe, baseEl);
+						value = extractMultiple(targetList);
 					} else {
-						value = extractSingleton(xpe, baseEl, mappingKey);
+						value = extractSingleton(targetList, mappingKey);
 					}
 					if (value != null) {
-						dataMap.put(mappingKey, value);
+						setValue(sheetMappings.sheet, rowData, mappingKey, value);
 						break;
 					}
 				}
 			}
 		}
-		return dataMap;
+	}
+
+	private void setValue(Sheet sheet, String[] rowData, String colKey, String value) {
+		int colIdx = workbook.getColumnIndex(sheet, colKey);
+		if (colIdx >= 0) {
+			rowData[colIdx] = value;
+		}
 	}
 
 	/**
-	 * @param xpe
-	 * @param baseEl
+	 * @param targetList
+	 *            the nodes matching an XPath
 	 * @return
 	 */
-	private String extractMultiple(XPathExpression xpe, Element baseEl) {
+	private String extractMultiple(List<?> targetList) {
 		String value = null;
-		List targetList = xpe.evaluate(baseEl);
 		int matchCnt = 0;
 		if (targetList != null && (!targetList.isEmpty())) {
 			for (int i = 0; i < targetList.size(); i++) {
@@ -360,13 +648,13 @@ public class XlsxBuilder {
 	/**
 	 * Return a data value when only one Element matching an XPath may be used.
 	 * 
-	 * @param xpe
-	 * @param baseEl
+	 * @param targetList
+	 *            the nodes matching an XPath
+	 * @param mappingKey
 	 */
-	private String extractSingleton(XPathExpression xpe, Element baseEl, String mappingKey) {
+	private String extractSingleton(List<?> targetList, String mappingKey) {
 		String value = null;
 		Object target = null;
-		List targetList = xpe.evaluate(baseEl);
 		int matchCnt = 0;
 		if (targetList != null && (!targetList.isEmpty())) {
 			for (int i = 0; i < targetList.size(); i++) {
@@ -404,21 +692,22 @@ public class XlsxBuilder {
 
 	/**
 	 * @param mappingKey
-	 * @param baseEl
+	 * @param matches
 	 * @param context
 	 * @param categoryMappings
+	 * @param sheetMappings
 	 * @return
 	 */
-	private String processFunction(String mappingKey, Element baseEl, String context,
-			Map<String, List<XPathExpression>> categoryMappings) {
+	private String processFunction(String mappingKey, ExtractionPlan.Matches matches, String context,
+			Map<String, List<XPathExpression>> categoryMappings, SheetMappings sheetMappings) {
 		String fKey = mappingKey.replaceAll(FUNCTION_IDENTIFIER, "");
-		JSONObject functionDef = functionList.get(fKey);
+		JSONObject functionDef = sheetMappings.functionList.get(fKey);
 		String funcName = functionDef.getString("name");
 		switch (funcName) {
 		case "caption":
-			return func_captions(functionDef, context, baseEl, categoryMappings);
+			return func_captions(functionDef, context, matches, categoryMappings, sheetMappings);
 		case "eidr":
-			return func_eidr(functionDef, context, baseEl);
+			return func_eidr(fKey, context, matches, sheetMappings);
 		default:
 			throw new UnsupportedOperationException("Invalid JSON: unsupported function '" + funcName + "'");
 		}
@@ -428,16 +717,17 @@ public class XlsxBuilder {
 	 * Convert all EIDR values to "eidr-5240" format. This is the default format
 	 * used for an XLSX formatted Avails.
 	 * 
-	 * @param functionDef
+	 * @param fKey
+	 *            the key of the column whose value is being determined
 	 * @param context
-	 * @param baseEl
+	 * @param matches
+	 * @param sheetMappings
 	 * @return
 	 */
-	private String func_eidr(JSONObject functionDef, String context, Element baseEl) {
-		JSONObject functionArgs = functionDef.getJSONObject("args");
-		String xpath = functionArgs.getString("xpath");
-		XPathExpression<Element> srcElPath = (XPathExpression<Element>) createXPath(xpath);
-		Element targetEl = srcElPath.evaluateFirst(baseEl);
+	private String func_eidr(String fKey, String context, ExtractionPlan.Matches matches,
+			SheetMappings sheetMappings) {
+		XPathExpression<Element> srcElPath = (XPathExpression<Element>) sheetMappings.functionPaths.get(fKey);
+		Element targetEl = matches.getFirst(srcElPath);
 		if (targetEl == null) {
 			return null;
 		}
@@ -473,7 +763,7 @@ public class XlsxBuilder {
 	 * 
 	 * Note that this is therefore a 'no argument' function in so far as the
 	 * functionDef goes. All that is required is the <tt>context</tt> and
-	 * <tt>baseEl</tt> parameters.
+	 * <tt>matches</tt> parameters.
 	 * </p>
 	 * <p>
 	 * Since scope is limited to Avails applicable to US, that is a key issue. The
@@ -486,12 +776,13 @@ public class XlsxBuilder {
 	 * 
 	 * @param functionDef
 	 * @param context
-	 * @param baseEl
+	 * @param matches
 	 * @param categoryMappings
+	 * @param sheetMappings
 	 * @return
 	 */
-	private String func_captions(JSONObject functionDef, String context, Element baseEl,
-			Map<String, List<XPathExpression>> categoryMappings) {
+	private String func_captions(JSONObject functionDef, String context, ExtractionPlan.Matches matches,
+			Map<String, List<XPathExpression>> categoryMappings, SheetMappings sheetMappings) {
 		// Q1: is <avails:CaptionExemption> set?
 		XPathExpression<Element> cePath = null;
 		if((context != null)&& (!context.isEmpty())) {
@@ -503,7 +794,7 @@ public class XlsxBuilder {
 		if (cePath == null) {
 			cePath = categoryMappings.get("AvailMetadata:CaptionExemption").get(0);
 		}   
-		Element targetEl = cePath.evaluateFirst(baseEl);
+		Element targetEl = matches.getFirst(cePath);
 		boolean exemptionProvided;
 		if (targetEl == null) {
 			exemptionProvided = false;
@@ -519,11 +810,8 @@ public class XlsxBuilder {
 			return "No";
 		}
 		// Need to know if US is in-scope.
-		Element parentAssetEl = baseEl.getParentElement();
-		String includedPath = "./{avail}Transaction/{avail}Territory/{md}country[. = 'US']";
-		@SuppressWarnings("unchecked")
-		XPathExpression<Element> inPath = (XPathExpression<Element>) createXPath(includedPath);
-		List<Element> inList = inPath.evaluate(parentAssetEl);
+		Element parentAssetEl = matches.getBase().getParentElement();
+		List<Element> inList = sheetMappings.usCountryPath.evaluate(parentAssetEl);
 		boolean inScope = !inList.isEmpty();
 		if (inScope) {
 			if (!exemptionProvided) {
@@ -636,17 +924,19 @@ public class XlsxBuilder {
 	 * Group, filter, and re-format the XML-to-XSLX mappings to facilitate later
 	 * usage.
 	 * 
+	 * @param sheetMappings
+	 *            to which the definitions of any functions are added
 	 * @param mappingDefs
 	 * @return
 	 */
-	private Map<String, Map<String, List<XPathExpression>>> initializeMappings(JSONObject mappingDefs) {
-		functionList = new HashMap<String, JSONObject>();
+	private Map<String, Map<String, List<XPathExpression>>> initializeMappings(SheetMappings sheetMappings,
+			JSONObject mappingDefs) {
 		Map<String, Map<String, List<XPathExpression>>> organizedMappings = new HashMap<String, Map<String, List<XPathExpression>>>();
 		List<String> colIdList = new ArrayList<String>();
 		colIdList.addAll(mappingDefs.keySet());
 		// .....................................
 		/* AVAIL-related mappings.... */
-		Map<String, List<XPathExpression>> availMappings = initCategoryMappings(mappingDefs, "Avail");
+		Map<String, List<XPathExpression>> availMappings = initCategoryMappings(sheetMappings, mappingDefs, "Avail");
 		/*
 		 * Special Case #1: an Avail-related column that doesn't start with 'Avail:'
 		 */
@@ -664,13 +954,13 @@ public class XlsxBuilder {
 
 		organizedMappings.put("Avail", availMappings);
 		// ..........................................
-		Map<String, List<XPathExpression>> assetMappings = initCategoryMappings(mappingDefs, "AvailAsset");
+		Map<String, List<XPathExpression>> assetMappings = initCategoryMappings(sheetMappings, mappingDefs, "AvailAsset");
 		organizedMappings.put("AvailAsset", assetMappings);
 		// .....................................
-		Map<String, List<XPathExpression>> metadataMappings = initCategoryMappings(mappingDefs, "AvailMetadata");
+		Map<String, List<XPathExpression>> metadataMappings = initCategoryMappings(sheetMappings, mappingDefs, "AvailMetadata");
 		organizedMappings.put("AvailMetadata", metadataMappings);
 		// .....................................
-		Map<String, List<XPathExpression>> transMappings = initCategoryMappings(mappingDefs, "AvailTrans");
+		Map<String, List<XPathExpression>> transMappings = initCategoryMappings(sheetMappings, mappingDefs, "AvailTrans");
 		/* Part 2 of Special Case #2.. */
 		transMappings.put("Avail:AvailID", availIdXpe);
 		transMappings.put("Avail:ReportingID", reportIdXpe);
@@ -678,7 +968,8 @@ public class XlsxBuilder {
 		return organizedMappings;
 	}
 
-	private Map<String, List<XPathExpression>> initCategoryMappings(JSONObject mappingDefs, String category) {
+	private Map<String, List<XPathExpression>> initCategoryMappings(SheetMappings sheetMappings,
+			JSONObject mappingDefs, String category) {
 		List<String> colIdList = new ArrayList<String>();
 		colIdList.addAll(mappingDefs.keySet());
 		Map<String, List<XPathExpression>> mappingLists = new HashMap<String, List<XPathExpression>>();
@@ -706,7 +997,11 @@ public class XlsxBuilder {
 						if (nextType.equals(FUNCTION_IDENTIFIER)) {
 							mappingLists.put(colKey + FUNCTION_IDENTIFIER, null);
 							JSONObject functionDef = innerMapping.getJSONObject(nextType);
-							functionList.put(colKey, functionDef);
+							sheetMappings.functionList.put(colKey, functionDef);
+							JSONObject functionArgs = functionDef.optJSONObject("args");
+							if (functionArgs != null && functionArgs.has("xpath")) {
+								sheetMappings.functionPaths.put(colKey, createXPath(functionArgs.getString("xpath")));
+							}
 						} else {
 							mapping = innerMapping.optString(nextType, "n.a");
 							if (!mapping.equals("n.a")) {
@@ -22,13 +22,13 @@
  */
 package com.movielabs.mddflib.avails.xml;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.DataFormatter;
-import org.apache.poi.ss.usermodel.Row;
+import java.util.Arrays;
+
 import org.jdom2.Element;
 import org.jdom2.Namespace;
 
 import com.movielabs.mddflib.avails.xml.AvailsSheet.Version;
+import com.movielabs.mddflib.logging.CellLocation;
 import com.movielabs.mddflib.logging.LogMgmt;
 
 /**
@@ -42,15 +42,20 @@ import com.movielabs.mddflib.logging.LogMgmt;
 public abstract class AbstractRowHelper {
 
 	static final String MISSING = "--FUBAR (missing)";
-	protected Row row;
+	protected AvailsRow row;
 	protected XmlBuilder xb;
 	protected AvailsSheet sheet;
 	protected String workType = "";
-	protected DataFormatter dataF = new DataFormatter();
 	protected Pedigree workTypePedigree;
 	protected LogMgmt logger;
+	/**
+	 * Formatted values of this row's cells, indexed by column number. A
+	 * <tt>null</tt> entry indicates the cell has not yet been accessed.
+	 */
+	private Pedigree[] pedigreeCache;
+	private boolean[] formulaFlags;
 
-	public static AbstractRowHelper createHelper(AvailsSheet aSheet, Row row, LogMgmt logger) {
+	public static AbstractRowHelper createHelper(AvailsSheet aSheet, AvailsRow row, LogMgmt logger) {
 		Version ver = aSheet.getVersion();
 		switch (ver) {
 		case V1_7_3:
@@ -63,11 +68,27 @@ public abstract class AbstractRowHelper {
 		}
 	}
 
+	/**
+	 * @param ver
+	 * @return <tt>true</tt> if rows of a sheet using the specified template
+	 *         version can be converted
+	 */
+	static boolean isSupported(Version ver) {
+		switch (ver) {
+		case V1_7_3:
+		case V1_7_2:
+		case V1_7:
+			return true;
+		default:
+			return false;
+		}
+	}
+
 	/**
 	 * @param logger
 	 * @param fields
 	 */
-	AbstractRowHelper(AvailsSheet sheet, Row row, LogMgmt logger) {
+	AbstractRowHelper(AvailsSheet sheet, AvailsRow row, LogMgmt logger) {
 		super();
 		this.logger = logger;
 		this.sheet = sheet;
@@ -185,22 +206,44 @@ public abstract class AbstractRowHelper {
 	abstract protected String getData(String colKey);
 
 	/**
+	 * Returns the formatted value of the cell in the specified column along with
+	 * its location. A cell is only formatted the first time it is accessed; the
+	 * <tt>Pedigree</tt> is retained and returned by any subsequent request for
+	 * the same column. The <tt>Pedigree</tt>'s source is a
+	 * <tt>CellLocation</tt> (or <tt>null</tt> if the cell does not exist) rather
+	 * than the cell itself.
+	 * 
 	 * @param colKey
-	 * @return
+	 * @return the <tt>Pedigree</tt> or <tt>null</tt> if the column is not
+	 *         defined
 	 */
 	public Pedigree getPedigreedData(String colKey) {
-		int cellIdx = sheet.getColumnIdx(colKey);
-		if (cellIdx < 0) {
+		AvailsSheet.Column column = sheet.getColumn(colKey);
+		if (!column.isDefined()) {
 			return null;
 		}
-		Cell sourceCell = row.getCell(cellIdx);
-		String value = dataF.formatCellValue(sourceCell);
-		if (value == null) {
-			value = "";
+		int colIdx = column.getIndex();
+		if (pedigreeCache == null || colIdx >= pedigreeCache.length) {
+			int size = Math.max(colIdx + 1, row.getLastCellNum());
+			pedigreeCache = (pedigreeCache == null) ? new Pedigree[size] : Arrays.copyOf(pedigreeCache, size);
+			formulaFlags = (formulaFlags == null) ? new boolean[size] : Arrays.copyOf(formulaFlags, size);
+		}
+		Pedigree ped = pedigreeCache[colIdx];
+		if (ped == null) {
+			AvailsCell sourceCell = column.getCell(row);
+			String value = "";
+			CellLocation location = null;
+			if (sourceCell != null) {
+				value = sourceCell.getFormattedValue();
+				location = sourceCell.getLocation();
+			}
+			ped = new Pedigree(location, value);
+			pedigreeCache[colIdx] = ped;
+			formulaFlags[colIdx] = usesFormula(sourceCell);
+		} else if (formulaFlags[colIdx]) {
+			/* report each use of a formula, not just the 1st */
+			logFormula(ped.getSource());
 		}
-		usesFormula(sourceCell);
-		Pedigree ped = new Pedigree(sourceCell, value);
-
 		return ped;
 	}
 
@@ -212,17 +255,21 @@ public abstract class AbstractRowHelper {
 	 * @param sourceCell
 	 * @return
 	 */
-	protected boolean usesFormula(Cell sourceCell) {
-		if (sourceCell != null && (sourceCell.getCellType() == Cell.CELL_TYPE_FORMULA)) {
-			String errMsg = "Use of Excel Formulas not supported";
-			String details = "Use of formulas may prevent the use of automated workflows for ingesting and processing the Avails.";
-			logger.logIssue(LogMgmt.TAG_XLSX, LogMgmt.LEV_ERR, sourceCell, errMsg, details, null, XmlBuilder.moduleId);
+	protected boolean usesFormula(AvailsCell sourceCell) {
+		if (sourceCell != null && sourceCell.isFormula()) {
+			logFormula(sourceCell.getLocation());
 			return true;
 		} else {
 			return false;
 		}
 	}
 
+	private void logFormula(Object target) {
+		String errMsg = "Use of Excel Formulas not supported";
+		String details = "Use of formulas may prevent the use of automated workflows for ingesting and processing the Avails.";
+		logger.logIssue(LogMgmt.TAG_XLSX, LogMgmt.LEV_ERR, target, errMsg, details, null, XmlBuilder.moduleId);
+	}
+
 	/**
 	 * Returns <tt>true</tt> if the valueSrc is both non-null and not empty. The
 	 * value source must be an instance of either the <tt>String</tt> or
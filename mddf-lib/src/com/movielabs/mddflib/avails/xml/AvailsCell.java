@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.avails.xml;
+
+import com.movielabs.mddflib.logging.CellLocation;
+
+/**
+ * A read-only cell of an <tt>AvailsRow</tt>.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public interface AvailsCell {
+
+	/**
+	 * Returns the value of the cell formatted as it would be by a POI
+	 * <tt>DataFormatter</tt> without a formula evaluator. The value of a cell
+	 * containing a formula is therefore the formula.
+	 * 
+	 * @return the formatted value (never <tt>null</tt>)
+	 */
+	String getFormattedValue();
+
+	/**
+	 * @return <tt>true</tt> if the cell's value is defined by a formula
+	 */
+	boolean isFormula();
+
+	/**
+	 * @return the location of the cell. This may be used as the
+	 *         <tt>target</tt> of a logged issue.
+	 */
+	CellLocation getLocation();
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.avails.xml;
+
+/**
+ * A read-only row of a sheet containing Avails. Only the information required
+ * to ingest and convert the Avails is provided. Rows are obtained either from
+ * a POI <tt>Sheet</tt> or directly from the XML of an XLSX or a delimited text
+ * file without loading a workbook.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public interface AvailsRow {
+
+	/**
+	 * @return the zero-based row number
+	 */
+	int getRowNum();
+
+	/**
+	 * @return one more than the (zero-based) number of the last column with a
+	 *         cell or -1 if the row has no cells. This is the same value that
+	 *         would be returned by the POI <tt>Row.getLastCellNum()</tt>
+	 */
+	int getLastCellNum();
+
+	/**
+	 * @param colIdx
+	 *            zero-based column number
+	 * @return the cell or <tt>null</tt> if the row has no cell in the column
+	 */
+	AvailsCell getCell(int colIdx);
+
+	/**
+	 * Returns the formatted value of the cell in the specified column or an
+	 * empty string if there is no such cell.
+	 * 
+	 * @param colIdx
+	 *            zero-based column number
+	 * @return the formatted value (never <tt>null</tt>)
+	 */
+	default String getFormattedValue(int colIdx) {
+		AvailsCell cell = getCell(colIdx);
+		return (cell == null) ? "" : cell.getFormattedValue();
+	}
+}
@@ -25,12 +25,18 @@
 
 package com.movielabs.mddflib.avails.xml;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 
+import com.movielabs.mddflib.logging.CellLocation;
 import com.movielabs.mddflib.logging.LogMgmt;
 
 /**
@@ -44,13 +50,143 @@ public class AvailsSheet {
 		V1_7_3, V1_7_2, V1_7, V1_6, UNK
 	};
 
-	private ArrayList<Row> rows;
+	/**
+	 * Pre-resolved accessor for a single column of an <tt>AvailsSheet</tt>.
+	 * Obtaining a cell via a <tt>Column</tt> requires no parsing or look-up of
+	 * the column's key.
+	 * 
+	 * @author L. Levin, Critical Architectures LLC
+	 *
+	 */
+	public static final class Column {
+		private final String key;
+		private final int index;
+
+		private Column(String key, int index) {
+			this.key = key;
+			this.index = index;
+		}
+
+		/**
+		 * @return the composite key (e.g., "AvailTrans/Territory")
+		 */
+		public String getKey() {
+			return key;
+		}
+
+		/**
+		 * @return the (zero-based) column number or -1 if the key does not match a
+		 *         known column header.
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * @return <tt>true</tt> if the key matches a known column header
+		 */
+		public boolean isDefined() {
+			return index >= 0;
+		}
+
+		/**
+		 * Returns this column's cell in the specified row.
+		 * 
+		 * @param row
+		 * @return indicated cell or <tt>null</tt> if the location is empty or
+		 *         non-existent
+		 */
+		public AvailsCell getCell(AvailsRow row) {
+			if (index < 0 || row == null) {
+				return null;
+			}
+			return row.getCell(index);
+		}
+	}
+
+	/**
+	 * Supplies the rows of a sheet, in sequence, to a handler.
+	 */
+	@FunctionalInterface
+	interface RowSource {
+		void readRows(Consumer<? super AvailsRow> rowHandler) throws IOException;
+	}
+
+	/**
+	 * <tt>AvailsRow</tt> backed by a row of a POI <tt>Sheet</tt>.
+	 */
+	private static final class WorkbookRow implements AvailsRow {
+		private final Row row;
+		private final String sheetName;
+
+		WorkbookRow(Row row, String sheetName) {
+			this.row = row;
+			this.sheetName = sheetName;
+		}
+
+		@Override
+		public int getRowNum() {
+			return row.getRowNum();
+		}
+
+		@Override
+		public int getLastCellNum() {
+			return row.getLastCellNum();
+		}
+
+		@Override
+		public AvailsCell getCell(int colIdx) {
+			Cell cell = row.getCell(colIdx);
+			return (cell == null) ? null : new WorkbookCell(cell, sheetName);
+		}
+	}
+
+	/**
+	 * <tt>AvailsCell</tt> backed by a POI <tt>Cell</tt>.
+	 */
+	private static final class WorkbookCell implements AvailsCell {
+		/** <tt>DataFormatter</tt> is not thread-safe. */
+		private static final ThreadLocal<DataFormatter> FORMATTER = ThreadLocal.withInitial(DataFormatter::new);
+		private final Cell cell;
+		private final String sheetName;
+
+		WorkbookCell(Cell cell, String sheetName) {
+			this.cell = cell;
+			this.sheetName = sheetName;
+		}
+
+		@Override
+		public String getFormattedValue() {
+			return FORMATTER.get().formatCellValue(cell);
+		}
+
+		@Override
+		public boolean isFormula() {
+			return cell.getCellTypeEnum() == CellType.FORMULA;
+		}
+
+		@Override
+		public CellLocation getLocation() {
+			return new CellLocation(sheetName, cell.getRowIndex(), cell.getColumnIndex());
+		}
+	}
+
+	private ArrayList<AvailsRow> rows;
 	private AvailsWrkBook parent;
 	private String name;
 	private ArrayList<String> headerList;
 	private HashMap<String, Integer> headerMap;
+	private ConcurrentHashMap<String, Column> columnMap = new ConcurrentHashMap<String, Column>();
 	private LogMgmt logger;
-	private Sheet excelSheet;
+	private Map<Integer, AvailsRow> rowsByNum;
+	/**
+	 * The 1st three rows of the sheet. These are only retained until the sheet
+	 * has been ingested.
+	 */
+	private AvailsRow[] headerRows = new AvailsRow[3];
+	private boolean headersDone = false;
+	private boolean accepting = true;
+	private int nextRowNum = 3;
 	private Version version = Version.UNK;
 	private boolean noPrefix = true;
 	private boolean isForTV;
@@ -68,43 +204,108 @@ public class AvailsSheet {
 	 * @param excelSheet   the name of the spreadsheet
 	 */
 	public AvailsSheet(AvailsWrkBook parent, Sheet excelSheet) {
+		this(parent, excelSheet.getSheetName());
+		for (Row nextRow : excelSheet) {
+			ingestRow(new WorkbookRow(nextRow, name));
+		}
+		endIngest();
+	}
+
+	/**
+	 * Create an object representing a single sheet of an Avails spreadsheet
+	 * whose rows are obtained without loading a workbook (e.g., via the
+	 * streaming API). Each row is ingested as it is supplied by the
+	 * <tt>source</tt> and only the rows containing Avails are retained.
+	 * 
+	 * @param parent the parent Spreadsheet object
+	 * @param name   the name of the sheet
+	 * @param source supplies the sheet's rows in sequence
+	 * @throws IOException
+	 * @see AvailsSheet#AvailsSheet(AvailsWrkBook, Sheet)
+	 */
+	AvailsSheet(AvailsWrkBook parent, String name, RowSource source) throws IOException {
+		this(parent, name);
+		source.readRows(this::ingestRow);
+		endIngest();
+	}
+
+	private AvailsSheet(AvailsWrkBook parent, String name) {
 		this.parent = parent;
-		this.excelSheet = excelSheet;
+		this.name = name;
 		logger = parent.getLogger();
-		this.name = excelSheet.getSheetName();
-		rows = new ArrayList<Row>();
-		ingest(excelSheet);
+		rows = new ArrayList<AvailsRow>();
+		rowsByNum = new HashMap<Integer, AvailsRow>();
 	}
 
 	/**
-	 * Convert a POI sheet from an Excel spreadsheet to an Avails spreadsheet
-	 * object.
+	 * Ingest the next row of the sheet. Rows MUST be supplied in sequence. The
+	 * column headers are processed once the 1st data row (or the end of the
+	 * sheet) is reached. Data rows are then retained if they contain an Avail.
+	 * As with a POI <tt>Sheet</tt>, the first missing row ends the data rows.
 	 * 
-	 * @param excelSheet an Apache POI sheet object
-	 * @return created sheet object
+	 * @param nextRow
 	 */
-	private void ingest(Sheet excelSheet) {
-		DataFormatter dataF = new DataFormatter();
+	private void ingestRow(AvailsRow nextRow) {
+		int rowNum = nextRow.getRowNum();
+		if (rowNum < headerRows.length) {
+			headerRows[rowNum] = nextRow;
+			return;
+		}
+		if (!headersDone) {
+			accepting = ingestHeaders();
+			headersDone = true;
+		}
+		if (!accepting) {
+			return;
+		}
+		if (rowNum != nextRowNum) {
+			accepting = false;
+			return;
+		}
+		nextRowNum++;
+		if (isAvail(nextRow)) {
+			rows.add(nextRow);
+			rowsByNum.put(rowNum, nextRow);
+		}
+	}
+
+	private void endIngest() {
+		if (!headersDone) {
+			ingestHeaders();
+			headersDone = true;
+		}
+		headerRows = null;
+	}
+
+	/**
+	 * Process the header rows of an Avails spreadsheet.
+	 * 
+	 * @return <tt>true</tt> if the data rows should be ingested
+	 */
+	private boolean ingestHeaders() {
 		/*
 		 * The spread sheet MUST be formatted with two rows of column headers.
 		 */
-		Row headerRow1 = excelSheet.getRow(0);
-		Row headerRow2 = excelSheet.getRow(1);
-		if (headerRow2.getPhysicalNumberOfCells() < 1) {
-			return;
+		AvailsRow headerRow1 = headerRows[0];
+		AvailsRow headerRow2 = headerRows[1];
+		if ((headerRow2 == null) || (headerRow2.getLastCellNum() < 1)) {
+			return false;
 		}
 		// ................
 		headerList = new ArrayList<String>();
 		headerMap = new HashMap<String, Integer>();
-		for (Cell headerCell : headerRow2) {
-			int idx = headerCell.getColumnIndex();
-			String value = dataF.formatCellValue(headerCell);
+		for (int idx = 0; idx < headerRow2.getLastCellNum(); idx++) {
+			AvailsCell headerCell = headerRow2.getCell(idx);
+			if (headerCell == null) {
+				continue;
+			}
+			String value = headerCell.getFormattedValue();
 			if ((value != null) && !value.isEmpty()) {
 				String prefix;
 				if (noPrefix) {
 					prefix = "";
 				} else {
-					prefix = dataF.formatCellValue(headerRow1.getCell(idx)) + "/";
+					prefix = headerRow1.getFormattedValue(idx) + "/";
 				}
 				String key = prefix + value;
 				key = key.trim(); // make sure no whitespace in headers
@@ -112,6 +313,7 @@ public class AvailsSheet {
 				headerMap.put(key, new Integer(idx));
 			}
 		}
+		resolveColumns(headerRow1, headerRow2);
 		logger.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_XLSX, "Found " + headerList.size() + " defined columns",
 				parent.getFile(), logMsgSrcId);
 
@@ -129,29 +331,22 @@ public class AvailsSheet {
 		default:
 			logger.log(LogMgmt.LEV_FATAL, LogMgmt.TAG_XLSX, "Unrecognized sheet name: Must be 'TV' or 'Movies'",
 					parent.getFile(), logMsgSrcId);
-			return;
+			return false;
 		}
 
 		// VERSION check and support..
 		identifyVersion();
 		// ...............................................
 		/*
-		 * Skip over the header rows and process all data rows...
+		 * Skip over the header rows. The data rows are then processed as they are
+		 * ingested.
 		 */
 
-		if (isAvail(excelSheet.getRow(2))) {
+		if ((headerRows[2] != null) && isAvail(headerRows[2])) {
 			logger.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XLSX, "Third row should not contain an Avail (reserved for header)",
 					parent.getFile(), logMsgSrcId);
 		}
-		for (int idxR = 3; idxR <= excelSheet.getLastRowNum(); idxR++) {
-			Row nextRow = excelSheet.getRow(idxR);
-			if (nextRow == null) {
-				break;
-			}
-			if (isAvail(nextRow)) {
-				rows.add(nextRow);
-			}
-		}
+		return true;
 	}
 
 	private void identifyVersion() {
@@ -198,14 +393,12 @@ public class AvailsSheet {
 	 * @return true iff the row is an avail based on the contents of the Territory
 	 *         column
 	 */
-	private boolean isAvail(Row nextRow) {
+	private boolean isAvail(AvailsRow nextRow) {
 		/*
 		 * Use 1st cell to determine if this is an Avails row. Other possibilities are
 		 * and empty row or a comment row, both of which should be skipped.
 		 */
-		Cell firstCell = nextRow.getCell(0);
-		DataFormatter dataF = new DataFormatter();
-		String firstText = dataF.formatCellValue(firstCell);
+		String firstText = nextRow.getFormattedValue(0);
 		if (firstText == null || (firstText.isEmpty()) || (firstText.startsWith("//"))) {
 			return false;
 		} else {
@@ -222,7 +415,7 @@ public class AvailsSheet {
 	 * 
 	 * @return an array containing all the SheetRow objects in this sheet
 	 */
-	public ArrayList<Row> getRows() {
+	public ArrayList<AvailsRow> getRows() {
 		return rows;
 	}
 
@@ -241,6 +434,35 @@ public class AvailsSheet {
 	 * @return column number or -1 if key does not match a know column header.
 	 */
 	public int getColumnIdx(String key) {
+		return getColumn(key).getIndex();
+	}
+
+	/**
+	 * Returns the <tt>Column</tt> accessor that matches the key. The key is a
+	 * composite of the two header columns (e.g., "AvailTrans/Territory"). Keys
+	 * for all columns defined by the header rows are resolved when the sheet is
+	 * ingested. Any other key is resolved the first time it is used and the
+	 * result (which may be an undefined column) is retained.
+	 * 
+	 * @param key
+	 * @return accessor for the column (never <tt>null</tt>)
+	 */
+	public Column getColumn(String key) {
+		Column column = columnMap.get(key);
+		if (column == null) {
+			column = new Column(key, lookupColumnIdx(key));
+			Column prior = columnMap.putIfAbsent(key, column);
+			if (prior != null) {
+				column = prior;
+			}
+		}
+		return column;
+	}
+
+	private int lookupColumnIdx(String key) {
+		if (headerMap == null) {
+			return -1;
+		}
 		if (noPrefix) {
 			String[] parts = key.split("/");
 			key = parts[1];
@@ -253,37 +475,71 @@ public class AvailsSheet {
 	}
 
 	/**
-	 * Returns the <tt>Cell</tt> found at the location indicated by a row number and
-	 * column identifier.
+	 * Build the <tt>Column</tt> accessors for every column defined by the header
+	 * rows. Each accessor is registered using the composite key (e.g.,
+	 * "AvailTrans/Territory") that the row helpers use to access the column. The
+	 * 1st header row may have its category only in the first of a group of
+	 * (merged) cells so a blank cell inherits the category of its predecessor.
+	 * 
+	 * @param headerRow1
+	 * @param headerRow2
+	 */
+	private void resolveColumns(AvailsRow headerRow1, AvailsRow headerRow2) {
+		String category = "";
+		for (int idx = 0; idx < headerRow2.getLastCellNum(); idx++) {
+			if (headerRow2.getCell(idx) == null) {
+				continue;
+			}
+			String value = headerRow2.getFormattedValue(idx).trim();
+			if (value.isEmpty()) {
+				continue;
+			}
+			String group = (headerRow1 == null) ? "" : headerRow1.getFormattedValue(idx).trim();
+			if (!group.isEmpty()) {
+				category = group;
+			}
+			if (category.isEmpty()) {
+				continue;
+			}
+			String key = category + "/" + value;
+			/*
+			 * Duplicated column names resolve to the same column as a look-up using the
+			 * headerMap would.
+			 */
+			columnMap.put(key, new Column(key, lookupColumnIdx(key)));
+		}
+	}
+
+	/**
+	 * Returns the cell found at the location indicated by a row number and column
+	 * identifier. Only the rows containing Avails are retained so any other
+	 * location is treated as empty.
 	 * 
 	 * @param columnKey
 	 * @param row
 	 * @return indicated cell or <tt>null</tt> if the location is empty or
 	 *         non-existent
 	 */
-	public Cell getCell(String columnKey, int row) {
+	public AvailsCell getCell(String columnKey, int row) {
 		if (row >= rows.size()) {
 			return null;
 		}
-		int idx = getColumnIdx(columnKey);
-		if (idx < 0) {
+		Column column = getColumn(columnKey);
+		if (!column.isDefined()) {
 			return null;
-		} else {
-			return excelSheet.getRow(row).getCell(idx);
 		}
+		return column.getCell(rowsByNum.get(row));
 	}
 
 	/**
 	 * 
 	 */
 	public void dump() {
-		DataFormatter dataF = new DataFormatter();
-		for (Row nextRow : rows) {
+		for (AvailsRow nextRow : rows) {
 			int rNum = nextRow.getRowNum() + 1;
 			System.out.print("row " + rNum + "=[");
 			for (int cNum = 0; cNum < headerMap.size(); cNum++) {
-				Cell nextCell = nextRow.getCell(cNum);
-				System.out.print("|" + dataF.formatCellValue(nextCell));
+				System.out.print("|" + nextRow.getFormattedValue(cNum));
 			}
 			System.out.println("]");
 		}
@@ -32,6 +32,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import org.apache.poi.POIXMLException;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
@@ -65,6 +71,10 @@ public class AvailsWrkBook {
 	private boolean exitOnError;
 	private boolean cleanupData;
 	private XSSFWorkbook wrkBook;
+	private StreamingSheetReader streamReader;
+	private DelimitedSheetReader textReader;
+	private InputStream textStream;
+	private boolean ownsTextStream;
 
 	/**
 	 * Convert an AVAIL file in spreadsheet (i.e., xlsx) format to an XML file.
@@ -72,6 +82,21 @@ public class AvailsWrkBook {
 	 * used to read a file accessible via the local system. Otherwise the
 	 * contents of the <tt>inStream</tt> is used.
 	 * <p>
+	 * The spreadsheet is read using the streaming API so that the workbook is
+	 * never fully loaded into memory.
+	 * </p>
+	 * <p>
+	 * An Avails exported as comma- or tab-separated values (i.e., a
+	 * <tt>.csv</tt> or <tt>.tsv</tt> file) using the same column headers as the
+	 * XLSX template is also accepted and converted in the same way without the
+	 * use of POI.
+	 * </p>
+	 * <p>
+	 * Every sheet containing Avails (see <tt>findAvailsSheets()</tt>) is
+	 * ingested and the Avails from all of them are combined in a single XML
+	 * document.
+	 * </p>
+	 * <p>
 	 * The result <tt>Map</tt> that is returned will contain:
 	 * </p>
 	 * <ul>
@@ -79,7 +104,8 @@ public class AvailsWrkBook {
 	 * </li>
 	 * <li><tt>xml</tt>: the JDOM2 Document that was created from the xlsx</li>
 	 * <li><tt>pedigree</tt>: the <tt>Pedigree</tt> map that was created by the
-	 * <tt>XmlBuilder</tt> during the conversion process.</li>
+	 * <tt>XmlBuilder</tt> during the conversion process. This is a
+	 * <tt>PedigreeStore</tt> and does not retain the workbook.</li>
 	 * <li><tt>srcFmt</tt>: the <tt>MddfContect.FILE_FMT</tt> of the ingested
 	 * file.
 	 * </ul>
@@ -94,10 +120,7 @@ public class AvailsWrkBook {
 		boolean exitOnError = false;
 		AvailsWrkBook ss;
 		try {
-			if (inStream == null) {
-				inStream = new FileInputStream(xslxFile);
-			}
-			ss = new AvailsWrkBook(inStream, xslxFile, logMgr, exitOnError, autoCorrect);
+			ss = new AvailsWrkBook(inStream, xslxFile, logMgr, exitOnError, autoCorrect, true);
 		} catch (FileNotFoundException e1) {
 			logMgr.log(LogMgmt.LEV_FATAL, LogMgmt.TAG_AVAIL, "File not found", xslxFile, logMsgSrcId);
 			return null;
@@ -109,18 +132,28 @@ public class AvailsWrkBook {
 			logMgr.log(LogMgmt.LEV_FATAL, LogMgmt.TAG_AVAIL, "IO Exception when accessing file", xslxFile, logMsgSrcId);
 			return null;
 		}
-		int sheetNum = 0; // KLUDGE for now
-		AvailsSheet as;
+		int[] sheetNums = ss.findAvailsSheets();
+		List<AvailsSheet> sheets;
 		try {
-			as = ss.ingestSheet(sheetNum);
+			sheets = ss.ingestSheets(sheetNums);
 		} catch (Exception e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
 			return null;
 		}
-		Version templateVersion = as.getVersion();
+		Version templateVersion = sheets.get(0).getVersion();
+		for (AvailsSheet as : sheets) {
+			if (as.getVersion() != templateVersion) {
+				logMgr.log(LogMgmt.LEV_FATAL, LogMgmt.TAG_AVAIL,
+						"Sheet '" + as.getName() + "' is in " + as.getVersion() + " format but sheet '"
+								+ sheets.get(0).getName() + "' is in " + templateVersion + " format",
+						xslxFile, logMsgSrcId);
+				return null;
+			}
+		}
 		FILE_FMT srcMddfFmt = null;
 		XmlBuilder xBuilder = new XmlBuilder(logMgr, templateVersion);
+		xBuilder.setParallel(true);
 		switch (templateVersion) {
 		case V1_7_3:
 			srcMddfFmt = FILE_FMT.AVAILS_1_7_3;
@@ -151,9 +184,13 @@ public class AvailsWrkBook {
 				logMsgSrcId);
 		String inFileName = xslxFile.getName();
 		String timeStamp = new SimpleDateFormat("yyyy.MM.dd.HH.mm.ss").format(new java.util.Date());
-		String shortDesc = String.format("generated XML from %s:Sheet_%s on %s", inFileName, sheetNum, timeStamp);
+		StringBuilder sheetDesc = new StringBuilder();
+		for (int sheetNum : sheetNums) {
+			sheetDesc.append((sheetDesc.length() == 0) ? "Sheet_" : "+Sheet_").append(sheetNum);
+		}
+		String shortDesc = String.format("generated XML from %s:%s on %s", inFileName, sheetDesc, timeStamp);
 		try {
-			Document xmlJDomDoc = xBuilder.makeXmlAsJDom(as, shortDesc, xslxFile);
+			Document xmlJDomDoc = xBuilder.makeXmlAsJDom(sheets, shortDesc, xslxFile);
 			if (xmlJDomDoc == null) {
 				// Ingest failed
 				return null;
@@ -185,6 +222,10 @@ public class AvailsWrkBook {
 	 * <b>NOTE:</b> This method is intended for use with an MDDF Avails file and
 	 * therefore assumes the workbook contains only a single sheet.
 	 * </p>
+	 * <p>
+	 * The file is processed using the streaming API and is never fully loaded
+	 * into memory.
+	 * </p>
 	 * 
 	 * @param srcFile
 	 * @param outputDir
@@ -192,16 +233,14 @@ public class AvailsWrkBook {
 	 * @return
 	 */
 	public static boolean compress(File srcFile, String outputDir, String outFileName) {
+		File outFile = new File(outputDir, outFileName);
 		try {
-			XSSFWorkbook srcWrkBook = compress(new FileInputStream(srcFile));
-			if (srcWrkBook == null) {
-				return false;
-			}
-			File outFile = new File(outputDir, outFileName);
 			FileOutputStream outputStream = new FileOutputStream(outFile);
-			srcWrkBook.write(outputStream);
-			srcWrkBook.close();
-			outputStream.close();
+			try {
+				SheetCompressor.compress(srcFile, outputStream);
+			} finally {
+				outputStream.close();
+			}
 		} catch (Exception e) {
 			e.printStackTrace();
 			return false;
@@ -247,12 +286,64 @@ public class AvailsWrkBook {
 	 */
 	public AvailsWrkBook(InputStream inStream, File file, LogMgmt logger, boolean exitOnError, boolean cleanupData)
 			throws IOException {
+		this(inStream, file, logger, exitOnError, cleanupData, false);
+	}
+
+	/**
+	 * Create a Spreadsheet object using either the standard POI API (i.e., an
+	 * <tt>XSSFWorkbook</tt>) or the streaming API. The latter avoids loading the
+	 * entire workbook into memory and should be used with large spreadsheets.
+	 * With the streaming API, the <tt>File</tt> is read directly if
+	 * <tt>inStream</tt> is <tt>null</tt>. Otherwise the <tt>File</tt> parameter
+	 * is used strictly for logging.
+	 * <p>
+	 * If the <tt>File</tt> has a <tt>.csv</tt> or <tt>.tsv</tt> extension, the
+	 * contents are instead read as delimited text (see
+	 * <tt>DelimitedSheetReader</tt>) and treated as a workbook with a single
+	 * sheet. The <tt>streaming</tt> flag is then ignored.
+	 * </p>
+	 * 
+	 * @param inStream
+	 * @param file
+	 *            name of the Excel Spreadsheet file
+	 * @param logger
+	 *            a log4j logger object
+	 * @param exitOnError
+	 *            true if validation errors should cause immediate failure
+	 * @param cleanupData
+	 *            true if minor validation errors should be auto-corrected
+	 * @param streaming
+	 *            true if the streaming API is to be used
+	 * @throws IOException
+	 */
+	public AvailsWrkBook(InputStream inStream, File file, LogMgmt logger, boolean exitOnError, boolean cleanupData,
+			boolean streaming) throws IOException {
 		this.file = file;
 		this.logger = logger;
 		this.exitOnError = exitOnError;
 		this.cleanupData = cleanupData;
 		sheets = new ArrayList<AvailsSheet>();
-		wrkBook = new XSSFWorkbook(inStream);
+		if (DelimitedSheetReader.isDelimited(file)) {
+			ownsTextStream = (inStream == null);
+			textStream = ownsTextStream ? new FileInputStream(file) : inStream;
+			try {
+				textReader = new DelimitedSheetReader(DelimitedSheetReader.delimiterFor(file), textStream);
+			} catch (IOException e) {
+				closeText();
+				throw e;
+			}
+		} else if (streaming) {
+			if (inStream != null) {
+				streamReader = new StreamingSheetReader(inStream);
+			} else {
+				streamReader = new StreamingSheetReader(file);
+			}
+		} else {
+			if (inStream == null) {
+				inStream = new FileInputStream(file);
+			}
+			wrkBook = new XSSFWorkbook(inStream);
+		}
 	}
 
 	/**
@@ -277,6 +368,27 @@ public class AvailsWrkBook {
 	}
 
 	public AvailsSheet ingestSheet(String sheetName) throws Exception {
+		if (textReader != null) {
+			try {
+				if (!textReader.getSheetName().equals(sheetName)) {
+					throw new IllegalArgumentException(file + ":" + sheetName + " not found");
+				}
+				return readSheet(0);
+			} finally {
+				closeText();
+			}
+		}
+		if (streamReader != null) {
+			try {
+				int sheetNumber = streamReader.getSheetNames().indexOf(sheetName);
+				if (sheetNumber < 0) {
+					throw new IllegalArgumentException(file + ":" + sheetName + " not found");
+				}
+				return readSheet(sheetNumber);
+			} finally {
+				streamReader.close();
+			}
+		}
 		Sheet excelSheet = wrkBook.getSheet(sheetName);
 		if (excelSheet == null) {
 			wrkBook.close();
@@ -301,6 +413,20 @@ public class AvailsWrkBook {
 	 *             other error conditions may also throw exceptions
 	 */
 	public AvailsSheet ingestSheet(int sheetNumber) throws Exception {
+		if (textReader != null) {
+			try {
+				return readSheet(sheetNumber);
+			} finally {
+				closeText();
+			}
+		}
+		if (streamReader != null) {
+			try {
+				return readSheet(sheetNumber);
+			} finally {
+				streamReader.close();
+			}
+		}
 		Sheet excelSheet;
 		try {
 			excelSheet = wrkBook.getSheetAt(sheetNumber);
@@ -313,6 +439,134 @@ public class AvailsWrkBook {
 		return as;
 	}
 
+	/**
+	 * Identify the sheets containing Avails. These are the sheets named either
+	 * 'TV' or 'Movies'. If the workbook has only a single sheet, or none of the
+	 * sheets has one of those names, only the first sheet is used.
+	 * 
+	 * @return the zero-based indices of the sheets in workbook sequence
+	 */
+	public int[] findAvailsSheets() {
+		List<String> sheetNames;
+		if (textReader != null) {
+			sheetNames = Collections.singletonList(textReader.getSheetName());
+		} else if (streamReader != null) {
+			sheetNames = streamReader.getSheetNames();
+		} else {
+			sheetNames = new ArrayList<String>();
+			for (int i = 0; i < wrkBook.getNumberOfSheets(); i++) {
+				sheetNames.add(wrkBook.getSheetName(i));
+			}
+		}
+		List<Integer> found = new ArrayList<Integer>();
+		if (sheetNames.size() > 1) {
+			for (int i = 0; i < sheetNames.size(); i++) {
+				String name = sheetNames.get(i);
+				if (name.equals("TV") || name.equals("Movies")) {
+					found.add(i);
+				}
+			}
+		}
+		if (found.isEmpty()) {
+			return new int[] { 0 };
+		}
+		int[] sheetNumbers = new int[found.size()];
+		for (int i = 0; i < sheetNumbers.length; i++) {
+			sheetNumbers[i] = found.get(i);
+		}
+		return sheetNumbers;
+	}
+
+	/**
+	 * Ingest multiple sheets from the Excel spreadsheet. The sheets are ingested
+	 * concurrently. Entries logged while ingesting a sheet are passed on to the
+	 * logger in the same sequence as if the sheets had been ingested one at a
+	 * time in the order specified.
+	 * 
+	 * @param sheetNumbers
+	 *            zero-based indices of sheets to add
+	 * @return created AvailsSheet objects in the same order as the
+	 *         <tt>sheetNumbers</tt>
+	 * @throws IllegalArgumentException
+	 *             if a sheet does not exist in the Excel spreadsheet
+	 * @throws Exception
+	 *             other error conditions may also throw exceptions
+	 */
+	public List<AvailsSheet> ingestSheets(int[] sheetNumbers) throws Exception {
+		DeferredLogger deferredLog = new DeferredLogger(logger);
+		List<Callable<AvailsSheet>> tasks = new ArrayList<Callable<AvailsSheet>>();
+		List<List<Consumer<LogMgmt>>> sheetLogs = new ArrayList<List<Consumer<LogMgmt>>>(
+				Collections.nCopies(sheetNumbers.length, (List<Consumer<LogMgmt>>) null));
+		for (int i = 0; i < sheetNumbers.length; i++) {
+			int slot = i;
+			int sheetNumber = sheetNumbers[i];
+			tasks.add(new Callable<AvailsSheet>() {
+				public AvailsSheet call() throws Exception {
+					deferredLog.capture();
+					try {
+						return readSheet(sheetNumber);
+					} finally {
+						sheetLogs.set(slot, deferredLog.release());
+					}
+				}
+			});
+		}
+		int threadCnt = Math.max(1, Math.min(tasks.size(), Runtime.getRuntime().availableProcessors()));
+		ExecutorService executor = Executors.newFixedThreadPool(threadCnt);
+		LogMgmt seqLogger = logger;
+		logger = deferredLog;
+		List<AvailsSheet> ingested = new ArrayList<AvailsSheet>();
+		try {
+			List<Future<AvailsSheet>> results = executor.invokeAll(tasks);
+			for (int i = 0; i < results.size(); i++) {
+				deferredLog.replay(sheetLogs.get(i));
+				try {
+					ingested.add(results.get(i).get());
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof Exception) {
+						throw (Exception) e.getCause();
+					}
+					throw e;
+				}
+			}
+		} finally {
+			logger = seqLogger;
+			executor.shutdown();
+			if (textReader != null) {
+				closeText();
+			} else if (streamReader != null) {
+				streamReader.close();
+			} else if (wrkBook != null) {
+				wrkBook.close();
+			}
+		}
+		return ingested;
+	}
+
+	private AvailsSheet readSheet(int sheetNumber) throws IOException {
+		if (textReader != null) {
+			if (sheetNumber != 0) {
+				throw new IllegalArgumentException(file + ": sheet number " + sheetNumber + " not found");
+			}
+			return new AvailsSheet(this, textReader.getSheetName(), textReader::readRows);
+		}
+		if (streamReader != null) {
+			List<String> sheetNames = streamReader.getSheetNames();
+			if ((sheetNumber < 0) || (sheetNumber >= sheetNames.size())) {
+				throw new IllegalArgumentException(file + ": sheet number " + sheetNumber + " not found");
+			}
+			return new AvailsSheet(this, sheetNames.get(sheetNumber),
+					rowHandler -> streamReader.readRows(sheetNumber, rowHandler));
+		}
+		Sheet excelSheet;
+		try {
+			excelSheet = wrkBook.getSheetAt(sheetNumber);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(file + ": sheet number " + sheetNumber + " not found");
+		}
+		return new AvailsSheet(this, excelSheet);
+	}
+
 	/**
 	 * Get the logging object
 	 * 
@@ -369,6 +623,18 @@ public class AvailsWrkBook {
 			throw new IllegalArgumentException(file + ":" + sheetName + " not found");
 	}
 
+	/**
+	 * Close the stream containing a delimited-text Avails if it was opened by
+	 * this object.
+	 * 
+	 * @throws IOException
+	 */
+	private void closeText() throws IOException {
+		if (ownsTextStream) {
+			textStream.close();
+		}
+	}
+
 	/**
 	 * Dump the contents (sheet-by-sheet) of an Excel spreadsheet
 	 * 
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.avails.xml;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.movielabs.mddflib.logging.LogEntryFolder;
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.logging.LogReference;
+
+/**
+ * A <tt>LogMgmt</tt> that allows log entries generated by a thread to be
+ * captured and then passed on to the actual logger at a later time. This
+ * allows spreadsheet rows (or the sheets of a generated workbook) to be
+ * converted concurrently while the log entries are still recorded in the same
+ * order as when they are processed sequentially.
+ * <p>
+ * A thread starts capturing entries by invoking <tt>capture()</tt> and stops
+ * with <tt>release()</tt>. When a thread is not capturing, entries are passed
+ * directly to the target logger. All other <tt>LogMgmt</tt> operations are
+ * always passed directly to the target.
+ * </p>
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class DeferredLogger implements LogMgmt {
+
+	private LogMgmt target;
+	private ThreadLocal<List<Consumer<LogMgmt>>> buffer = new ThreadLocal<List<Consumer<LogMgmt>>>();
+
+	/**
+	 * @param target
+	 *            the logger to which entries are eventually passed
+	 */
+	public DeferredLogger(LogMgmt target) {
+		this.target = target;
+	}
+
+	/**
+	 * @return the logger to which entries are eventually passed
+	 */
+	public LogMgmt getTarget() {
+		return target;
+	}
+
+	/**
+	 * Start capturing all entries logged by the current thread. Any previously
+	 * captured entries are discarded.
+	 */
+	public void capture() {
+		buffer.set(new ArrayList<Consumer<LogMgmt>>());
+	}
+
+	/**
+	 * Stop capturing entries logged by the current thread.
+	 *
+	 * @return the entries captured since the last call to <tt>capture()</tt>
+	 */
+	public List<Consumer<LogMgmt>> release() {
+		List<Consumer<LogMgmt>> entries = buffer.get();
+		buffer.remove();
+		return entries;
+	}
+
+	/**
+	 * Pass previously captured entries to the target logger.
+	 *
+	 * @param entries
+	 */
+	public void replay(List<Consumer<LogMgmt>> entries) {
+		if (entries != null) {
+			for (Consumer<LogMgmt> entry : entries) {
+				entry.accept(target);
+			}
+		}
+	}
+
+	private void append(Consumer<LogMgmt> entry) {
+		List<Consumer<LogMgmt>> entries = buffer.get();
+		if (entries == null) {
+			entry.accept(target);
+		} else {
+			entries.add(entry);
+		}
+	}
+
+	@Override
+	public void logIssue(int tag, int level, Object target, String msg, String explanation, LogReference srcRef,
+			String moduleId) {
+		append(logger -> logger.logIssue(tag, level, target, msg, explanation, srcRef, moduleId));
+	}
+
+	@Override
+	public void log(int lev, int tag, String msg, File curFile, String moduleId) {
+		append(logger -> logger.log(lev, tag, msg, curFile, moduleId));
+	}
+
+	@Override
+	public void log(int level, int tag, String msg, File file, int lineNumber, String moduleId, String details,
+			LogReference srcRef) {
+		append(logger -> logger.log(level, tag, msg, file, lineNumber, moduleId, details, srcRef));
+	}
+
+	@Override
+	public void clearLog() {
+		target.clearLog();
+	}
+
+	@Override
+	public LogEntryFolder getFileFolder(File targetFile) {
+		return target.getFileFolder(targetFile);
+	}
+
+	@Override
+	public void saveAs(File outFile, String format) throws IOException {
+		target.saveAs(outFile, format);
+	}
+
+	@Override
+	public void setCurrentFile(File srcfile) {
+		target.setCurrentFile(srcfile);
+	}
+
+	@Override
+	public void setMinLevel(int level) {
+		target.setMinLevel(level);
+	}
+
+	@Override
+	public int getMinLevel() {
+		return target.getMinLevel();
+	}
+
+	@Override
+	public void setInfoIncluded(boolean flag) {
+		target.setInfoIncluded(flag);
+	}
+
+	@Override
+	public boolean isInfoIncluded() {
+		return target.isInfoIncluded();
+	}
+}
@@ -0,0 +1,282 @@
+/**
+ * Copyright (c) 2016 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.avails.xml;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import com.movielabs.mddflib.avails.xml.StreamingSheetReader.StreamedRow;
+
+/**
+ * Reads an Avails that has been exported as delimited text (i.e., CSV or TSV)
+ * using the same layout as the XLSX template: two rows of column headers
+ * followed by one row per Avail. The rows are passed one at a time to a
+ * handler (e.g., an <tt>AvailsSheet</tt>) and may be converted by the row
+ * helpers exactly as if they had been read from an XLSX. Columns are
+ * identified by their headers so their sequence need not match that of the
+ * template.
+ * <p>
+ * The text is scanned in place within a character buffer. A <tt>String</tt> is
+ * only created for each non-empty field and an empty field does not result in
+ * a cell. Fields may be quoted as per RFC 4180 (i.e., a quoted field may
+ * contain delimiters, line breaks, and doubled quotes). Each record becomes a
+ * row with the same (zero-based) row number as the record.
+ * </p>
+ * <p>
+ * As a delimited file has no sheet names, the sheet is named 'TV' if the
+ * column headers include the TV-only <tt>SeriesContentID</tt> column and
+ * 'Movies' otherwise.
+ * </p>
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+class DelimitedSheetReader {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final String TV_ONLY_HEADER = "SeriesContentID";
+
+	private char delimiter;
+	private Reader in;
+	private char[] buf = new char[BUFFER_SIZE];
+	private int pos = 0;
+	private int limit = 0;
+	private String sheetName;
+	private StreamedRow headerRow1;
+	private StreamedRow headerRow2;
+
+	/**
+	 * @param file
+	 * @return <tt>true</tt> if the file's extension indicates it contains
+	 *         comma- or tab-separated values
+	 */
+	static boolean isDelimited(File file) {
+		String name = file.getName().toLowerCase(Locale.ROOT);
+		return name.endsWith(".csv") || name.endsWith(".tsv");
+	}
+
+	/**
+	 * @param file
+	 * @return the delimiter indicated by the file's extension
+	 */
+	static char delimiterFor(File file) {
+		return file.getName().toLowerCase(Locale.ROOT).endsWith(".tsv") ? '\t' : ',';
+	}
+
+	/**
+	 * Prepare to read the records of a UTF-8 encoded stream. A leading
+	 * byte-order mark is ignored. Only the two header rows are read, which is
+	 * sufficient to determine the sheet name. The stream is not closed.
+	 * 
+	 * @param delimiter the field separator (e.g., ',' or '\t')
+	 * @param inStream
+	 * @throws IOException
+	 */
+	DelimitedSheetReader(char delimiter, InputStream inStream) throws IOException {
+		this.delimiter = delimiter;
+		in = new InputStreamReader(inStream, StandardCharsets.UTF_8);
+		if (((pos < limit) || refill(limit)) && (buf[pos] == '\uFEFF')) {
+			pos++;
+		}
+		headerRow1 = readRecord(0);
+		headerRow2 = (headerRow1 == null) ? null : readRecord(1);
+		sheetName = isTvLayout(headerRow2) ? "TV" : "Movies";
+		if (headerRow1 != null) {
+			headerRow1.setSheetName(sheetName);
+		}
+		if (headerRow2 != null) {
+			headerRow2.setSheetName(sheetName);
+		}
+	}
+
+	/**
+	 * @return the name assigned to the sheet (i.e., 'TV' or 'Movies')
+	 */
+	String getSheetName() {
+		return sheetName;
+	}
+
+	/**
+	 * Pass each record, starting with the header rows, to the
+	 * <tt>rowHandler</tt> as soon as it has been read. The records are not
+	 * retained. This may only be invoked once.
+	 * 
+	 * @param rowHandler
+	 * @throws IOException
+	 */
+	void readRows(Consumer<? super AvailsRow> rowHandler) throws IOException {
+		if (headerRow1 == null) {
+			return;
+		}
+		rowHandler.accept(headerRow1);
+		int rowNum = 1;
+		for (StreamedRow row = headerRow2; row != null; row = readRecord(++rowNum)) {
+			rowHandler.accept(row);
+		}
+		headerRow1 = null;
+		headerRow2 = null;
+	}
+
+	private static boolean isTvLayout(AvailsRow headerRow) {
+		if (headerRow != null) {
+			for (int i = 0; i < headerRow.getLastCellNum(); i++) {
+				if (TV_ONLY_HEADER.equals(headerRow.getFormattedValue(i).trim())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Read the next record, consuming its line break (if any).
+	 * 
+	 * @param rowNum
+	 * @return the row or <tt>null</tt> if all input has been consumed
+	 * @throws IOException
+	 */
+	private StreamedRow readRecord(int rowNum) throws IOException {
+		if ((pos >= limit) && !refill(limit)) {
+			return null;
+		}
+		StreamedRow row = StreamedRow.textRow(rowNum);
+		row.setSheetName(sheetName);
+		int colNum = 0;
+		while (true) {
+			String value = (buf[pos] == '"') ? readQuoted() : readPlain();
+			if (!value.isEmpty()) {
+				row.addText(colNum, value);
+			}
+			if ((pos >= limit) && !refill(limit)) {
+				return row;
+			}
+			char c = buf[pos++];
+			if (c == delimiter) {
+				colNum++;
+				if ((pos >= limit) && !refill(limit)) {
+					return row;
+				}
+				continue;
+			}
+			/* end of line: treat CR LF as a single line break */
+			if ((c == '\r') && ((pos < limit) || refill(limit)) && (buf[pos] == '\n')) {
+				pos++;
+			}
+			return row;
+		}
+	}
+
+	/**
+	 * Read an unquoted field. On return <tt>pos</tt> is at the delimiter or
+	 * line break that terminated the field, or at the end of input.
+	 */
+	private String readPlain() throws IOException {
+		int start = pos;
+		while (true) {
+			for (; pos < limit; pos++) {
+				char c = buf[pos];
+				if ((c == delimiter) || (c == '\n') || (c == '\r')) {
+					return text(start, pos);
+				}
+			}
+			boolean more = refill(start);
+			start = 0;
+			if (!more) {
+				return text(start, pos);
+			}
+		}
+	}
+
+	/**
+	 * Read a quoted field starting at the opening quote. Any characters between
+	 * the closing quote and the next delimiter are appended as-is.
+	 */
+	private String readQuoted() throws IOException {
+		StringBuilder value = new StringBuilder();
+		pos++;
+		int start = pos;
+		while (true) {
+			if (pos >= limit) {
+				value.append(buf, start, pos - start);
+				if (!refill(limit)) {
+					/* unterminated quote */
+					return value.toString();
+				}
+				start = pos;
+			}
+			if (buf[pos] != '"') {
+				pos++;
+				continue;
+			}
+			value.append(buf, start, pos - start);
+			pos++;
+			if (((pos < limit) || refill(limit)) && (buf[pos] == '"')) {
+				/* escaped quote */
+				value.append('"');
+				pos++;
+				start = pos;
+				continue;
+			}
+			return value.append(readPlain()).toString();
+		}
+	}
+
+	private String text(int start, int end) {
+		return (end > start) ? new String(buf, start, end - start) : "";
+	}
+
+	/**
+	 * Read more input. Characters from <tt>keepFrom</tt> to the current end of
+	 * the buffer are retained and moved to the start of the buffer, which is
+	 * enlarged if necessary. On return <tt>pos</tt> is positioned just after the
+	 * retained characters.
+	 * 
+	 * @param keepFrom
+	 * @return <tt>false</tt> if no more input is available
+	 * @throws IOException
+	 */
+	private boolean refill(int keepFrom) throws IOException {
+		int kept = limit - keepFrom;
+		if ((kept > 0) && (keepFrom > 0)) {
+			System.arraycopy(buf, keepFrom, buf, 0, kept);
+		}
+		if (kept == buf.length) {
+			buf = Arrays.copyOf(buf, buf.length * 2);
+		}
+		limit = kept;
+		pos = kept;
+		int cnt = in.read(buf, kept, buf.length - kept);
+		if (cnt <= 0) {
+			return false;
+		}
+		limit += cnt;
+		return true;
+	}
+}
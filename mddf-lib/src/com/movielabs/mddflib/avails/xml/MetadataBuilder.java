@@ -26,6 +26,8 @@ import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.jdom2.Element;
 import org.jdom2.Namespace;
 import org.jdom2.filter.Filters;
@@ -164,6 +166,14 @@ import net.sf.json.JSONObject;
  * </ul>
  * <h4>releaseHistory</h4>
  * 
+ * <h3>Compilation:</h3>
+ * <p>
+ * The mappings for a version are compiled into a <tt>MappingPlan</tt> the
+ * first time they are used. All keys, column identifiers and function arguments
+ * are parsed at that time so that converting a row does not require any
+ * further processing of the JSON. Plans are shared by all instances.
+ * </p>
+ * 
  * @author L. Levin, Critical Architectures LLC
  *
  */
@@ -177,10 +187,11 @@ public class MetadataBuilder {
 	protected String logMsgSrcId = "MetadataBuilder";
 	protected XPathFactory xpfac = XPathFactory.instance();
 
+	private static ConcurrentHashMap<String, MappingPlan> planCache = new ConcurrentHashMap<String, MappingPlan>();
+
 	private XmlBuilder xmlBldr;
 	private AbstractRowHelper row;
-	private JSONObject mapping4Version;
-	private JSONObject mapping4type;
+	private MappingPlan plan;
 
 	static {
 		/*
@@ -202,7 +213,6 @@ public class MetadataBuilder {
 			e.printStackTrace();
 		}
 	}
-
 	/**
 	 * Construct a <i>helper</i> instance compatible with the
 	 * <tt>XmlBuilder</tt>'s XSD version.
@@ -214,10 +224,43 @@ public class MetadataBuilder {
 		this.logger = logger;
 		this.xmlBldr = xmlBldr;
 		String schemaVer = "V" + xmlBldr.getVersion();
-		mapping4Version = mappings.getJSONObject(schemaVer);
+		plan = getPlan(schemaVer);
 		logger.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "Using Schema Version " + schemaVer, null, logMsgSrcId);
 	}
 
+	/**
+	 * Construct a <i>helper</i> with the same configuration as another. Since a
+	 * <tt>MetadataBuilder</tt> retains state while processing a row, this allows
+	 * rows to be processed concurrently with each thread using its own instance.
+	 * 
+	 * @param template
+	 */
+	MetadataBuilder(MetadataBuilder template) {
+		this.logger = template.logger;
+		this.xmlBldr = template.xmlBldr;
+		this.plan = template.plan;
+	}
+
+	/**
+	 * Return the <tt>MappingPlan</tt> for a version of the Avails schema. Plans
+	 * are shared by all <tt>MetadataBuilder</tt> instances.
+	 * 
+	 * @param schemaVer
+	 *            key of the version's mappings (e.g., 'V2.3')
+	 * @return
+	 */
+	private static MappingPlan getPlan(String schemaVer) {
+		MappingPlan versionPlan = planCache.get(schemaVer);
+		if (versionPlan == null) {
+			versionPlan = new MappingPlan(mappings.getJSONObject(schemaVer));
+			MappingPlan prior = planCache.putIfAbsent(schemaVer, versionPlan);
+			if (prior != null) {
+				versionPlan = prior;
+			}
+		}
+		return versionPlan;
+	}
+
 	/**
 	 * Convert the relevant information in a spreadsheet row to an XML Metadata
 	 * structure that may be appended to an <tt>&lt;avail:Asset&gt;</tt>
@@ -240,87 +283,266 @@ public class MetadataBuilder {
 		 * Need to determine what metadata structure to use based on the
 		 * Asset/WorkType
 		 */
+		String typeKey;
 		switch (assetWorkType) {
 		case "Season":
-			mapping4type = mapping4Version.getJSONObject("Season");
+			typeKey = "Season";
 			break;
 		case "Episode":
-			mapping4type = mapping4Version.getJSONObject("Episode");
+			typeKey = "Episode";
 			break;
 		case "Series":
+			typeKey = null;
 			break;
 		default:
 			// must be a Movie
-			mapping4type = mapping4Version.getJSONObject("Movies");
+			typeKey = "Movies";
 			break;
 		}
-		if (mapping4type != null) {
-			return buildMetadata();
+		if (typeKey != null) {
+			return buildMetadata(plan.getType(typeKey));
 		}
 		throw new UnsupportedOperationException("Invalid JSON: Unsupported Asset work-type: " + assetWorkType);
 
 	}
 
-	private Element buildMetadata() {
+	private Element buildMetadata(TypePlan typePlan) {
 		/*
 		 * there should be a single key. The key will also serve as the name
 		 * assigned to the metadata element (e.g. key is
 		 * "{avail}EpisodeMetadata")
 		 */
-		Set<String> keys = mapping4type.keySet();
-		if (keys.size() != 1) {
+		if (typePlan.mdName == null) {
 			throw new UnsupportedOperationException("Invalid JSON: too many primary keys");
 		}
-		List<String> tempList = new ArrayList<String>(keys);
-		String mdKey = tempList.get(0);
-		Element mdEl = buildElement(mdKey);
-		JSONObject mdMappings = mapping4type.getJSONObject(mdKey);
-		processLevel(mdEl, mdMappings);
+		Element mdEl = buildElement(typePlan.mdName);
+		typePlan.mdMappings.execute(this, mdEl);
 
 		// --------------------
 		// clean up (i.e., garbage collection) and return
 		this.row = null;
-		this.mapping4type = null;
 		return mdEl;
 	}
 
+	// ######################################################################
+	// Compiled mappings....
+
 	/**
-	 * @param parentEl
-	 * @param mdMappings
+	 * The compiled form of the mappings for a single version of the Avails
+	 * schema. The JSON is only traversed the first time the mappings for a given
+	 * WorkType or <tt>#REF:</tt> path are needed. The result is a tree of
+	 * <tt>Step</tt> instances with all keys, column identifiers, and function
+	 * arguments already parsed. Executing the steps for a row therefore requires
+	 * no access to the JSON. Once compiled a plan is immutable and may be used by
+	 * multiple threads.
 	 */
-	private void processLevel(Element parentEl, JSONObject mdMappings) {
-		/*
-		 * Each key defines an XML element to be created. To have valid XML they
-		 * must be processed in order.
+	private static final class MappingPlan {
+		private final JSONObject mapping4Version;
+		private final ConcurrentHashMap<String, TypePlan> types = new ConcurrentHashMap<String, TypePlan>();
+		private final ConcurrentHashMap<String, Level> references = new ConcurrentHashMap<String, Level>();
+
+		MappingPlan(JSONObject mapping4Version) {
+			this.mapping4Version = mapping4Version;
+		}
+
+		TypePlan getType(String typeKey) {
+			TypePlan typePlan = types.get(typeKey);
+			if (typePlan == null) {
+				typePlan = new TypePlan(mapping4Version.getJSONObject(typeKey));
+				TypePlan prior = types.putIfAbsent(typeKey, typePlan);
+				if (prior != null) {
+					typePlan = prior;
+				}
+			}
+			return typePlan;
+		}
+
+		/**
+		 * @param path
+		 *            relative to the root of <tt>mapping4Version</tt>
+		 * @return
 		 */
-		List<String> mdKeyList = new ArrayList<String>(mdMappings.keySet());
-		for (String nextKey : mdKeyList) {
-			logger.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "processing JSON key " + nextKey, null, logMsgSrcId);
+		Level getReference(String path) {
+			Level level = references.get(path);
+			if (level == null) {
+				String[] parts = path.split("/");
+				JSONObject mappingsTarget = mapping4Version;
+				for (int i = 0; i < parts.length; i++) {
+					mappingsTarget = mappingsTarget.getJSONObject(parts[i]);
+				}
+				level = new Level(mappingsTarget);
+				Level prior = references.putIfAbsent(path, level);
+				if (prior != null) {
+					level = prior;
+				}
+			}
+			return level;
+		}
+	}
+
+	/**
+	 * Compiled mappings for a single WorkType.
+	 */
+	private static final class TypePlan {
+		/* null if the JSON has other than a single primary key */
+		private final XmlName mdName;
+		private final Level mdMappings;
+
+		TypePlan(JSONObject mapping4type) {
+			Set<String> keys = mapping4type.keySet();
+			if (keys.size() != 1) {
+				mdName = null;
+				mdMappings = null;
+			} else {
+				String mdKey = keys.iterator().next();
+				mdName = new XmlName(mdKey);
+				mdMappings = new Level(mapping4type.getJSONObject(mdKey));
+			}
+		}
+	}
+
+	/**
+	 * The parsed form of a JSON key identifying an XML element (e.g.,
+	 * <tt>{md}DisplayName</tt>).
+	 */
+	private static final class XmlName {
+		private final String key;
+		private final String name;
+		/* the schema: 'avails', 'md', or null */
+		private final String nsId;
 
-			Object nextValue = mdMappings.get(nextKey);
+		XmlName(String key) {
+			this.key = key;
+			String[] parts = key.split("}");
+			this.name = (parts.length > 1) ? parts[1] : null;
+			if (key.startsWith("{avail}")) {
+				nsId = "avails";
+			} else if (key.startsWith("{md}")) {
+				nsId = "md";
+			} else {
+				nsId = null;
+			}
+		}
+	}
+
+	/**
+	 * A compiled mapping that, when executed, adds content derived from the
+	 * current row to a parent element.
+	 */
+	private static abstract class Step {
+		abstract void execute(MetadataBuilder builder, Element parentEl);
+	}
+
+	/**
+	 * The compiled form of a JSON object containing one or more mappings. Each
+	 * key defines an XML element to be created. To have valid XML they must be
+	 * processed in order.
+	 */
+	private static final class Level extends Step {
+		private final String[] logMsgs;
+		private final Step[][] keySteps;
+
+		Level(JSONObject mdMappings) {
+			List<String> mdKeyList = new ArrayList<String>(mdMappings.keySet());
+			logMsgs = new String[mdKeyList.size()];
+			keySteps = new Step[mdKeyList.size()][];
+			for (int i = 0; i < mdKeyList.size(); i++) {
+				String nextKey = mdKeyList.get(i);
+				logMsgs[i] = "processing JSON key " + nextKey;
+				keySteps[i] = compileKey(nextKey, mdMappings.get(nextKey));
+			}
+		}
+
+		private static Step[] compileKey(String nextKey, Object nextValue) {
+			List<Step> steps = new ArrayList<Step>();
 			if (nextValue instanceof String) {
 				String value = (String) nextValue;
 				if (value.startsWith(REF_KEY)) {
-					processReference(nextKey, value, parentEl);
+					steps.add(new ReferenceStep(nextKey, value));
 				} else {
-					processString(nextKey, value, parentEl);
+					steps.add(new ValueStep(nextKey, value));
 				}
 			} else if (nextValue instanceof JSONObject) {
-				processObject(nextKey, (JSONObject) nextValue, parentEl);
+				steps.add(compileObject(nextKey, (JSONObject) nextValue));
 			} else if (nextValue instanceof JSONArray) {
 				JSONArray jArray = (JSONArray) nextValue;
 				Iterator<?> jit = jArray.iterator();
 				while (jit.hasNext()) {
 					Object nextInArray = jit.next();
 					if (nextInArray instanceof String) {
-						processString(nextKey, (String) nextInArray, parentEl);
+						steps.add(new ValueStep(nextKey, (String) nextInArray));
 					} else if (nextInArray instanceof JSONObject) {
-						processObject(nextKey, (JSONObject) nextInArray, parentEl);
+						steps.add(compileObject(nextKey, (JSONObject) nextInArray));
 					}
 				}
 			} else {
-				throw new UnsupportedOperationException("Invalid JSON: Unsupportable content under key=" + nextKey);
+				steps.add(new FailedStep(new UnsupportedOperationException(
+						"Invalid JSON: Unsupportable content under key=" + nextKey)));
 			}
+			return steps.toArray(new Step[steps.size()]);
+		}
+
+		private static Step compileObject(String curKey, JSONObject curDefs) {
+			// is it a FUNCTION?
+			if (curDefs.containsKey(FUNCTION_KEY)) {
+				try {
+					return FunctionStep.compile(curDefs.getJSONObject(FUNCTION_KEY), curKey);
+				} catch (RuntimeException e) {
+					return new FailedStep(e);
+				}
+			} else {
+				// recursively process another level
+				return new NestedStep(curKey, new Level(curDefs));
+			}
+		}
+
+		@Override
+		void execute(MetadataBuilder builder, Element parentEl) {
+			for (int i = 0; i < keySteps.length; i++) {
+				builder.logger.log(LogMgmt.LEV_DEBUG, builder.logMsgDefaultTag, logMsgs[i], null,
+						builder.logMsgSrcId);
+				Step[] steps = keySteps[i];
+				for (int j = 0; j < steps.length; j++) {
+					steps[j].execute(builder, parentEl);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A mapping that could not be compiled. The error is reported if, and when,
+	 * the mapping is used.
+	 */
+	private static final class FailedStep extends Step {
+		private final RuntimeException error;
+
+		FailedStep(RuntimeException error) {
+			this.error = error;
+		}
+
+		@Override
+		void execute(MetadataBuilder builder, Element parentEl) {
+			throw error;
+		}
+	}
+
+	/**
+	 * Creates a child element and then processes another level of mappings.
+	 */
+	private static final class NestedStep extends Step {
+		private final XmlName xmlName;
+		private final Level level;
+
+		NestedStep(String key, Level level) {
+			this.xmlName = new XmlName(key);
+			this.level = level;
+		}
+
+		@Override
+		void execute(MetadataBuilder builder, Element parentEl) {
+			Element curEl = builder.buildElement(xmlName);
+			parentEl.addContent(curEl);
+			level.execute(builder, curEl);
 		}
 	}
 
@@ -335,24 +557,28 @@ public class MetadataBuilder {
 	 * <br/>
 	 * where <tt>Season/{avail}SeasonMetadata</tt> is the path.
 	 * </p>
-	 * 
-	 * @param key
-	 *            is name of XML element to be created
-	 * @param path
-	 *            relative to the root of <tt>mapping4Version</tt>
-	 * @param parentEl
+	 * The referenced mappings are compiled when first used so that references
+	 * need not be resolved in any particular order.
 	 */
-	private void processReference(String key, String pathRef, Element parentEl) {
-		String path = pathRef.replaceFirst(REF_KEY, "");
-		logger.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "processing REF to " + path, null, logMsgSrcId);
-		String[] parts = path.split("/");
-		JSONObject mappingsTarget = mapping4Version;
-		for (int i = 0; i < parts.length; i++) {
-			mappingsTarget = mappingsTarget.getJSONObject(parts[i]);
-		}
-		Element curEl = buildElement(key);
-		parentEl.addContent(curEl);
-		processLevel(curEl, mappingsTarget);
+	private static final class ReferenceStep extends Step {
+		private final XmlName xmlName;
+		private final String path;
+		private final String logMsg;
+
+		ReferenceStep(String key, String pathRef) {
+			this.xmlName = new XmlName(key);
+			this.path = pathRef.replaceFirst(REF_KEY, "");
+			this.logMsg = "processing REF to " + path;
+		}
+
+		@Override
+		void execute(MetadataBuilder builder, Element parentEl) {
+			builder.logger.log(LogMgmt.LEV_DEBUG, builder.logMsgDefaultTag, logMsg, null, builder.logMsgSrcId);
+			Level level = builder.plan.getReference(path);
+			Element curEl = builder.buildElement(xmlName);
+			parentEl.addContent(curEl);
+			level.execute(builder, curEl);
+		}
 	}
 
 	/**
@@ -365,86 +591,73 @@ public class MetadataBuilder {
 	 * <li>{avails}RunLength</li>
 	 * <li>@contentID</li>
 	 * </ul>
-	 * 
-	 * @param xmlId
-	 *            name of an Attribute or Element to be added
-	 * @param valueSrc
-	 *            identifies a cell containing the value
-	 * @param mdEl
-	 *            parent element
 	 */
-	private void processString(String xmlId, String valueSrc, Element mdEl) {
-		// 'valueSrc' identifies a column in the spreadsheet row
-		Pedigree pg = row.getPedigreedData(valueSrc);
-		if (pg == null) {
-			throw new UnsupportedOperationException("Invalid JSON: unsupported column '" + valueSrc + "'");
-		}
-		// key defines the name of the child element or attribute
-		if (xmlId.startsWith("@")) {
-			// process as attribute
-			// TODO
-		} else {
-			// process as element
-			if (pg.isEmpty() && !isRequired(xmlId)) {
-				return;
-			}
-			Element childEl = buildElement(xmlId);
-			mdEl.addContent(childEl);
-			childEl.setText(pg.getRawValue());
-			xmlBldr.addToPedigree(childEl, pg);
+	private static final class ValueStep extends Step {
+		private final XmlName xmlId;
+		/* identifies a column in the spreadsheet row */
+		private final String valueSrc;
+
+		ValueStep(String xmlId, String valueSrc) {
+			this.xmlId = new XmlName(xmlId);
+			this.valueSrc = valueSrc;
 		}
-	}
 
-	/**
-	 * @param curKey
-	 * @param curDefs
-	 * @param parentEl
-	 */
-	private void processObject(String curKey, JSONObject curDefs, Element parentEl) {
-		// is it a FUNCTION?
-		if (curDefs.containsKey(FUNCTION_KEY)) {
-			JSONObject funcDef = curDefs.getJSONObject(FUNCTION_KEY);
-			processFunction(funcDef, curKey, parentEl);
-		} else {
-			// recursively process another level
-			Element curEl = buildElement(curKey);
-			parentEl.addContent(curEl);
-			processLevel(curEl, curDefs);
+		@Override
+		void execute(MetadataBuilder builder, Element mdEl) {
+			Pedigree pg = builder.row.getPedigreedData(valueSrc);
+			if (pg == null) {
+				throw new UnsupportedOperationException("Invalid JSON: unsupported column '" + valueSrc + "'");
+			}
+			// key defines the name of the child element or attribute
+			if (xmlId.key.startsWith("@")) {
+				// process as attribute
+				// TODO
+			} else {
+				// process as element
+				if (pg.isEmpty() && !builder.isRequired(xmlId)) {
+					return;
+				}
+				Element childEl = builder.buildElement(xmlId);
+				mdEl.addContent(childEl);
+				childEl.setText(pg.getRawValue());
+				builder.xmlBldr.addToPedigree(childEl, pg);
+			}
 		}
 	}
 
 	/**
-	 * @param functionDef
-	 * @param targetEl
+	 * A <tt>%FUNCTION</tt> mapping with its arguments already extracted from the
+	 * JSON.
 	 */
-	private void processFunction(JSONObject functionDef, String curKey, Element parentEl) {
-		String funcName = functionDef.getString("name");
-		switch (funcName) {
-		case "altId":
-			func_altId(functionDef, curKey, parentEl);
-			break;
-		case "contentRating":
-			func_contentRating(functionDef, curKey, parentEl);
-			break;
-		case "eidr":
-			func_eidr(functionDef, curKey, parentEl);
-			break;
-		case "formatType":
-			func_format(functionDef, curKey, parentEl);
-			break;
-		case "people":
-			func_people(functionDef, curKey, parentEl);
-			break;
-		case "releaseHistory":
-			func_releaseHistory(functionDef, curKey, parentEl);
-			break;
-		case "channelGrouping":
-			func_channelGrouping(functionDef, curKey, parentEl);
-			break;
-		default:
-			throw new UnsupportedOperationException("Invalid JSON: unsupported function '" + funcName + "'");
+	private static abstract class FunctionStep extends Step {
+		protected final XmlName curKey;
+
+		FunctionStep(String curKey) {
+			this.curKey = new XmlName(curKey);
 		}
 
+		static Step compile(JSONObject functionDef, String curKey) {
+			String funcName = functionDef.getString("name");
+			switch (funcName) {
+			case "altId":
+				return new AltIdStep(functionDef, curKey);
+			case "contentRating":
+				return new ContentRatingStep(functionDef, curKey);
+			case "eidr":
+				return new EidrStep(functionDef, curKey);
+			case "formatType":
+				return new FormatStep(functionDef, curKey);
+			case "people":
+				return new PeopleStep(functionDef, curKey);
+			case "releaseHistory":
+				return new ReleaseHistoryStep(functionDef, curKey);
+			case "channelGrouping":
+				return new ChannelGroupingStep(functionDef, curKey);
+			default:
+				return new FailedStep(
+						new UnsupportedOperationException("Invalid JSON: unsupported function '" + funcName + "'"));
+			}
+		}
 	}
 
 	/**
@@ -458,90 +671,307 @@ public class MetadataBuilder {
 	 * <tt>no</tt> an EIDR value may still be used as an <tt>AltIdentifier</tt>.
 	 * If not specified, the default value is <tt>yes</tt>.</li>
 	 * </ul>
-	 * 
-	 * @param functionDef
-	 * @param altIdEl
 	 */
-	private void func_altId(JSONObject functionDef, String curKey, Element parentEl) {
-		JSONObject functionArgs = functionDef.getJSONObject("args");
-		String colKey = functionArgs.getString("col");
-		logger.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "func_altId prcessing Col key " + colKey, null, logMsgSrcId);
+	private static final class AltIdStep extends FunctionStep {
+		private final String colKey;
+		private final String logMsg;
+		private final boolean filterEidr;
+		private final String namespace;
+		private final String idPrefix;
 
-		Pedigree pg = row.getPedigreedData(colKey);
-		if (pg == null) {
-			throw new UnsupportedOperationException("Invalid XLSX: unsupported column '" + colKey + "'");
+		AltIdStep(JSONObject functionDef, String curKey) {
+			super(curKey);
+			JSONObject functionArgs = functionDef.getJSONObject("args");
+			colKey = functionArgs.getString("col");
+			logMsg = "func_altId prcessing Col key " + colKey;
+			filterEidr = functionArgs.optString("filterEidr", "yes").equalsIgnoreCase("yes");
+			namespace = functionArgs.optString("namespace", ALT_ID_NAMESPACE_PREFIX);
+			String[] srcId = colKey.split("/");
+			idPrefix = srcId[srcId.length - 1] + ":";
 		}
-		if (pg.isEmpty() && !isRequired(curKey)) {
-			return;
+
+		@Override
+		void execute(MetadataBuilder builder, Element parentEl) {
+			builder.logger.log(LogMgmt.LEV_DEBUG, builder.logMsgDefaultTag, logMsg, null, builder.logMsgSrcId);
+			AbstractRowHelper row = builder.row;
+			XmlBuilder xmlBldr = builder.xmlBldr;
+			Pedigree pg = row.getPedigreedData(colKey);
+			if (pg == null) {
+				throw new UnsupportedOperationException("Invalid XLSX: unsupported column '" + colKey + "'");
+			}
+			if (pg.isEmpty() && !builder.isRequired(curKey)) {
+				return;
+			}
+			String idValue = pg.getRawValue();
+			if (filterEidr) {
+				// what's the namespace (i.e., encoding fmt)?
+				String format = parseIdFormat(idValue);
+				if (format.startsWith("eidr")) {
+					return;
+				}
+			}
+
+			Element altIdEl = builder.buildElement(curKey);
+			parentEl.addContent(altIdEl);
+
+			idValue = idPrefix + idValue;
+			xmlBldr.addToPedigree(altIdEl, pg);
+
+			Element nsEl = row.mGenericElement("Namespace", namespace, xmlBldr.getMdNSpace());
+			altIdEl.addContent(nsEl);
+			xmlBldr.addToPedigree(nsEl, pg);
+			Element idEl = row.mGenericElement("Identifier", idValue, xmlBldr.getMdNSpace());
+			altIdEl.addContent(idEl);
+			xmlBldr.addToPedigree(idEl, pg);
 		}
-		String idValue = pg.getRawValue();
-		String filter = functionArgs.optString("filterEidr", "yes");
-		if (filter.equalsIgnoreCase("yes")) {
-			// what's the namespace (i.e., encoding fmt)?
-			String format = parseIdFormat(idValue);
-			if (format.startsWith("eidr")) {
+	}
+
+	private static final class ChannelGroupingStep extends FunctionStep {
+		private static final XmlName TYPE = new XmlName("{md}Type");
+		private static final XmlName GROUP_ID = new XmlName("{md}GroupIdentity");
+		private static final XmlName DISPLAY_NAME = new XmlName("{md}DisplayName");
+		private final String colKey;
+		private final String grpType;
+
+		ChannelGroupingStep(JSONObject functionDef, String curKey) {
+			super(curKey);
+			JSONObject functionArgs = functionDef.getJSONObject("args");
+			colKey = functionArgs.getString("col");
+			grpType = functionArgs.getString("type");
+		}
+
+		@Override
+		void execute(MetadataBuilder builder, Element parentEl) {
+			Pedigree pg = builder.row.getPedigreedData(colKey);
+			if (pg.isEmpty() && !builder.isRequired(curKey)) {
 				return;
 			}
+			String grpId = pg.getRawValue();
+			String grpName = grpId;
+
+			Element grpEl = builder.buildElement(curKey);
+			parentEl.addContent(grpEl);
+
+			Element typeEl = builder.buildElement(TYPE);
+			grpEl.addContent(typeEl);
+			typeEl.setText(grpType);
+
+			Element idEl = builder.buildElement(GROUP_ID);
+			grpEl.addContent(idEl);
+			idEl.setText(grpId);
+
+			Element nameEl = builder.buildElement(DISPLAY_NAME);
+			grpEl.addContent(nameEl);
+			nameEl.setText(grpName);
+
+			XmlBuilder xmlBldr = builder.xmlBldr;
+			xmlBldr.addToPedigree(grpEl, pg);
+			xmlBldr.addToPedigree(idEl, pg);
+			xmlBldr.addToPedigree(nameEl, pg);
 		}
+	}
 
-		Element altIdEl = buildElement(curKey);
-		parentEl.addContent(altIdEl);
+	private static final class ContentRatingStep extends FunctionStep {
+		/* These are the source columns for the data items.. */
+		private final String rSysCol;
+		private final String rValueCol;
+		private final String rReasonCol;
+		private final String rRegionCol;
 
-		String namespace = functionArgs.optString("namespace", ALT_ID_NAMESPACE_PREFIX);
-		String[] srcId = colKey.split("/");
-		idValue = srcId[srcId.length - 1] + ":" + idValue;
-		xmlBldr.addToPedigree(altIdEl, pg);
+		ContentRatingStep(JSONObject functionDef, String curKey) {
+			super(curKey);
+			JSONObject functionArgs = functionDef.getJSONObject("args");
+			rSysCol = functionArgs.getString("system");
+			rValueCol = functionArgs.getString("value");
+			rReasonCol = functionArgs.getString("reason");
+			rRegionCol = functionArgs.getString("region");
+		}
 
-		Element nsEl = row.mGenericElement("Namespace", namespace, xmlBldr.getMdNSpace());
-		altIdEl.addContent(nsEl);
-		xmlBldr.addToPedigree(nsEl, pg);
-		Element idEl = row.mGenericElement("Identifier", idValue, xmlBldr.getMdNSpace());
-		altIdEl.addContent(idEl);
-		xmlBldr.addToPedigree(idEl, pg);
+		@Override
+		void execute(MetadataBuilder builder, Element parentEl) {
+			builder.func_contentRating(rSysCol, rValueCol, rReasonCol, rRegionCol, parentEl);
+		}
 	}
 
 	/**
-	 * @param functionDef
-	 * @param curKey
-	 * @param parentEl
+	 * Create an element that requires an EIDR value. While doing so, ensure all
+	 * EIDR values are in URN format that is compatible with XML. If the cell's
+	 * value is NOT a valid EIDR, handling depends on the <tt>filter</tt>
+	 * argument specified by the <tt>functionDef</tt>.
 	 */
-	private void func_channelGrouping(JSONObject functionDef, String curKey, Element parentEl) {
-		JSONObject functionArgs = functionDef.getJSONObject("args");
-		Pedigree pg = row.getPedigreedData(functionArgs.getString("col"));
-		if (pg.isEmpty() && !isRequired(curKey)) {
-			return;
+	private static final class EidrStep extends FunctionStep {
+		private final String colKey;
+		private final boolean filter;
+
+		EidrStep(JSONObject functionDef, String curKey) {
+			super(curKey);
+			JSONObject functionArgs = functionDef.getJSONObject("args");
+			colKey = functionArgs.getString("col");
+			filter = functionArgs.optString("filter", "yes").equalsIgnoreCase("yes");
+		}
+
+		@Override
+		void execute(MetadataBuilder builder, Element parentEl) {
+			Pedigree pg = builder.row.getPedigreedData(colKey);
+			if (pg.isEmpty() && !builder.isRequired(curKey)) {
+				return;
+			}
+
+			String idValue = pg.getRawValue();
+			// what's the namespace (i.e., encoding fmt)?
+			String namespace = parseIdFormat(idValue);
+			switch (namespace) {
+			case "eidr-5240":
+				idValue = idValue.replaceFirst("10.5240/", "urn:eidr:10.5240:");
+			case "eidr-URN":
+				break;
+			default:
+				/* value is not an EIDR. */
+				if (filter) {
+					return;
+				}
+				/*
+				 * the non-EIDR value will be used. Assumption is that validation
+				 * procedure will catch and flag the problem.
+				 */
+				break;
+			}
+			Element targetEl = builder.buildElement(curKey);
+			parentEl.addContent(targetEl);
+			targetEl.setText(idValue);
+		}
+	}
+
+	/**
+	 * Handle cases where value has to be translated or reformatted. This
+	 * happens, for example, with durations where XSD specifies xs:duration
+	 * syntax.
+	 */
+	private static final class FormatStep extends FunctionStep {
+		private final String colKey;
+		private final String type;
+		private final boolean rounding;
+
+		FormatStep(JSONObject functionDef, String curKey) {
+			super(curKey);
+			JSONObject functionArgs = functionDef.getJSONObject("args");
+			colKey = functionArgs.getString("col");
+			type = functionArgs.getString("type");
+			rounding = type.equals("xs:dateTime") && functionArgs.getString("roundOff").equals("true");
+		}
+
+		@Override
+		void execute(MetadataBuilder builder, Element parentEl) {
+			Pedigree pg = builder.row.getPedigreedData(colKey);
+			if (pg == null) {
+				throw new UnsupportedOperationException("Invalid JSON: unsupported column '" + colKey + "'");
+			}
+			if (pg.isEmpty() && !builder.isRequired(curKey)) {
+				return;
+			}
+			Element targetEl = builder.buildElement(curKey);
+			parentEl.addContent(targetEl);
+			String value = null;
+			switch (type) {
+			case "xs:boolean":
+				value = FormatConverter.booleanToXml(pg.getRawValue());
+				break;
+			case "xs:dateTime":
+				value = FormatConverter.dateTimeToXml(pg.getRawValue(), rounding);
+				break;
+			case "xs:duration":
+				value = FormatConverter.durationToXml(pg.getRawValue());
+				break;
+			default:
+				throw new UnsupportedOperationException("Invalid JSON: unsupported format type '" + type + "'");
+			}
+			targetEl.setText(value);
+		}
+	}
+
+	private static final class PeopleStep extends FunctionStep {
+		private static final XmlName JOB = new XmlName("{md}Job");
+		private static final XmlName JOB_FUNCTION = new XmlName("{md}JobFunction");
+		private static final XmlName NAME = new XmlName("{md}Name");
+		private static final XmlName DISPLAY_NAME = new XmlName("{md}DisplayName");
+		private final String colKey;
+		private final String job;
+
+		PeopleStep(JSONObject functionDef, String curKey) {
+			super(curKey);
+			JSONObject functionArgs = functionDef.getJSONObject("args");
+			colKey = functionArgs.getString("col");
+			job = functionArgs.getString("job");
+		}
+
+		@Override
+		void execute(MetadataBuilder builder, Element parentEl) {
+			Pedigree pg = builder.row.getPedigreedData(colKey);
+			if (pg.isEmpty() && !builder.isRequired(curKey)) {
+				return;
+			}
+			Element peopleEl = builder.buildElement(curKey);
+			parentEl.addContent(peopleEl);
+
+			Element jobEl = builder.buildElement(JOB);
+			peopleEl.addContent(jobEl);
+			Element jobFEl = builder.buildElement(JOB_FUNCTION);
+			jobEl.addContent(jobFEl);
+			jobFEl.setText(job);
+
+			Element nameEl = builder.buildElement(NAME);
+			peopleEl.addContent(nameEl);
+			Element dNameEl = builder.buildElement(DISPLAY_NAME);
+			nameEl.addContent(dNameEl);
+			dNameEl.setText(pg.getRawValue());
+			builder.xmlBldr.addToPedigree(dNameEl, pg);
 		}
-		String grpId = pg.getRawValue();
-		String grpName = grpId;
-		String grpType = functionArgs.getString("type");
+	}
 
-		Element grpEl = buildElement(curKey);
-		parentEl.addContent(grpEl);
+	private static final class ReleaseHistoryStep extends FunctionStep {
+		private static final XmlName RELEASE_TYPE = new XmlName("{md}ReleaseType");
+		private static final XmlName DATE = new XmlName("{md}Date");
+		private final String colKey;
+		private final String type;
 
-		Element typeEl = buildElement("{md}Type");
-		grpEl.addContent(typeEl);
-		typeEl.setText(grpType);
+		ReleaseHistoryStep(JSONObject functionDef, String curKey) {
+			super(curKey);
+			JSONObject functionArgs = functionDef.getJSONObject("args");
+			colKey = functionArgs.getString("col");
+			type = functionArgs.getString("type");
+		}
 
-		Element idEl = buildElement("{md}GroupIdentity");
-		grpEl.addContent(idEl);
-		idEl.setText(grpId);
+		@Override
+		void execute(MetadataBuilder builder, Element parentEl) {
+			Pedigree pg = builder.row.getPedigreedData(colKey);
+			if (pg.isEmpty() && !builder.isRequired(curKey)) {
+				return;
+			}
+			Element rHistoryEl = builder.buildElement(curKey);
+			parentEl.addContent(rHistoryEl);
 
-		Element nameEl = buildElement("{md}DisplayName");
-		grpEl.addContent(nameEl);
-		nameEl.setText(grpName);
+			Element rTypeEl = builder.buildElement(RELEASE_TYPE);
+			rTypeEl.setText(type);
+			rHistoryEl.addContent(rTypeEl);
 
-		xmlBldr.addToPedigree(grpEl, pg);
-		xmlBldr.addToPedigree(idEl, pg);
-		xmlBldr.addToPedigree(nameEl, pg);
+			Element dateEl = builder.buildElement(DATE);
+			dateEl.setText(pg.getRawValue());
+			builder.xmlBldr.addToPedigree(dateEl, pg);
+			rHistoryEl.addContent(dateEl);
+		}
 	}
 
+	// ######################################################################
+
 	/**
-	 * @param functionDef
-	 * @param targetEl
+	 * @param rSysCol
+	 * @param rValueCol
+	 * @param rReasonCol
+	 * @param rRegionCol
+	 * @param parentEl
 	 */
-	private void func_contentRating(JSONObject functionDef, String curKey, Element parentEl) {
-		JSONObject functionArgs = functionDef.getJSONObject("args");
-
+	private void func_contentRating(String rSysCol, String rValueCol, String rReasonCol, String rRegionCol,
+			Element parentEl) {
 		Element ratings = parentEl.getChild("Ratings", xmlBldr.getAvailsNSpace());
 		boolean addToParent;
 		if (ratings == null) {
@@ -550,11 +980,6 @@ public class MetadataBuilder {
 		} else {
 			addToParent = false;
 		}
-		/* These are the source columns for the data items.. */
-		String rSysCol = functionArgs.getString("system");
-		String rValueCol = functionArgs.getString("value");
-		String rReasonCol = functionArgs.getString("reason");
-		String rRegionCol = functionArgs.getString("region");
 
 		String ratingSystem = row.getData(rSysCol);
 		String ratingValue = row.getData(rValueCol);
@@ -616,172 +1041,34 @@ public class MetadataBuilder {
 
 	}
 
-	/**
-	 * Create an element that requires an EIDR value. While doing so, ensure all
-	 * EIDR values are in URN format that is compatible with XML. If the cell's
-	 * value is NOT a valid EIDR, handling depends on the <tt>filter</tt>
-	 * argument specified by the <tt>functionDef</tt>.
-	 * 
-	 * @param functionDef
-	 * @param curKey
-	 * @param parentEl
-	 */
-	private void func_eidr(JSONObject functionDef, String curKey, Element parentEl) {
-		JSONObject functionArgs = functionDef.getJSONObject("args");
-		Pedigree pg = row.getPedigreedData(functionArgs.getString("col"));
-		if (pg.isEmpty() && !isRequired(curKey)) {
-			return;
-		}
-
-		String idValue = pg.getRawValue();
-		// what's the namespace (i.e., encoding fmt)?
-		String namespace = parseIdFormat(idValue);
-		switch (namespace) {
-		case "eidr-5240":
-			idValue = idValue.replaceFirst("10.5240/", "urn:eidr:10.5240:");
-		case "eidr-URN":
-			break;
-		default:
-			/* value is not an EIDR. */
-			String filter = functionArgs.optString("filter", "yes");
-			if (filter.equalsIgnoreCase("yes")) {
-				return;
-			}
-			/*
-			 * the non-EIDR value will be used. Assumption is that validation
-			 * procedure will catch and flag the problem.
-			 */
-			break;
-		}
-		Element targetEl = buildElement(curKey);
-		parentEl.addContent(targetEl);
-		targetEl.setText(idValue);
-	}
-
-	/**
-	 * Handle cases where value has to be translated or reformatted. This
-	 * happens, for example, with durations where XSD specifies xs:duration
-	 * syntax.
-	 * 
-	 * @param input
-	 * @return
-	 */
-	private void func_format(JSONObject functionDef, String curKey, Element parentEl) {
-		JSONObject functionArgs = functionDef.getJSONObject("args");
-		String colKey = functionArgs.getString("col");
-		Pedigree pg = row.getPedigreedData(colKey);
-		if (pg == null) {
-			throw new UnsupportedOperationException("Invalid JSON: unsupported column '" + colKey + "'");
-		}
-		if (pg.isEmpty() && !isRequired(curKey)) {
-			return;
-		}
-		Element targetEl = buildElement(curKey);
-		parentEl.addContent(targetEl);
-		String type = functionArgs.getString("type");
-		String value = null;
-		switch (type) {
-		case "xs:boolean":
-			value = FormatConverter.booleanToXml(pg.getRawValue());
-			break;
-		case "xs:dateTime":
-			boolean rounding = functionArgs.getString("roundOff").equals("true");
-			value = FormatConverter.dateTimeToXml(pg.getRawValue(), rounding);
-			break;
-		case "xs:duration":
-			value = FormatConverter.durationToXml(pg.getRawValue());
-			break;
-		default:
-			throw new UnsupportedOperationException("Invalid JSON: unsupported format type '" + type + "'");
-		}
-		targetEl.setText(value);
-	}
-
-	/**
-	 * @param functionDef
-	 * @param rHistoryEl
-	 */
-	private void func_people(JSONObject functionDef, String curKey, Element parentEl) {
-		JSONObject functionArgs = functionDef.getJSONObject("args");
-		Pedigree pg = row.getPedigreedData(functionArgs.getString("col"));
-		if (pg.isEmpty() && !isRequired(curKey)) {
-			return;
-		}
-		Element peopleEl = buildElement(curKey);
-		parentEl.addContent(peopleEl);
-
-		Element jobEl = buildElement("{md}Job");
-		peopleEl.addContent(jobEl);
-		Element jobFEl = buildElement("{md}JobFunction");
-		jobEl.addContent(jobFEl);
-		String type = functionArgs.getString("job");
-		jobFEl.setText(type);
-
-		Element nameEl = buildElement("{md}Name");
-		peopleEl.addContent(nameEl);
-		Element dNameEl = buildElement("{md}DisplayName");
-		nameEl.addContent(dNameEl);
-		dNameEl.setText(pg.getRawValue());
-		xmlBldr.addToPedigree(dNameEl, pg);
-	}
-
-	/**
-	 * @param functionDef
-	 * @param rHistoryEl
-	 */
-	private void func_releaseHistory(JSONObject functionDef, String curKey, Element parentEl) {
-		JSONObject functionArgs = functionDef.getJSONObject("args");
-		Pedigree pg = row.getPedigreedData(functionArgs.getString("col"));
-		if (pg.isEmpty() && !isRequired(curKey)) {
-			return;
-		}
-		Element rHistoryEl = buildElement(curKey);
-		parentEl.addContent(rHistoryEl);
-
-		Element rTypeEl = buildElement("{md}ReleaseType");
-		String type = functionArgs.getString("type");
-		rTypeEl.setText(type);
-		rHistoryEl.addContent(rTypeEl);
-
-		Element dateEl = buildElement("{md}Date");
-		dateEl.setText(pg.getRawValue());
-		xmlBldr.addToPedigree(dateEl, pg);
-		rHistoryEl.addContent(dateEl);
-	}
-
 	/**
 	 * @param xmlId
 	 * @return
 	 */
-	private boolean isRequired(String xmlId) {
-		String name = xmlId.split("}")[1];
-		String nsId = null;
-		if (xmlId.startsWith("{avail}")) {
-			nsId = "avails";
-		} else if (xmlId.startsWith("{md}")) {
-			nsId = "md";
-		}
-		return xmlBldr.isRequired(name, nsId);
+	private boolean isRequired(XmlName xmlId) {
+		if (xmlId.name == null) {
+			throw new UnsupportedOperationException("Can not proceed due to malformed JSON; key=" + xmlId.key);
+		}
+		return xmlBldr.isRequired(xmlId.name, xmlId.nsId);
 	}
 
 	/**
-	 * @param key
+	 * @param xmlName
 	 * @return
 	 */
-	private Element buildElement(String key) {
-		if (!key.startsWith("{")) {
-			return new Element(key);
+	private Element buildElement(XmlName xmlName) {
+		if (!xmlName.key.startsWith("{")) {
+			return new Element(xmlName.key);
 		}
 		Namespace childNs = null;
-		if (key.startsWith("{avail}")) {
+		if ("avails".equals(xmlName.nsId)) {
 			childNs = xmlBldr.getAvailsNSpace();
-		} else if (key.startsWith("{md}")) {
+		} else if ("md".equals(xmlName.nsId)) {
 			childNs = xmlBldr.getMdNSpace();
 		} else {
-			throw new UnsupportedOperationException("Can not proceed due to malformed JSON; key=" + key);
+			throw new UnsupportedOperationException("Can not proceed due to malformed JSON; key=" + xmlName.key);
 		}
-		String name = key.split("}")[1];
-		return new Element(name, childNs);
+		return new Element(xmlName.name, childNs);
 	}
 
 	/**
@@ -27,7 +27,7 @@ package com.movielabs.mddflib.avails.xml;
  * intent is to provide the logging components with a way to point the user to
  * the specific location in a file that specified a problematic value. The
  * <tt>source</tt> will normally be an XML Element but, in the case of Avails,
- * may also be a cell in a XLSX spreadsheet.
+ * may also be the <tt>CellLocation</tt> of a cell in a XLSX spreadsheet.
  * 
  * 
  * @author L. Levin, Critical Architectures LLC
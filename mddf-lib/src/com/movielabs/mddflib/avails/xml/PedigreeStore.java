@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) 2016 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.avails.xml;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.movielabs.mddflib.logging.CellLocation;
+
+/**
+ * A compact <tt>Map</tt> linking the content of a generated XML document
+ * (i.e., Elements and Attributes) to the <tt>Pedigree</tt> of the data used to
+ * create it. Keys are compared by identity.
+ * <p>
+ * When the source of a <tt>Pedigree</tt> is a <tt>CellLocation</tt>, only the
+ * sheet, row, and column coordinates and the raw value are retained. The
+ * entries are held in parallel arrays rather than as individual
+ * <tt>Pedigree</tt> and <tt>CellLocation</tt> instances and a new
+ * <tt>Pedigree</tt> is created each time one is retrieved. Nothing retained by
+ * the store refers back to the spreadsheet so that the workbook may be garbage
+ * collected as soon as the conversion to XML is complete.
+ * </p>
+ * <p>
+ * Pedigrees with any other type of source are retained as-is.
+ * </p>
+ * <p>
+ * <b>NOTE:</b> This class is not thread-safe and entries may not be removed
+ * other than via <tt>clear()</tt>.
+ * </p>
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class PedigreeStore extends AbstractMap<Object, Pedigree> {
+
+	private static final int INITIAL_CAPACITY = 256;
+	/* indicates an entry whose source is null */
+	private static final int NO_SHEET = -1;
+	/* indicates an entry whose Pedigree is in the 'others' map */
+	private static final int NOT_A_CELL = -2;
+
+	/* open-addressed table using linear probing */
+	private Object[] keys;
+	private int[] sheets;
+	private int[] rows;
+	private int[] cols;
+	private String[] values;
+	private int size = 0;
+
+	private List<String> sheetNames = new ArrayList<String>();
+	private Map<Object, Pedigree> others = new IdentityHashMap<Object, Pedigree>();
+
+	public PedigreeStore() {
+		allocate(INITIAL_CAPACITY);
+	}
+
+	private void allocate(int capacity) {
+		keys = new Object[capacity];
+		sheets = new int[capacity];
+		rows = new int[capacity];
+		cols = new int[capacity];
+		values = new String[capacity];
+	}
+
+	private int slotFor(Object key) {
+		int mask = keys.length - 1;
+		int h = System.identityHashCode(key);
+		int slot = (h ^ (h >>> 16)) & mask;
+		while (keys[slot] != null && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private int sheetIndex(String sheetName) {
+		int idx = sheetNames.indexOf(sheetName);
+		if (idx < 0) {
+			sheetNames.add(sheetName);
+			idx = sheetNames.size() - 1;
+		}
+		return idx;
+	}
+
+	private Pedigree toPedigree(int slot) {
+		switch (sheets[slot]) {
+		case NOT_A_CELL:
+			return others.get(keys[slot]);
+		case NO_SHEET:
+			return new Pedigree(null, values[slot]);
+		default:
+			CellLocation location = new CellLocation(sheetNames.get(sheets[slot]), rows[slot], cols[slot]);
+			return new Pedigree(location, values[slot]);
+		}
+	}
+
+	@Override
+	public Pedigree put(Object key, Pedigree pedigree) {
+		if (key == null) {
+			throw new NullPointerException();
+		}
+		int slot = slotFor(key);
+		Pedigree prior = null;
+		if (keys[slot] == null) {
+			if (2 * (size + 1) > keys.length) {
+				resize();
+				slot = slotFor(key);
+			}
+			keys[slot] = key;
+			size++;
+		} else {
+			prior = toPedigree(slot);
+			others.remove(key);
+		}
+		if (pedigree == null) {
+			sheets[slot] = NOT_A_CELL;
+			others.put(key, null);
+			return prior;
+		}
+		Object source = pedigree.getSource();
+		values[slot] = pedigree.getRawValue();
+		if (source == null) {
+			sheets[slot] = NO_SHEET;
+		} else if (source instanceof CellLocation) {
+			CellLocation location = (CellLocation) source;
+			sheets[slot] = sheetIndex(location.getSheetName());
+			rows[slot] = location.getRowIndex();
+			cols[slot] = location.getColumnIndex();
+		} else {
+			sheets[slot] = NOT_A_CELL;
+			values[slot] = null;
+			others.put(key, pedigree);
+		}
+		return prior;
+	}
+
+	private void resize() {
+		Object[] oldKeys = keys;
+		int[] oldSheets = sheets;
+		int[] oldRows = rows;
+		int[] oldCols = cols;
+		String[] oldValues = values;
+		allocate(oldKeys.length * 2);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				int slot = slotFor(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				sheets[slot] = oldSheets[i];
+				rows[slot] = oldRows[i];
+				cols[slot] = oldCols[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	@Override
+	public Pedigree get(Object key) {
+		if (key == null) {
+			return null;
+		}
+		int slot = slotFor(key);
+		if (keys[slot] == null) {
+			return null;
+		}
+		return toPedigree(slot);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return (key != null) && (keys[slotFor(key)] != null);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(keys, null);
+		Arrays.fill(values, null);
+		size = 0;
+		sheetNames.clear();
+		others.clear();
+	}
+
+	@Override
+	public Set<Map.Entry<Object, Pedigree>> entrySet() {
+		return new AbstractSet<Map.Entry<Object, Pedigree>>() {
+
+			@Override
+			public Iterator<Map.Entry<Object, Pedigree>> iterator() {
+				return new Iterator<Map.Entry<Object, Pedigree>>() {
+					private int next = advance(0);
+
+					private int advance(int from) {
+						while (from < keys.length && keys[from] == null) {
+							from++;
+						}
+						return from;
+					}
+
+					@Override
+					public boolean hasNext() {
+						return next < keys.length;
+					}
+
+					@Override
+					public Map.Entry<Object, Pedigree> next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						int slot = next;
+						next = advance(next + 1);
+						return new SimpleImmutableEntry<Object, Pedigree>(keys[slot], toPedigree(slot));
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+}
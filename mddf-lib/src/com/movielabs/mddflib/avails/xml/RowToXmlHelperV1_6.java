@@ -22,7 +22,6 @@
  */
 package com.movielabs.mddflib.avails.xml;
 
-import org.apache.poi.ss.usermodel.Row;
 import org.jdom2.Element;
 
 import com.movielabs.mddflib.logging.LogMgmt;
@@ -42,7 +41,7 @@ public class RowToXmlHelperV1_6 extends RowToXmlHelperV1_7 {
 	 * @param sheet
 	 * @param row
 	 */
-	RowToXmlHelperV1_6(AvailsSheet sheet, Row row, LogMgmt logger) {
+	RowToXmlHelperV1_6(AvailsSheet sheet, AvailsRow row, LogMgmt logger) {
 		super(sheet, row, logger);
 		// TODO Auto-generated constructor stub
 	}
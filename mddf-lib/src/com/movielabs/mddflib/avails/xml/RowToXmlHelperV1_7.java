@@ -22,8 +22,6 @@
  */
 package com.movielabs.mddflib.avails.xml;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
 import org.jdom2.Attribute;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
@@ -46,7 +44,7 @@ public class RowToXmlHelperV1_7 extends AbstractRowHelper {
 	 * @param logger
 	 * @param fields
 	 */
-	RowToXmlHelperV1_7(AvailsSheet sheet, Row row, LogMgmt logger) {
+	RowToXmlHelperV1_7(AvailsSheet sheet, AvailsRow row, LogMgmt logger) {
 		super(sheet, row, logger);
 	}
 
@@ -271,7 +269,7 @@ public class RowToXmlHelperV1_7 extends AbstractRowHelper {
 				break;
 			default:
 				String errMsg = "Unrecognized PriceType '" + tName + "'";
-				Cell target = (Cell) pg.getSource();
+				Object target = pg.getSource();
 				logger.logIssue(LogMgmt.TAG_XLSX, LogMgmt.LEV_ERR, target, errMsg, null, null, XmlBuilder.moduleId);
 				return;
 
@@ -305,7 +303,7 @@ public class RowToXmlHelperV1_7 extends AbstractRowHelper {
 		switch (value) {
 		case "SRP":
 			String errMsg = "Invalid PriceType  '" + value + "' for v1.7 Excel";
-			Cell target = (Cell) pg.getSource();
+			Object target = pg.getSource();
 			logger.logIssue(LogMgmt.TAG_XLSX, LogMgmt.LEV_ERR, target, errMsg, null, null, XmlBuilder.moduleId);
 			return null;
 		}
@@ -432,17 +430,11 @@ public class RowToXmlHelperV1_7 extends AbstractRowHelper {
 	 * @return
 	 */
 	protected String getData(String colKey) {
-		int cellIdx = sheet.getColumnIdx(colKey);
-		if (cellIdx < 0) {
+		Pedigree pg = getPedigreedData(colKey);
+		if (pg == null) {
 			return null;
 		} else {
-			Cell cell = row.getCell(cellIdx);
-			usesFormula(cell);
-			String value = dataF.formatCellValue(cell);
-			if (value == null) {
-				value = "";
-			}
-			return value;
+			return pg.getRawValue();
 		}
 	}
 
@@ -22,7 +22,6 @@
  */
 package com.movielabs.mddflib.avails.xml;
 
-import org.apache.poi.ss.usermodel.Row;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
 
@@ -43,7 +42,7 @@ public class RowToXmlHelperV1_7_2 extends RowToXmlHelperV1_7 {
 	/**
 	 * @param fields
 	 */
-	RowToXmlHelperV1_7_2(AvailsSheet sheet, Row row, LogMgmt logger) {
+	RowToXmlHelperV1_7_2(AvailsSheet sheet, AvailsRow row, LogMgmt logger) {
 		super(sheet, row, logger);
 	}
 
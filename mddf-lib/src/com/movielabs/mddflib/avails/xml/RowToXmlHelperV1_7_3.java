@@ -27,8 +27,6 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
 import org.jdom2.Attribute;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
@@ -51,7 +49,7 @@ public class RowToXmlHelperV1_7_3 extends RowToXmlHelperV1_7_2 {
 	 * @param logger
 	 * @param fields
 	 */
-	RowToXmlHelperV1_7_3(AvailsSheet sheet, Row row, LogMgmt logger) {
+	RowToXmlHelperV1_7_3(AvailsSheet sheet, AvailsRow row, LogMgmt logger) {
 		super(sheet, row, logger);
 	}
 
@@ -135,7 +133,7 @@ public class RowToXmlHelperV1_7_3 extends RowToXmlHelperV1_7_2 {
 		reqLanguages.remove(""); // not the same as null
 		// Anything left is probably an error
 		if (!reqLanguages.isEmpty()) {
-			Cell sourceCell = (Cell) pg.getSource();
+			Object sourceCell = pg.getSource();
 			String details = "A RequiredFulfillmentLanguage should also be identified as an AssetLanguage that the content owner intends to provide. ";
 			for (String reqLangCode : reqLanguages) {
 				String errMsg = "Required fulfillment language '" + reqLangCode + "' is not an AssetLanguage";
@@ -217,7 +215,7 @@ public class RowToXmlHelperV1_7_3 extends RowToXmlHelperV1_7_2 {
 		 */
 		String anchorKey = childName + " Condition";
 		if (condEl == null) {
-			Cell sourceCell = (Cell) lagData.getSource();
+			Object sourceCell = lagData.getSource();
 			String errMsg = "Invalid use of '" + lagKey + "'; Missing " + anchorKey;
 			String details = lagKey + " is an offest from a " + anchorKey + ". The " + anchorKey
 					+ " value, however, was not specified";
@@ -226,7 +224,7 @@ public class RowToXmlHelperV1_7_3 extends RowToXmlHelperV1_7_2 {
 		}
 		// Have a base value but is it the right type?
 		if (!condEl.getName().endsWith("Condition")) {
-			Cell sourceCell = (Cell) lagData.getSource();
+			Object sourceCell = lagData.getSource();
 			String errMsg = "Invalid use of '" + lagKey + "'; Base value must be conditional ";
 			String details = lagKey + " is an offest from a " + anchorKey + ". The " + childName
 					+ " value, however, was specified as an absolute date/time";
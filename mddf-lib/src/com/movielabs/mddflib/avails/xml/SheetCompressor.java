@@ -0,0 +1,349 @@
+/**
+ * Copyright (c) 2016 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.avails.xml;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.apache.poi.util.CloseIgnoringInputStream;
+
+/**
+ * Compresses an Avails XLSX by hiding the empty columns of its first sheet
+ * without loading the workbook. The file is processed in two passes:
+ * <ol>
+ * <li>the sheet's rows are read one at a time via the streaming API to identify
+ * the empty columns, then</li>
+ * <li>the XLSX package is copied entry by entry with the sheet's
+ * <tt>&lt;cols&gt;</tt> definitions rewritten so that the empty columns are
+ * hidden. All other content is copied as-is.</li>
+ * </ol>
+ * Memory usage is therefore independent of the number of rows. The columns
+ * identified as empty are the same as those hidden by
+ * <tt>AvailsSheet.compress()</tt>.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+final class SheetCompressor {
+
+	private static final String ATTR_MIN = "min";
+	private static final String ATTR_MAX = "max";
+	private static final String ATTR_HIDDEN = "hidden";
+
+	private SheetCompressor() {
+	}
+
+	/**
+	 * Write a compressed version of the <tt>srcFile</tt> to the
+	 * <tt>outStream</tt>. The <tt>outStream</tt> is not closed.
+	 * 
+	 * @param srcFile
+	 * @param outStream
+	 * @throws IOException
+	 */
+	static void compress(File srcFile, OutputStream outStream) throws IOException {
+		EmptyColumnFinder finder = new EmptyColumnFinder();
+		StreamingSheetReader reader = new StreamingSheetReader(srcFile);
+		String sheetPart;
+		try {
+			sheetPart = reader.readRows(0, finder);
+		} finally {
+			reader.close();
+		}
+		String sheetEntry = sheetPart.startsWith("/") ? sheetPart.substring(1) : sheetPart;
+		boolean[] isEmptyCol = finder.getEmptyColumns();
+
+		ZipInputStream zipIn = new ZipInputStream(new FileInputStream(srcFile));
+		try {
+			ZipOutputStream zipOut = new ZipOutputStream(outStream);
+			ZipEntry entry;
+			byte[] buffer = new byte[8192];
+			while ((entry = zipIn.getNextEntry()) != null) {
+				zipOut.putNextEntry(new ZipEntry(entry.getName()));
+				if (entry.getName().equals(sheetEntry)) {
+					hideColumns(zipIn, zipOut, isEmptyCol);
+				} else {
+					int cnt;
+					while ((cnt = zipIn.read(buffer)) > 0) {
+						zipOut.write(buffer, 0, cnt);
+					}
+				}
+				zipOut.closeEntry();
+			}
+			/* finish rather than close so that the outStream remains open */
+			zipOut.finish();
+		} finally {
+			zipIn.close();
+		}
+	}
+
+	/**
+	 * Identifies the empty columns of a sheet. As with
+	 * <tt>AvailsSheet.compress()</tt>, the number of columns is determined by
+	 * the 1st header row and all rows after the 2nd header row are checked.
+	 */
+	private static class EmptyColumnFinder implements Consumer<AvailsRow> {
+		private boolean[] isEmptyCol = new boolean[0];
+		private int emptyColCount = 0;
+
+		@Override
+		public void accept(AvailsRow nextRow) {
+			int rowNum = nextRow.getRowNum();
+			if (rowNum == 0) {
+				int colCount = 0;
+				for (int idxC = 0; idxC < nextRow.getLastCellNum(); idxC++) {
+					if (nextRow.getCell(idxC) != null) {
+						colCount++;
+					}
+				}
+				isEmptyCol = new boolean[colCount];
+				for (int i = 0; i < colCount; i++) {
+					isEmptyCol[i] = true;
+				}
+				emptyColCount = colCount;
+				return;
+			}
+			if (rowNum < 2 || emptyColCount == 0) {
+				return;
+			}
+			for (int idxC = 0; idxC < isEmptyCol.length; idxC++) {
+				// only check a column if it still shows as empty
+				if (isEmptyCol[idxC]) {
+					if (!nextRow.getFormattedValue(idxC).isEmpty()) {
+						isEmptyCol[idxC] = false;
+						emptyColCount--;
+					}
+				}
+			}
+		}
+
+		boolean[] getEmptyColumns() {
+			return isEmptyCol;
+		}
+	}
+
+	/**
+	 * Copy the XML of a worksheet, adding <tt>hidden="true"</tt> to the
+	 * definitions of the empty columns. Existing definitions spanning both empty
+	 * and non-empty columns are split and new definitions are added for empty
+	 * columns that did not have one. If the sheet has no <tt>&lt;cols&gt;</tt>
+	 * element, one is inserted before the <tt>&lt;sheetData&gt;</tt>. Neither
+	 * stream is closed.
+	 * 
+	 * @param inStream
+	 * @param outStream
+	 * @param isEmptyCol
+	 * @throws IOException
+	 */
+	static void hideColumns(InputStream inStream, OutputStream outStream, boolean[] isEmptyCol)
+			throws IOException {
+		XMLInputFactory inFactory = XMLInputFactory.newInstance();
+		XMLOutputFactory outFactory = XMLOutputFactory.newInstance();
+		XMLEventFactory eventFactory = XMLEventFactory.newInstance();
+		try {
+			/* some StAX implementations close the underlying streams */
+			XMLEventReader reader = inFactory.createXMLEventReader(new CloseIgnoringInputStream(inStream));
+			XMLEventWriter writer = outFactory.createXMLEventWriter(new CloseIgnoringOutputStream(outStream),
+					"UTF-8");
+			boolean colsDone = false;
+			int depth = 0;
+			while (reader.hasNext()) {
+				XMLEvent event = reader.nextEvent();
+				if (event.isStartElement()) {
+					depth++;
+					StartElement start = event.asStartElement();
+					String name = start.getName().getLocalPart();
+					if (depth == 2 && !colsDone && name.equals("cols")) {
+						List<Map<QName, String>> colDefs = new ArrayList<Map<QName, String>>();
+						readCols(reader, colDefs);
+						depth--;
+						writeCols(writer, eventFactory, start.getName(), mergeHidden(colDefs, isEmptyCol));
+						colsDone = true;
+						continue;
+					}
+					if (depth == 2 && !colsDone && name.equals("sheetData")) {
+						List<Map<QName, String>> colDefs = mergeHidden(new ArrayList<Map<QName, String>>(),
+								isEmptyCol);
+						if (!colDefs.isEmpty()) {
+							QName colsName = new QName(start.getName().getNamespaceURI(), "cols",
+									start.getName().getPrefix());
+							writeCols(writer, eventFactory, colsName, colDefs);
+						}
+						colsDone = true;
+					}
+				} else if (event.isEndElement()) {
+					depth--;
+				}
+				writer.add(event);
+			}
+			writer.flush();
+			writer.close();
+			reader.close();
+		} catch (XMLStreamException e) {
+			throw new IOException("Unable to rewrite worksheet: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Read the <tt>&lt;col&gt;</tt> children of a <tt>&lt;cols&gt;</tt>
+	 * element, consuming all events up to and including the
+	 * <tt>&lt;/cols&gt;</tt>.
+	 */
+	private static void readCols(XMLEventReader reader, List<Map<QName, String>> colDefs)
+			throws XMLStreamException {
+		while (reader.hasNext()) {
+			XMLEvent event = reader.nextEvent();
+			if (event.isStartElement()) {
+				Map<QName, String> attributes = new LinkedHashMap<QName, String>();
+				Iterator<?> attIt = event.asStartElement().getAttributes();
+				while (attIt.hasNext()) {
+					Attribute att = (Attribute) attIt.next();
+					attributes.put(att.getName(), att.getValue());
+				}
+				colDefs.add(attributes);
+			} else if (event.isEndElement() && event.asEndElement().getName().getLocalPart().equals("cols")) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @param colDefs
+	 *            the existing column definitions
+	 * @param isEmptyCol
+	 * @return the column definitions, ordered by the <tt>min</tt> attribute,
+	 *         with all empty columns hidden
+	 */
+	static List<Map<QName, String>> mergeHidden(List<Map<QName, String>> colDefs, boolean[] isEmptyCol) {
+		QName minAttr = new QName(ATTR_MIN);
+		QName maxAttr = new QName(ATTR_MAX);
+		QName hiddenAttr = new QName(ATTR_HIDDEN);
+		boolean[] covered = new boolean[isEmptyCol.length];
+		List<Map<QName, String>> merged = new ArrayList<Map<QName, String>>();
+		for (Map<QName, String> colDef : colDefs) {
+			int min = Integer.parseInt(colDef.get(minAttr));
+			int max = Integer.parseInt(colDef.get(maxAttr));
+			/* split the (1-based) range into runs with the same visibility */
+			int runStart = min;
+			while (runStart <= max) {
+				boolean hide = isHidden(runStart, isEmptyCol);
+				int runEnd = runStart;
+				if (runStart > isEmptyCol.length) {
+					runEnd = max;
+				}
+				while (runEnd < max && isHidden(runEnd + 1, isEmptyCol) == hide) {
+					runEnd++;
+				}
+				Map<QName, String> run = new LinkedHashMap<QName, String>(colDef);
+				run.put(minAttr, Integer.toString(runStart));
+				run.put(maxAttr, Integer.toString(runEnd));
+				if (hide) {
+					run.put(hiddenAttr, "true");
+				}
+				merged.add(run);
+				for (int i = runStart; i <= Math.min(runEnd, isEmptyCol.length); i++) {
+					covered[i - 1] = true;
+				}
+				runStart = runEnd + 1;
+			}
+		}
+		for (int i = 0; i < isEmptyCol.length; i++) {
+			if (isEmptyCol[i] && !covered[i]) {
+				Map<QName, String> colDef = new LinkedHashMap<QName, String>();
+				colDef.put(minAttr, Integer.toString(i + 1));
+				colDef.put(maxAttr, Integer.toString(i + 1));
+				colDef.put(hiddenAttr, "true");
+				merged.add(colDef);
+			}
+		}
+		merged.sort((c1, c2) -> Integer.compare(Integer.parseInt(c1.get(minAttr)),
+				Integer.parseInt(c2.get(minAttr))));
+		return merged;
+	}
+
+	/**
+	 * @param colNum
+	 *            1-based column number
+	 * @param isEmptyCol
+	 * @return
+	 */
+	private static boolean isHidden(int colNum, boolean[] isEmptyCol) {
+		return (colNum <= isEmptyCol.length) && isEmptyCol[colNum - 1];
+	}
+
+	private static void writeCols(XMLEventWriter writer, XMLEventFactory eventFactory, QName colsName,
+			List<Map<QName, String>> colDefs) throws XMLStreamException {
+		QName colName = new QName(colsName.getNamespaceURI(), "col", colsName.getPrefix());
+		writer.add(eventFactory.createStartElement(colsName, null, null));
+		for (Map<QName, String> colDef : colDefs) {
+			List<Attribute> attributes = new ArrayList<Attribute>();
+			for (Map.Entry<QName, String> entry : colDef.entrySet()) {
+				attributes.add(eventFactory.createAttribute(entry.getKey(), entry.getValue()));
+			}
+			writer.add(eventFactory.createStartElement(colName, attributes.iterator(), null));
+			writer.add(eventFactory.createEndElement(colName, null));
+		}
+		writer.add(eventFactory.createEndElement(colsName, null));
+	}
+
+	private static class CloseIgnoringOutputStream extends FilterOutputStream {
+
+		CloseIgnoringOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+	}
+}
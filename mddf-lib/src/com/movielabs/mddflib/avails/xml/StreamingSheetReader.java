@@ -0,0 +1,547 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.avails.xml;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.poi.UnsupportedFileFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.movielabs.mddflib.logging.CellLocation;
+
+/**
+ * Reads the sheets of an XLSX file using the POI <i>event</i> API (i.e.,
+ * <tt>XSSFReader</tt> and a SAX handler) rather than by loading an
+ * <tt>XSSFWorkbook</tt>. Only the shared-strings and styles tables are held in
+ * memory. Each row is passed to a handler as soon as it has been parsed and is
+ * not retained by the reader.
+ * <p>
+ * Rows and cells are returned as compact, read-only <tt>AvailsRow</tt> and
+ * <tt>AvailsCell</tt> instances. Row and column indices are identical to those
+ * that would be assigned by an <tt>XSSFWorkbook</tt> and a cell's formatted
+ * value is the one a <tt>DataFormatter</tt> would produce for the equivalent
+ * <tt>XSSFCell</tt>.
+ * </p>
+ * <p>
+ * <b>Note:</b> the formula of a cell that is part of a <i>shared</i> formula is
+ * reported as the formula of the master cell without any adjustment of cell
+ * references.
+ * </p>
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+class StreamingSheetReader {
+
+	/**
+	 * One <tt>DataFormatter</tt> per thread as it is not thread-safe.
+	 */
+	private static final ThreadLocal<DataFormatter> FORMATTER = ThreadLocal.withInitial(DataFormatter::new);
+
+	/**
+	 * Properties of the workbook required to interpret cell values.
+	 */
+	private static class WorkbookContext {
+		private StylesTable styles;
+		private boolean date1904;
+
+		/**
+		 * Format a numeric value using the number format of the indicated style.
+		 * 
+		 * @param value
+		 * @param styleIdx
+		 * @return
+		 */
+		String format(double value, int styleIdx) {
+			XSSFCellStyle style = null;
+			if ((styles != null) && (styles.getNumCellStyles() > 0)) {
+				style = styles.getStyleAt(styleIdx);
+			}
+			String formatString = (style == null) ? null : style.getDataFormatString();
+			if ((formatString == null) || formatString.trim().isEmpty()) {
+				return String.valueOf(value);
+			}
+			return FORMATTER.get().formatRawCellContents(value, style.getDataFormat(), formatString, date1904);
+		}
+	}
+
+	/**
+	 * Context used for rows that are not read from a workbook (e.g., rows of a
+	 * delimited text file). There are no styles and all values are text.
+	 */
+	private static final WorkbookContext TEXT_CONTEXT = new WorkbookContext();
+
+	private OPCPackage pkg;
+	private XSSFReader reader;
+	private ReadOnlySharedStringsTable sharedStrings;
+	private WorkbookContext context = new WorkbookContext();
+	private List<String> sheetNames = new ArrayList<String>();
+
+	/**
+	 * Open an XLSX file accessible via the local file system.
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	StreamingSheetReader(File file) throws IOException {
+		if (!file.isFile()) {
+			throw new FileNotFoundException(file.getPath());
+		}
+		try {
+			init(OPCPackage.open(file, PackageAccess.READ));
+		} catch (OpenXML4JException | SAXException | UnsupportedFileFormatException e) {
+			throw new IOException("Unable to read XLSX: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Open an XLSX from an <tt>InputStream</tt>. The compressed contents of the
+	 * stream is buffered but individual parts are only decompressed when read.
+	 *
+	 * @param inStream
+	 * @throws IOException
+	 */
+	StreamingSheetReader(InputStream inStream) throws IOException {
+		try {
+			init(OPCPackage.open(inStream));
+		} catch (OpenXML4JException | SAXException | UnsupportedFileFormatException e) {
+			throw new IOException("Unable to read XLSX: " + e.getMessage(), e);
+		}
+	}
+
+	private void init(OPCPackage pkg) throws IOException, OpenXML4JException, SAXException {
+		this.pkg = pkg;
+		reader = new XSSFReader(pkg);
+		sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+		context.styles = reader.getStylesTable();
+		parse(reader.getWorkbookData(), new DefaultHandler() {
+			@Override
+			public void startElement(String uri, String localName, String qName, Attributes atts) {
+				if (nameOf(localName, qName).equals("workbookPr")) {
+					String value = atts.getValue("date1904");
+					context.date1904 = "1".equals(value) || "true".equals(value);
+				}
+			}
+		});
+		XSSFReader.SheetIterator sheetIt = (XSSFReader.SheetIterator) reader.getSheetsData();
+		while (sheetIt.hasNext()) {
+			sheetIt.next().close();
+			sheetNames.add(sheetIt.getSheetName());
+		}
+	}
+
+	/**
+	 * @return the names of all sheets in workbook sequence
+	 */
+	List<String> getSheetNames() {
+		return Collections.unmodifiableList(sheetNames);
+	}
+
+	/**
+	 * Read the sheet with the specified (zero-based) index, passing each row to
+	 * the <tt>rowHandler</tt> as soon as it has been parsed. The rows are not
+	 * retained by the reader so memory usage is independent of the size of the
+	 * sheet.
+	 *
+	 * @param sheetNumber
+	 * @param rowHandler
+	 * @return the name of the package part containing the sheet (e.g.,
+	 *         <tt>/xl/worksheets/sheet1.xml</tt>)
+	 * @throws IllegalArgumentException if the sheet does not exist
+	 * @throws IOException
+	 */
+	String readRows(int sheetNumber, Consumer<? super AvailsRow> rowHandler) throws IOException {
+		if ((sheetNumber < 0) || (sheetNumber >= sheetNames.size())) {
+			throw new IllegalArgumentException("Sheet index (" + sheetNumber + ") is out of range (0.."
+					+ (sheetNames.size() - 1) + ")");
+		}
+		try {
+			XSSFReader.SheetIterator sheetIt = (XSSFReader.SheetIterator) reader.getSheetsData();
+			for (int i = 0; i < sheetNumber; i++) {
+				sheetIt.next().close();
+			}
+			InputStream sheetStream = sheetIt.next();
+			String partName = sheetIt.getSheetPart().getPartName().getName();
+			parse(sheetStream, new SheetHandler(sheetNames.get(sheetNumber), rowHandler));
+			return partName;
+		} catch (OpenXML4JException | SAXException e) {
+			throw new IOException("Unable to read sheet " + sheetNumber + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Release the underlying package.
+	 */
+	void close() {
+		pkg.revert();
+	}
+
+	private static void parse(InputStream inStream, DefaultHandler handler) throws IOException, SAXException {
+		try {
+			XMLReader parser = SAXHelper.newXMLReader();
+			parser.setContentHandler(handler);
+			parser.parse(new InputSource(inStream));
+		} catch (javax.xml.parsers.ParserConfigurationException e) {
+			throw new SAXException(e);
+		} finally {
+			inStream.close();
+		}
+	}
+
+	private static String nameOf(String localName, String qName) {
+		if ((localName != null) && !localName.isEmpty()) {
+			return localName;
+		}
+		int idx = qName.indexOf(':');
+		return (idx < 0) ? qName : qName.substring(idx + 1);
+	}
+
+	/**
+	 * SAX handler for the <tt>sheetN.xml</tt> part of an XLSX package.
+	 */
+	private class SheetHandler extends DefaultHandler {
+		private String sheetName;
+		private Consumer<? super StreamedRow> rowHandler;
+		private StreamedRow curRow;
+		private int prevRowNum = -1;
+		private int prevColNum = -1;
+		private int colNum;
+		private String cellType;
+		private int styleIdx;
+		private StringBuilder value = new StringBuilder();
+		private StringBuilder formula = new StringBuilder();
+		private boolean hasValue;
+		private boolean hasFormula;
+		private String sharedIdx;
+		private boolean inValue;
+		private boolean inFormula;
+		private boolean inInlineStr;
+		private boolean inPhonetic;
+		private Map<String, String> sharedFormulas = new HashMap<String, String>();
+
+		/**
+		 * @param sheetName  the name of the sheet containing the rows
+		 * @param rowHandler
+		 */
+		SheetHandler(String sheetName, Consumer<? super StreamedRow> rowHandler) {
+			this.sheetName = sheetName;
+			this.rowHandler = rowHandler;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes atts) {
+			switch (nameOf(localName, qName)) {
+			case "row":
+				String rowRef = atts.getValue("r");
+				int rowNum = (rowRef == null) ? prevRowNum + 1 : Integer.parseInt(rowRef) - 1;
+				curRow = new StreamedRow(rowNum, sheetName, context);
+				prevRowNum = rowNum;
+				prevColNum = -1;
+				break;
+			case "c":
+				String cellRef = atts.getValue("r");
+				colNum = (cellRef == null) ? prevColNum + 1 : toColumnIndex(cellRef);
+				prevColNum = colNum;
+				cellType = atts.getValue("t");
+				String style = atts.getValue("s");
+				styleIdx = (style == null) ? 0 : Integer.parseInt(style);
+				value.setLength(0);
+				formula.setLength(0);
+				hasValue = false;
+				hasFormula = false;
+				sharedIdx = null;
+				break;
+			case "v":
+				inValue = true;
+				hasValue = true;
+				break;
+			case "f":
+				inFormula = true;
+				hasFormula = true;
+				if ("shared".equals(atts.getValue("t"))) {
+					sharedIdx = atts.getValue("si");
+				}
+				break;
+			case "is":
+				inInlineStr = true;
+				hasValue = true;
+				break;
+			case "rPh":
+				inPhonetic = true;
+				break;
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			switch (nameOf(localName, qName)) {
+			case "row":
+				rowHandler.accept(curRow);
+				curRow = null;
+				break;
+			case "c":
+				curRow.addCell(buildCell());
+				break;
+			case "v":
+				inValue = false;
+				break;
+			case "f":
+				inFormula = false;
+				break;
+			case "is":
+				inInlineStr = false;
+				break;
+			case "rPh":
+				inPhonetic = false;
+				break;
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			if (inValue) {
+				value.append(ch, start, length);
+			} else if (inFormula) {
+				formula.append(ch, start, length);
+			} else if (inInlineStr && !inPhonetic) {
+				value.append(ch, start, length);
+			}
+		}
+
+		private StreamedCell buildCell() {
+			StreamedCell cell = new StreamedCell(curRow, colNum, styleIdx);
+			if (hasFormula) {
+				String fText = formula.toString();
+				if (sharedIdx != null) {
+					if (fText.isEmpty()) {
+						String master = sharedFormulas.get(sharedIdx);
+						fText = (master == null) ? "" : master;
+					} else {
+						sharedFormulas.put(sharedIdx, fText);
+					}
+				}
+				cell.formula = fText;
+			}
+			String text = value.toString();
+			String type = (cellType == null) ? "n" : cellType;
+			switch (type) {
+			case "s":
+				cell.baseType = CellType.STRING;
+				if (hasValue) {
+					cell.text = sharedStrings.getEntryAt(Integer.parseInt(text.trim()));
+				}
+				break;
+			case "inlineStr":
+			case "str":
+				cell.baseType = CellType.STRING;
+				cell.text = text;
+				break;
+			case "b":
+				cell.baseType = CellType.BOOLEAN;
+				cell.text = text;
+				break;
+			case "e":
+				cell.baseType = CellType.ERROR;
+				cell.text = text;
+				break;
+			default:
+				if (hasValue && !text.isEmpty()) {
+					cell.baseType = CellType.NUMERIC;
+					cell.numValue = Double.parseDouble(text);
+				} else {
+					cell.baseType = CellType.BLANK;
+				}
+			}
+			return cell;
+		}
+	}
+
+	/**
+	 * Convert the column portion of an 'A1' style cell reference to a zero-based
+	 * index. This is equivalent to <tt>new CellReference(ref).getCol()</tt>
+	 * without the overhead of parsing the row and sheet components.
+	 * 
+	 * @param ref
+	 * @return
+	 */
+	static int toColumnIndex(String ref) {
+		int col = 0;
+		for (int i = 0; i < ref.length(); i++) {
+			char c = ref.charAt(i);
+			if ((c >= 'A') && (c <= 'Z')) {
+				col = (col * 26) + (c - 'A' + 1);
+			} else if (c != '$') {
+				break;
+			}
+		}
+		return col - 1;
+	}
+
+	/**
+	 * A read-only row of a streamed sheet.
+	 */
+	static final class StreamedRow implements AvailsRow {
+		private final int rowNum;
+		private final WorkbookContext context;
+		private String sheetName;
+		private StreamedCell[] cellsByIdx = new StreamedCell[0];
+		private int lastCellNum = -1;
+
+		private StreamedRow(int rowNum, String sheetName, WorkbookContext context) {
+			this.rowNum = rowNum;
+			this.sheetName = sheetName;
+			this.context = context;
+		}
+
+		/**
+		 * Create an empty row to be populated with text values via
+		 * <tt>addText()</tt>.
+		 * 
+		 * @param rowNum zero-based row index
+		 * @return
+		 */
+		static StreamedRow textRow(int rowNum) {
+			return new StreamedRow(rowNum, null, TEXT_CONTEXT);
+		}
+
+		/**
+		 * Add a <tt>STRING</tt> cell.
+		 * 
+		 * @param colNum zero-based column index
+		 * @param text
+		 */
+		void addText(int colNum, String text) {
+			StreamedCell cell = new StreamedCell(this, colNum, 0);
+			cell.baseType = CellType.STRING;
+			cell.text = text;
+			addCell(cell);
+		}
+
+		/**
+		 * @param sheetName the name of the sheet containing the row
+		 */
+		void setSheetName(String sheetName) {
+			this.sheetName = sheetName;
+		}
+
+		private void addCell(StreamedCell cell) {
+			int idx = cell.colNum;
+			if (idx >= cellsByIdx.length) {
+				StreamedCell[] expanded = new StreamedCell[Math.max(idx + 1, cellsByIdx.length * 2)];
+				System.arraycopy(cellsByIdx, 0, expanded, 0, cellsByIdx.length);
+				cellsByIdx = expanded;
+			}
+			cellsByIdx[idx] = cell;
+			lastCellNum = Math.max(lastCellNum, idx + 1);
+		}
+
+		@Override
+		public int getRowNum() {
+			return rowNum;
+		}
+
+		@Override
+		public int getLastCellNum() {
+			return lastCellNum;
+		}
+
+		@Override
+		public AvailsCell getCell(int colIdx) {
+			if ((colIdx < 0) || (colIdx >= cellsByIdx.length)) {
+				return null;
+			}
+			return cellsByIdx[colIdx];
+		}
+	}
+
+	/**
+	 * A read-only cell of a streamed sheet. The value is retained in its raw
+	 * form and is only formatted when requested.
+	 */
+	static final class StreamedCell implements AvailsCell {
+		private final StreamedRow row;
+		private final int colNum;
+		private final int styleIdx;
+		private CellType baseType;
+		private String text;
+		private double numValue;
+		private String formula;
+
+		private StreamedCell(StreamedRow row, int colNum, int styleIdx) {
+			this.row = row;
+			this.colNum = colNum;
+			this.styleIdx = styleIdx;
+		}
+
+		@Override
+		public String getFormattedValue() {
+			if (formula != null) {
+				return formula;
+			}
+			switch (baseType) {
+			case NUMERIC:
+				return row.context.format(numValue, styleIdx);
+			case BOOLEAN:
+				return ("1".equals(text) || "true".equalsIgnoreCase(text)) ? "TRUE" : "FALSE";
+			case STRING:
+			case ERROR:
+				return (text == null) ? "" : text;
+			default:
+				return "";
+			}
+		}
+
+		@Override
+		public boolean isFormula() {
+			return formula != null;
+		}
+
+		@Override
+		public CellLocation getLocation() {
+			return new CellLocation(row.sheetName, row.rowNum, colNum);
+		}
+	}
+}
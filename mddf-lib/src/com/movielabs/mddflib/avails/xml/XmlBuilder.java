@@ -25,13 +25,21 @@ package com.movielabs.mddflib.avails.xml;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
@@ -41,6 +49,7 @@ import org.jdom2.output.DOMOutputter;
 import com.movielabs.mddf.MddfContext;
 import com.movielabs.mddf.MddfContext.FILE_FMT;
 import com.movielabs.mddflib.avails.xml.AvailsSheet.Version;
+import com.movielabs.mddflib.logging.CellLocation;
 import com.movielabs.mddflib.logging.LogMgmt;
 import com.movielabs.mddflib.util.xml.FormatConverter;
 import com.movielabs.mddflib.util.xml.SchemaWrapper;
@@ -56,6 +65,9 @@ import com.movielabs.mddflib.util.xml.SchemaWrapper;
 public class XmlBuilder {
 
 	public static final String moduleId = "XmlBuilder";
+	private static final int FORMAT_MEMO_LIMIT = 4096;
+	private static final Pattern p_leadingWs = Pattern.compile("^[\\s]*");
+	private static final Pattern p_trailingWs = Pattern.compile("[\\s]*$");
 	private String xsdVersion;
 	private String mdMecVer;
 	private String mdVer;
@@ -68,6 +80,7 @@ public class XmlBuilder {
 	private SchemaWrapper mdSchema;
 	private SchemaWrapper mdMecSchema;
 
+	private PedigreeStore pedigreeStore = null;
 	private Map<Object, Pedigree> pedigreeMap = null;
 	private Map<String, Element> availElRegistry = null;
 	private Element root;
@@ -82,6 +95,10 @@ public class XmlBuilder {
 	private Version templateVersion;
 	private File curSrcXslxFile;
 	private MetadataBuilder mdBuilder;
+	private ThreadLocal<MetadataBuilder> workerMdBuilder = new ThreadLocal<MetadataBuilder>();
+	private boolean parallel = false;
+	private boolean multiSheet = false;
+	private Map<String, ValueFormat> formatCache = new ConcurrentHashMap<String, ValueFormat>();
 
 	/**
 	 * @param logger
@@ -98,6 +115,7 @@ public class XmlBuilder {
 		mdSchema = null;
 		mdMecSchema = null;
 		xsdVersion = null;
+		formatCache.clear();
 		String xsdRsrc = "avails-v" + availXsdVersion;
 		availsSchema = SchemaWrapper.factory(xsdRsrc);
 		if (availsSchema == null) {
@@ -136,6 +154,25 @@ public class XmlBuilder {
 		return xsdVersion;
 	}
 
+	/**
+	 * Enable or disable the concurrent conversion of rows. When enabled, the rows
+	 * of a sheet are partitioned by ALID and each partition is converted on a
+	 * separate thread. The resulting XML, pedigree, and log entries are identical
+	 * to those produced when the rows are converted sequentially.
+	 * 
+	 * @param parallel
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * @return <tt>true</tt> if rows will be converted concurrently
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
 	/**
 	 * Create an Avails XML document based on the data in the spreadsheet.
 	 * 
@@ -148,24 +185,64 @@ public class XmlBuilder {
 	 * @throws IllegalStateException
 	 */
 	public Document makeXmlAsJDom(AvailsSheet aSheet, String shortDesc, File srcXslxFile) throws IllegalStateException {
+		return makeXmlAsJDom(Collections.singletonList(aSheet), shortDesc, srcXslxFile);
+	}
+
+	/**
+	 * Create a single Avails XML document based on the data in one or more
+	 * sheets of a spreadsheet. The sheets are processed in the order given and
+	 * each sheet's rows in row order. Rows specifying the same ALID are merged
+	 * into a single Avail regardless of which sheet they are on. All sheets must
+	 * use the same template version.
+	 * 
+	 * @param sheets
+	 * @param shortDesc
+	 *            a short description that will appear in the document
+	 * @param srcXslxFile
+	 *            original file (used for logging; may be <tt>null</tt>
+	 * @return a JAXP document
+	 * @throws IllegalStateException
+	 */
+	public Document makeXmlAsJDom(List<AvailsSheet> sheets, String shortDesc, File srcXslxFile)
+			throws IllegalStateException {
 		this.shortDesc = shortDesc;
 		this.curSrcXslxFile = srcXslxFile;
+		this.multiSheet = (sheets.size() > 1);
 		if (xsdVersion == null) {
 			String msg = "Unable to generate XML from XLSX: XSD version was not set or is unsupported.";
 			logger.log(LogMgmt.LEV_ERR, LogMgmt.TAG_XLATE, msg, null, moduleId);
 			throw new IllegalStateException("The XSD version was not set or is unsupported.");
 		}
+		List<SheetRow> allRows = null;
+		Map<String, List<Integer>> partitions = null;
+		if (parallel) {
+			allRows = new ArrayList<SheetRow>();
+			for (AvailsSheet aSheet : sheets) {
+				for (AvailsRow row : aSheet.getRows()) {
+					allRows.add(new SheetRow(aSheet, row));
+				}
+			}
+			partitions = partitionByAlid(sheets, allRows);
+		}
+		boolean concurrent = (partitions != null);
 		// initialize data structures...
-		pedigreeMap = new HashMap<Object, Pedigree>();
-		availElRegistry = new HashMap<String, Element>();
-		assetElRegistry = new HashMap<String, Element>();
-		avail2AssetMap = new HashMap<Element, List<Element>>();
-		avail2TransMap = new HashMap<Element, List<Element>>();
-		avail2EntilementMap = new HashMap<Element, Map<String, Element>>();
-		entitlement2IdMap = new HashMap<Element, List<String>>();
-		element2SrcRowMap = new HashMap<Element, AbstractRowHelper>();
+		pedigreeStore = new PedigreeStore();
+		pedigreeMap = concurrent ? Collections.synchronizedMap(pedigreeStore) : pedigreeStore;
+		availElRegistry = createMap(concurrent);
+		assetElRegistry = createMap(concurrent);
+		avail2AssetMap = createMap(concurrent);
+		avail2TransMap = createMap(concurrent);
+		avail2EntilementMap = createMap(concurrent);
+		entitlement2IdMap = createMap(concurrent);
+		element2SrcRowMap = createMap(concurrent);
 
-		mdBuilder = new MetadataBuilder( logger, this);
+		DeferredLogger deferredLog = null;
+		if (concurrent) {
+			deferredLog = new DeferredLogger(logger);
+			mdBuilder = new MetadataBuilder(deferredLog, this);
+		} else {
+			mdBuilder = new MetadataBuilder(logger, this);
+		}
 
 		// Create and initialize Document...
 		String xsdUri = "http://www.movielabs.com/schema/avails/v" + xsdVersion + "/avails";
@@ -179,27 +256,28 @@ public class XmlBuilder {
 		doc.setRootElement(root);
 		String msg = "Converting Excel Avails to XML v" + xsdVersion;
 		logger.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_XLATE, msg, srcXslxFile, moduleId);
-		msg = "Processing spreadsheet '" + aSheet.getName() + "'; RowCount=" + aSheet.getRowCount();
-		logger.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_XLATE, msg, srcXslxFile, moduleId);
 
-		// build document components row by row.
-		try {
-			rowLoop: for (Row row : aSheet.getRows()) {
-				msg = "Converting row " + row.getRowNum();
-				logger.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_XLATE, msg, null, moduleId);
-				AbstractRowHelper rowHelper = AbstractRowHelper.createHelper(aSheet, row, logger);
-				if (rowHelper != null) {
-					rowHelper.makeAvail(this);
-				} else {
-					logger.log(LogMgmt.LEV_FATAL, LogMgmt.TAG_XLATE, "Unsupported XLSX version", srcXslxFile, moduleId);
-					break rowLoop;
+		if (concurrent) {
+			if (!convertByAlid(sheets, allRows, partitions, deferredLog)) {
+				return null;
+			}
+		} else {
+			// build document components row by row.
+			try {
+				rowLoop: for (AvailsSheet aSheet : sheets) {
+					logSheetStart(aSheet);
+					for (AvailsRow row : aSheet.getRows()) {
+						if (!convertRow(aSheet, row)) {
+							logger.log(LogMgmt.LEV_FATAL, LogMgmt.TAG_XLATE, "Unsupported XLSX version",
+									srcXslxFile, moduleId);
+							break rowLoop;
+						}
+					}
 				}
+			} catch (Exception e) {
+				logConversionFailure(e);
+				return null;
 			}
-		} catch (Exception e) {
-			msg = "Exception while ingesting XLSX: " + e.getLocalizedMessage();
-			logger.log(LogMgmt.LEV_FATAL, LogMgmt.TAG_XLATE, msg, srcXslxFile, moduleId);
-			e.printStackTrace();
-			return null;
 		}
 
 		// Final assembly in correct order..
@@ -218,11 +296,211 @@ public class XmlBuilder {
 			finalizeAssetMetadata(nextAvailEl);
 			root.addContent(nextAvailEl);
 		}
+		/*
+		 * The rows are no longer needed. Releasing them allows the workbook to
+		 * be garbage collected as the pedigree store does not reference it.
+		 */
+		element2SrcRowMap = null;
 		msg = "Completed ingesting XLSX file";
 		logger.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_XLATE, msg, srcXslxFile, moduleId);
 		return doc;
 	}
 
+	private void logSheetStart(AvailsSheet aSheet) {
+		String msg = "Processing spreadsheet '" + aSheet.getName() + "'; RowCount=" + aSheet.getRowCount();
+		logger.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_XLATE, msg, curSrcXslxFile, moduleId);
+	}
+
+	/**
+	 * Generate the XML for a single row.
+	 * 
+	 * @param aSheet
+	 * @param row
+	 * @return <tt>false</tt> if the sheet's template version is not supported
+	 */
+	private boolean convertRow(AvailsSheet aSheet, AvailsRow row) {
+		String msg = "Converting row " + row.getRowNum();
+		if (multiSheet) {
+			msg = msg + " of sheet '" + aSheet.getName() + "'";
+		}
+		logger.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_XLATE, msg, null, moduleId);
+		AbstractRowHelper rowHelper = AbstractRowHelper.createHelper(aSheet, row, logger);
+		if (rowHelper == null) {
+			return false;
+		}
+		rowHelper.makeAvail(this);
+		return true;
+	}
+
+	private void logConversionFailure(Exception e) {
+		String msg = "Exception while ingesting XLSX: " + e.getLocalizedMessage();
+		logger.log(LogMgmt.LEV_FATAL, LogMgmt.TAG_XLATE, msg, curSrcXslxFile, moduleId);
+		e.printStackTrace();
+	}
+
+	/**
+	 * A row and the sheet it belongs to.
+	 */
+	private static final class SheetRow {
+		private final AvailsSheet sheet;
+		private final AvailsRow row;
+
+		SheetRow(AvailsSheet sheet, AvailsRow row) {
+			this.sheet = sheet;
+			this.row = row;
+		}
+	}
+
+	/**
+	 * Group the rows of the sheets by their ALID. All rows for a given Avail must
+	 * be processed in sequence but are otherwise independent of the rows for any
+	 * other Avail. The partitions are returned in order of the 1st appearance of
+	 * each ALID and each contains the indices (in <tt>allRows</tt>) of its rows
+	 * in ascending order.
+	 * 
+	 * @param sheets
+	 * @param allRows
+	 *            the rows of all the <tt>sheets</tt> in processing sequence
+	 * @return the partitions or <tt>null</tt> if the rows can not be converted
+	 *         concurrently
+	 */
+	private Map<String, List<Integer>> partitionByAlid(List<AvailsSheet> sheets, List<SheetRow> allRows) {
+		for (AvailsSheet aSheet : sheets) {
+			if (!aSheet.getColumn("Avail/ALID").isDefined() || !AbstractRowHelper.isSupported(aSheet.getVersion())) {
+				return null;
+			}
+		}
+		Map<String, List<Integer>> partitions = new LinkedHashMap<String, List<Integer>>();
+		for (int i = 0; i < allRows.size(); i++) {
+			SheetRow sheetRow = allRows.get(i);
+			AvailsSheet.Column alidColumn = sheetRow.sheet.getColumn("Avail/ALID");
+			AvailsCell alidCell = alidColumn.getCell(sheetRow.row);
+			String alid = (alidCell == null) ? "" : alidCell.getFormattedValue();
+			List<Integer> rowIndices = partitions.get(alid);
+			if (rowIndices == null) {
+				rowIndices = new ArrayList<Integer>();
+				partitions.put(alid, rowIndices);
+			}
+			rowIndices.add(i);
+		}
+		if (partitions.size() < 2) {
+			return null;
+		}
+		return partitions;
+	}
+
+	/**
+	 * Generate the XML for all rows with each partition of rows converted on a
+	 * separate thread. Entries logged while converting a row are deferred and
+	 * then passed to the logger in row order once all partitions have been
+	 * processed. If the conversion of any row fails, only the entries for the
+	 * preceding rows and the failed row are logged, exactly as if the rows had
+	 * been converted sequentially.
+	 * <p>
+	 * When converting sequentially, the Avails are added to the
+	 * <tt>availElRegistry</tt> (and therefore the document) in order of the 1st
+	 * appearance of each ALID. The registry is therefore re-populated in that
+	 * same order before the document is assembled.
+	 * </p>
+	 * 
+	 * @param sheets
+	 * @param rows
+	 *            the rows of all the <tt>sheets</tt> in processing sequence
+	 * @param partitions
+	 * @param deferredLog
+	 * @return <tt>true</tt> if all rows were converted
+	 */
+	private boolean convertByAlid(List<AvailsSheet> sheets, List<SheetRow> rows,
+			Map<String, List<Integer>> partitions, DeferredLogger deferredLog) {
+		/*
+		 * Each slot is written by a single worker. Completion of the workers (i.e.,
+		 * Future.get()) guarantees the results are visible to this thread.
+		 */
+		List<List<Consumer<LogMgmt>>> rowLogs = new ArrayList<List<Consumer<LogMgmt>>>(
+				Collections.nCopies(rows.size(), (List<Consumer<LogMgmt>>) null));
+		List<Exception> rowFailures = new ArrayList<Exception>(Collections.nCopies(rows.size(), (Exception) null));
+		List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+		for (List<Integer> rowIndices : partitions.values()) {
+			tasks.add(new Callable<Integer>() {
+				public Integer call() {
+					workerMdBuilder.set(new MetadataBuilder(mdBuilder));
+					try {
+						for (int idx : rowIndices) {
+							deferredLog.capture();
+							try {
+								SheetRow sheetRow = rows.get(idx);
+								convertRow(sheetRow.sheet, sheetRow.row);
+							} catch (Exception e) {
+								rowFailures.set(idx, e);
+								return idx;
+							} finally {
+								rowLogs.set(idx, deferredLog.release());
+							}
+						}
+						return -1;
+					} finally {
+						workerMdBuilder.remove();
+					}
+				}
+			});
+		}
+		int threadCnt = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+		ExecutorService executor = Executors.newFixedThreadPool(threadCnt);
+		LogMgmt seqLogger = logger;
+		logger = deferredLog;
+		int failedRow = rows.size();
+		try {
+			for (Future<Integer> result : executor.invokeAll(tasks)) {
+				int idx = result.get();
+				if (idx >= 0 && idx < failedRow) {
+					failedRow = idx;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while converting XLSX", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Failure while converting XLSX", e.getCause());
+		} finally {
+			logger = seqLogger;
+			executor.shutdown();
+		}
+		/* the index of the 1st row of each sheet not yet reached */
+		int sheetIdx = 0;
+		int sheetStart = 0;
+		for (int i = 0; (i <= failedRow) && (i <= rows.size()); i++) {
+			while ((sheetIdx < sheets.size()) && (sheetStart == i)) {
+				logSheetStart(sheets.get(sheetIdx));
+				sheetStart += sheets.get(sheetIdx).getRowCount();
+				sheetIdx++;
+			}
+			if (i < rows.size()) {
+				deferredLog.replay(rowLogs.get(i));
+			}
+		}
+		if (failedRow < rows.size()) {
+			logConversionFailure(rowFailures.get(failedRow));
+			return false;
+		}
+		Map<String, Element> registry = new HashMap<String, Element>();
+		for (String alid : partitions.keySet()) {
+			Element availEl = availElRegistry.get(alid);
+			if (availEl != null) {
+				registry.put(alid, availEl);
+			}
+		}
+		availElRegistry = registry;
+		return true;
+	}
+
+	private <K, V> Map<K, V> createMap(boolean concurrent) {
+		Map<K, V> map = new HashMap<K, V>();
+		if (concurrent) {
+			return Collections.synchronizedMap(map);
+		}
+		return map;
+	}
+
 	public org.w3c.dom.Document makeXmlAsW3C(AvailsSheet aSheet, String shortDesc) throws IllegalStateException {
 		Document jdomDoc = makeXmlAsJDom(aSheet, shortDesc, null);
 		DOMOutputter domOut = new DOMOutputter();
@@ -320,11 +598,11 @@ public class XmlBuilder {
 			if (!definedValue.equals(curValue)) {
 				// Generate error msg
 				String msg = "Inconsistent WorkType; value not compatable with 1st definition of referenced Avail";
-				int row4log = srcRow.getRowNumber() + 1;
-				String details = "AVAIL was 1st defined in row " + row4log + " which specifies AvailAsset/WorkType as "
+				String details = "AVAIL was 1st defined in " + describeRow(srcRow, curRow) + " which specifies AvailAsset/WorkType as "
 						+ srcRow.getData("AvailAsset/WorkType") + " and requires WorkType=" + definedValue;
-				Cell sourceCell = curRow.sheet.getCell("AvailAsset/WorkType", curRow.getRowNumber());
-				logger.logIssue(LogMgmt.TAG_XLSX, LogMgmt.LEV_ERR, sourceCell, msg, details, null, moduleId);
+				AvailsCell sourceCell = curRow.sheet.getCell("AvailAsset/WorkType", curRow.getRowNumber());
+				CellLocation target = (sourceCell == null) ? null : sourceCell.getLocation();
+				logger.logIssue(LogMgmt.TAG_XLSX, LogMgmt.LEV_ERR, target, msg, details, null, moduleId);
 			}
 		}
 		return availEL;
@@ -348,16 +626,32 @@ public class XmlBuilder {
 		} else {
 			// Generate error msg
 			String msg = "Inconsistent specification; value does not match 1st definition of referenced " + entityName;
-			int row4log = srcRow.getRowNumber() + 1;
-			String details = entityName + " was 1st defined in row " + row4log + " which specifies " + colKey + " as '"
+			String details = entityName + " was 1st defined in " + describeRow(srcRow, curRow) + " which specifies " + colKey + " as '"
 					+ definedValue + "'";
-			Cell sourceCell = curRow.sheet.getCell(colKey, curRow.getRowNumber());
-			logger.logIssue(LogMgmt.TAG_XLSX, LogMgmt.LEV_ERR, sourceCell, msg, details, null, moduleId);
+			AvailsCell sourceCell = curRow.sheet.getCell(colKey, curRow.getRowNumber());
+			CellLocation target = (sourceCell == null) ? null : sourceCell.getLocation();
+			logger.logIssue(LogMgmt.TAG_XLSX, LogMgmt.LEV_ERR, target, msg, details, null, moduleId);
 			return false;
 		}
 
 	}
 
+	/**
+	 * Identify a row for use in a log message that refers to <tt>curRow</tt>.
+	 * The sheet is only identified if it differs from that of <tt>curRow</tt>.
+	 * 
+	 * @param srcRow
+	 * @param curRow
+	 * @return
+	 */
+	private String describeRow(AbstractRowHelper srcRow, AbstractRowHelper curRow) {
+		String desc = "row " + (srcRow.getRowNumber() + 1);
+		if (srcRow.sheet != curRow.sheet) {
+			desc = desc + " of sheet '" + srcRow.sheet.getName() + "'";
+		}
+		return desc;
+	}
+
 	/**
 	 * @param rowHelper
 	 * @return
@@ -418,7 +712,15 @@ public class XmlBuilder {
 	}
 
 	/**
-	 * @param name
+	 * Return the value that should be assigned to an element after formatting
+	 * it in compliance with the element's type (e.g., <tt>xs:duration</tt>).
+	 * Leading and trailing whitespace is always removed.
+	 * <p>
+	 * The formatting required by an element is determined from the schema the
+	 * first time the element is encountered and then cached.
+	 * </p>
+	 * 
+	 * @param elementName
 	 * @param ns
 	 * @param inputValue
 	 * @return
@@ -434,38 +736,124 @@ public class XmlBuilder {
 		/*
 		 * remove any leading or trailing whitespace
 		 */
-		String formattedValue = inputValue.replaceAll("[\\s]*$", "");
-		formattedValue = formattedValue.replaceAll("^[\\s]*", "");
+		String formattedValue = stripWhitespace(inputValue);
 
 		String schema = ns.getPrefix();
-		String type = getSchema(schema).getType(elementName);
-		switch (type) {
-		case "xs:string":
-		case "md:id-type":
-		case "md:string-ContentID-Identifier":
-		case "xs:anyURI":
-			break;
-		case "xs:duration":
-			formattedValue = FormatConverter.durationToXml(formattedValue);
-			break;
-		case "xs:boolean":
-			formattedValue = FormatConverter.booleanToXml(formattedValue);
-			break;
-		case "xs:date":
-			break;
-		case "xs:dateTime":
-			formattedValue = FormatConverter.dateTimeToXml(formattedValue, elementName.startsWith("Start"));
-			break;
-		default:
-			// throw new IllegalArgumentException("Data type '" + type + "' not
-			// supported by code :(");
+		String cacheKey = schema + ":" + elementName;
+		ValueFormat format = formatCache.get(cacheKey);
+		if (format == null) {
+			String type = getSchema(schema).getType(elementName);
+			format = ValueFormat.forType(type, elementName);
+			formatCache.put(cacheKey, format);
+		}
+		return format.apply(formattedValue);
+	}
 
+	/**
+	 * Equivalent to removing all matches of <tt>^[\s]*</tt> and
+	 * <tt>[\s]*$</tt>. The regular expressions are only used when the value may
+	 * actually contain leading or trailing whitespace.
+	 * 
+	 * @param value
+	 * @return
+	 */
+	private static String stripWhitespace(String value) {
+		if (value.isEmpty() || (!isWsBoundary(value.charAt(0)) && !isWsBoundary(value.charAt(value.length() - 1)))) {
+			return value;
 		}
-		return formattedValue;
+		String stripped = p_trailingWs.matcher(value).replaceAll("");
+		return p_leadingWs.matcher(stripped).replaceAll("");
 	}
 
+	/**
+	 * @param c
+	 * @return <tt>true</tt> if <tt>c</tt> is whitespace or a line terminator
+	 */
+	private static boolean isWsBoundary(char c) {
+		return c <= ' ' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+	/**
+	 * The conversion applied to an element's value based on its type. The
+	 * results of the more costly conversions are memoized as the same values
+	 * (e.g., dates) tend to be repeated across many rows. All conversions are
+	 * pure functions of the input so the memos are shared by all instances.
+	 */
+	private enum ValueFormat {
+		AS_IS(false) {
+			@Override
+			String convert(String value) {
+				return value;
+			}
+		},
+		DURATION(true) {
+			@Override
+			String convert(String value) {
+				return FormatConverter.durationToXml(value);
+			}
+		},
+		BOOLEAN(false) {
+			@Override
+			String convert(String value) {
+				return FormatConverter.booleanToXml(value);
+			}
+		},
+		START_DATETIME(true) {
+			@Override
+			String convert(String value) {
+				return FormatConverter.dateTimeToXml(value, true);
+			}
+		},
+		END_DATETIME(true) {
+			@Override
+			String convert(String value) {
+				return FormatConverter.dateTimeToXml(value, false);
+			}
+		};
+
+		private final Map<String, String> memo;
 
- 
+		private ValueFormat(boolean memoize) {
+			memo = memoize ? new ConcurrentHashMap<String, String>() : null;
+		}
+
+		abstract String convert(String value);
+
+		String apply(String value) {
+			if (memo == null) {
+				return convert(value);
+			}
+			String formatted = memo.get(value);
+			if (formatted == null) {
+				formatted = convert(value);
+				if (memo.size() >= FORMAT_MEMO_LIMIT) {
+					memo.clear();
+				}
+				memo.put(value, formatted);
+			}
+			return formatted;
+		}
+
+		static ValueFormat forType(String type, String elementName) {
+			switch (type) {
+			case "xs:duration":
+				return DURATION;
+			case "xs:boolean":
+				return BOOLEAN;
+			case "xs:dateTime":
+				return elementName.startsWith("Start") ? START_DATETIME : END_DATETIME;
+			case "xs:string":
+			case "md:id-type":
+			case "md:string-ContentID-Identifier":
+			case "xs:anyURI":
+			case "xs:date":
+			default:
+				// throw new IllegalArgumentException("Data type '" + type + "' not
+				// supported by code :(");
+				return AS_IS;
+			}
+		}
+	}
 
 	private SchemaWrapper getSchema(String schema) {
 		switch (schema) {
@@ -481,11 +869,15 @@ public class XmlBuilder {
 	}
 
 	/**
+	 * Return the <tt>Map</tt> linking the XML content created by the most recent
+	 * conversion to the <tt>Pedigree</tt> of its source. The returned
+	 * <tt>Map</tt> is a <tt>PedigreeStore</tt> and holds no reference to the
+	 * spreadsheet.
 	 * 
 	 * @return the pedigreeMap
 	 */
 	public Map<Object, Pedigree> getPedigreeMap() {
-		return pedigreeMap;
+		return pedigreeStore;
 	}
 
 	void addToPedigree(Object content, Pedigree source) {
@@ -576,8 +968,9 @@ public class XmlBuilder {
 			int row4log = curRow.getRowNumber() + 1;
 			String details = "An Asset with " + cidSrc + "=" + contentID
 					+ " was previously defined. Asset-specific fields in row " + row4log + " will be ignored";
-			Cell sourceCell = curRow.sheet.getCell(cidColKey, curRow.getRowNumber());
-			logger.logIssue(LogMgmt.TAG_XLATE, LogMgmt.LEV_DEBUG, sourceCell, msg, details, null, moduleId);
+			AvailsCell sourceCell = curRow.sheet.getCell(cidColKey, curRow.getRowNumber());
+			CellLocation target = (sourceCell == null) ? null : sourceCell.getLocation();
+			logger.logIssue(LogMgmt.TAG_XLATE, LogMgmt.LEV_DEBUG, target, msg, details, null, moduleId);
 		}
 		/*
 		 * When dealing with a Movie or Episode, more that 1 ReleaseHistory and
@@ -614,7 +1007,11 @@ public class XmlBuilder {
 	 * @param row
 	 */
 	void createAssetMetadata(Element assetEl, String assetWorkType, AbstractRowHelper row) {
-		Element metadataEl = mdBuilder.appendMData(row, assetWorkType);
+		MetadataBuilder builder = workerMdBuilder.get();
+		if (builder == null) {
+			builder = mdBuilder;
+		}
+		Element metadataEl = builder.appendMData(row, assetWorkType);
 		assetEl.addContent(metadataEl);
 	}
 
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.logging;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * Identifies the location of a cell in a spreadsheet. A <tt>CellLocation</tt>
+ * may be used as the <tt>target</tt> of a logged issue in place of the POI
+ * <tt>Cell</tt> it was derived from. Unlike a <tt>Cell</tt>, it holds no
+ * reference to the workbook so that the workbook may be released once it has
+ * been processed.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public final class CellLocation {
+	private final String sheetName;
+	private final int rowIndex;
+	private final int columnIndex;
+
+	/**
+	 * @param sheetName
+	 * @param rowIndex
+	 *            zero-based row number
+	 * @param columnIndex
+	 *            zero-based column number
+	 */
+	public CellLocation(String sheetName, int rowIndex, int columnIndex) {
+		this.sheetName = sheetName;
+		this.rowIndex = rowIndex;
+		this.columnIndex = columnIndex;
+	}
+
+	/**
+	 * Return the location identified by the <tt>target</tt> of a logged issue.
+	 * 
+	 * @param target
+	 * @return the location or <tt>null</tt> if the target is neither a
+	 *         <tt>CellLocation</tt> nor a POI <tt>Cell</tt>
+	 */
+	public static CellLocation of(Object target) {
+		if (target instanceof CellLocation) {
+			return (CellLocation) target;
+		}
+		if (target instanceof Cell) {
+			Cell cell = (Cell) target;
+			Sheet sheet = cell.getSheet();
+			String sheetName = (sheet == null) ? null : sheet.getSheetName();
+			return new CellLocation(sheetName, cell.getRowIndex(), cell.getColumnIndex());
+		}
+		return null;
+	}
+
+	/**
+	 * @return the name of the sheet containing the cell
+	 */
+	public String getSheetName() {
+		return sheetName;
+	}
+
+	/**
+	 * @return the zero-based row number
+	 */
+	public int getRowIndex() {
+		return rowIndex;
+	}
+
+	/**
+	 * @return the zero-based column number
+	 */
+	public int getColumnIndex() {
+		return columnIndex;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof CellLocation)) {
+			return false;
+		}
+		CellLocation other = (CellLocation) obj;
+		return (rowIndex == other.rowIndex) && (columnIndex == other.columnIndex)
+				&& ((sheetName == null) ? (other.sheetName == null) : sheetName.equals(other.sheetName));
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = (sheetName == null) ? 0 : sheetName.hashCode();
+		return (31 * hash + rowIndex) * 31 + columnIndex;
+	}
+
+	@Override
+	public String toString() {
+		return sheetName + "[row " + (rowIndex + 1) + ", col " + (columnIndex + 1) + "]";
+	}
+}
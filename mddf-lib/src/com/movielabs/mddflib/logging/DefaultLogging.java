@@ -31,7 +31,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.poi.ss.usermodel.Cell;
 import org.jdom2.located.Located;
 
 /**
@@ -75,9 +74,20 @@ public class DefaultLogging implements LogMgmt {
 		if (target != null) {
 			if (target instanceof Located) {
 				lineNum = ((Located) target).getLine();
-			} else if (target instanceof Cell) {
-				lineNum = ((Cell) target).getRowIndex();
-
+			} else {
+				CellLocation location = CellLocation.of(target);
+				if (location != null) {
+					lineNum = location.getRowIndex();
+					/* the row number alone is ambiguous if there are several sheets */
+					if (location.getSheetName() != null) {
+						String prefix = "Sheet '" + location.getSheetName() + "'";
+						if ((explanation == null) || (explanation.isEmpty())) {
+							explanation = prefix;
+						} else {
+							explanation = prefix + ": " + explanation;
+						}
+					}
+				}
 			}
 		}
 		log(level, tag, msg, curInputFile, lineNum, moduleId, explanation, srcRef);
@@ -40,6 +40,7 @@ import com.movielabs.mddflib.logging.LogMgmt;
 import com.movielabs.mddflib.logging.LogReference;
 import com.movielabs.mddflib.util.CMValidator;
 import com.movielabs.mddflib.util.PathUtilities;
+import com.movielabs.mddflib.util.ValidationPlan;
 import com.movielabs.mddflib.util.xml.MddfTarget;
 import com.movielabs.mddflib.util.xml.SchemaWrapper;
 import com.movielabs.mddflib.util.xml.XmlIngester;
@@ -106,17 +107,20 @@ public class ManifestValidator extends CMValidator {
 		curFile = target.getSrcFile();
 		curFileName = curFile.getName();
 		curFileIsValid = true;
+		resetBudget();
 		curRootEl = null;
 		supportingRsrcLocations = new HashMap<String, List<Element>>();
 
-		validateXml(target);
+		if (isSelected(ValidationPlan.Check.SCHEMA)) {
+			validateXml(target);
+		}
 		if (!curFileIsValid) {
 			String msg = "Schema validation check FAILED";
 			loggingMgr.log(LogMgmt.LEV_INFO, LogMgmt.TAG_MANIFEST, msg, curFile, logMsgSrcId);
 			return false;
 		}
 		curRootEl = target.getXmlDoc().getRootElement();
-		String msg = "Schema validation check PASSED";
+		String msg = "Schema validation check " + (isSelected(ValidationPlan.Check.SCHEMA) ? "PASSED" : "SKIPPED");
 		loggingMgr.log(LogMgmt.LEV_INFO, LogMgmt.TAG_MANIFEST, msg, curFile, logMsgSrcId);
 		if (validateC) {
 			validateConstraints();
@@ -141,19 +145,27 @@ public class ManifestValidator extends CMValidator {
 	protected void validateConstraints() {
 		loggingMgr.log(LogMgmt.LEV_DEBUG, LogMgmt.TAG_MANIFEST, "Validating constraints", curFile, LOGMSG_ID);
 		super.validateConstraints();
+		if (isBudgetExhausted()) {
+			return;
+		}
 
-		SchemaWrapper targetSchema = SchemaWrapper.factory("manifest-v" + XmlIngester.MAN_VER);
-		validateNotEmpty(targetSchema);
+		if (isSelected(ValidationPlan.Check.STRUCTURE)) {
+			SchemaWrapper targetSchema = SchemaWrapper.factory("manifest-v" + XmlIngester.MAN_VER);
+			validateNotEmpty(targetSchema);
+			if (isBudgetExhausted()) {
+				return;
+			}
 
-		/* Validate indexed sequences that must be monotonically increasing */
-		validateIndexing("Chapter", manifestNSpace, "index", "Chapters", manifestNSpace);
-		validateIndexing("Clip", manifestNSpace, "sequence", "PlayableSequence", manifestNSpace);
-		validateIndexing("ImageClip", manifestNSpace, "sequence", "PlayableSequence", manifestNSpace);
-		// ?? PictureGroup/Picture/Sequence
-		validateIndexing("TextString", manifestNSpace, "index", "TextObject", manifestNSpace);
-		// ?? ExperienceChild/SequenceInfo/{md}Number ??? Note other 3 domain-specific
-		// numbers
-		validateIndexing("TextGroupID", manifestNSpace, "index", "TimedEvent", manifestNSpace);
+			/* Validate indexed sequences that must be monotonically increasing */
+			validateIndexing("Chapter", manifestNSpace, "index", "Chapters", manifestNSpace);
+			validateIndexing("Clip", manifestNSpace, "sequence", "PlayableSequence", manifestNSpace);
+			validateIndexing("ImageClip", manifestNSpace, "sequence", "PlayableSequence", manifestNSpace);
+			// ?? PictureGroup/Picture/Sequence
+			validateIndexing("TextString", manifestNSpace, "index", "TextObject", manifestNSpace);
+			// ?? ExperienceChild/SequenceInfo/{md}Number ??? Note other 3 domain-specific
+			// numbers
+			validateIndexing("TextGroupID", manifestNSpace, "index", "TimedEvent", manifestNSpace);
+		}
 
 		// -------------------------------------------------------------------------------------
 
@@ -162,21 +174,29 @@ public class ManifestValidator extends CMValidator {
 		 * xs:string but the documentation specifies an enumerated set of allowed values
 		 * or otherwise constrained).
 		 */
-		// start with Common Metadata spec..
-		validateCMVocab();
-		validateResolution("//{md}LocalizedInfo/{md}ArtReference/@resolution");
-		validateResolution("//{manifest}Picture/{manifest}ImageID/@resolution");
-		validateResolution("//{manifest}Picture/{manifest}ThumbnailImageID/@resolution");
-
-		// Now do any defined in Manifest spec..
-		validateManifestVocab();
+		if (isSelected(ValidationPlan.Check.VOCAB)) {
+			// start with Common Metadata spec..
+			validateCMVocab();
+			validateResolution("//{md}LocalizedInfo/{md}ArtReference/@resolution");
+			validateResolution("//{manifest}Picture/{manifest}ImageID/@resolution");
+			validateResolution("//{manifest}Picture/{manifest}ThumbnailImageID/@resolution");
+
+			// Now do any defined in Manifest spec..
+			validateManifestVocab();
+		}
+		if (isBudgetExhausted() || !isSelected(ValidationPlan.Check.STRUCTURE)) {
+			return;
+		}
 
 		validateLocations();
 
 		validateMetadata();
 
 		validateUsage();
-		
+		if (isBudgetExhausted()) {
+			return;
+		}
+
 		validateDigitalAssets();
 	}
 
@@ -219,57 +239,61 @@ public class ManifestValidator extends CMValidator {
 		validateId("Experience", "ExperienceID", true, true);
 		validateId("Gallery", "GalleryID", false, true);
 
-		/* Now validate cross-references */
-		validateXRef(".//manifest:Experience/manifest:ContentID", "Metadata");
-		validateXRef(".//manifest:Experience/manifest:PictureGroupID", "PictureGroup");
-		validateXRef(".//manifest:Experience/manifest:TextGroupID", "TextGroup");
-		validateXRef(".//manifest:Experience/manifest:TimedSequenceID", "TimedEventSequence");
+		/*
+		 * Now validate cross-references. All are declared and then resolved with a
+		 * single pass.
+		 */
+		addXRef(".//manifest:Experience/manifest:ContentID", "Metadata");
+		addXRef(".//manifest:Experience/manifest:PictureGroupID", "PictureGroup");
+		addXRef(".//manifest:Experience/manifest:TextGroupID", "TextGroup");
+		addXRef(".//manifest:Experience/manifest:TimedSequenceID", "TimedEventSequence");
 		String xpath = ".//manifest:ExperienceChild/manifest:ExperienceID[not(../manifest:ExternalManifestID)]";
-		validateXRef(xpath, "Experience");
+		addXRef(xpath, "Experience");
 
-		validateXRef(".//manifest:Gallery/manifest:PictureGroupID", "PictureGroup");
-		validateXRef(".//manifest:Gallery/manifest:ContentID", "Metadata");
+		addXRef(".//manifest:Gallery/manifest:PictureGroupID", "PictureGroup");
+		addXRef(".//manifest:Gallery/manifest:ContentID", "Metadata");
 
-		validateXRef(".//manifest:Audiovisual/@ContentID", "Metadata");
-		validateXRef(".//manifest:Audiovisual/manifest:PresentationID", "Presentation");
-		validateXRef(".//manifest:Audiovisual/manifest:PlayableSequenceID", "PlayableSequence");
+		addXRef(".//manifest:Audiovisual/@ContentID", "Metadata");
+		addXRef(".//manifest:Audiovisual/manifest:PresentationID", "Presentation");
+		addXRef(".//manifest:Audiovisual/manifest:PlayableSequenceID", "PlayableSequence");
 
-		validateXRef(".//manifest:Clip/manifest:PresentationID", "Presentation");
-		validateXRef(".//manifest:ImageClip/manifest:ImageID", "Image");
+		addXRef(".//manifest:Clip/manifest:PresentationID", "Presentation");
+		addXRef(".//manifest:ImageClip/manifest:ImageID", "Image");
 
-		validateXRef(".//manifest:Chapter/manifest:ImageID", "Image");
+		addXRef(".//manifest:Chapter/manifest:ImageID", "Image");
 
-		validateXRef(".//manifest:Picture/manifest:ImageID", "Image");
-		validateXRef(".//manifest:Picture/manifest:ThumbnailImageID", "Image");
+		addXRef(".//manifest:Picture/manifest:ImageID", "Image");
+		addXRef(".//manifest:Picture/manifest:ThumbnailImageID", "Image");
 
-		validateXRef(".//manifest:VideoTrackReference/manifest:VideoTrackID", "Video");
-		validateXRef(".//manifest:AudioTrackReference/manifest:AudioTrackID", "Audio");
-		validateXRef(".//manifest:AncillaryTrackReference/manifest:AncillaryTrackID", "Ancillary");
-		validateXRef(".//manifest:SubtitleTrackReference/manifest:SubtitleTrackID", "Subtitle");
-		validateXRef(".//manifest:TextObject/manifest:SubtitleID", "Subtitle");
+		addXRef(".//manifest:VideoTrackReference/manifest:VideoTrackID", "Video");
+		addXRef(".//manifest:AudioTrackReference/manifest:AudioTrackID", "Audio");
+		addXRef(".//manifest:AncillaryTrackReference/manifest:AncillaryTrackID", "Ancillary");
+		addXRef(".//manifest:SubtitleTrackReference/manifest:SubtitleTrackID", "Subtitle");
+		addXRef(".//manifest:TextObject/manifest:SubtitleID", "Subtitle");
 
-		validateXRef(".//manifest:TextGroup/manifest:TextObjectID", "TextObject");
+		addXRef(".//manifest:TextGroup/manifest:TextObjectID", "TextObject");
 
-		validateXRef(".//manifest:InteractiveTrackReference/manifest:InteractiveTrackID", "Interactive");
+		addXRef(".//manifest:InteractiveTrackReference/manifest:InteractiveTrackID", "Interactive");
 
-		validateXRef(".//manifest:Experience/manifest:App/manifest:AppGroupID", "AppGroup");
+		addXRef(".//manifest:Experience/manifest:App/manifest:AppGroupID", "AppGroup");
 
-		validateXRef(".//manifest:TimedEventSequence/manifest:PresentationID", "Presentation");
-		validateXRef(".//manifest:TimedEventSequence/manifest:PlayableSequenceID", "PlayableSequence");
+		addXRef(".//manifest:TimedEventSequence/manifest:PresentationID", "Presentation");
+		addXRef(".//manifest:TimedEventSequence/manifest:PlayableSequenceID", "PlayableSequence");
 
-		validateXRef(".//manifest:TimedEvent/manifest:PresentationID", "Presentation");
-		validateXRef(".//manifest:TimedEvent/manifest:PlayableSequenceID", "PlayableSequence");
-		validateXRef(".//manifest:TimedEvent/manifest:ExperienceID", "Experience");
-		validateXRef(".//manifest:TimedEvent/manifest:GalleryID", "Gallery");
-		validateXRef(".//manifest:TimedEvent/manifest:AppGroupID", "AppGroup");
-		validateXRef(".//manifest:TimedEvent/manifest:AppID", "App");
-		validateXRef(".//manifest:TimedEvent/manifest:TextGroupID", "TextGroup");
+		addXRef(".//manifest:TimedEvent/manifest:PresentationID", "Presentation");
+		addXRef(".//manifest:TimedEvent/manifest:PlayableSequenceID", "PlayableSequence");
+		addXRef(".//manifest:TimedEvent/manifest:ExperienceID", "Experience");
+		addXRef(".//manifest:TimedEvent/manifest:GalleryID", "Gallery");
+		addXRef(".//manifest:TimedEvent/manifest:AppGroupID", "AppGroup");
+		addXRef(".//manifest:TimedEvent/manifest:AppID", "App");
+		addXRef(".//manifest:TimedEvent/manifest:TextGroupID", "TextGroup");
 
-		validateXRef(".//manifest:ALIDExperienceMap/manifest:ExperienceID", "Experience");
+		addXRef(".//manifest:ALIDExperienceMap/manifest:ExperienceID", "Experience");
 
 		// added in v1.7:
 		xpath = ".//manifest:Inventory/manifest:ExternalManifest/@ManifestID";
-		validateXRef(xpath, "ExternalManifestID");
+		addXRef(xpath, "ExternalManifestID");
+		resolveXRefs();
 
 		/*
 		 * SPECIAL CASE: For v1.7 and after.... When ExternalManifestID is present in a
@@ -295,7 +319,7 @@ public class ManifestValidator extends CMValidator {
 		 * ExperienceChild, there may not yet be an ExternalManifest in the Inventory.
 		 * Hence, 'checkForOrphans()' should ignore
 		 */
-		idXRefCounts.remove("ExternalManifest");
+		xrefEngine.ignoreOrphans("ExternalManifest");
 		checkForOrphans();
 	}
 
@@ -27,6 +27,7 @@ import org.jdom2.JDOMException;
 import com.movielabs.mddflib.logging.LogMgmt;
 import com.movielabs.mddflib.logging.LogReference;
 import com.movielabs.mddflib.util.CMValidator;
+import com.movielabs.mddflib.util.ValidationPlan;
 import com.movielabs.mddflib.util.xml.MddfTarget;
 import com.movielabs.mddflib.util.xml.SchemaWrapper;
 import com.movielabs.mddflib.util.xml.XsdValidation;
@@ -73,16 +74,18 @@ public class MecValidator extends CMValidator {
 		curFile = target.getSrcFile();
 		curFileName = curFile.getName();
 		curFileIsValid = true;
+		resetBudget();
 
-		validateXml(target);
-		// }
+		if (isSelected(ValidationPlan.Check.SCHEMA)) {
+			validateXml(target);
+		}
 		if (!curFileIsValid) {
 			String msg = "Schema validation check FAILED";
 			loggingMgr.log(LogMgmt.LEV_INFO, logMsgDefaultTag, msg, curFile, logMsgSrcId);
 			// return false;
 		} else {
 			curRootEl = target.getXmlDoc().getRootElement();
-			String msg = "Schema validation check PASSED";
+			String msg = "Schema validation check " + (isSelected(ValidationPlan.Check.SCHEMA) ? "PASSED" : "SKIPPED");
 			loggingMgr.log(LogMgmt.LEV_INFO, logMsgDefaultTag, msg, curFile, logMsgSrcId);
 			if (validateC) {
 				validateConstraints();
@@ -110,17 +113,24 @@ public class MecValidator extends CMValidator {
 	protected void validateConstraints() {
 		loggingMgr.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "Validating constraints", curFile, LOGMSG_ID);
 		super.validateConstraints();
+		if (isBudgetExhausted()) {
+			return;
+		}
 
-		SchemaWrapper mecSchema = SchemaWrapper.factory("mdmec-v" + XmlIngester.MDMEC_VER);
-		validateNotEmpty(mecSchema);
+		if (isSelected(ValidationPlan.Check.STRUCTURE)) {
+			SchemaWrapper mecSchema = SchemaWrapper.factory("mdmec-v" + XmlIngester.MDMEC_VER);
+			validateNotEmpty(mecSchema);
+		}
 
-		/*
-		 * Validate the usage of controlled vocab (i.e., places where XSD specifies a
-		 * xs:string but the documentation specifies an enumerated set of allowed
-		 * values).
-		 */
-		validateMecVocab();
-		validateCMVocab();
+		if (isSelected(ValidationPlan.Check.VOCAB)) {
+			/*
+			 * Validate the usage of controlled vocab (i.e., places where XSD specifies a
+			 * xs:string but the documentation specifies an enumerated set of allowed
+			 * values).
+			 */
+			validateMecVocab();
+			validateCMVocab();
+		}
 	}
 
 	/**
@@ -21,6 +21,7 @@
  */
 package com.movielabs.mddflib.util;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
@@ -60,47 +61,6 @@ import com.movielabs.mddflib.util.xml.XmlIngester;
  */
 public class CMValidator extends XmlIngester {
 
-	/**
-	 * Used to facilitate keeping track of cross-references and identifying 'orphan'
-	 * elements.
-	 * 
-	 * @author L. Levin, Critical Architectures LLC
-	 *
-	 */
-	protected class XrefCounter {
-		private int count = 0;
-		private String elType;
-		private String elId;
-
-		/**
-		 * @param elType
-		 * @param elId
-		 */
-		XrefCounter(String elType, String elId) {
-			super();
-			this.elType = elType;
-			this.elId = elId;
-		}
-
-		int increment() {
-			count++;
-			return count;
-		}
-
-		void validate() {
-			if (count > 0) {
-				return;
-			} else {
-				Map<String, Element> idMap = id2XmlMappings.get(elType);
-				Element targetEl = idMap.get(elId);
-				String explanation = "The element is never referenced by it's ID";
-				String msg = "Unreferenced <" + elType + "> Element";
-				logIssue(LogMgmt.TAG_MD, LogMgmt.LEV_WARN, targetEl, msg, explanation, null, logMsgSrcId);
-			}
-		}
-
-	}
-
 	public static final String LOGMSG_ID = "AbstractValidator";
 
 	protected HashMap<String, String> id2typeMap;
@@ -161,19 +121,45 @@ public class CMValidator extends XmlIngester {
 	 */
 	protected boolean curFileIsValid;
 	protected Map<String, HashSet<String>> idSets;
-	protected Map<String, Map<String, XrefCounter>> idXRefCounts;
-	protected Map<String, Map<String, Element>> id2XmlMappings;
+	/**
+	 * Tracks the definition and use of IDs so that both invalid cross-references
+	 * and 'orphan' elements can be identified.
+	 */
+	protected XRefEngine xrefEngine;
 
 	protected XsdValidation xsdHelper;
 
 	protected StructureValidation structHelper;
 
+	private CodedValueVisitor codedValues;
+
+	protected IdentifierValidator idValidator = IdentifierValidator.getInstance();
+
+	/**
+	 * Maximum number of errors to report for a file before validation of that file
+	 * is terminated. A value of 0 indicates no limit.
+	 */
+	private int maxErrors = 0;
+	/**
+	 * If <tt>true</tt>, validation of a file is terminated on the first
+	 * <tt>LEV_FATAL</tt> issue.
+	 */
+	private boolean failFast = false;
+	private int errorCnt = 0;
+	private boolean budgetExhausted = false;
+
+	/**
+	 * Identifies the groups of checks to be performed.
+	 */
+	protected ValidationPlan plan = ValidationPlan.FULL;
+
 	/**
 	 * @param loggingMgr
 	 */
 	public CMValidator(LogMgmt loggingMgr) {
 		super(loggingMgr);
 		xsdHelper = new XsdValidation(loggingMgr);
+		xsdHelper.setIssueMonitor(this::chargeBudget);
 		structHelper = new StructureValidation(this, logMsgSrcId);
 	}
 
@@ -186,17 +172,137 @@ public class CMValidator extends XmlIngester {
 		logMsgSrcId = LOGMSG_ID;
 	}
 
+	/**
+	 * Limit the effort expended on a badly broken file. Once the budget for a file
+	 * has been exhausted any further issues are discarded and the remaining
+	 * validation checks are skipped. The budget is checked cooperatively (i.e.,
+	 * between the phases of a validation and inside the loops that process
+	 * potentially large numbers of elements) so a few additional checks may
+	 * complete after the limit is reached.
+	 * 
+	 * @param maxErrors maximum number of errors reported for a file (0 for no
+	 *                  limit)
+	 * @param failFast  if <tt>true</tt> stop at the first <tt>LEV_FATAL</tt>
+	 *                  issue
+	 */
+	public void setValidationBudget(int maxErrors, boolean failFast) {
+		this.maxErrors = Math.max(0, maxErrors);
+		this.failFast = failFast;
+	}
+
+	/**
+	 * Restrict validation to a subset of the available checks. Any phase not
+	 * included in the plan will be skipped. By default, all checks are performed.
+	 * 
+	 * @param plan
+	 */
+	public void setValidationPlan(ValidationPlan plan) {
+		this.plan = (plan == null) ? ValidationPlan.FULL : plan;
+	}
+
+	/**
+	 * @return the plan
+	 */
+	public ValidationPlan getValidationPlan() {
+		return plan;
+	}
+
+	/**
+	 * @param check
+	 * @return <tt>true</tt> if the check is included in the current plan
+	 */
+	protected boolean isSelected(ValidationPlan.Check check) {
+		return plan.includes(check);
+	}
+
+	/**
+	 * @return <tt>true</tt> if validation of the current file should be
+	 *         terminated.
+	 */
+	public boolean isBudgetExhausted() {
+		return budgetExhausted;
+	}
+
+	/**
+	 * Reset the error count at the start of processing a new file.
+	 */
+	protected void resetBudget() {
+		errorCnt = 0;
+		budgetExhausted = false;
+	}
+
+	/**
+	 * Log an issue while tracking the errors counted against the validation
+	 * budget. Once the budget is exhausted, all subsequent issues for the current
+	 * file are discarded.
+	 * 
+	 * @see com.movielabs.mddflib.util.xml.XmlIngester#logIssue(int, int,
+	 *      java.lang.Object, java.lang.String, java.lang.String,
+	 *      com.movielabs.mddflib.logging.LogReference, java.lang.String)
+	 */
+	public void logIssue(int tag, int level, Object target, String msg, String explanation, LogReference srcRef,
+			String moduleId) {
+		if (budgetExhausted) {
+			return;
+		}
+		super.logIssue(tag, level, target, msg, explanation, srcRef, moduleId);
+		chargeBudget(level);
+	}
+
+	/**
+	 * Count an issue that has been logged against the validation budget. Issues
+	 * logged by helpers that do not use <tt>logIssue()</tt> (e.g., the XSD
+	 * validation) are reported here so that they are counted as well.
+	 * 
+	 * @param level the level of the logged issue
+	 * @return <tt>false</tt> if the budget is now exhausted
+	 */
+	protected boolean chargeBudget(int level) {
+		if (budgetExhausted) {
+			return false;
+		}
+		if ((level != LogMgmt.LEV_ERR) && (level != LogMgmt.LEV_FATAL)) {
+			return true;
+		}
+		errorCnt++;
+		String reason = null;
+		if (failFast && (level == LogMgmt.LEV_FATAL)) {
+			reason = "fatal error encountered";
+		} else if ((maxErrors > 0) && (errorCnt >= maxErrors)) {
+			reason = "limit of " + maxErrors + " errors reached";
+		}
+		if (reason != null) {
+			budgetExhausted = true;
+			curFileIsValid = false;
+			String notice = "Validation terminated (" + reason + "); remaining checks were skipped";
+			loggingMgr.log(LogMgmt.LEV_WARN, logMsgDefaultTag, notice, curFile, logMsgSrcId);
+		}
+		return !budgetExhausted;
+	}
+
 	/**
 	 * Validate everything that is not fully specified via the XSD. This method
 	 * should be invoked when validating MEC and Manifest files. Avails has it's own
 	 * unique Metadata schema and therefore does not need to invoke this method.
 	 */
 	protected void validateConstraints() {
-		validateIdSet();
-		validateCountries();
-		validateLanguageCodes();
-		validateCurrencyCodes();
-		validateRatings();
+		if (isSelected(ValidationPlan.Check.IDS)) {
+			validateIdSet();
+		}
+		if (budgetExhausted) {
+			return;
+		}
+		if (isSelected(ValidationPlan.Check.VOCAB)) {
+			validateCountries();
+			validateLanguageCodes();
+			validateCurrencyCodes();
+		}
+		if (budgetExhausted) {
+			return;
+		}
+		if (isSelected(ValidationPlan.Check.RATINGS)) {
+			validateRatings();
+		}
 	}
 
 	/**
@@ -270,8 +376,7 @@ public class CMValidator extends XmlIngester {
 	 */
 	protected void validateIdSet() {
 		idSets = new HashMap<String, HashSet<String>>();
-		idXRefCounts = new HashMap<String, Map<String, XrefCounter>>();
-		id2XmlMappings = new HashMap<String, Map<String, Element>>();
+		xrefEngine = new XRefEngine(Arrays.asList(manifestNSpace, mdNSpace, availsNSpace));
 	}
 
 	/**
@@ -429,10 +534,27 @@ public class CMValidator extends XmlIngester {
 	 * @param targetSchema
 	 */
 	protected void validateNotEmpty(SchemaWrapper targetSchema) {
-		List<XPathExpression<?>> reqElXpList = targetSchema.getReqElList();
-		for (XPathExpression<?> xpExp : reqElXpList) {
-			List<?> elementList = xpExp.evaluate(curRootEl);
-			for (Object next : elementList) {
+		/*
+		 * A single walk of the document collects the nodes matching each rule. The
+		 * buckets are then processed in the same sequence as the equivalent XPaths
+		 * so that issues are reported in the same order as when each XPath was
+		 * evaluated separately.
+		 */
+		int ruleCnt = targetSchema.getReqValueRules().size();
+		List<List<Object>> buckets = new ArrayList<List<Object>>(ruleCnt);
+		for (int i = 0; i < ruleCnt; i++) {
+			buckets.add(null);
+		}
+		String nsUri = targetSchema.getTargetNamespace().getURI();
+		collectRequired(curRootEl, targetSchema, nsUri, buckets);
+		for (List<Object> nodeList : buckets) {
+			if (nodeList == null) {
+				continue;
+			}
+			if (budgetExhausted) {
+				return;
+			}
+			for (Object next : nodeList) {
 				String value = null;
 				String label = null;
 				Element targetEl = null;
@@ -456,6 +578,52 @@ public class CMValidator extends XmlIngester {
 		}
 	}
 
+	/**
+	 * Recursively match the descendants of <tt>parentEl</tt> against the
+	 * schema's <tt>ReqValueRules</tt>, adding each matching Element or attribute
+	 * to the bucket for the rule.
+	 * 
+	 * @param parentEl
+	 * @param targetSchema
+	 * @param nsUri
+	 * @param buckets
+	 */
+	private void collectRequired(Element parentEl, SchemaWrapper targetSchema, String nsUri,
+			List<List<Object>> buckets) {
+		/* XPaths are relative (i.e., './/') so the root can't be a parent */
+		boolean parentMatchable = (parentEl != curRootEl) && parentEl.getNamespaceURI().equals(nsUri);
+		List<Element> childList = parentEl.getChildren();
+		for (int i = 0; i < childList.size(); i++) {
+			Element nextEl = childList.get(i);
+			if (nextEl.getNamespaceURI().equals(nsUri)) {
+				List<SchemaWrapper.ReqValueRule> ruleList = targetSchema.getReqValueRules(nextEl.getName());
+				for (int j = 0; j < ruleList.size(); j++) {
+					SchemaWrapper.ReqValueRule rule = ruleList.get(j);
+					if (rule.getParentName() != null
+							&& !(parentMatchable && parentEl.getName().equals(rule.getParentName()))) {
+						continue;
+					}
+					Object match = nextEl;
+					if (rule.getAttributeName() != null) {
+						match = nextEl.getAttribute(rule.getAttributeName());
+						if (match == null) {
+							continue;
+						}
+					}
+					List<Object> nodeList = buckets.get(rule.getIndex());
+					if (nodeList == null) {
+						nodeList = new ArrayList<Object>();
+						buckets.set(rule.getIndex(), nodeList);
+					}
+					nodeList.add(match);
+				}
+			}
+			if (!nextEl.getChildren().isEmpty()) {
+				collectRequired(nextEl, targetSchema, nsUri, buckets);
+			}
+		}
+	}
+
 	// ..................
 
 	/**
@@ -481,18 +649,13 @@ public class CMValidator extends XmlIngester {
 		XPathExpression<Element> xpExpression = xpfac.compile(".//" + rootNS.getPrefix() + ":" + idElement,
 				Filters.element(), null, rootNS);
 		HashSet<String> idSet = new HashSet<String>();
-
 		/*
-		 * idXRefCounter is initialized here but will 'filled in' by validateXRef();
+		 * usage of each ID will be tracked as cross-references are resolved
 		 */
-		HashMap<String, XrefCounter> idXRefCounter = new HashMap<String, XrefCounter>();
-		/*
-		 * id2XmlMap is provided for look-ups later as an alternative to using XPaths.
-		 */
-		HashMap<String, Element> id2XmlMap = new HashMap<String, Element>();
+		xrefEngine.defineIdType(idElement);
 
 		List<Element> elementList = xpExpression.evaluate(curRootEl);
-		for (int i = 0; i < elementList.size(); i++) {
+		for (int i = 0; (i < elementList.size()) && !budgetExhausted; i++) {
 			/*
 			 * XSD may specify ID attribute as OPTIONAL but we need to verify
 			 * cross-references and uniqueness.
@@ -511,9 +674,7 @@ public class CMValidator extends XmlIngester {
 				idValue = targetEl.getAttributeValue(idAttribute);
 				idKey = idAttribute;
 			}
-			id2XmlMap.put(idValue, targetEl);
-			XrefCounter count = new XrefCounter(idElement, idValue);
-			idXRefCounter.put(idValue, count);
+			xrefEngine.registerId(idElement, idValue, targetEl);
 
 			if ((idValue == null) || (idValue.isEmpty())) {
 				String srcLabel = null;
@@ -546,9 +707,7 @@ public class CMValidator extends XmlIngester {
 					 * Validate identifier structure conforms with Sec 2.1 of Common Metadata spec
 					 * (v2.4)
 					 */
-
-					String idSyntaxPattern = "[\\S-[:]]+:[\\S-[:]]+:[\\S-[:]]+:[\\S]+$";
-					if (!idValue.matches(idSyntaxPattern)) {
+					if (!idValidator.isMovieLabsSyntax(idValue)) {
 						String msg = "ID syntax does not conform to recommendations.";
 						String details = "Best Practice is use of 'md:<type>:<scheme>:<SSID> syntax";
 						LogReference srcRef = LogReference.getRef("MMM-BP", "mmbp01.3");
@@ -568,8 +727,6 @@ public class CMValidator extends XmlIngester {
 			}
 		}
 		idSets.put(idElement, idSet);
-		id2XmlMappings.put(idElement, id2XmlMap);
-		idXRefCounts.put(idElement, idXRefCounter);
 		return idSet;
 	}
 
@@ -610,39 +767,69 @@ public class CMValidator extends XmlIngester {
 	}
 
 	private void validateIdSsid(String idSSID, String idScheme, Element targetEl) {
-		String idPattern = null;
 		LogReference srcRef = null;
+		String msg;
 		switch (idScheme) {
 		case "eidr":
 			srcRef = LogReference.getRef("MMM-BP", "mmbp01.2");
-			String msg = "Use of EIDR-x or EIDR-s identifiers is recommended";
+			msg = "Use of EIDR-x or EIDR-s identifiers is recommended";
 			logIssue(LogMgmt.TAG_BEST, LogMgmt.LEV_NOTICE, targetEl, msg, null, srcRef, logMsgSrcId);
-
 			srcRef = null;
-			idPattern = "10\\.[\\d]{4}/[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-Z]";
 			break;
 		case "eidr-s":
 			srcRef = LogReference.getRef("EIDR-IDF", "eidr01-s");
-			idPattern = "[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-Z]";
 			break;
 		case "eidr-x":
 			srcRef = LogReference.getRef("EIDR-IDF", "eidr01-x");
-			idPattern = "[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-Z]:[\\S]+";
 			break;
 		case "eidr-urn":
 			srcRef = LogReference.getRef("EIDR-IDF", "eidr01-urn");
-			idPattern = "urn:eidr:10\\.5240:[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-Z]";
+			break;
+		case "isan":
+		case "uuid":
 			break;
 		default:
 			msg = "ID uses scheme '" + idScheme + "', SSID format will not be verified";
 			logIssue(LogMgmt.TAG_MD, LogMgmt.LEV_INFO, targetEl, msg, "ssid='" + idSSID + "'", null, logMsgSrcId);
 			return;
 		}
-		boolean match = idSSID.matches(idPattern);
-		if (!match) {
-			String msg = "Invalid SSID syntax for " + idScheme + " scheme";
+		IdentifierValidator.Verdict verdict = idValidator.checkSsid(idScheme, idSSID);
+		switch (verdict) {
+		case INVALID_SYNTAX:
+			msg = "Invalid SSID syntax for " + idScheme + " scheme";
 			logIssue(LogMgmt.TAG_MD, LogMgmt.LEV_ERR, targetEl, msg, "ssid='" + idSSID + "'", srcRef, logMsgSrcId);
 			curFileIsValid = false;
+			break;
+		case INVALID_CHECK_DIGIT:
+			/*
+			 * SSIDs are frequently derived from, rather than identical to, a registered
+			 * ID so a mismatch is only noted for informational purposes.
+			 */
+			msg = "SSID check character does not match; value is not a registered " + idScheme.toUpperCase();
+			logIssue(LogMgmt.TAG_MD, LogMgmt.LEV_INFO, targetEl, msg, "ssid='" + idSSID + "'", srcRef, logMsgSrcId);
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Verify the check character of every EIDR specified as the value of an
+	 * element with a name ending in 'EIDR-URN' (e.g.,
+	 * <tt>&lt;avails:EditEIDR-URN&gt;</tt>). The XSD will have already verified
+	 * the syntax so only the check character is of concern.
+	 */
+	protected void validateEidrValues() {
+		List<Element> elementList = getCodedValues().getEidrElements();
+		int tag4log = getLogTag(rootNS, null);
+		LogReference srcRef = LogReference.getRef("EIDR-IDF", "eidr01-urn");
+		for (int i = 0; (i < elementList.size()) && !budgetExhausted; i++) {
+			Element targetEl = elementList.get(i);
+			String text = targetEl.getTextNormalize();
+			if (idValidator.checkEidr(text) == IdentifierValidator.Verdict.INVALID_CHECK_DIGIT) {
+				String msg = "Invalid EIDR: check character does not match";
+				logIssue(tag4log, LogMgmt.LEV_WARN, targetEl, msg, "value='" + text + "'", srcRef, logMsgSrcId);
+			}
 		}
 	}
 
@@ -658,54 +845,51 @@ public class CMValidator extends XmlIngester {
 	}
 
 	/**
+	 * Validate all cross-references identified by the <tt>xpath</tt>.
+	 * Equivalent to invoking <tt>addXRef()</tt> followed by
+	 * <tt>resolveXRefs()</tt>. When validating multiple types of cross-reference,
+	 * those methods should be used instead so that all references may be resolved
+	 * with a single pass thru the document.
+	 * 
 	 * @param xpath
 	 * @param targetElType
 	 */
 	protected void validateXRef(String xpath, String targetElType) {
-		HashSet<String> idSet = idSets.get(targetElType);
-		Map<String, XrefCounter> idXRefCounter = idXRefCounts.get(targetElType);
-		if (xpath.contains("@")) {
-			XPathExpression<Attribute> xpExpression = xpfac.compile(xpath, Filters.attribute(), null, manifestNSpace);
-			List<Attribute> attributeList = xpExpression.evaluate(curRootEl);
-			for (int i = 0; i < attributeList.size(); i++) {
-				Attribute refAtt = (Attribute) attributeList.get(i);
-				String targetId = refAtt.getValue();
-				if (!idSet.contains(targetId)) {
-					String msg = "Invalid cross-reference: the referenced " + targetElType
-							+ " is not defined in this manifest";
-					logIssue(LogMgmt.TAG_MD, LogMgmt.LEV_ERR, refAtt.getParent(), msg, null, null, logMsgSrcId);
-					curFileIsValid = false;
-				} else {
-					XrefCounter count = idXRefCounter.get(targetId);
-					if (count == null) {
-						System.out.println("TRAPPED :" + targetId);
-						count = new XrefCounter(targetElType, targetId);
-						idXRefCounter.put(targetId, count);
-					}
-					count.increment();
-				}
-			}
-		} else {
-			XPathExpression<Element> xpExpression = xpfac.compile(xpath, Filters.element(), null, manifestNSpace);
-			List<Element> elementList = xpExpression.evaluate(curRootEl);
-			for (int i = 0; i < elementList.size(); i++) {
-				Element refEl = (Element) elementList.get(i);
-				String targetId = refEl.getTextNormalize();
-				if (!idSet.contains(targetId)) {
-					String msg = "Invalid cross-reference: the referenced " + targetElType
-							+ " is not defined in this manifest";
-					logIssue(LogMgmt.TAG_MD, LogMgmt.LEV_ERR, refEl, msg, null, null, logMsgSrcId);
-					curFileIsValid = false;
-				} else {
-					XrefCounter count = idXRefCounter.get(targetId);
-					if (count == null) {
-						System.out.println("TRAPPED :" + targetId);
-						count = new XrefCounter(targetElType, targetId);
-						idXRefCounter.put(targetId, count);
-					}
-					count.increment();
-				}
-			}
+		addXRef(xpath, targetElType);
+		resolveXRefs();
+	}
+
+	/**
+	 * Declare that the elements or attributes identified by the <tt>xpath</tt>
+	 * are references to an ID of the type <tt>targetElType</tt>. Validation is
+	 * deferred until <tt>resolveXRefs()</tt> is invoked.
+	 * 
+	 * @param xpath
+	 * @param targetElType
+	 * @see com.movielabs.mddflib.util.XRefEngine
+	 */
+	protected void addXRef(String xpath, String targetElType) {
+		if (!isSelected(ValidationPlan.Check.XREFS)) {
+			return;
+		}
+		xrefEngine.addRule(xpath, targetElType);
+	}
+
+	/**
+	 * Resolve all cross-references declared via <tt>addXRef()</tt> since the
+	 * last invocation. Any reference to an ID that is not defined is flagged as
+	 * an error.
+	 */
+	protected void resolveXRefs() {
+		if (!isSelected(ValidationPlan.Check.XREFS)) {
+			return;
+		}
+		List<XRefEngine.XRef> dangling = xrefEngine.resolve(curRootEl);
+		for (XRefEngine.XRef xref : dangling) {
+			String msg = "Invalid cross-reference: the referenced " + xref.getIdType()
+					+ " is not defined in this manifest";
+			logIssue(LogMgmt.TAG_MD, LogMgmt.LEV_ERR, xref.getElement(), msg, null, null, logMsgSrcId);
+			curFileIsValid = false;
 		}
 	}
 
@@ -715,19 +899,15 @@ public class CMValidator extends XmlIngester {
 	 * editing error. Thus, a WARNING, rather than an ERROR, will be generated.
 	 */
 	protected void checkForOrphans() {
-		// Map<String, Map<String, XrefCounter>> idXRefCounts;
-		Iterator<Map<String, XrefCounter>> allCOunters = idXRefCounts.values().iterator();
-		while (allCOunters.hasNext()) {
-			// get the type-specific collection of counters...
-			Map<String, XrefCounter> nextCSet = allCOunters.next();
-			// now iterate thru the instance-specific counts..
-			Iterator<XrefCounter> typeCounters = nextCSet.values().iterator();
-			while (typeCounters.hasNext()) {
-				XrefCounter nextCount = typeCounters.next();
-				nextCount.validate();
-			}
+		if (!isSelected(ValidationPlan.Check.XREFS)) {
+			return;
+		}
+		List<XRefEngine.XRef> orphans = xrefEngine.getOrphans();
+		for (XRefEngine.XRef orphan : orphans) {
+			String explanation = "The element is never referenced by it's ID";
+			String msg = "Unreferenced <" + orphan.getIdType() + "> Element";
+			logIssue(LogMgmt.TAG_MD, LogMgmt.LEV_WARN, orphan.getElement(), msg, explanation, null, logMsgSrcId);
 		}
-
 	}
 
 	/**
@@ -795,7 +975,7 @@ public class CMValidator extends XmlIngester {
 	protected void validateRatings() {
 		XPathExpression<Element> xpExp01 = xpfac.compile(".//md:Rating", Filters.element(), null, mdNSpace);
 		List<Element> ratingElList = xpExp01.evaluate(curRootEl);
-		rLoop: for (int i = 0; i < ratingElList.size(); i++) {
+		rLoop: for (int i = 0; (i < ratingElList.size()) && !budgetExhausted; i++) {
 			Element ratingEl = ratingElList.get(i);
 			Element rSysEl = ratingEl.getChild("System", mdNSpace);
 			String system = rSysEl.getTextNormalize();
@@ -888,12 +1068,25 @@ public class CMValidator extends XmlIngester {
 		}
 	}
 
+	/**
+	 * Returns the elements and attributes of the current document that are
+	 * subject to code-set validation. The document is traversed only once, the
+	 * first time any of the country, region, language, or currency checks is
+	 * invoked, and the results are then shared by the remaining checks.
+	 * 
+	 * @return
+	 */
+	protected CodedValueVisitor getCodedValues() {
+		if ((codedValues == null) || !codedValues.isFor(curRootEl, mdNSpace)) {
+			codedValues = new CodedValueVisitor(curRootEl, mdNSpace);
+		}
+		return codedValues;
+	}
+
 	protected void validateCurrencyCodes() {
-		XPathExpression<Attribute> xpExpression = xpfac.compile(".//@currency", Filters.attribute(), null, availsNSpace,
-				manifestNSpace, mdNSpace);
-		List<Attribute> attList = xpExpression.evaluate(curRootEl);
+		List<Attribute> attList = getCodedValues().getCurrencyAttributes();
 		int tag4log = getLogTag(mdNSpace, null);
-		for (int i = 0; i < attList.size(); i++) {
+		for (int i = 0; (i < attList.size()) && !budgetExhausted; i++) {
 			Attribute targetAtt = (Attribute) attList.get(i);
 			String text = targetAtt.getValue();
 			if (!iso4217_codes.containsKey(text)) {
@@ -939,15 +1132,12 @@ public class CMValidator extends XmlIngester {
 	}
 
 	protected void validateLanguageElements() {
-		XPathExpression<Element> xpExpression = xpfac.compile(
-				".//*[substring(name(), string-length(name()) - string-length('anguage') +1) = 'anguage']",
-				Filters.element(), null, availsNSpace, manifestNSpace, mdNSpace);
-		List<Element> elementList = xpExpression.evaluate(curRootEl);
+		List<Element> elementList = getCodedValues().getLanguageElements();
 		String text = null;
 		int tag4log = getLogTag(mdNSpace, null);
 		loggingMgr.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "valRegion1: element count = " + elementList.size(), null,
 				logMsgSrcId);
-		for (int i = 0; i < elementList.size(); i++) {
+		for (int i = 0; (i < elementList.size()) && !budgetExhausted; i++) {
 			Element targetEl = (Element) elementList.get(i);
 			text = targetEl.getTextNormalize();
 			if (!checkLangTag(text)) {
@@ -957,12 +1147,9 @@ public class CMValidator extends XmlIngester {
 	}
 
 	protected void validateLanguageAttributes() {
-		XPathExpression<Attribute> xpExpression = xpfac.compile(
-				".//@*[substring(name(), string-length(name()) - string-length('anguage') +1) = 'anguage']",
-				Filters.attribute(), null, availsNSpace, manifestNSpace, mdNSpace);
-		List<Attribute> attList = xpExpression.evaluate(curRootEl);
+		List<Attribute> attList = getCodedValues().getLanguageAttributes();
 		int tag4log = getLogTag(mdNSpace, null);
-		for (int i = 0; i < attList.size(); i++) {
+		for (int i = 0; (i < attList.size()) && !budgetExhausted; i++) {
 			Attribute targetAtt = (Attribute) attList.get(i);
 			String text = targetAtt.getValue();
 			if (!checkLangTag(text)) {
@@ -1100,15 +1287,13 @@ public class CMValidator extends XmlIngester {
 		/*
 		 * check for use of the <tt>&lt;md:country&gt;</tt> element.
 		 */
-		XPathExpression<Element> xpExpression = xpfac.compile(".//" + mdNSpace.getPrefix() + ":country",
-				Filters.element(), null, mdNSpace);
-		List<Element> elementList = xpExpression.evaluate(curRootEl);
+		List<Element> elementList = getCodedValues().getCountryElements();
 		String text = null;
 		Element logMsgEl;
 		int tag4log = getLogTag(mdNSpace, null);
 		LogReference srcRef = LogReference.getRef("CM", "cm_regions");
 		String errMsg = null;
-		for (int i = 0; i < elementList.size(); i++) {
+		for (int i = 0; (i < elementList.size()) && !budgetExhausted; i++) {
 			Element targetEl = (Element) elementList.get(i);
 			logMsgEl = targetEl;
 			text = targetEl.getTextNormalize();
@@ -1134,10 +1319,9 @@ public class CMValidator extends XmlIngester {
 		boolean allOK = true;
 		String errMsg = "Unrecognized value for @region attribute";
 		LogReference srcRef = LogReference.getRef("CM", "cm_regions");
-		XPathExpression<Attribute> xpExpression = xpfac.compile("//@region", Filters.attribute(), null, primaryNS);
-		List<Attribute> attList = xpExpression.evaluate(curRootEl);
+		List<Attribute> attList = getCodedValues().getRegionAttributes();
 		int tag4log = getLogTag(primaryNS, null);
-		for (int i = 0; i < attList.size(); i++) {
+		for (int i = 0; (i < attList.size()) && !budgetExhausted; i++) {
 			Attribute targetAtt = (Attribute) attList.get(i);
 			String text = targetAtt.getValue();
 			if (!iso3166_1_codes.containsKey(text)) {
@@ -1159,7 +1343,7 @@ public class CMValidator extends XmlIngester {
 		loggingMgr.log(LogMgmt.LEV_DEBUG, logMsgDefaultTag, "valCode: element count = " + elementList.size(), null,
 				logMsgSrcId);
 
-		for (int i = 0; i < elementList.size(); i++) {
+		for (int i = 0; (i < elementList.size()) && !budgetExhausted; i++) {
 			String text = null;
 			String errMsg = null;
 			Element logMsgEl = null;
@@ -1400,6 +1584,9 @@ public class CMValidator extends XmlIngester {
 			}
 		}
 		for (Object next : targetList) {
+			if (budgetExhausted) {
+				return;
+			}
 			String text = null;
 			String errMsg = null;
 			Element logMsgEl = null;
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jdom2.Attribute;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+
+/**
+ * Collects, in a single traversal of a document, every element and attribute
+ * whose value is subject to validation against one of the standard code sets
+ * (i.e., ISO 3166-1 countries, RFC5646 languages, and ISO 4217 currencies) or
+ * whose value must be a valid EIDR.
+ * <p>
+ * Each check in <tt>CMValidator</tt> previously evaluated its own
+ * <tt>.//</tt> XPath against the entire document. The visitor instead
+ * classifies each node once and sorts it into a category-specific list. Each
+ * list is in document order and contains exactly the nodes the corresponding
+ * XPath would have returned, so the checks report the same issues in the same
+ * sequence as before:
+ * </p>
+ * <ul>
+ * <li><tt>.//md:country</tt></li>
+ * <li><tt>.//*[name() ends with 'anguage']</tt></li>
+ * <li><tt>.//@*[name() ends with 'anguage']</tt></li>
+ * <li><tt>.//@currency</tt></li>
+ * <li><tt>//@region</tt></li>
+ * <li><tt>.//*[name() ends with 'EIDR-URN']</tt></li>
+ * </ul>
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class CodedValueVisitor {
+
+	private static final String LANG_SUFFIX = "anguage";
+	private static final String EIDR_SUFFIX = "EIDR-URN";
+
+	private Element rootEl;
+	private String mdNSpaceUri;
+
+	private List<Element> countryElList = new ArrayList<Element>();
+	private List<Element> languageElList = new ArrayList<Element>();
+	private List<Attribute> languageAttList = new ArrayList<Attribute>();
+	private List<Attribute> currencyAttList = new ArrayList<Attribute>();
+	private List<Attribute> regionAttList = new ArrayList<Attribute>();
+	private List<Element> eidrElList = new ArrayList<Element>();
+
+	/**
+	 * Walk the tree rooted at <tt>rootEl</tt> and classify its contents.
+	 *
+	 * @param rootEl
+	 * @param mdNSpace the version-specific Common Metadata namespace
+	 */
+	public CodedValueVisitor(Element rootEl, Namespace mdNSpace) {
+		this.rootEl = rootEl;
+		this.mdNSpaceUri = mdNSpace.getURI();
+		visitAttributes(rootEl);
+		visitChildren(rootEl);
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this visitor was built for the specified root and
+	 * CM namespace and may therefore be reused.
+	 *
+	 * @param rootEl
+	 * @param mdNSpace
+	 * @return
+	 */
+	public boolean isFor(Element rootEl, Namespace mdNSpace) {
+		return (this.rootEl == rootEl) && mdNSpaceUri.equals(mdNSpace.getURI());
+	}
+
+	private void visitChildren(Element parentEl) {
+		List<Element> childList = parentEl.getChildren();
+		for (int i = 0; i < childList.size(); i++) {
+			Element nextEl = childList.get(i);
+			if (nextEl.getName().equals("country") && nextEl.getNamespaceURI().equals(mdNSpaceUri)) {
+				countryElList.add(nextEl);
+			}
+			if (nextEl.getQualifiedName().endsWith(LANG_SUFFIX)) {
+				languageElList.add(nextEl);
+			} else if (nextEl.getName().endsWith(EIDR_SUFFIX)) {
+				eidrElList.add(nextEl);
+			}
+			visitAttributes(nextEl);
+			visitChildren(nextEl);
+		}
+	}
+
+	private void visitAttributes(Element targetEl) {
+		if (!targetEl.hasAttributes()) {
+			return;
+		}
+		List<Attribute> attList = targetEl.getAttributes();
+		for (int i = 0; i < attList.size(); i++) {
+			Attribute nextAtt = attList.get(i);
+			if (nextAtt.getQualifiedName().endsWith(LANG_SUFFIX)) {
+				languageAttList.add(nextAtt);
+			}
+			if (nextAtt.getNamespace() == Namespace.NO_NAMESPACE) {
+				switch (nextAtt.getName()) {
+				case "currency":
+					currencyAttList.add(nextAtt);
+					break;
+				case "region":
+					regionAttList.add(nextAtt);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return all <tt>md:country</tt> elements
+	 */
+	public List<Element> getCountryElements() {
+		return countryElList;
+	}
+
+	/**
+	 * @return all elements with a name ending in 'anguage'
+	 */
+	public List<Element> getLanguageElements() {
+		return languageElList;
+	}
+
+	/**
+	 * @return all attributes with a name ending in 'anguage'
+	 */
+	public List<Attribute> getLanguageAttributes() {
+		return languageAttList;
+	}
+
+	/**
+	 * @return all <tt>@currency</tt> attributes
+	 */
+	public List<Attribute> getCurrencyAttributes() {
+		return currencyAttList;
+	}
+
+	/**
+	 * @return all <tt>@region</tt> attributes
+	 */
+	public List<Attribute> getRegionAttributes() {
+		return regionAttList;
+	}
+
+	/**
+	 * @return all elements with a name ending in 'EIDR-URN'
+	 */
+	public List<Element> getEidrElements() {
+		return eidrElList;
+	}
+}
@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Syntax checking of identifiers. Patterns for each supported scheme are
+ * compiled once and verdicts are cached so that the cost of checking an ID
+ * that is used repeatedly (e.g., the same EIDR referenced by thousands of
+ * Avails rows) is a single hash lookup.
+ * <p>
+ * Supported schemes are:
+ * </p>
+ * <ul>
+ * <li>MovieLabs IDs (i.e., <tt>md:&lt;type&gt;:&lt;scheme&gt;:&lt;SSID&gt;</tt>)
+ * as defined in Sec 2.1 of the Common Metadata spec,</li>
+ * <li>EIDR, in any of the <tt>eidr</tt>, <tt>eidr-s</tt>, <tt>eidr-x</tt>, or
+ * <tt>eidr-urn</tt> forms defined in the EIDR ID Format specification,</li>
+ * <li>ISAN, with or without the version segment, and</li>
+ * <li>UUID (RFC 4122).</li>
+ * </ul>
+ * <p>
+ * In addition to syntax, the check characters of EIDR and ISAN identifiers are
+ * verified. Both use the ISO 7064 Mod 37,36 algorithm.
+ * </p>
+ * <p>
+ * Instances are thread-safe. A single shared instance is available via
+ * <tt>getInstance()</tt>.
+ * </p>
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class IdentifierValidator {
+
+	/**
+	 * Result of checking an identifier.
+	 */
+	public enum Verdict {
+		VALID, INVALID_SYNTAX, INVALID_CHECK_DIGIT
+	}
+
+	/*
+	 * NOTE: the MovieLabs pattern is retained exactly as previously used by
+	 * CMValidator.
+	 */
+	private static final Pattern MD_ID = Pattern.compile("[\\S-[:]]+:[\\S-[:]]+:[\\S-[:]]+:[\\S]+$");
+
+	private static final String EIDR_SUFFIX = "[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-Z]";
+	private static final Pattern EIDR = Pattern.compile("10\\.[\\d]{4}/" + EIDR_SUFFIX);
+	private static final Pattern EIDR_S = Pattern.compile(EIDR_SUFFIX);
+	private static final Pattern EIDR_X = Pattern.compile(EIDR_SUFFIX + ":[\\S]+");
+	private static final Pattern EIDR_URN = Pattern.compile("urn:eidr:10\\.5240:" + EIDR_SUFFIX);
+
+	private static final Pattern ISAN = Pattern
+			.compile("[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-Z](-[\\dA-F]{4}-[\\dA-F]{4}-[\\dA-Z])?");
+	private static final Pattern UUID = Pattern
+			.compile("[\\da-fA-F]{8}-[\\da-fA-F]{4}-[\\da-fA-F]{4}-[\\da-fA-F]{4}-[\\da-fA-F]{12}");
+
+	private static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+	/**
+	 * Upper bound on the number of verdicts cached per scheme. When reached the
+	 * cache is simply cleared.
+	 */
+	private static final int MAX_CACHE_SIZE = 50000;
+
+	private static IdentifierValidator singleton = new IdentifierValidator();
+
+	private Map<String, Verdict> mdIdCache = new ConcurrentHashMap<String, Verdict>();
+	private Map<String, Verdict> eidrCache = new ConcurrentHashMap<String, Verdict>();
+	private Map<String, Verdict> isanCache = new ConcurrentHashMap<String, Verdict>();
+	private Map<String, Verdict> uuidCache = new ConcurrentHashMap<String, Verdict>();
+
+	public static IdentifierValidator getInstance() {
+		return singleton;
+	}
+
+	/**
+	 * Check an ID conforms to the <tt>md:&lt;type&gt;:&lt;scheme&gt;:&lt;SSID&gt;</tt>
+	 * syntax. Only the overall structure is checked; the SSID should be checked
+	 * separately via <tt>checkSsid()</tt>.
+	 *
+	 * @param idValue
+	 * @return
+	 */
+	public boolean isMovieLabsSyntax(String idValue) {
+		Verdict verdict = mdIdCache.get(idValue);
+		if (verdict == null) {
+			verdict = MD_ID.matcher(idValue).matches() ? Verdict.VALID : Verdict.INVALID_SYNTAX;
+			cache(mdIdCache, idValue, verdict);
+		}
+		return (verdict == Verdict.VALID);
+	}
+
+	/**
+	 * Check the SSID portion of a MovieLabs ID. Returns <tt>null</tt> if the
+	 * scheme is not one for which the SSID format is defined.
+	 *
+	 * @param idScheme one of <tt>eidr</tt>, <tt>eidr-s</tt>, <tt>eidr-x</tt>,
+	 *                 <tt>eidr-urn</tt>, <tt>isan</tt>, or <tt>uuid</tt>
+	 * @param idSSID
+	 * @return
+	 */
+	public Verdict checkSsid(String idScheme, String idSSID) {
+		switch (idScheme) {
+		case "eidr":
+		case "eidr-s":
+		case "eidr-x":
+		case "eidr-urn":
+			return checkEidr(idScheme, idSSID);
+		case "isan":
+			return checkIsan(idSSID);
+		case "uuid":
+			return checkUuid(idSSID);
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Check an EIDR in its DOI (i.e., <tt>10.5240/XXXX-...</tt>) or URN format.
+	 *
+	 * @param value
+	 * @return
+	 */
+	public Verdict checkEidr(String value) {
+		if (value.startsWith("urn:")) {
+			return checkEidr("eidr-urn", value);
+		}
+		return checkEidr("eidr", value);
+	}
+
+	/**
+	 * @param form  one of <tt>eidr</tt>, <tt>eidr-s</tt>, <tt>eidr-x</tt>, or
+	 *              <tt>eidr-urn</tt>
+	 * @param value
+	 * @return
+	 */
+	public Verdict checkEidr(String form, String value) {
+		String key = form + "|" + value;
+		Verdict verdict = eidrCache.get(key);
+		if (verdict != null) {
+			return verdict;
+		}
+		Pattern pattern;
+		int suffixStart;
+		switch (form) {
+		case "eidr":
+			pattern = EIDR;
+			suffixStart = value.indexOf('/') + 1;
+			break;
+		case "eidr-s":
+		case "eidr-x":
+			pattern = form.equals("eidr-s") ? EIDR_S : EIDR_X;
+			suffixStart = 0;
+			break;
+		case "eidr-urn":
+			pattern = EIDR_URN;
+			suffixStart = value.lastIndexOf(':') + 1;
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported EIDR form '" + form + "'");
+		}
+		if (!pattern.matcher(value).matches()) {
+			verdict = Verdict.INVALID_SYNTAX;
+		} else {
+			/* suffix is 20 hex digits in 5 groups followed by the check char */
+			String payload = value.substring(suffixStart, suffixStart + 24).replace("-", "");
+			char expected = value.charAt(suffixStart + 25);
+			verdict = (computeCheckChar(payload) == expected) ? Verdict.VALID : Verdict.INVALID_CHECK_DIGIT;
+		}
+		cache(eidrCache, key, verdict);
+		return verdict;
+	}
+
+	/**
+	 * Check an ISAN. Both the 'short' form (i.e., root + episode + check) and the
+	 * version-ed form (with the 2nd check character) are accepted.
+	 *
+	 * @param value
+	 * @return
+	 */
+	public Verdict checkIsan(String value) {
+		Verdict verdict = isanCache.get(value);
+		if (verdict != null) {
+			return verdict;
+		}
+		if (!ISAN.matcher(value).matches()) {
+			verdict = Verdict.INVALID_SYNTAX;
+		} else {
+			String rootAndEpisode = value.substring(0, 19).replace("-", "");
+			verdict = Verdict.VALID;
+			if (computeCheckChar(rootAndEpisode) != value.charAt(20)) {
+				verdict = Verdict.INVALID_CHECK_DIGIT;
+			} else if (value.length() > 21) {
+				String version = value.substring(22, 31).replace("-", "");
+				if (computeCheckChar(rootAndEpisode + version) != value.charAt(32)) {
+					verdict = Verdict.INVALID_CHECK_DIGIT;
+				}
+			}
+		}
+		cache(isanCache, value, verdict);
+		return verdict;
+	}
+
+	/**
+	 * @param value
+	 * @return
+	 */
+	public Verdict checkUuid(String value) {
+		Verdict verdict = uuidCache.get(value);
+		if (verdict == null) {
+			verdict = UUID.matcher(value).matches() ? Verdict.VALID : Verdict.INVALID_SYNTAX;
+			cache(uuidCache, value, verdict);
+		}
+		return verdict;
+	}
+
+	/**
+	 * Compute the ISO 7064 Mod 37,36 check character for a string of hex digits.
+	 *
+	 * @param payload
+	 * @return
+	 */
+	public static char computeCheckChar(String payload) {
+		int m = 36;
+		int p = m;
+		for (int i = 0; i < payload.length(); i++) {
+			int s = (p + Character.digit(payload.charAt(i), m)) % m;
+			if (s == 0) {
+				s = m;
+			}
+			p = (s * 2) % (m + 1);
+		}
+		return ALPHABET.charAt((m + 1 - p) % m);
+	}
+
+	private static void cache(Map<String, Verdict> cache, String key, Verdict verdict) {
+		if (cache.size() >= MAX_CACHE_SIZE) {
+			cache.clear();
+		}
+		cache.put(key, verdict);
+	}
+}
@@ -47,6 +47,7 @@ import org.jdom2.xpath.XPathFactory;
 import com.movielabs.mddf.MddfContext;
 import com.movielabs.mddf.MddfContext.FILE_FMT;
 import com.movielabs.mddflib.avails.xlsx.TemplateWorkBook;
+import com.movielabs.mddflib.avails.xlsx.TemplateWorkBook.ColumnSizing;
 import com.movielabs.mddflib.avails.xlsx.XlsxBuilder;
 import com.movielabs.mddflib.avails.xml.AvailsSheet.Version;
 import com.movielabs.mddflib.logging.LogMgmt;
@@ -181,7 +182,8 @@ public class Translator {
 			FILE_FMT targetFmt = selIt.next();
 			try {
 				if (targetFmt.getEncoding().equalsIgnoreCase("xlsx")) {
-					TemplateWorkBook wrkBook = convertToExcel(input, targetFmt, null, null, false, logMgr);
+					TemplateWorkBook wrkBook = convertToExcel(input, targetFmt, TemplateWorkBook.DEFAULT_ROW_WINDOW,
+							ColumnSizing.ESTIMATED, logMgr);
 					if (wrkBook != null) {
 						String fileName = outFileName;
 						fileName = fileName.replaceFirst("(?i)\\.xlsx$", "");
@@ -252,7 +254,7 @@ public class Translator {
 			try {
 				if (targetFmt.getEncoding().equalsIgnoreCase("xlsx")) {
 					// convert but don't save
-					TemplateWorkBook wrkBook = convertToExcel(input, targetFmt, null, null, false, logMgr);
+					TemplateWorkBook wrkBook = convertToExcel(input, targetFmt, 0, ColumnSizing.EXACT, logMgr);
 					resultMap.put(targetFmt, wrkBook);
 
 				} else {
@@ -384,15 +386,16 @@ public class Translator {
 	 * 
 	 * @param xmlSrcDoc
 	 * @param targetXlsxFormat
-	 * @param dirPath
-	 * @param outFileName
-	 * @param appendVersion
+	 * @param rowWindow
+	 *            the number of rows of each sheet retained in memory or zero if
+	 *            all rows are to be retained (see <tt>TemplateWorkBook</tt>)
+	 * @param columnSizing
 	 * @param logMgr
 	 * @return
 	 * @throws UnsupportedOperationException
 	 */
-	private static TemplateWorkBook convertToExcel(MddfTarget input, FILE_FMT targetXlsxFormat, String dirPath,
-			String outFileName, boolean appendVersion, LogMgmt logMgr) throws UnsupportedOperationException {
+	private static TemplateWorkBook convertToExcel(MddfTarget input, FILE_FMT targetXlsxFormat, int rowWindow,
+			ColumnSizing columnSizing, LogMgmt logMgr) throws UnsupportedOperationException {
 		Document xmlDoc = null;
 		Document xmlSrcDoc = input.getXmlDoc();
 		String curVersion = XmlIngester.identifyXsdVersion(xmlSrcDoc.getRootElement());
@@ -477,7 +480,9 @@ public class Translator {
 			throw new UnsupportedOperationException(
 					"Conversion to Avails xlsx " + targetXlsxFormat.name() + " from XML v" + curVersion + " not supported");
 		}
-		XlsxBuilder converter = new XlsxBuilder(xmlDoc.getRootElement(), excelVer, logMgr);
+		/* movie and TV sheets are extracted concurrently; the output is unaffected */
+		XlsxBuilder converter = new XlsxBuilder(xmlDoc.getRootElement(), excelVer, logMgr, rowWindow, columnSizing,
+				true);
 		TemplateWorkBook wrkBook = converter.getWorkbook();
 		return wrkBook;
 	}
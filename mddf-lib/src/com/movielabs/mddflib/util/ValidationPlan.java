@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.util;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Identifies which groups of checks are to be performed when validating a
+ * file. The default plan (i.e., <tt>ValidationPlan.FULL</tt>) includes every
+ * check. A reduced plan allows time-critical use-cases (e.g., a pre-flight
+ * check when a file is first received) to skip the more expensive phases.
+ * <p>
+ * Some checks depend on others:
+ * </p>
+ * <ul>
+ * <li>cross-references can only be resolved once the IDs have been collected
+ * so <tt>XREFS</tt> implies <tt>IDS</tt>, and</li>
+ * <li>profile-specific validation builds on the structural checks so
+ * <tt>PROFILES</tt> implies <tt>STRUCTURE</tt>.</li>
+ * </ul>
+ * <p>
+ * Instances are immutable.
+ * </p>
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class ValidationPlan {
+
+	/**
+	 * The groups of checks that may be selected.
+	 */
+	public enum Check {
+		/** validation against the XSD */
+		SCHEMA,
+		/** syntax and uniqueness of IDs */
+		IDS,
+		/** cross-references between IDs and detection of orphans */
+		XREFS,
+		/** controlled vocabulary and coded values (e.g., country, language) */
+		VOCAB,
+		/** content ratings */
+		RATINGS,
+		/** required values, indexing, and structural usage rules */
+		STRUCTURE,
+		/** profile-specific constraints */
+		PROFILES;
+
+		/**
+		 * @return the name used to identify the check in a plan's specification
+		 */
+		public String getKey() {
+			return name().toLowerCase();
+		}
+	}
+
+	public static final ValidationPlan FULL = new ValidationPlan(EnumSet.allOf(Check.class));
+
+	private final Set<Check> checks;
+
+	/**
+	 * @param checks
+	 */
+	private ValidationPlan(EnumSet<Check> checks) {
+		if (checks.contains(Check.XREFS)) {
+			checks.add(Check.IDS);
+		}
+		if (checks.contains(Check.PROFILES)) {
+			checks.add(Check.STRUCTURE);
+		}
+		this.checks = Collections.unmodifiableSet(checks);
+	}
+
+	/**
+	 * Return a plan that includes the specified checks along with any they depend
+	 * on.
+	 * 
+	 * @param first
+	 * @param rest
+	 * @return
+	 */
+	public static ValidationPlan of(Check first, Check... rest) {
+		return new ValidationPlan(EnumSet.of(first, rest));
+	}
+
+	/**
+	 * Return the plan corresponding to a comma-separated list of check names
+	 * (e.g., <tt>"schema,ids"</tt>). Names are case-insensitive. The name
+	 * <tt>all</tt> selects the full plan.
+	 * 
+	 * @param spec
+	 * @return
+	 * @throws IllegalArgumentException if any name is not recognized
+	 */
+	public static ValidationPlan parse(String spec) throws IllegalArgumentException {
+		EnumSet<Check> selected = EnumSet.noneOf(Check.class);
+		for (String name : spec.split(",")) {
+			name = name.trim().toLowerCase();
+			if (name.isEmpty()) {
+				continue;
+			}
+			if (name.equals("all")) {
+				return FULL;
+			}
+			Check check = null;
+			for (Check next : Check.values()) {
+				if (next.getKey().equals(name)) {
+					check = next;
+					break;
+				}
+			}
+			if (check == null) {
+				throw new IllegalArgumentException("Unrecognized validation check '" + name + "'");
+			}
+			selected.add(check);
+		}
+		if (selected.isEmpty()) {
+			throw new IllegalArgumentException("No validation checks specified");
+		}
+		return new ValidationPlan(selected);
+	}
+
+	/**
+	 * @param check
+	 * @return <tt>true</tt> if the check is to be performed
+	 */
+	public boolean includes(Check check) {
+		return checks.contains(check);
+	}
+
+	/**
+	 * @return the checks included in this plan
+	 */
+	public Set<Check> getChecks() {
+		return checks;
+	}
+
+	/**
+	 * @return a comma-separated list of the check names that may be parsed
+	 */
+	public static String getHelp() {
+		StringBuilder help = new StringBuilder();
+		for (Check next : Check.values()) {
+			help.append(next.getKey());
+			help.append(", ");
+		}
+		help.append("all");
+		return help.toString();
+	}
+
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		Iterator<Check> it = checks.iterator();
+		while (it.hasNext()) {
+			sb.append(it.next().getKey());
+			if (it.hasNext()) {
+				sb.append(",");
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,461 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jdom2.Attribute;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.filter.Filters;
+import org.jdom2.xpath.XPathExpression;
+import org.jdom2.xpath.XPathFactory;
+
+/**
+ * Declarative cross-reference resolution. Usage is a three step process:
+ * <ol>
+ * <li>the IDs defined in a document are registered, by type, via
+ * <tt>registerId()</tt>,</li>
+ * <li>each type of reference is declared via <tt>addRule()</tt> as a
+ * (path-to-referencing-node, target ID type) pair, and</li>
+ * <li><tt>resolve()</tt> is invoked to evaluate all pending rules in a single
+ * traversal of the document.</li>
+ * </ol>
+ * <p>
+ * ID values are interned to an <tt>int</tt> index within their type and the
+ * referenced/unreferenced status of every ID is tracked with a <tt>BitSet</tt>.
+ * Both dangling references (i.e., references to an undefined ID) and orphans
+ * (i.e., IDs that are never referenced) may then be reported without the need
+ * to maintain a counter object per ID.
+ * </p>
+ * <p>
+ * Rules are specified using the same limited XPath syntax previously used with
+ * <tt>CMValidator.validateXRef()</tt>. Supported paths are a sequence of
+ * namespace-qualified element steps starting with <tt>.//</tt>, optionally
+ * ending with an attribute step, with an optional predicate on the last element
+ * step of the form <tt>[../ns:Sibling]</tt> or <tt>[not(../ns:Sibling)]</tt>.
+ * For example:
+ * </p>
+ *
+ * <pre>
+ * .//manifest:Experience/manifest:App/manifest:AppGroupID
+ * .//manifest:Audiovisual/@ContentID
+ * .//manifest:ExperienceChild/manifest:ExperienceID[not(../manifest:ExternalManifestID)]
+ * </pre>
+ * <p>
+ * Any rule that can not be expressed in this syntax is still supported but
+ * will be evaluated separately using the full XPath.
+ * </p>
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class XRefEngine {
+
+	/**
+	 * A reference to, or definition of, a specific ID.
+	 */
+	public static class XRef {
+		private String idType;
+		private String idValue;
+		private Element element;
+
+		XRef(String idType, String idValue, Element element) {
+			this.idType = idType;
+			this.idValue = idValue;
+			this.element = element;
+		}
+
+		/**
+		 * @return the type of ID (e.g., 'Experience' or 'Metadata')
+		 */
+		public String getIdType() {
+			return idType;
+		}
+
+		public String getIdValue() {
+			return idValue;
+		}
+
+		/**
+		 * @return the element that should be used when logging an issue
+		 */
+		public Element getElement() {
+			return element;
+		}
+	}
+
+	private static class IdType {
+		private Map<String, Integer> index = new HashMap<String, Integer>();
+		private List<Element> definedBy = new ArrayList<Element>();
+		private BitSet referenced = new BitSet();
+		private boolean checkOrphans = true;
+	}
+
+	private static final int PRED_NONE = 0;
+	private static final int PRED_REQUIRE = 1;
+	private static final int PRED_FORBID = 2;
+
+	private static final Pattern stepPattern = Pattern.compile("(\\w+):(\\w+)(\\[(not\\()?\\.\\./(\\w+):(\\w+)\\)?\\])?");
+	private static final Pattern attStepPattern = Pattern.compile("@(\\w+)");
+
+	private static XPathFactory xpfac = XPathFactory.instance();
+
+	private class Rule {
+		private String targetType;
+		private String[] stepNSpace;
+		private String[] stepName;
+		private String attName;
+		private int predicate = PRED_NONE;
+		private Namespace predNSpace;
+		private String predName;
+		/* only used when the path is too complex for the single-pass matcher */
+		private XPathExpression<?> fallback;
+		private List<XRef> dangling = new ArrayList<XRef>();
+	}
+
+	private Map<String, IdType> idTypes = new LinkedHashMap<String, IdType>();
+	private Collection<Namespace> nSpaces;
+	private List<Rule> pending = new ArrayList<Rule>();
+	private Map<String, List<Rule>> pendingByName = new HashMap<String, List<Rule>>();
+
+	/**
+	 * @param nSpaces namespaces used to resolve the prefixes in rule paths
+	 */
+	public XRefEngine(Collection<Namespace> nSpaces) {
+		this.nSpaces = nSpaces;
+	}
+
+	/**
+	 * Define (or re-define) an ID type. Any IDs previously registered for the
+	 * type are discarded.
+	 *
+	 * @param idType
+	 */
+	public void defineIdType(String idType) {
+		idTypes.put(idType, new IdType());
+	}
+
+	/**
+	 * Register the definition of an ID. If the same value is registered more than
+	 * once, the last defining element is retained.
+	 *
+	 * @param idType
+	 * @param idValue
+	 * @param definedBy
+	 */
+	public void registerId(String idType, String idValue, Element definedBy) {
+		IdType type = idTypes.get(idType);
+		if (type == null) {
+			defineIdType(idType);
+			type = idTypes.get(idType);
+		}
+		Integer idx = type.index.get(idValue);
+		if (idx == null) {
+			type.index.put(idValue, type.definedBy.size());
+			type.definedBy.add(definedBy);
+		} else {
+			type.definedBy.set(idx, definedBy);
+		}
+	}
+
+	/**
+	 * @param idType
+	 * @param idValue
+	 * @return <tt>true</tt> if the ID has been registered with a non-empty value
+	 */
+	public boolean isDefined(String idType, String idValue) {
+		return (lookup(idType, idValue) >= 0);
+	}
+
+	/**
+	 * Exclude an ID type from the orphan check.
+	 *
+	 * @param idType
+	 */
+	public void ignoreOrphans(String idType) {
+		IdType type = idTypes.get(idType);
+		if (type != null) {
+			type.checkOrphans = false;
+		}
+	}
+
+	/**
+	 * Declare that the elements or attributes selected by the <tt>path</tt> are
+	 * references to an ID of the type <tt>targetType</tt>. The rule will be
+	 * evaluated on the next invocation of <tt>resolve()</tt>.
+	 *
+	 * @param path
+	 * @param targetType
+	 */
+	public void addRule(String path, String targetType) {
+		Rule rule = compile(path);
+		rule.targetType = targetType;
+		pending.add(rule);
+		if (rule.fallback == null) {
+			String key = rule.stepName[rule.stepName.length - 1];
+			List<Rule> ruleList = pendingByName.get(key);
+			if (ruleList == null) {
+				ruleList = new ArrayList<Rule>();
+				pendingByName.put(key, ruleList);
+			}
+			ruleList.add(rule);
+		}
+	}
+
+	/**
+	 * Evaluate all pending rules using a single traversal of the tree rooted at
+	 * <tt>rootEl</tt>. Referenced IDs are marked and any dangling references are
+	 * returned. The returned list is ordered by rule (i.e., in the order the rules
+	 * were added) and then by document order.
+	 *
+	 * @param rootEl
+	 * @return all references to an undefined ID
+	 */
+	public List<XRef> resolve(Element rootEl) {
+		if (!pendingByName.isEmpty()) {
+			visit(rootEl, rootEl);
+		}
+		List<XRef> dangling = new ArrayList<XRef>();
+		for (Rule rule : pending) {
+			if (rule.fallback != null) {
+				resolveViaXPath(rule, rootEl);
+			}
+			dangling.addAll(rule.dangling);
+		}
+		pending.clear();
+		pendingByName.clear();
+		return dangling;
+	}
+
+	/**
+	 * Returns all IDs that have been defined but never referenced by any rule
+	 * resolved so far. Results are ordered by ID type (in order of definition) and
+	 * then in the order the IDs were registered.
+	 *
+	 * @return
+	 */
+	public List<XRef> getOrphans() {
+		List<XRef> orphans = new ArrayList<XRef>();
+		for (Map.Entry<String, IdType> entry : idTypes.entrySet()) {
+			IdType type = entry.getValue();
+			if (!type.checkOrphans) {
+				continue;
+			}
+			Map<Integer, String> valueOf = new HashMap<Integer, String>();
+			for (Map.Entry<String, Integer> idEntry : type.index.entrySet()) {
+				valueOf.put(idEntry.getValue(), idEntry.getKey());
+			}
+			int size = type.definedBy.size();
+			for (int i = type.referenced.nextClearBit(0); i < size; i = type.referenced.nextClearBit(i + 1)) {
+				orphans.add(new XRef(entry.getKey(), valueOf.get(i), type.definedBy.get(i)));
+			}
+		}
+		return orphans;
+	}
+
+	// ----------------------------------------------------------------------
+
+	private void visit(Element curEl, Element rootEl) {
+		List<Element> childList = curEl.getChildren();
+		for (int i = 0; i < childList.size(); i++) {
+			Element nextEl = childList.get(i);
+			List<Rule> candidates = pendingByName.get(nextEl.getName());
+			if (candidates != null) {
+				for (int j = 0; j < candidates.size(); j++) {
+					Rule rule = candidates.get(j);
+					if (matches(rule, nextEl, rootEl)) {
+						if (rule.attName == null) {
+							mark(rule, nextEl.getTextNormalize(), nextEl);
+						} else {
+							Attribute refAtt = nextEl.getAttribute(rule.attName);
+							if (refAtt != null) {
+								mark(rule, refAtt.getValue(), nextEl);
+							}
+						}
+					}
+				}
+			}
+			visit(nextEl, rootEl);
+		}
+	}
+
+	private boolean matches(Rule rule, Element targetEl, Element rootEl) {
+		Element stepEl = targetEl;
+		for (int i = rule.stepName.length - 1; i >= 0; i--) {
+			if ((stepEl == null) || (stepEl == rootEl)) {
+				return false;
+			}
+			if (!stepEl.getName().equals(rule.stepName[i])
+					|| !stepEl.getNamespaceURI().equals(rule.stepNSpace[i])) {
+				return false;
+			}
+			stepEl = stepEl.getParentElement();
+		}
+		switch (rule.predicate) {
+		case PRED_REQUIRE:
+			return (targetEl.getParentElement().getChild(rule.predName, rule.predNSpace) != null);
+		case PRED_FORBID:
+			return (targetEl.getParentElement().getChild(rule.predName, rule.predNSpace) == null);
+		}
+		return true;
+	}
+
+	private void resolveViaXPath(Rule rule, Element rootEl) {
+		List<?> targetList = rule.fallback.evaluate(rootEl);
+		for (Object next : targetList) {
+			if (next instanceof Attribute) {
+				Attribute refAtt = (Attribute) next;
+				mark(rule, refAtt.getValue(), refAtt.getParent());
+			} else if (next instanceof Element) {
+				Element refEl = (Element) next;
+				mark(rule, refEl.getTextNormalize(), refEl);
+			}
+		}
+	}
+
+	private void mark(Rule rule, String idValue, Element refEl) {
+		int idx = lookup(rule.targetType, idValue);
+		if (idx < 0) {
+			rule.dangling.add(new XRef(rule.targetType, idValue, refEl));
+		} else {
+			idTypes.get(rule.targetType).referenced.set(idx);
+		}
+	}
+
+	private int lookup(String idType, String idValue) {
+		if ((idValue == null) || idValue.isEmpty()) {
+			return -1;
+		}
+		IdType type = idTypes.get(idType);
+		if (type == null) {
+			return -1;
+		}
+		Integer idx = type.index.get(idValue);
+		return (idx == null) ? -1 : idx;
+	}
+
+	private Rule compile(String path) {
+		Rule rule = new Rule();
+		String relPath = null;
+		if (path.startsWith(".//")) {
+			relPath = path.substring(3);
+		} else if (path.startsWith("//")) {
+			relPath = path.substring(2);
+		}
+		List<String> steps = (relPath == null) ? null : splitSteps(relPath);
+		if ((steps == null) || !compileSteps(rule, steps)) {
+			if (path.contains("@")) {
+				rule.fallback = xpfac.compile(path, Filters.attribute(), null, nSpaces);
+			} else {
+				rule.fallback = xpfac.compile(path, Filters.element(), null, nSpaces);
+			}
+		}
+		return rule;
+	}
+
+	private boolean compileSteps(Rule rule, List<String> steps) {
+		int elStepCnt = steps.size();
+		Matcher attMatcher = attStepPattern.matcher(steps.get(elStepCnt - 1));
+		if (attMatcher.matches()) {
+			rule.attName = attMatcher.group(1);
+			elStepCnt--;
+		}
+		if (elStepCnt < 1) {
+			return false;
+		}
+		rule.stepNSpace = new String[elStepCnt];
+		rule.stepName = new String[elStepCnt];
+		for (int i = 0; i < elStepCnt; i++) {
+			Matcher m = stepPattern.matcher(steps.get(i));
+			if (!m.matches()) {
+				return false;
+			}
+			Namespace ns = getNamespace(m.group(1));
+			if (ns == null) {
+				return false;
+			}
+			rule.stepNSpace[i] = ns.getURI();
+			rule.stepName[i] = m.group(2);
+			if (m.group(3) != null) {
+				/* predicates are only supported on the last element step */
+				if (i < (elStepCnt - 1) || (rule.attName != null)) {
+					return false;
+				}
+				rule.predicate = (m.group(4) == null) ? PRED_REQUIRE : PRED_FORBID;
+				rule.predNSpace = getNamespace(m.group(5));
+				rule.predName = m.group(6);
+				if (rule.predNSpace == null) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private Namespace getNamespace(String prefix) {
+		for (Namespace ns : nSpaces) {
+			if (ns.getPrefix().equals(prefix)) {
+				return ns;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Split a path into its steps, ignoring any '/' contained in a predicate.
+	 */
+	private static List<String> splitSteps(String path) {
+		List<String> steps = new ArrayList<String>();
+		int depth = 0;
+		int start = 0;
+		for (int i = 0; i < path.length(); i++) {
+			char c = path.charAt(i);
+			if (c == '[') {
+				depth++;
+			} else if (c == ']') {
+				depth--;
+			} else if ((c == '/') && (depth == 0)) {
+				if (i == start) {
+					/* '//' in mid-path is not supported */
+					return null;
+				}
+				steps.add(path.substring(start, i));
+				start = i + 1;
+			}
+		}
+		if (start >= path.length()) {
+			return null;
+		}
+		steps.add(path.substring(start));
+		return steps;
+	}
+}
@@ -36,7 +36,16 @@ public class FormatConverter {
 
 	private static Pattern p_xsDuration;
 	private static Pattern p_xsDateTime;
-	private static DecimalFormat durFieldFmt = new DecimalFormat("00");
+	private static final Pattern p_days = Pattern.compile("[0-9]+D");
+	private static final Pattern p_hours = Pattern.compile("[0-9]+H");
+	private static final Pattern p_minutes = Pattern.compile("[0-9]+M");
+	private static final Pattern p_seconds = Pattern.compile("[0-9]+S");
+	private static final Pattern p_xmlDuration = Pattern.compile("-?P((\\d+D)|T).*");
+	private static final Pattern p_dateWithTime = Pattern.compile("[\\d]{4}-[\\d]{2}-[\\d]{2}T[\\d]{2}.*");
+	private static final Pattern p_date = Pattern.compile("[\\d]{4}-[\\d]{2}-[\\d]{2}");
+	/* DecimalFormat is not thread-safe */
+	private static final ThreadLocal<DecimalFormat> durFieldFmt = ThreadLocal
+			.withInitial(() -> new DecimalFormat("00"));
 
 	static { /*
 				 * Compile Pattern used to identify an xs:duration value that
@@ -67,7 +76,8 @@ public class FormatConverter {
 		if (!m.matches()) {
 			return input;
 		}
-		String temp1 = input.replaceFirst("P", "");
+		/* a match means the input starts with the 'P' */
+		String temp1 = input.substring(1);
 		String[] parts = temp1.split("T");
 		long totalHrs = 0;
 		long totalMin = 0;
@@ -79,8 +89,7 @@ public class FormatConverter {
 			// "Conversion of duration '" + input + "' will ignore YEAR and
 			// MONTH fields", null, logMsgSrcId);
 			// }
-			Pattern dp = Pattern.compile("[0-9]+D");
-			Matcher dm = dp.matcher(parts[0]);
+			Matcher dm = p_days.matcher(parts[0]);
 			if (dm.find()) {
 				String dayPart = dm.group();
 				totalHrs = totalHrs + Integer.parseInt(dayPart.replace("D", ""));
@@ -91,31 +100,29 @@ public class FormatConverter {
 		}
 		if (parts.length > 1 && (!parts[1].isEmpty())) {
 			// handle H, M, and S fields
-			Pattern dp = Pattern.compile("[0-9]+H");
-			Matcher dm = dp.matcher(parts[1]);
+			Matcher dm = p_hours.matcher(parts[1]);
 			if (dm.find()) {
 				String hourPart = dm.group();
 				totalHrs = totalHrs + Integer.parseInt(hourPart.replace("H", ""));
 			}
-			dp = Pattern.compile("[0-9]+M");
-			dm = dp.matcher(parts[1]);
+			dm = p_minutes.matcher(parts[1]);
 			if (dm.find()) {
 				String mmPart = dm.group();
 				totalMin = Integer.parseInt(mmPart.replace("M", ""));
 			}
-			dp = Pattern.compile("[0-9]+S");
-			dm = dp.matcher(parts[1]);
+			dm = p_seconds.matcher(parts[1]);
 			if (dm.find()) {
 				String ssPart = dm.group();
 				totalSec = Integer.parseInt(ssPart.replace("S", ""));
 			}
 
 		}
-		String output = durFieldFmt.format(totalHrs);
+		DecimalFormat fieldFmt = durFieldFmt.get();
+		String output = fieldFmt.format(totalHrs);
 		if ((totalMin + totalSec) > 0) {
-			output = output + ":" + durFieldFmt.format(totalMin);
+			output = output + ":" + fieldFmt.format(totalMin);
 			if (totalSec > 0) {
-				output = output + ":" + durFieldFmt.format(totalSec);
+				output = output + ":" + fieldFmt.format(totalSec);
 			}
 		}
 		return output;
@@ -154,7 +161,7 @@ public class FormatConverter {
 	 * @return
 	 */
 	public static String durationToXml(String input) {
-		if (input.matches("-?P((\\d+D)|T).*")) {
+		if (p_xmlDuration.matcher(input).matches()) {
 			// already in XSD fmt
 			return input;
 		}
@@ -200,11 +207,11 @@ public class FormatConverter {
 	 */
 	public static String dateTimeToXml(String input, boolean roundDown) {
 		String output = "";
-		if (input.matches("[\\d]{4}-[\\d]{2}-[\\d]{2}T[\\d]{2}.*")) {
+		if (p_dateWithTime.matcher(input).matches()) {
 			// Time already present so return input as-is
 			return input;
 		}
-		if (input.matches("[\\d]{4}-[\\d]{2}-[\\d]{2}")) {
+		if (p_date.matcher(input).matches()) {
 			if (!roundDown) {
 				output = input + "T23:59:59";
 			} else {
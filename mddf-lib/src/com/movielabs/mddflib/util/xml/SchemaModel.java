@@ -0,0 +1,682 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.util.xml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.Element;
+import org.jdom2.filter.ElementFilter;
+
+/**
+ * A compact, typed description of the declarations in an XSD. The model
+ * contains:
+ * <ul>
+ * <li>element declarations,</li>
+ * <li>complex types, including their ordered child particles (with
+ * cardinalities) and attributes, and</li>
+ * <li>simple types, with their restriction base and enumerated values.</li>
+ * </ul>
+ * <p>
+ * A model is built once from the JDOM representation of an XSD and holds no
+ * reference to it. Models are immutable and may be shared across threads.
+ * Queries are simple hash lookups.
+ * </p>
+ *
+ * @see SchemaWrapper#getModel()
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class SchemaModel {
+
+	/**
+	 * Value used for a <tt>maxOccurs</tt> of 'unbounded'.
+	 */
+	public static final int UNBOUNDED = -1;
+
+	/**
+	 * The content model of a <tt>xs:complexType</tt>.
+	 */
+	public enum ContentKind {
+		EMPTY, SEQUENCE, CHOICE, ALL, SIMPLE_CONTENT, COMPLEX_CONTENT
+	}
+
+	/**
+	 * The kinds of <i>particle</i> that may appear within a content model.
+	 */
+	public enum ParticleKind {
+		ELEMENT, SEQUENCE, CHOICE, ALL, GROUP, ANY
+	}
+
+	/**
+	 * Summary of an <tt>xs:element</tt> declaration.
+	 */
+	public static class ElementDecl {
+		private final String name;
+		private final String type;
+		private final int minOccurs;
+		private final int maxOccurs;
+		private final String parentType;
+		private final ComplexType inlineComplexType;
+		private final SimpleType inlineSimpleType;
+
+		private ElementDecl(Element declEl, String parentType) {
+			this.name = declEl.getAttributeValue("name");
+			this.type = declEl.getAttributeValue("type", "xs:string");
+			this.minOccurs = parseOccurs(declEl.getAttributeValue("minOccurs", "1"));
+			this.maxOccurs = parseOccurs(declEl.getAttributeValue("maxOccurs", "1"));
+			this.parentType = parentType;
+			Element ctEl = declEl.getChild("complexType", SchemaWrapper.xsNSpace);
+			this.inlineComplexType = (ctEl == null) ? null : new ComplexType(name, ctEl);
+			Element stEl = declEl.getChild("simpleType", SchemaWrapper.xsNSpace);
+			this.inlineSimpleType = (stEl == null) ? null : new SimpleType(null, stEl);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the declared type or, if none is declared, <tt>xs:string</tt>
+		 */
+		public String getType() {
+			return type;
+		}
+
+		public int getMinOccurs() {
+			return minOccurs;
+		}
+
+		/**
+		 * @return the <tt>maxOccurs</tt> or <tt>UNBOUNDED</tt>
+		 */
+		public int getMaxOccurs() {
+			return maxOccurs;
+		}
+
+		public boolean isRequired() {
+			return minOccurs != 0;
+		}
+
+		/**
+		 * @return the name of the type (or, if the declaration is in-line, the
+		 *         element) within which the element is declared or <tt>null</tt> for
+		 *         a top-level declaration
+		 */
+		public String getParentType() {
+			return parentType;
+		}
+
+		/**
+		 * @return the anonymous <tt>xs:complexType</tt> declared in-line, if any
+		 */
+		public ComplexType getInlineComplexType() {
+			return inlineComplexType;
+		}
+
+		/**
+		 * @return the anonymous <tt>xs:simpleType</tt> declared in-line, if any
+		 */
+		public SimpleType getInlineSimpleType() {
+			return inlineSimpleType;
+		}
+	}
+
+	/**
+	 * Summary of an <tt>xs:attribute</tt> declaration.
+	 */
+	public static class AttributeDecl {
+		private final String name;
+		private final String type;
+		private final boolean required;
+		private final SimpleType inlineSimpleType;
+
+		private AttributeDecl(Element declEl) {
+			String attName = declEl.getAttributeValue("name");
+			this.name = (attName != null) ? attName : declEl.getAttributeValue("ref");
+			this.type = declEl.getAttributeValue("type", "xs:string");
+			this.required = "required".equals(declEl.getAttributeValue("use"));
+			Element stEl = declEl.getChild("simpleType", SchemaWrapper.xsNSpace);
+			this.inlineSimpleType = (stEl == null) ? null : new SimpleType(null, stEl);
+		}
+
+		/**
+		 * @return the name or, for a reference, the referenced attribute
+		 */
+		public String getName() {
+			return name;
+		}
+
+		public String getType() {
+			return type;
+		}
+
+		public boolean isRequired() {
+			return required;
+		}
+
+		public SimpleType getInlineSimpleType() {
+			return inlineSimpleType;
+		}
+	}
+
+	/**
+	 * A component of a content model. A particle is either an element, a
+	 * wildcard, a reference to a named group, or a compositor (i.e., a
+	 * <tt>sequence</tt>, <tt>choice</tt>, or <tt>all</tt>) with its own ordered
+	 * list of particles.
+	 */
+	public static class Particle {
+		private final ParticleKind kind;
+		private final String name;
+		private final String type;
+		private final int minOccurs;
+		private final int maxOccurs;
+		private final List<Particle> particles;
+
+		private Particle(ParticleKind kind, Element partEl) {
+			this.kind = kind;
+			this.minOccurs = parseOccurs(partEl.getAttributeValue("minOccurs", "1"));
+			this.maxOccurs = parseOccurs(partEl.getAttributeValue("maxOccurs", "1"));
+			switch (kind) {
+			case ELEMENT:
+				String elName = partEl.getAttributeValue("name");
+				this.name = (elName != null) ? elName : partEl.getAttributeValue("ref");
+				this.type = partEl.getAttributeValue("type");
+				this.particles = Collections.emptyList();
+				break;
+			case GROUP:
+				this.name = partEl.getAttributeValue("ref");
+				this.type = null;
+				this.particles = Collections.emptyList();
+				break;
+			case ANY:
+				this.name = null;
+				this.type = null;
+				this.particles = Collections.emptyList();
+				break;
+			default:
+				this.name = null;
+				this.type = null;
+				this.particles = parseParticles(partEl);
+			}
+		}
+
+		public ParticleKind getKind() {
+			return kind;
+		}
+
+		/**
+		 * @return the element name (or reference), the referenced group, or
+		 *         <tt>null</tt> for compositors and wildcards
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the declared type of an element or <tt>null</tt>
+		 */
+		public String getType() {
+			return type;
+		}
+
+		public int getMinOccurs() {
+			return minOccurs;
+		}
+
+		public int getMaxOccurs() {
+			return maxOccurs;
+		}
+
+		/**
+		 * @return the nested particles of a compositor
+		 */
+		public List<Particle> getParticles() {
+			return particles;
+		}
+	}
+
+	/**
+	 * Summary of a <tt>xs:complexType</tt>.
+	 */
+	public static class ComplexType {
+		private final String name;
+		private final ContentKind contentKind;
+		private final String baseType;
+		private final boolean extension;
+		private final int minOccurs;
+		private final int maxOccurs;
+		private final List<Particle> particles;
+		private final List<AttributeDecl> attributes;
+
+		private ComplexType(String name, Element typeEl) {
+			this.name = name;
+			ContentKind kind = ContentKind.EMPTY;
+			Element groupEl = null;
+			Element derivEl = null;
+			List<AttributeDecl> attList = new ArrayList<AttributeDecl>();
+			addAttributes(typeEl, attList);
+			for (Element childEl : typeEl.getChildren()) {
+				if (!childEl.getNamespace().equals(SchemaWrapper.xsNSpace)) {
+					continue;
+				}
+				switch (childEl.getName()) {
+				case "sequence":
+					kind = ContentKind.SEQUENCE;
+					groupEl = childEl;
+					break;
+				case "choice":
+					kind = ContentKind.CHOICE;
+					groupEl = childEl;
+					break;
+				case "all":
+					kind = ContentKind.ALL;
+					groupEl = childEl;
+					break;
+				case "simpleContent":
+				case "complexContent":
+					kind = childEl.getName().equals("simpleContent") ? ContentKind.SIMPLE_CONTENT
+							: ContentKind.COMPLEX_CONTENT;
+					derivEl = childEl.getChild("extension", SchemaWrapper.xsNSpace);
+					if (derivEl == null) {
+						derivEl = childEl.getChild("restriction", SchemaWrapper.xsNSpace);
+					}
+					if (derivEl != null) {
+						addAttributes(derivEl, attList);
+						groupEl = getCompositor(derivEl);
+					}
+					break;
+				}
+			}
+			this.contentKind = kind;
+			this.baseType = (derivEl == null) ? null : derivEl.getAttributeValue("base");
+			this.extension = (derivEl != null) && derivEl.getName().equals("extension");
+			if (groupEl == null) {
+				this.minOccurs = 1;
+				this.maxOccurs = 1;
+				this.particles = Collections.emptyList();
+			} else {
+				this.minOccurs = parseOccurs(groupEl.getAttributeValue("minOccurs", "1"));
+				this.maxOccurs = parseOccurs(groupEl.getAttributeValue("maxOccurs", "1"));
+				this.particles = parseParticles(groupEl);
+			}
+			this.attributes = Collections.unmodifiableList(attList);
+		}
+
+		/**
+		 * @return the name of the type or, if anonymous, of the element within which
+		 *         it is declared
+		 */
+		public String getName() {
+			return name;
+		}
+
+		public ContentKind getContentKind() {
+			return contentKind;
+		}
+
+		/**
+		 * @return <tt>true</tt> if the content model is a <tt>xs:choice</tt>
+		 */
+		public boolean isChoice() {
+			return contentKind == ContentKind.CHOICE;
+		}
+
+		/**
+		 * @return <tt>true</tt> if the type is a simple type extended with
+		 *         attributes (i.e., <tt>xs:simpleContent/xs:extension</tt>)
+		 */
+		public boolean isSimpleContentExtension() {
+			return (contentKind == ContentKind.SIMPLE_CONTENT) && extension;
+		}
+
+		/**
+		 * @return the base type of a <tt>simpleContent</tt> or
+		 *         <tt>complexContent</tt> derivation, otherwise <tt>null</tt>
+		 */
+		public String getBaseType() {
+			return baseType;
+		}
+
+		/**
+		 * @return <tt>true</tt> if derived by extension (rather than restriction)
+		 */
+		public boolean isExtension() {
+			return extension;
+		}
+
+		/**
+		 * @return the <tt>minOccurs</tt> of the top-level compositor
+		 */
+		public int getMinOccurs() {
+			return minOccurs;
+		}
+
+		/**
+		 * @return the <tt>maxOccurs</tt> of the top-level compositor
+		 */
+		public int getMaxOccurs() {
+			return maxOccurs;
+		}
+
+		/**
+		 * Return the child particles of the top-level compositor in declaration
+		 * sequence. For a derived type only the particles added by the derivation
+		 * are included.
+		 *
+		 * @return
+		 */
+		public List<Particle> getParticles() {
+			return particles;
+		}
+
+		/**
+		 * @return the attributes declared directly or by a derivation
+		 */
+		public List<AttributeDecl> getAttributes() {
+			return attributes;
+		}
+	}
+
+	/**
+	 * Summary of a <tt>xs:simpleType</tt>.
+	 */
+	public static class SimpleType {
+		private final String name;
+		private final String restrictionBase;
+		private final List<String> enumerations;
+		private final List<String> memberTypes;
+
+		private SimpleType(String name, Element typeEl) {
+			this.name = name;
+			Element restEl = typeEl.getChild("restriction", SchemaWrapper.xsNSpace);
+			if (restEl != null) {
+				this.restrictionBase = restEl.getAttributeValue("base");
+				List<String> enumList = new ArrayList<String>();
+				for (Element enumEl : restEl.getChildren("enumeration", SchemaWrapper.xsNSpace)) {
+					enumList.add(enumEl.getAttributeValue("value"));
+				}
+				this.enumerations = Collections.unmodifiableList(enumList);
+			} else {
+				this.restrictionBase = null;
+				this.enumerations = Collections.emptyList();
+			}
+			Element unionEl = typeEl.getChild("union", SchemaWrapper.xsNSpace);
+			if ((unionEl != null) && (unionEl.getAttributeValue("memberTypes") != null)) {
+				String[] members = unionEl.getAttributeValue("memberTypes").trim().split("\\s+");
+				this.memberTypes = Collections.unmodifiableList(Arrays.asList(members));
+			} else {
+				this.memberTypes = Collections.emptyList();
+			}
+		}
+
+		/**
+		 * @return the name or <tt>null</tt> if anonymous
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the base of the <tt>xs:restriction</tt> or <tt>null</tt> if the
+		 *         type is not defined by restriction (e.g., is a union)
+		 */
+		public String getRestrictionBase() {
+			return restrictionBase;
+		}
+
+		/**
+		 * @return the enumerated values (if any) in declaration sequence
+		 */
+		public List<String> getEnumerations() {
+			return enumerations;
+		}
+
+		/**
+		 * @return the member types of a <tt>xs:union</tt>
+		 */
+		public List<String> getMemberTypes() {
+			return memberTypes;
+		}
+	}
+
+	private final Map<String, ElementDecl> elements;
+	private final Map<String, ComplexType> complexTypes;
+	private final Map<String, ComplexType> inlineComplexTypes;
+	private final Map<String, SimpleType> simpleTypes;
+	private final Map<String, List<Particle>> groups;
+
+	/**
+	 * Build the model of the XSD with the specified root
+	 * (i.e.,<tt>xs:schema</tt>) element.
+	 *
+	 * @param rootEl
+	 */
+	SchemaModel(Element rootEl) {
+		Map<String, ElementDecl> elMap = new HashMap<String, ElementDecl>();
+		Map<String, ComplexType> inlineMap = new HashMap<String, ComplexType>();
+		/*
+		 * Where the same element name is declared more than once, the first
+		 * declaration in document order is indexed (i.e., the same one an XPath of
+		 * the form .//xs:element[@name='X'] would select).
+		 */
+		Iterator<Element> it = rootEl.getDescendants(new ElementFilter("element", SchemaWrapper.xsNSpace));
+		while (it.hasNext()) {
+			Element declEl = it.next();
+			String name = declEl.getAttributeValue("name");
+			if (name == null) {
+				continue;
+			}
+			ElementDecl decl = elMap.get(name);
+			if (decl == null) {
+				Element parent = getNamedAncestor(declEl);
+				String parentType = (parent == null) ? null : parent.getAttributeValue("name");
+				decl = new ElementDecl(declEl, parentType);
+				elMap.put(name, decl);
+				if (decl.getInlineComplexType() != null) {
+					inlineMap.put(name, decl.getInlineComplexType());
+				}
+			} else if (!inlineMap.containsKey(name)) {
+				Element ctEl = declEl.getChild("complexType", SchemaWrapper.xsNSpace);
+				if (ctEl != null) {
+					inlineMap.put(name, new ComplexType(name, ctEl));
+				}
+			}
+		}
+		Map<String, ComplexType> ctMap = new HashMap<String, ComplexType>();
+		Map<String, SimpleType> stMap = new HashMap<String, SimpleType>();
+		Map<String, List<Particle>> groupMap = new HashMap<String, List<Particle>>();
+		for (Element typeEl : rootEl.getChildren()) {
+			String name = typeEl.getAttributeValue("name");
+			if ((name == null) || !typeEl.getNamespace().equals(SchemaWrapper.xsNSpace)) {
+				continue;
+			}
+			switch (typeEl.getName()) {
+			case "complexType":
+				if (!ctMap.containsKey(name)) {
+					ctMap.put(name, new ComplexType(name, typeEl));
+				}
+				break;
+			case "simpleType":
+				if (!stMap.containsKey(name)) {
+					stMap.put(name, new SimpleType(name, typeEl));
+				}
+				break;
+			case "group":
+				Element groupEl = getCompositor(typeEl);
+				if (groupEl != null) {
+					groupMap.put(name, Collections.singletonList(new Particle(kindOf(groupEl), groupEl)));
+				}
+				break;
+			}
+		}
+		elements = Collections.unmodifiableMap(elMap);
+		inlineComplexTypes = Collections.unmodifiableMap(inlineMap);
+		complexTypes = Collections.unmodifiableMap(ctMap);
+		simpleTypes = Collections.unmodifiableMap(stMap);
+		groups = Collections.unmodifiableMap(groupMap);
+	}
+
+	/**
+	 * @param name
+	 * @return the declaration or <tt>null</tt> if not declared
+	 */
+	public ElementDecl getElement(String name) {
+		return elements.get(name);
+	}
+
+	public Collection<ElementDecl> getElements() {
+		return elements.values();
+	}
+
+	/**
+	 * @param name
+	 * @return the named <tt>xs:complexType</tt> or <tt>null</tt>
+	 */
+	public ComplexType getComplexType(String name) {
+		return complexTypes.get(name);
+	}
+
+	/**
+	 * Return the anonymous <tt>xs:complexType</tt> declared in-line by the first
+	 * element with the specified name that has one.
+	 *
+	 * @param elementName
+	 * @return the in-line type or <tt>null</tt>
+	 */
+	public ComplexType getInlineComplexType(String elementName) {
+		return inlineComplexTypes.get(elementName);
+	}
+
+	/**
+	 * @return all named (i.e., top-level) <tt>xs:complexType</tt> definitions
+	 */
+	public Collection<ComplexType> getComplexTypes() {
+		return complexTypes.values();
+	}
+
+	/**
+	 * @param name
+	 * @return the named simpleType or <tt>null</tt>
+	 */
+	public SimpleType getSimpleType(String name) {
+		return simpleTypes.get(name);
+	}
+
+	public Collection<SimpleType> getSimpleTypes() {
+		return simpleTypes.values();
+	}
+
+	public boolean isSimpleType(String name) {
+		return simpleTypes.containsKey(name);
+	}
+
+	/**
+	 * @param name
+	 * @return the particles of a named <tt>xs:group</tt> or <tt>null</tt>
+	 */
+	public List<Particle> getGroup(String name) {
+		return groups.get(name);
+	}
+
+	/**
+	 * Return the closest ancestor of a declaration that has a <tt>name</tt>
+	 * attribute (i.e., the enclosing named type or in-line element declaration)
+	 * or <tt>null</tt> if there is none.
+	 *
+	 * @param target
+	 * @return
+	 */
+	static Element getNamedAncestor(Element target) {
+		Element parent = target.getParentElement();
+		while (parent != null) {
+			if (parent.getAttribute("name") != null) {
+				return parent;
+			}
+			parent = parent.getParentElement();
+		}
+		return null;
+	}
+
+	private static int parseOccurs(String value) {
+		if (value.equals("unbounded")) {
+			return UNBOUNDED;
+		}
+		return Integer.parseInt(value);
+	}
+
+	private static Element getCompositor(Element parentEl) {
+		for (Element childEl : parentEl.getChildren()) {
+			if (childEl.getNamespace().equals(SchemaWrapper.xsNSpace) && (kindOf(childEl) != null)) {
+				return childEl;
+			}
+		}
+		return null;
+	}
+
+	private static void addAttributes(Element parentEl, List<AttributeDecl> attList) {
+		for (Element attEl : parentEl.getChildren("attribute", SchemaWrapper.xsNSpace)) {
+			attList.add(new AttributeDecl(attEl));
+		}
+	}
+
+	private static List<Particle> parseParticles(Element groupEl) {
+		List<Particle> partList = new ArrayList<Particle>();
+		for (Element childEl : groupEl.getChildren()) {
+			if (!childEl.getNamespace().equals(SchemaWrapper.xsNSpace)) {
+				continue;
+			}
+			ParticleKind kind = kindOf(childEl);
+			if (kind != null) {
+				partList.add(new Particle(kind, childEl));
+			}
+		}
+		return Collections.unmodifiableList(partList);
+	}
+
+	private static ParticleKind kindOf(Element partEl) {
+		switch (partEl.getName()) {
+		case "element":
+			return ParticleKind.ELEMENT;
+		case "sequence":
+			return ParticleKind.SEQUENCE;
+		case "choice":
+			return ParticleKind.CHOICE;
+		case "all":
+			return ParticleKind.ALL;
+		case "group":
+			return ParticleKind.GROUP;
+		case "any":
+			return ParticleKind.ANY;
+		default:
+			return null;
+		}
+	}
+}
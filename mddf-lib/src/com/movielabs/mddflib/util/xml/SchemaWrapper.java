@@ -24,6 +24,7 @@ package com.movielabs.mddflib.util.xml;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -33,6 +34,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -64,41 +70,138 @@ import net.sf.json.JSONObject;
  *
  */
 public class SchemaWrapper {
+
+	/**
+	 * Describes a single Element or attribute that is required to have a
+	 * non-empty value. Each rule is the structural equivalent of one of the XPaths
+	 * returned by <tt>getReqElList()</tt> and may be matched against a node
+	 * without evaluating an XPath. Rules are immutable.
+	 * 
+	 * @see SchemaWrapper#getReqValueRules(String)
+	 */
+	public static class ReqValueRule {
+		private final int index;
+		private final String parentName;
+		private final String elName;
+		private final String attName;
+		private final String xpath;
+
+		private ReqValueRule(int index, String prefix, String parentName, String elName, String attName) {
+			this.index = index;
+			this.parentName = parentName;
+			this.elName = elName;
+			this.attName = attName;
+			StringBuilder sb = new StringBuilder(".//");
+			if (parentName != null) {
+				sb.append(prefix + ":" + parentName + "/");
+			}
+			sb.append(prefix + ":" + elName);
+			if (attName != null) {
+				sb.append("/@" + attName);
+			}
+			this.xpath = sb.toString();
+		}
+
+		/**
+		 * @return the position of the equivalent XPath in the <tt>reqElList</tt>
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * @return the local name of the required parent Element or <tt>null</tt> if
+		 *         the Element may occur anywhere
+		 */
+		public String getParentName() {
+			return parentName;
+		}
+
+		/**
+		 * @return the local name of the Element
+		 */
+		public String getElementName() {
+			return elName;
+		}
+
+		/**
+		 * @return the name of the required attribute or <tt>null</tt> if the rule
+		 *         applies to the Element's text
+		 */
+		public String getAttributeName() {
+			return attName;
+		}
+
+		/**
+		 * @return the equivalent XPath
+		 */
+		public String getXPath() {
+			return xpath;
+		}
+	}
+
 	public static final Namespace xsNSpace = Namespace.getNamespace("xs", "http://www.w3.org/2001/XMLSchema");
 	public static final Namespace xsiNSpace = Namespace.getNamespace("xsi",
 			"http://www.w3.org/2001/XMLSchema-instance");
 
 	public static final String RSRC_PACKAGE = "/com/movielabs/mddf/resources/";
 	public static final String JSON_KEY_PREFIX = "@__";
-	private static Map<String, SchemaWrapper> cache = new HashMap<String, SchemaWrapper>();
-
-	private Map<String, JSONObject> structureCache = new HashMap<String, JSONObject>();
-	private Document schemaXSD;
+	/**
+	 * Wrappers are cached as futures so that concurrent first-time requests for a
+	 * given schema will block until a single instance has been constructed while
+	 * requests for other schemas proceed in parallel. Once constructed, retrieval
+	 * requires no locking.
+	 */
+	private static ConcurrentMap<String, Future<SchemaWrapper>> cache = new ConcurrentHashMap<String, Future<SchemaWrapper>>();
 
-	private Element rootEl;
+	private ConcurrentMap<String, JSONObject> structureCache = new ConcurrentHashMap<String, JSONObject>();
+	/**
+	 * The JDOM representation of the XSD is only required when generating a JSON
+	 * content structure. It is released once the <tt>SchemaModel</tt> has been
+	 * built and, if needed, is reloaded on demand.
+	 */
+	private volatile SoftReference<Element> rootElRef = new SoftReference<Element>(null);
+	private SchemaModel model;
 
 	private XPathFactory xpfac = XPathFactory.instance();
 	private Namespace nSpace;
-	private ArrayList<XPathExpression<?>> reqElXpList;
+	private ArrayList<XPathExpression<?>> reqElXpList = null;
+	private List<ReqValueRule> reqValueRules;
+	private Map<String, List<ReqValueRule>> reqValueRuleMap;
 	private HashMap<String, SchemaWrapper> otherSchemas = new HashMap<String, SchemaWrapper>();
-	private int anonSeqNum = 0;
 	private String xsdRsrc;
 
+	/**
+	 * Return the <tt>SchemaWrapper</tt> for the specified XSD resource (e.g.,
+	 * 'avails-v2.3'). A <tt>null</tt> value is returned if the XSD is not
+	 * available. This method is thread-safe.
+	 * 
+	 * @param xsdRsrc
+	 * @return
+	 */
 	public static SchemaWrapper factory(String xsdRsrc) {
-		synchronized (cache) {
-			SchemaWrapper target = cache.get(xsdRsrc);
-			if (target == null) {
-				try {
-					target = new SchemaWrapper(xsdRsrc);
-					cache.put(xsdRsrc, target);
-				} catch (Exception e) {
-					/*
-					 * This happens if request is for a schema we don't provide XSD for
-					 */
-					System.out.println("SchemaWrapper.factory(): Exception for " + xsdRsrc);
-				}
+		Future<SchemaWrapper> future = cache.get(xsdRsrc);
+		if (future == null) {
+			FutureTask<SchemaWrapper> task = new FutureTask<SchemaWrapper>(() -> new SchemaWrapper(xsdRsrc));
+			future = cache.putIfAbsent(xsdRsrc, task);
+			if (future == null) {
+				future = task;
+				task.run();
 			}
-			return target;
+		}
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			/*
+			 * This happens if request is for a schema we don't provide XSD for. The
+			 * failure is not cached so the behavior is the same as for any other request.
+			 */
+			cache.remove(xsdRsrc, future);
+			System.out.println("SchemaWrapper.factory(): Exception for " + xsdRsrc);
+			return null;
 		}
 	}
 
@@ -130,11 +233,11 @@ public class SchemaWrapper {
 	private SchemaWrapper(String xsdRsrc) {
 		String rsrcPath = RSRC_PACKAGE + xsdRsrc + ".xsd";
 		this.xsdRsrc = rsrcPath;
-		schemaXSD = getSchemaXSD(rsrcPath);
+		Document schemaXSD = getSchemaXSD(rsrcPath);
 		if (schemaXSD == null) {
 			throw new IllegalArgumentException("XSD for " + xsdRsrc + " is not an available resource");
 		}
-		rootEl = schemaXSD.getRootElement();
+		Element rootEl = schemaXSD.getRootElement();
 		String targetNamespace = rootEl.getAttributeValue("targetNamespace");
 		String[] parts = xsdRsrc.split("-v");
 		String prefix = parts[0];
@@ -157,7 +260,32 @@ public class SchemaWrapper {
 			}
 		}
 		// can now process
-		buildReqElList();
+		model = new SchemaModel(rootEl);
+		buildReqElList(rootEl);
+	}
+
+	/**
+	 * Return the root (i.e., <tt>xs:schema</tt>) element of the XSD, reloading it
+	 * if it has been released.
+	 * 
+	 * @return
+	 */
+	private Element getRootElement() {
+		Element rootEl = rootElRef.get();
+		if (rootEl == null) {
+			rootEl = getSchemaXSD(xsdRsrc).getRootElement();
+			rootElRef = new SoftReference<Element>(rootEl);
+		}
+		return rootEl;
+	}
+
+	/**
+	 * Return the typed model of the schema's declarations.
+	 * 
+	 * @return
+	 */
+	public SchemaModel getModel() {
+		return model;
 	}
 
 	/**
@@ -225,39 +353,48 @@ public class SchemaWrapper {
 		Element seqEl = target.getChild("sequence", xsNSpace);
 		if (seqEl != null) {
 			structDef = addSequenceToStructure(seqEl);
-			structureCache.put(type, structDef);
-			return structDef;
+			return cacheStructure(type, structDef);
 		}
 		Element ccEl = target.getChild("complexContent", xsNSpace);
 		if (ccEl != null) {
 			structDef = addExtensionToStructure(ccEl);
-			structureCache.put(type, structDef);
-			return structDef;
+			return cacheStructure(type, structDef);
 		}
 		Element ctEl = target.getChild("complexType", xsNSpace);
 		if (ctEl != null) {
 			ccEl = ctEl.getChild("complexContent", xsNSpace);
 			if (ccEl != null) {
 				structDef = addExtensionToStructure(ccEl);
-				structureCache.put(type, structDef);
-				return structDef;
+				return cacheStructure(type, structDef);
 			}
 		}
 		Element choiceEl = target.getChild("choice", xsNSpace);
 		if (choiceEl != null) {
 			structDef = addChoiceToStructure(choiceEl);
-			structureCache.put(type, structDef);
-			return structDef;
+			return cacheStructure(type, structDef);
 		}
 		Element scEl = target.getChild("simpleContent", xsNSpace);
 		if (scEl != null) {
 			structDef = addExtensionToStructure(scEl);
-			structureCache.put(type, structDef);
-			return structDef;
+			return cacheStructure(type, structDef);
 		}
 		return null;
 	}
 
+	/**
+	 * Add a structure to the cache. If another thread has already cached a
+	 * structure for the same type, the previously cached instance is returned
+	 * instead so that all callers share a single definition.
+	 * 
+	 * @param type
+	 * @param structDef
+	 * @return
+	 */
+	private JSONObject cacheStructure(String type, JSONObject structDef) {
+		JSONObject prior = structureCache.putIfAbsent(type, structDef);
+		return (prior != null) ? prior : structDef;
+	}
+
 	/**
 	 * Return the <tt>xs:complexType</tt> or <tt>xs:element</tt> Element whose
 	 * <tt>name</tt> attribute matches the specified value. A null value is returned
@@ -267,6 +404,7 @@ public class SchemaWrapper {
 	 * @return
 	 */
 	private Element getXmlTarget(String name) {
+		Element rootEl = getRootElement();
 		XPathExpression<Element> xpExp1 = xpfac.compile("./xs:complexType[@name= '" + name + "']", Filters.element(),
 				null, xsNSpace);
 		Element target = xpExp1.evaluateFirst(rootEl);
@@ -300,7 +438,10 @@ public class SchemaWrapper {
 			}
 			JSONObject extContent = baseWrapper.getContentStructure(baseType);
 			if (extContent != null) {
-				baseContent = extContent;
+				/*
+				 * The base structure is cached and shared so merge into a (deep) copy
+				 */
+				baseContent = JSONObject.fromObject(extContent);
 			} else {
 				boolean isST = baseWrapper.isSimpleType(baseType);
 				String[] tType = baseWrapper.resolveType(base);
@@ -480,17 +621,26 @@ public class SchemaWrapper {
 	}
 
 	public String getType(String elementName) {
-		Element target = getElement(elementName);
-		if (target == null) {
-			throw new IllegalArgumentException(
-					"Schema '" + schemaXSD + "' does not define element '" + elementName + "'");
-		}
-		String type = target.getAttributeValue("type", "xs:string");
+		SchemaModel.ElementDecl decl = getElementDecl(elementName);
 		/*
 		 * WHAT ABOUT:::::> <xs:element name="Event"> <xs:simpleType> <xs:union
 		 * memberTypes="xs:dateTime xs:date"/> </xs:simpleType> </xs:element>
 		 */
-		return type;
+		return decl.getType();
+	}
+
+	/**
+	 * Return the name of the type (or, if the declaration is in-line, the element)
+	 * within which the element is declared. A <tt>null</tt> is returned if the
+	 * element is declared at the top level of the schema.
+	 * 
+	 * @param elementName
+	 * @return
+	 * @throws IllegalArgumentException if <tt>elementName</tt> is not defined by
+	 *                                  the <tt>schema</tt>
+	 */
+	public String getParentType(String elementName) throws IllegalArgumentException {
+		return getElementDecl(elementName).getParentType();
 	}
 
 	private void addAttributesToStructure(Element parentEl, JSONObject parentSeq) {
@@ -726,11 +876,9 @@ public class SchemaWrapper {
 	 * @return
 	 */
 	private String resolveRestrictionBase(String referencedType) {
-		XPathExpression<Element> xpExpression = xpfac.compile("./xs:simpleType[@name= '" + referencedType + "']",
-				Filters.element(), null, xsNSpace);
-		Element target = xpExpression.evaluateFirst(rootEl);
-		Element baseEl = target.getChild("restriction", xsNSpace);
-		if (baseEl == null) {
+		SchemaModel.SimpleType target = model.getSimpleType(referencedType);
+		String restrictedType = target.getRestrictionBase();
+		if (restrictedType == null) {
 			/*
 			 * must be a union.
 			 */
@@ -738,7 +886,6 @@ public class SchemaWrapper {
 					+ ": resolveTypeRestriction (found UNION ?) for:: " + referencedType);
 			return "xs:string";
 		}
-		String restrictedType = baseEl.getAttributeValue("base");
 		if (restrictedType.startsWith("xs:")) {
 			return restrictedType;
 		} else {
@@ -769,12 +916,12 @@ public class SchemaWrapper {
 	 * @return
 	 */
 	public boolean isChoice(String type) {
-		Element target = getXmlTarget(type);
+		SchemaModel.ComplexType target = model.getComplexType(type);
 		if (target == null) {
-			return false;
+			// check for an anonymous in-line definition
+			target = model.getInlineComplexType(type);
 		}
-		Element choiceEl = target.getChild("choice", xsNSpace);
-		return (choiceEl != null);
+		return (target != null) && target.isChoice();
 	}
 
 	/**
@@ -791,10 +938,7 @@ public class SchemaWrapper {
 	 * @return
 	 */
 	public boolean isSimpleType(String type) {
-		XPathExpression<Element> xpExpression = xpfac.compile("./xs:simpleType[@name= '" + type + "']",
-				Filters.element(), null, xsNSpace);
-		Element target = xpExpression.evaluateFirst(rootEl);
-		return (target != null);
+		return model.isSimpleType(type);
 	}
 
 	/**
@@ -815,10 +959,8 @@ public class SchemaWrapper {
 	 * @return
 	 */
 	public boolean isSimpleContent(String type) {
-		String xpath = ".//xs:complexType[@name= '" + type + "']/xs:simpleContent/xs:extension";
-		XPathExpression<Element> xpExpression = xpfac.compile(xpath, Filters.element(), null, xsNSpace);
-		Element target = xpExpression.evaluateFirst(rootEl);
-		return (target != null);
+		SchemaModel.ComplexType target = model.getComplexType(type);
+		return (target != null) && target.isSimpleContentExtension();
 	}
 
 	/**
@@ -829,21 +971,17 @@ public class SchemaWrapper {
 	 *                                  <tt>schema</tt>
 	 */
 	public boolean isRequired(String elementName) throws IllegalStateException, IllegalArgumentException {
-		Element target = getElement(elementName);
-		if (target == null) {
-			// TODO: Maybe its an attribute?
-			throw new IllegalArgumentException(
-					"Schema '" + schemaXSD + "' does not define element '" + elementName + "'");
-		}
-		String minVal = target.getAttributeValue("minOccurs", "1");
-		return (!minVal.equals("0"));
+		// TODO: Maybe its an attribute?
+		return getElementDecl(elementName).isRequired();
 	}
 
-	private Element getElement(String elementName) {
-		XPathExpression<Element> xpExpression = xpfac.compile(".//xs:element[@name='" + elementName + "']",
-				Filters.element(), null, xsNSpace);
-		Element target = xpExpression.evaluateFirst(rootEl);
-		return target;
+	private SchemaModel.ElementDecl getElementDecl(String elementName) throws IllegalArgumentException {
+		SchemaModel.ElementDecl decl = model.getElement(elementName);
+		if (decl == null) {
+			throw new IllegalArgumentException(
+					"Schema '" + xsdRsrc + "' does not define element '" + elementName + "'");
+		}
+		return decl;
 	}
 
 	/**
@@ -871,18 +1009,49 @@ public class SchemaWrapper {
 		return baseWrapper;
 	}
 
-	private void buildReqElList() {
-		reqElXpList = new ArrayList<XPathExpression<?>>();
-		XPathExpression<Element> xpExpression = xpfac.compile(".//xs:element", Filters.element(), null, xsNSpace);
-		List<Element> elementList = xpExpression.evaluate(rootEl);
-		for (int i = 0; i < elementList.size(); i++) {
-			String targetXPath = null;
-			Element target = (Element) elementList.get(i);
-			String name = target.getAttributeValue("name", "FOOBAR");
-			if (name.equalsIgnoreCase("ALID")) {
-				// DEBUG trap
-				int xyz = 0;
+	/**
+	 * Identify all Elements and attributes that are required to have a
+	 * non-empty value. The XSD is traversed once to collect the declarations and
+	 * the element declarations referencing each type. The rules are then derived
+	 * with a hash lookup per declaration rather than the XPath search of the XSD
+	 * that was previously required for each declaration within a named type.
+	 * <p>
+	 * The resulting rules are immutable and may be shared across threads.
+	 * </p>
+	 */
+	private void buildReqElList(Element rootEl) {
+		String prefix = getPrefix();
+		List<Element> elDeclList = new ArrayList<Element>();
+		List<Element> attDeclList = new ArrayList<Element>();
+		/*
+		 * Map a type to the LAST element declared as being of that type. Keys are
+		 * both the qualified type (e.g., 'avails:Foo-type') and the unqualified name.
+		 */
+		Map<String, String> typeUsage = new HashMap<String, String>();
+		Map<String, String> localTypeUsage = new HashMap<String, String>();
+		Iterator<Element> it = rootEl.getDescendants(Filters.element(xsNSpace));
+		while (it.hasNext()) {
+			Element next = it.next();
+			switch (next.getName()) {
+			case "element":
+				elDeclList.add(next);
+				String type = next.getAttributeValue("type");
+				String name = next.getAttributeValue("name");
+				if ((type != null) && (name != null)) {
+					typeUsage.put(type, name);
+					localTypeUsage.put(type.substring(type.indexOf(':') + 1), name);
+				}
+				break;
+			case "attribute":
+				if ("required".equals(next.getAttributeValue("use"))) {
+					attDeclList.add(next);
+				}
+				break;
 			}
+		}
+		List<ReqValueRule> ruleList = new ArrayList<ReqValueRule>();
+		for (Element target : elDeclList) {
+			String name = target.getAttributeValue("name", "FOOBAR");
 			String minVal = target.getAttributeValue("minOccurs", "1");
 			if (minVal.equals("0")) {
 				// ignore optional elements
@@ -916,32 +1085,21 @@ public class SchemaWrapper {
 				/*
 				 * parent may be null it target is not part of a sequence w/in a complexType
 				 */
-				Element parent = getNamedAncestor(target);
+				Element parent = SchemaModel.getNamedAncestor(target);
 				if (parent == null) {
-					targetXPath = ".//" + getPrefix() + ":" + name;
+					ruleList.add(new ReqValueRule(ruleList.size(), prefix, null, name, null));
 				} else {
-					/* find all element declarations with the parent type */
+					/* find the element declaration with the parent type */
 					String parentType = parent.getAttributeValue("name");
-					String xp = ".//xs:element[@type='" + getPrefix() + ":" + parentType + "']";
-					XPathExpression<Element> xpe2 = xpfac.compile(xp, Filters.element(), null, xsNSpace);
-					List<Element> referencingList = xpe2.evaluate(rootEl);
-					for (Element refEl : referencingList) {
-						String parentName = refEl.getAttributeValue("name");
-						targetXPath = ".//" + getPrefix() + ":" + parentName + "/" + getPrefix() + ":" + name;
+					String parentName = typeUsage.get(prefix + ":" + parentType);
+					if (parentName != null) {
+						ruleList.add(new ReqValueRule(ruleList.size(), prefix, parentName, name, null));
 					}
 				}
-				if (targetXPath != null) {
-					XPathExpression<Element> targetXpE = xpfac.compile(targetXPath, Filters.element(), null, nSpace);
-					reqElXpList.add(targetXpE);
-				}
 			}
 		}
 		// add required attributes...
-		xpExpression = xpfac.compile(".//xs:attribute[@use='required']", Filters.element(), null, xsNSpace);
-		elementList = xpExpression.evaluate(rootEl);
-		for (int i = 0; i < elementList.size(); i++) {
-			String targetXPath = null;
-			Element target = (Element) elementList.get(i);
+		for (Element target : attDeclList) {
 			String attName = target.getAttributeValue("name");
 			/*
 			 * need the parent Element's name which can be complicated since the XSD can
@@ -949,51 +1107,85 @@ public class SchemaWrapper {
 			 * or (c) nested in other intermediate stuff.
 			 * 
 			 */
-			Element parent = getNamedAncestor(target);
+			Element parent = SchemaModel.getNamedAncestor(target);
+			if (parent == null) {
+				continue;
+			}
+			String elName;
 			if (parent.getName().contains("element")) {
-				String elName = parent.getAttributeValue("name");
-				targetXPath = ".//" + getPrefix() + ":" + elName + "/@" + attName;
+				elName = parent.getAttributeValue("name");
 			} else {
 				// dealing with a complex-type so its more indirect
-				String typeName = parent.getAttributeValue("name");
-				xpExpression = xpfac.compile(".//xs:element[contains(@type,'" + typeName + "')]", Filters.element(),
-						null, xsNSpace);
-				List<Element> innerList = xpExpression.evaluate(rootEl);
-				for (int j = 0; j < innerList.size(); j++) {
-					Element ownerEl = (Element) innerList.get(j);
-					String elName = ownerEl.getAttributeValue("name");
-					targetXPath = ".//" + getPrefix() + ":" + elName + "/@" + attName;
-				}
+				elName = localTypeUsage.get(parent.getAttributeValue("name"));
+			}
+			if (elName != null) {
+				ruleList.add(new ReqValueRule(ruleList.size(), prefix, null, elName, attName));
 			}
-			if (targetXPath != null) {
-				XPathExpression<Attribute> targetXpE = xpfac.compile(targetXPath, Filters.attribute(), null, nSpace);
-				reqElXpList.add(targetXpE);
+		}
+		Map<String, List<ReqValueRule>> ruleMap = new HashMap<String, List<ReqValueRule>>();
+		for (ReqValueRule rule : ruleList) {
+			List<ReqValueRule> mappedList = ruleMap.get(rule.getElementName());
+			if (mappedList == null) {
+				mappedList = new ArrayList<ReqValueRule>();
+				ruleMap.put(rule.getElementName(), mappedList);
 			}
+			mappedList.add(rule);
+		}
+		for (Map.Entry<String, List<ReqValueRule>> entry : ruleMap.entrySet()) {
+			entry.setValue(Collections.unmodifiableList(entry.getValue()));
 		}
+		reqValueRules = Collections.unmodifiableList(ruleList);
+		reqValueRuleMap = Collections.unmodifiableMap(ruleMap);
 	}
 
 	/**
-	 * @param target
-	 * @return
+	 * Return the XPaths identifying all Elements and attributes required to have a
+	 * non-empty value. The XPaths are only compiled when first requested.
+	 * <p>
+	 * Note that compiled XPaths are not thread-safe. Where possible, the
+	 * <tt>ReqValueRules</tt> should be used instead.
+	 * </p>
+	 * 
+	 * @return the reqElList
+	 * @see #getReqValueRules()
 	 */
-	private Element getNamedAncestor(Element target) {
-		Element next = target;
-		Element parent = next.getParentElement();
-		while (parent != null) {
-			if (parent.getAttribute("name") != null) {
-				return parent;
+	public synchronized ArrayList<XPathExpression<?>> getReqElList() {
+		if (reqElXpList == null) {
+			reqElXpList = new ArrayList<XPathExpression<?>>();
+			for (ReqValueRule rule : reqValueRules) {
+				if (rule.getAttributeName() == null) {
+					reqElXpList.add(xpfac.compile(rule.getXPath(), Filters.element(), null, nSpace));
+				} else {
+					reqElXpList.add(xpfac.compile(rule.getXPath(), Filters.attribute(), null, nSpace));
+				}
 			}
-			next = parent;
-			parent = next.getParentElement();
 		}
-		return null;
+		return reqElXpList;
 	}
 
 	/**
-	 * @return the reqElList
+	 * @return all rules identifying Elements and attributes required to have a
+	 *         non-empty value, in the same sequence as the <tt>reqElList</tt>
 	 */
-	public ArrayList<XPathExpression<?>> getReqElList() {
-		return reqElXpList;
+	public List<ReqValueRule> getReqValueRules() {
+		return reqValueRules;
+	}
+
+	/**
+	 * Return the rules applicable to an Element in this schema's namespace with the
+	 * specified local name. Rules are indexed by name so that all required values
+	 * may be checked during a single traversal of a document rather than by
+	 * evaluating each of the XPaths in the <tt>reqElList</tt>.
+	 * 
+	 * @param elName
+	 * @return the matching rules or an empty list
+	 */
+	public List<ReqValueRule> getReqValueRules(String elName) {
+		List<ReqValueRule> ruleList = reqValueRuleMap.get(elName);
+		if (ruleList == null) {
+			return Collections.emptyList();
+		}
+		return ruleList;
 	}
 
 	/**
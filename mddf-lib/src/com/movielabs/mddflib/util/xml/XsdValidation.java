@@ -25,6 +25,7 @@ package com.movielabs.mddflib.util.xml;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.function.IntPredicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.xml.XMLConstants;
@@ -67,11 +68,27 @@ public class XsdValidation {
 	private LogMgmt loggingMgr;
 	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++
 	private Validator validator;
+	/**
+	 * Invoked with the level of each issue logged by the <tt>XsdErrorHandler</tt>.
+	 * A return value of <tt>false</tt> terminates the validation.
+	 */
+	private IntPredicate issueMonitor = null;
 
 	public XsdValidation(LogMgmt loggingMgr) {
 		this.loggingMgr = loggingMgr;
 	}
 
+	/**
+	 * Set a monitor to be notified of the level of each schema violation that is
+	 * logged. If the monitor returns <tt>false</tt> the validation of the current
+	 * file is terminated without reporting any further violations.
+	 * 
+	 * @param issueMonitor
+	 */
+	public void setIssueMonitor(IntPredicate issueMonitor) {
+		this.issueMonitor = issueMonitor;
+	}
+
 	/**
 	 * Validate everything that is fully specified via the identified XSD.
 	 * 
@@ -93,6 +110,7 @@ public class XsdValidation {
 			String msg = "Unable to process: " + e1.getMessage();
 			msg = msg.replace("schema_reference.4", "");
 			loggingMgr.log(LogMgmt.LEV_FATAL, logMsgDefaultTag, msg, srcFile, -1, moduleId, genericTooltip, null);
+			notifyMonitor(LogMgmt.LEV_FATAL);
 			e1.printStackTrace();
 			return false;
 		} catch (SAXException e1) {
@@ -137,10 +155,15 @@ public class XsdValidation {
 		} catch (IOException e) {
 			String msg = "Validation error -::" + getExceptionCause(e);
 			loggingMgr.log(LogMgmt.LEV_ERR, logMsgDefaultTag, msg, srcFile, -1, moduleId, genericTooltip, null);
+			notifyMonitor(LogMgmt.LEV_ERR);
 			return (false);
 		} catch (SAXException e) {
+			if (errHandler.terminated) {
+				return (false);
+			}
 			String msg = "Validation error -::" + getExceptionCause(e);
 			loggingMgr.log(LogMgmt.LEV_ERR, logMsgDefaultTag, msg, srcFile, -1, moduleId, genericTooltip, null);
+			notifyMonitor(LogMgmt.LEV_ERR);
 			return (false);
 		}
 		if (errHandler.errCount == 0) {
@@ -153,6 +176,12 @@ public class XsdValidation {
 		}
 	}
 
+	private void notifyMonitor(int level) {
+		if (issueMonitor != null) {
+			issueMonitor.test(level);
+		}
+	}
+
 	protected static String getExceptionCause(Exception e) {
 		String description = e.getMessage();
 		Throwable cause = e.getCause();
@@ -180,6 +209,10 @@ public class XsdValidation {
 	 */
 	public class XsdErrorHandler implements ErrorHandler {
 		int errCount = 0;
+		/**
+		 * Set if the <tt>issueMonitor</tt> has terminated the validation.
+		 */
+		boolean terminated = false;
 		private File srcFile;
 
 		/**
@@ -210,6 +243,10 @@ public class XsdValidation {
 			String message = parseSaxMessage(exception);
 			String explanation = "XML at line: " + lineNumber + " does not comply with schema :: " + message;
 			loggingMgr.log(level, LogMgmt.TAG_XSD, message, srcFile, lineNumber, "XsdValidation", explanation, null);
+			if ((issueMonitor != null) && !issueMonitor.test(level)) {
+				terminated = true;
+				throw new SAXException("Validation terminated at line " + lineNumber);
+			}
 			if (level == LogMgmt.LEV_FATAL) {
 				throw new SAXException(explanation);
 			}
@@ -25,6 +25,9 @@ package com.movielabs.mddflib.tests.MEC;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.MissingResourceException;
 
 import org.jdom2.JDOMException;
@@ -158,6 +161,34 @@ public class MecValidatorTest extends MecValidator {
 		assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_NOTICE));
 		iLog.clearLog();
 	}
+
+	/**
+	 * Test method for
+	 * {@link com.movielabs.mddflib.util.CMValidator#setValidationBudget(int, boolean)}
+	 * . Schema violations found by the XSD validation must also be counted
+	 * against the budget.
+	 * 
+	 * @throws JDOMException
+	 * @throws IOException
+	 */
+	@Test
+	public void testSchemaBudget() throws IOException, JDOMException {
+		String xml = new String(Files.readAllBytes(Paths.get(rsrcPath, "mec/MEC_v1.6_noErr.xml")),
+				StandardCharsets.UTF_8);
+		xml = xml.replace("<md:ReleaseYear>2008", "<md:ReleaseYear>MMVIII");
+		xml = xml.replaceAll("<md:Date>[0-9-]+", "<md:Date>someday");
+		File badFile = File.createTempFile("MEC_schemaErrors", ".xml");
+		badFile.deleteOnExit();
+		Files.write(badFile.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+
+		setValidationBudget(2, false);
+		execute(new MddfTarget(badFile, iLog), false);
+		assertTrue(isBudgetExhausted());
+		assertFalse(curFileIsValid);
+		assertEquals(2, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+		assertEquals(2, iLog.getCountForTag(LogMgmt.TAG_XSD));
+	}
+
 	// ======================================================
 	/*
 	 * These tests are disabled. The logic for validation process to 'follow'
@@ -38,6 +38,7 @@ import com.movielabs.mddflib.avails.validation.AvailValidator;
 import com.movielabs.mddflib.avails.xml.Pedigree;
 import com.movielabs.mddflib.logging.LogMgmt; 
 import com.movielabs.mddflib.testsupport.InstrumentedLogger;
+import com.movielabs.mddflib.util.ValidationPlan;
 import com.movielabs.mddflib.util.xml.MddfTarget;
 
 /**
@@ -149,6 +150,25 @@ public class AvailsValidatorTest extends AvailValidator {
 		assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_NOTICE));
 	}
 
+	/**
+	 * Test method for
+	 * {@link com.movielabs.mddflib.util.CMValidator#setValidationBudget(int, boolean)}
+	 * . The constraint checks find 6 errors but only the first 2 should be
+	 * reported.
+	 * 
+	 * @throws JDOMException
+	 * @throws IOException
+	 */
+	@Test
+	public void testValidationBudget() throws IOException, JDOMException {
+		MddfTarget target = initialize("Avails_withErrors.xml");
+		setValidationPlan(ValidationPlan.parse("ids,xrefs,vocab,ratings,structure"));
+		setValidationBudget(2, false);
+		execute(target, false);
+		assertTrue(isBudgetExhausted());
+		assertFalse(curFileIsValid);
+		assertEquals(2, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+	}
 
 	protected void execute(MddfTarget target, boolean logToConsole) throws IOException, JDOMException {
 		iLog.setPrintToConsole(logToConsole);
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.avails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.avails.xml.AvailsCell;
+import com.movielabs.mddflib.avails.xml.AvailsRow;
+import com.movielabs.mddflib.avails.xml.AvailsSheet;
+import com.movielabs.mddflib.avails.xml.AvailsWrkBook;
+import com.movielabs.mddflib.logging.CellLocation;
+import com.movielabs.mddflib.testsupport.AvailsFixtures;
+import com.movielabs.mddflib.testsupport.InstrumentedLogger;
+
+/**
+ * JUnit test of the pre-resolved <tt>AvailsSheet.Column</tt> accessors.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class ColumnAccessTest {
+
+	private static final int COLUMN_CNT = 60;
+	private static final int ROW_CNT = 20;
+
+	private AvailsSheet aSheet;
+	private String[] keys;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		XSSFWorkbook wrkBook = new XSSFWorkbook();
+		XSSFSheet sheet = wrkBook.createSheet("Movies");
+		Row row0 = sheet.createRow(0);
+		Row row1 = sheet.createRow(1);
+		keys = new String[COLUMN_CNT];
+		for (int i = 0; i < COLUMN_CNT; i++) {
+			/* only the 1st column of a group has the category */
+			String category = (i < 20) ? "Avail" : ((i < 40) ? "AvailAsset" : "AvailTrans");
+			if (i % 20 == 0) {
+				row0.createCell(i).setCellValue(category);
+			}
+			String name = (i == 1) ? "ALID" : ("Col" + i);
+			row1.createCell(i).setCellValue(name);
+			keys[i] = category + "/" + name;
+		}
+		sheet.createRow(2);
+		for (int r = 3; r < ROW_CNT + 3; r++) {
+			Row row = sheet.createRow(r);
+			for (int i = 0; i < COLUMN_CNT; i++) {
+				row.createCell(i).setCellValue("r" + r + "c" + i);
+			}
+		}
+		File xlsxFile = AvailsFixtures.createTempFile("columnTest", ".xlsx");
+		FileOutputStream outStream = new FileOutputStream(xlsxFile);
+		wrkBook.write(outStream);
+		outStream.close();
+		wrkBook.close();
+		aSheet = new AvailsWrkBook(xlsxFile, new InstrumentedLogger(), false, false).ingestSheet("Movies");
+	}
+
+	@Test
+	public void testResolvedColumns() {
+		for (int i = 0; i < COLUMN_CNT; i++) {
+			AvailsSheet.Column column = aSheet.getColumn(keys[i]);
+			assertEquals(i, column.getIndex());
+			assertEquals(keys[i], column.getKey());
+			assertSame(column, aSheet.getColumn(keys[i]));
+		}
+		/* the category is ignored when matching a key to a header */
+		assertEquals(1, aSheet.getColumn("AvailTrans/ALID").getIndex());
+		AvailsSheet.Column undefined = aSheet.getColumn("AvailMetadata/Director");
+		assertFalse(undefined.isDefined());
+		assertEquals(-1, aSheet.getColumnIdx("AvailMetadata/Director"));
+		AvailsRow row = aSheet.getRows().get(0);
+		assertNull(undefined.getCell(row));
+		assertEquals("r3c7", aSheet.getColumn(keys[7]).getCell(row).getFormattedValue());
+		assertEquals("r4c7", aSheet.getCell(keys[7], 4).getFormattedValue());
+	}
+
+	/**
+	 * Verifies that accessing every column by key using a <tt>split()</tt> and
+	 * header look-up (i.e., the original implementation of
+	 * <tt>getColumnIdx()</tt>) and using the pre-resolved <tt>Column</tt>
+	 * accessors finds the same cells.
+	 */
+	@Test
+	public void testRowAccess() {
+		HashMap<String, Integer> headerMap = new HashMap<String, Integer>();
+		for (int i = 0; i < COLUMN_CNT; i++) {
+			headerMap.put(keys[i].split("/")[1], i);
+		}
+		List<AvailsRow> rows = aSheet.getRows();
+		assertEquals(ROW_CNT, rows.size());
+		assertEquals(accessByLookup(rows, headerMap), accessByColumn(rows));
+	}
+
+	private List<CellLocation> accessByLookup(List<AvailsRow> rows, HashMap<String, Integer> headerMap) {
+		List<CellLocation> found = new ArrayList<CellLocation>();
+		for (AvailsRow row : rows) {
+			for (int i = 0; i < keys.length; i++) {
+				String[] parts = keys[i].split("/");
+				Integer colIdx = headerMap.get(parts[1]);
+				found.add((colIdx == null) ? null : locationOf(row.getCell(colIdx.intValue())));
+			}
+		}
+		return found;
+	}
+
+	private List<CellLocation> accessByColumn(List<AvailsRow> rows) {
+		List<CellLocation> found = new ArrayList<CellLocation>();
+		for (AvailsRow row : rows) {
+			for (int i = 0; i < keys.length; i++) {
+				found.add(locationOf(aSheet.getColumn(keys[i]).getCell(row)));
+			}
+		}
+		return found;
+	}
+
+	private static CellLocation locationOf(AvailsCell cell) {
+		return (cell == null) ? null : cell.getLocation();
+	}
+}
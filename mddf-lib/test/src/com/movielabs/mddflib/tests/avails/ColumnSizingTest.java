@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2016 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.avails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.avails.xlsx.TemplateWorkBook;
+import com.movielabs.mddflib.avails.xlsx.TemplateWorkBook.ColumnSizing;
+import com.movielabs.mddflib.testsupport.AvailsFixtures;
+import com.movielabs.mddflib.testsupport.InstrumentedLogger;
+
+/**
+ * JUnit test of the <tt>ColumnSizing</tt> options supported by a
+ * <tt>TemplateWorkBook</tt>.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class ColumnSizingTest {
+
+	private static final List<String> COLUMNS = Arrays.asList("Avail:ALID", "AvailTrans:Territory",
+			"AvailTrans:Description", "AvailMetadata:TitleDisplayUnlimited");
+	private static final String ALID_PREFIX = "md:alid:eidr-s:00000000000000000000000";
+
+	@Test
+	public void testEstimated() throws Exception {
+		for (int rowWindow : new int[] { 0, 2 }) {
+			XSSFWorkbook result = export(ColumnSizing.ESTIMATED, rowWindow);
+			XSSFSheet sheet = result.getSheetAt(0);
+			assertEquals((ALID_PREFIX.length() + 1 + 2) * 256, sheet.getColumnWidth(0));
+			/* the 1st header row is longer than the values */
+			assertEquals(("AvailTrans".length() + 2) * 256, sheet.getColumnWidth(1));
+			/* empty column is sized to fit its header */
+			assertEquals(("Description".length() + 2) * 256, sheet.getColumnWidth(2));
+			assertTrue(sheet.isColumnHidden(2));
+			/* only the longest line of a multi-line value counts */
+			assertEquals(("A Considerably Longer Title Line".length() + 2) * 256, sheet.getColumnWidth(3));
+			result.close();
+		}
+	}
+
+	@Test
+	public void testSameContent() throws Exception {
+		XSSFWorkbook exact = export(ColumnSizing.EXACT, 0);
+		XSSFWorkbook estimated = export(ColumnSizing.ESTIMATED, 2);
+		DataFormatter dataF = new DataFormatter();
+		Sheet expSheet = exact.getSheetAt(0);
+		Sheet actSheet = estimated.getSheetAt(0);
+		assertEquals(expSheet.getLastRowNum(), actSheet.getLastRowNum());
+		for (int r = 0; r <= expSheet.getLastRowNum(); r++) {
+			for (int c = 0; c < COLUMNS.size(); c++) {
+				assertEquals(dataF.formatCellValue(expSheet.getRow(r).getCell(c)),
+						dataF.formatCellValue(actSheet.getRow(r).getCell(c)));
+			}
+		}
+		for (int c = 0; c < COLUMNS.size(); c++) {
+			assertEquals(expSheet.isColumnHidden(c), actSheet.isColumnHidden(c));
+			assertTrue(expSheet.getColumnWidth(c) > 0);
+		}
+		exact.close();
+		estimated.close();
+	}
+
+	private XSSFWorkbook export(ColumnSizing sizing, int rowWindow) throws Exception {
+		TemplateWorkBook wrkBook = new TemplateWorkBook(new InstrumentedLogger(), rowWindow);
+		wrkBook.setColumnSizing(sizing);
+		assertEquals(sizing, wrkBook.getColumnSizing());
+		Sheet sheet = wrkBook.addSheet("Movies", COLUMNS);
+		for (int i = 1; i <= 4; i++) {
+			Map<String, String> rowData = new HashMap<String, String>();
+			rowData.put("Avail:ALID", ALID_PREFIX + i);
+			rowData.put("AvailTrans:Territory", "US");
+			rowData.put("AvailMetadata:TitleDisplayUnlimited", "Title " + i + "\nA Considerably Longer Title Line");
+			wrkBook.addDataRow(rowData, sheet);
+		}
+		File xlsxFile = AvailsFixtures.export(wrkBook, "sizingTest");
+		return new XSSFWorkbook(xlsxFile);
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2016 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.avails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.avails.xml.AvailsWrkBook;
+import com.movielabs.mddflib.testsupport.AvailsFixtures;
+
+/**
+ * JUnit test verifying that the streaming compression of an Avails XLSX hides
+ * the same columns as compressing an <tt>XSSFWorkbook</tt> and otherwise
+ * leaves the content unchanged.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class CompressionTest {
+
+	@Test
+	public void testGeneratedWorkbook() throws Exception {
+		File srcFile = AvailsFixtures.createWorkbook("Avails_noErrors_v2.3.xml", "compressSrc");
+		compareWithWorkbook(srcFile);
+	}
+
+	@Test
+	public void testWithoutColumnDefinitions() throws Exception {
+		XSSFWorkbook wrkBook = new XSSFWorkbook();
+		XSSFSheet sheet = wrkBook.createSheet("Movies");
+		for (int r = 0; r < 10; r++) {
+			Row row = sheet.createRow(r);
+			for (int c = 0; c < 8; c++) {
+				/* columns 2, 5 and 7 are only populated in the header rows */
+				if (r < 2 || (c != 2 && c != 5 && c != 7)) {
+					row.createCell(c).setCellValue("r" + r + "c" + c);
+				}
+			}
+		}
+		File srcFile = AvailsFixtures.createTempFile("compressSrc", ".xlsx");
+		try (OutputStream outStream = new FileOutputStream(srcFile)) {
+			wrkBook.write(outStream);
+		}
+		wrkBook.close();
+		assertTrue(compareWithWorkbook(srcFile).contains(5));
+	}
+
+	/**
+	 * @return the hidden columns of the 1st sheet of the compressed file
+	 */
+	private Set<Integer> compareWithWorkbook(File srcFile) throws Exception {
+		File outDir = srcFile.getParentFile();
+		String outName = "compressed_" + srcFile.getName();
+		assertTrue(AvailsWrkBook.compress(srcFile, outDir.getPath(), outName));
+		File outFile = new File(outDir, outName);
+		outFile.deleteOnExit();
+
+		Set<Integer> hiddenCols = new HashSet<Integer>();
+		try (InputStream expStream = new FileInputStream(srcFile);
+				XSSFWorkbook expected = AvailsWrkBook.compress(expStream);
+				InputStream actStream = new FileInputStream(outFile);
+				XSSFWorkbook actual = new XSSFWorkbook(actStream)) {
+			assertEquals(expected.getNumberOfSheets(), actual.getNumberOfSheets());
+			DataFormatter dataF = new DataFormatter();
+			int hiddenCnt = 0;
+			for (int s = 0; s < expected.getNumberOfSheets(); s++) {
+				XSSFSheet expSheet = expected.getSheetAt(s);
+				XSSFSheet actSheet = actual.getSheetAt(s);
+				assertEquals(expSheet.getSheetName(), actSheet.getSheetName());
+				assertEquals(expSheet.getLastRowNum(), actSheet.getLastRowNum());
+				int colCount = expSheet.getRow(0).getLastCellNum();
+				for (int c = 0; c < colCount; c++) {
+					assertEquals(expSheet.isColumnHidden(c), actSheet.isColumnHidden(c), "column " + c);
+					assertEquals(expSheet.getColumnWidth(c), actSheet.getColumnWidth(c), "column " + c);
+					if (actSheet.isColumnHidden(c)) {
+						hiddenCnt++;
+						if (s == 0) {
+							hiddenCols.add(c);
+						}
+					}
+				}
+				for (int r = 0; r <= expSheet.getLastRowNum(); r++) {
+					Row expRow = expSheet.getRow(r);
+					Row actRow = actSheet.getRow(r);
+					if (expRow == null) {
+						continue;
+					}
+					for (int c = 0; c < expRow.getLastCellNum(); c++) {
+						assertEquals(dataF.formatCellValue(expRow.getCell(c)),
+								dataF.formatCellValue(actRow.getCell(c)));
+					}
+				}
+			}
+			assertTrue(hiddenCnt > 0);
+		}
+		return hiddenCols;
+	}
+}
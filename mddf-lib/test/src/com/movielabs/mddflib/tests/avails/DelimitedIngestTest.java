@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2016 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.avails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.jdom2.Document;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.avails.xml.AvailsSheet;
+import com.movielabs.mddflib.avails.xml.AvailsWrkBook;
+import com.movielabs.mddflib.testsupport.AvailsFixtures;
+import com.movielabs.mddflib.testsupport.InstrumentedLogger;
+
+/**
+ * JUnit test verifying that an Avails exported as CSV or TSV is converted to
+ * the same XML as the XLSX it was exported from.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class DelimitedIngestTest {
+
+	@Test
+	public void testCsv() throws Exception {
+		compareFormats(',', true, "\r\n", ".csv");
+	}
+
+	@Test
+	public void testTsv() throws Exception {
+		compareFormats('\t', false, "\n", ".tsv");
+	}
+
+	@Test
+	public void testConvertSpreadsheet() throws Exception {
+		File xlsxFile = AvailsFixtures.createWorkbook("Avails_noErrors_v2.3.xml", "delimitedTest");
+		XSSFWorkbook wrkBook = new XSSFWorkbook(xlsxFile);
+		File csvFile = export(wrkBook.getSheetAt(0), ',', false, "\n", ".csv");
+		wrkBook.close();
+		Map<String, Object> results = AvailsWrkBook.convertSpreadsheet(csvFile, null, new InstrumentedLogger());
+		assertNotNull(results);
+		Document doc = (Document) results.get("xml");
+		assertTrue(doc.getRootElement().getChildren().size() > 1);
+	}
+
+	private void compareFormats(char delimiter, boolean quoteAll, String eol, String suffix) throws Exception {
+		File xlsxFile = AvailsFixtures.createWorkbook("Avails_noErrors_v2.3.xml", "delimitedTest");
+		XSSFWorkbook wrkBook = new XSSFWorkbook(xlsxFile);
+		assertTrue(wrkBook.getNumberOfSheets() > 0);
+		for (int i = 0; i < wrkBook.getNumberOfSheets(); i++) {
+			Sheet sheet = wrkBook.getSheetAt(i);
+			File textFile = export(sheet, delimiter, quoteAll, eol, suffix);
+			AvailsSheet expected = new AvailsWrkBook(xlsxFile, new InstrumentedLogger(), false, false)
+					.ingestSheet(i);
+			AvailsSheet actual = new AvailsWrkBook(textFile, new InstrumentedLogger(), false, false).ingestSheet(0);
+			assertEquals(expected.getName(), actual.getName());
+			assertEquals(expected.getVersion(), actual.getVersion());
+			assertTrue(expected.getRowCount() > 0);
+			assertEquals(expected.getRowCount(), actual.getRowCount());
+			assertEquals(expected.getName(), actual.getRows().get(0).getCell(0).getLocation().getSheetName());
+			assertEquals(AvailsFixtures.convert(expected, xlsxFile, new InstrumentedLogger(), false),
+					AvailsFixtures.convert(actual, textFile, new InstrumentedLogger(), false));
+		}
+		wrkBook.close();
+	}
+
+	/**
+	 * Write the formatted values of a sheet as delimited text. Fields are
+	 * quoted if <tt>quoteAll</tt> is set or if required by their content.
+	 */
+	private File export(Sheet sheet, char delimiter, boolean quoteAll, String eol, String suffix) throws Exception {
+		File textFile = AvailsFixtures.createTempFile("delimitedTest", suffix);
+		DataFormatter dataF = new DataFormatter();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(textFile), StandardCharsets.UTF_8);
+		for (int r = 0; r <= sheet.getLastRowNum(); r++) {
+			Row row = sheet.getRow(r);
+			if (row != null) {
+				for (int c = 0; c < row.getLastCellNum(); c++) {
+					if (c > 0) {
+						writer.write(delimiter);
+					}
+					String value = dataF.formatCellValue(row.getCell(c));
+					boolean quote = quoteAll || value.indexOf(delimiter) >= 0 || value.indexOf('"') >= 0
+							|| value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+					writer.write(quote ? "\"" + value.replace("\"", "\"\"") + "\"" : value);
+				}
+			}
+			writer.write(eol);
+		}
+		writer.close();
+		return textFile;
+	}
+}
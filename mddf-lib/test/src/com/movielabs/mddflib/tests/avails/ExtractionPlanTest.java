@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.avails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.filter.Filters;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.xpath.XPathExpression;
+import org.jdom2.xpath.XPathFactory;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.avails.xlsx.ExtractionPlan;
+import com.movielabs.mddflib.avails.xlsx.XlsxBuilder;
+import com.movielabs.mddflib.testsupport.AvailsFixtures;
+
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+
+/**
+ * JUnit test verifying that an <tt>ExtractionPlan</tt> matches the same nodes,
+ * in the same order, as evaluating each of its XPaths separately.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class ExtractionPlanTest {
+
+	private static final Namespace MD_NSPACE = Namespace.getNamespace("md",
+			"http://www.movielabs.com/schema/md/v2.6/md");
+	private XPathFactory xpfac = XPathFactory.instance();
+
+	@Test
+	public void testMappings() throws Exception {
+		Set<String> mappingSet = new LinkedHashSet<String>();
+		collectMappings(loadMappings(), mappingSet);
+		assertTrue(mappingSet.size() > 100);
+		for (String testFileName : new String[] { "Avails_noErrors_v2.3.xml", "Avails_withErrors.xml",
+				"Avails_Structure_Tests_v2.3.xml" }) {
+			Document xmlDoc = AvailsFixtures.loadXml(testFileName);
+			Namespace availsNSpace = xmlDoc.getRootElement().getNamespace();
+			List<XPathExpression<?>> xpeList = new ArrayList<XPathExpression<?>>();
+			for (String mapping : mappingSet) {
+				xpeList.add(compile(mapping, availsNSpace, MD_NSPACE));
+			}
+			ExtractionPlan plan = new ExtractionPlan(availsNSpace, MD_NSPACE);
+			for (XPathExpression<?> xpe : xpeList) {
+				plan.add(xpe);
+			}
+			int matchCnt = 0;
+			for (String entity : new String[] { "Avail", "Asset", "Transaction" }) {
+				for (Element baseEl : xmlDoc.getRootElement().getDescendants(Filters.element(entity, availsNSpace))) {
+					matchCnt += compare(plan, xpeList, baseEl);
+				}
+			}
+			assertTrue(matchCnt > 0);
+		}
+	}
+
+	@Test
+	public void testNestedDescendants() throws Exception {
+		String xml = "<a><b id='1'><c>1</c><b id='2'><c>2</c><d><b id='3'><c>3</c></b></d></b><c>4</c></b>"
+				+ "<b id='4'><c>5</c></b></a>";
+		Element rootEl = new SAXBuilder().build(new StringReader(xml)).getRootElement();
+		List<XPathExpression<?>> xpeList = new ArrayList<XPathExpression<?>>();
+		xpeList.add(xpfac.compile(".//b/c", Filters.element()));
+		xpeList.add(xpfac.compile(".//b//c", Filters.element()));
+		xpeList.add(xpfac.compile(".//b/@id", Filters.attribute()));
+		xpeList.add(xpfac.compile(".//b[@id != '2']/c", Filters.element()));
+		xpeList.add(xpfac.compile("./b/c[. = '4']", Filters.element()));
+		ExtractionPlan plan = new ExtractionPlan();
+		for (XPathExpression<?> xpe : xpeList) {
+			plan.add(xpe);
+		}
+		assertEquals(19, compare(plan, xpeList, rootEl));
+	}
+
+	@Test
+	public void testUnsupportedSyntax() throws Exception {
+		String xml = "<a><b>1</b><b>2</b><c><b>3</b></c></a>";
+		Element rootEl = new SAXBuilder().build(new StringReader(xml)).getRootElement();
+		List<XPathExpression<?>> xpeList = new ArrayList<XPathExpression<?>>();
+		xpeList.add(xpfac.compile("./b[2]", Filters.element()));
+		xpeList.add(xpfac.compile("./c/b/..", Filters.element()));
+		xpeList.add(xpfac.compile("./b | ./c/b", Filters.element()));
+		xpeList.add(xpfac.compile("./b[last()]", Filters.element()));
+		ExtractionPlan plan = new ExtractionPlan();
+		for (XPathExpression<?> xpe : xpeList) {
+			plan.add(xpe);
+		}
+		assertEquals(6, compare(plan, xpeList, rootEl));
+	}
+
+	/**
+	 * @return the number of nodes matched
+	 */
+	private int compare(ExtractionPlan plan, List<XPathExpression<?>> xpeList, Element baseEl) {
+		ExtractionPlan.Matches matches = plan.visit(baseEl);
+		assertSame(baseEl, matches.getBase());
+		int matchCnt = 0;
+		for (XPathExpression<?> xpe : xpeList) {
+			List<?> expected = xpe.evaluate(baseEl);
+			List<?> actual = matches.get(xpe);
+			assertEquals(expected.size(), actual.size(), xpe.getExpression());
+			for (int i = 0; i < expected.size(); i++) {
+				assertSame(expected.get(i), actual.get(i), xpe.getExpression());
+			}
+			matchCnt += expected.size();
+		}
+		return matchCnt;
+	}
+
+	/**
+	 * Compile a mapping the same way <tt>XlsxBuilder</tt> does.
+	 */
+	private XPathExpression<?> compile(String mapping, Namespace availsNSpace, Namespace mdNSpace) {
+		String xpath = "./" + mapping.replaceAll("\\{avail\\}", "avails:").replaceAll("\\{md\\}", "md:").replace("*", "");
+		if (xpath.matches(".*/@[\\w]++(\\[.+\\])?")) {
+			return xpfac.compile(xpath, Filters.attribute(), null, availsNSpace, mdNSpace);
+		} else {
+			return xpfac.compile(xpath, Filters.element(), null, availsNSpace, mdNSpace);
+		}
+	}
+
+	private void collectMappings(Object value, Set<String> mappingSet) {
+		if (value instanceof String) {
+			String mapping = (String) value;
+			if (mapping.contains("{avail}") || mapping.startsWith("@")) {
+				mappingSet.add(mapping);
+			}
+		} else if (value instanceof JSONArray) {
+			for (Object next : (JSONArray) value) {
+				collectMappings(next, mappingSet);
+			}
+		} else if (value instanceof JSONObject) {
+			for (Object next : ((JSONObject) value).values()) {
+				collectMappings(next, mappingSet);
+			}
+		}
+	}
+
+	private JSONObject loadMappings() throws Exception {
+		BufferedReader reader = new BufferedReader(
+				new InputStreamReader(XlsxBuilder.class.getResourceAsStream("Mappings.json"), "UTF-8"));
+		StringBuilder builder = new StringBuilder();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			builder.append(line);
+		}
+		reader.close();
+		return JSONObject.fromObject(builder.toString());
+	}
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2016 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.avails;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.avails.xml.AvailsSheet;
+import com.movielabs.mddflib.avails.xml.AvailsWrkBook;
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.testsupport.AvailsFixtures;
+import com.movielabs.mddflib.testsupport.InstrumentedLogger;
+
+/**
+ * JUnit test of the conversion of an Avails spreadsheet with both a 'Movies'
+ * and a 'TV' sheet.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class MultiSheetConversionTest {
+
+	@Test
+	public void testAllSheetsConverted() throws Exception {
+		Document srcDoc = AvailsFixtures.loadXml("Avails_noErrors_v2.3.xml");
+		File xlsxFile = AvailsFixtures.createWorkbook(srcDoc.getRootElement(), "multiSheetTest");
+
+		AvailsWrkBook wrkBook = new AvailsWrkBook(null, xlsxFile, new InstrumentedLogger(), false, false, true);
+		assertArrayEquals(new int[] { 0, 1 }, wrkBook.findAvailsSheets());
+
+		Map<String, Object> results = AvailsWrkBook.convertSpreadsheet(xlsxFile, null, new InstrumentedLogger());
+		assertNotNull(results);
+		Document xmlDoc = (Document) results.get("xml");
+		Namespace availsNS = xmlDoc.getRootElement().getNamespace();
+		List<Element> srcAvails = srcDoc.getRootElement().getChildren("Avail", availsNS);
+		List<Element> avails = xmlDoc.getRootElement().getChildren("Avail", availsNS);
+		assertEquals(srcAvails.size(), avails.size());
+		Set<String> srcAlids = new HashSet<String>();
+		for (Element availEl : srcAvails) {
+			srcAlids.add(availEl.getChildText("ALID", availsNS));
+		}
+		Set<String> alids = new HashSet<String>();
+		for (Element availEl : avails) {
+			alids.add(availEl.getChildText("ALID", availsNS));
+		}
+		assertEquals(srcAlids, alids);
+		assertTrue(avails.get(0).getChildText("ShortDescription", availsNS).contains("Sheet_0+Sheet_1"));
+	}
+
+	@Test
+	public void testParallelMatchesSequential() throws Exception {
+		File xlsxFile = AvailsFixtures.createWorkbook("Avails_noErrors_v2.3.xml", "multiSheetTest");
+		InstrumentedLogger seqLog = new InstrumentedLogger();
+		String sequential = convert(xlsxFile, false, seqLog);
+		InstrumentedLogger parLog = new InstrumentedLogger();
+		String parallel = convert(xlsxFile, true, parLog);
+		assertEquals(sequential, parallel);
+		assertEquals(seqLog.getMsgList(), parLog.getMsgList());
+	}
+
+	private String convert(File xlsxFile, boolean parallel, InstrumentedLogger iLog) throws Exception {
+		iLog.setPrintToConsole(true);
+		iLog.setMinLevel(LogMgmt.LEV_DEBUG);
+		AvailsWrkBook wrkBook = new AvailsWrkBook(null, xlsxFile, iLog, false, false, true);
+		List<AvailsSheet> sheets = wrkBook.ingestSheets(wrkBook.findAvailsSheets());
+		assertEquals(2, sheets.size());
+		return AvailsFixtures.convert(sheets, xlsxFile, iLog, parallel);
+	}
+}
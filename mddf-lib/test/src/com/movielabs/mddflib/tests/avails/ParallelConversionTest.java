@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.avails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.avails.xml.AvailsSheet;
+import com.movielabs.mddflib.avails.xml.AvailsWrkBook;
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.testsupport.AvailsFixtures;
+import com.movielabs.mddflib.testsupport.InstrumentedLogger;
+
+/**
+ * JUnit test verifying that converting the rows of an Avails spreadsheet
+ * concurrently produces the same XML, and logs the same messages in the same
+ * order, as a sequential conversion.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class ParallelConversionTest {
+
+	@Test
+	public void testNoErrors() throws Exception {
+		compareModes("Avails_noErrors_v2.3.xml");
+	}
+
+	@Test
+	public void testWithErrors() throws Exception {
+		compareModes("Avails_withErrors.xml");
+	}
+
+	private void compareModes(String testFileName) throws Exception {
+		File xlsxFile = AvailsFixtures.createWorkbook(testFileName, "parallelTest");
+		List<String> sequentialLog = new ArrayList<String>();
+		String sequential = convert(xlsxFile, false, sequentialLog);
+		List<String> parallelLog = new ArrayList<String>();
+		String parallel = convert(xlsxFile, true, parallelLog);
+		assertEquals(sequential, parallel);
+		assertEquals(sequentialLog, parallelLog);
+		assertTrue(sequentialLog.size() > 0);
+	}
+
+	private String convert(File xlsxFile, boolean parallel, List<String> msgList) throws Exception {
+		InstrumentedLogger iLog = new InstrumentedLogger();
+		iLog.setPrintToConsole(true);
+		iLog.setMinLevel(LogMgmt.LEV_DEBUG);
+		AvailsSheet aSheet = new AvailsWrkBook(xlsxFile, iLog, false, false).ingestSheet(0);
+		String xml = AvailsFixtures.convert(aSheet, xlsxFile, iLog, parallel);
+		msgList.addAll(iLog.getMsgList());
+		return xml;
+	}
+}
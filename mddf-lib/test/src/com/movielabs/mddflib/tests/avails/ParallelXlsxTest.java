@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.avails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.filter.Filters;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.avails.xlsx.TemplateWorkBook;
+import com.movielabs.mddflib.avails.xlsx.XlsxBuilder;
+import com.movielabs.mddflib.avails.xml.AvailsSheet;
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.testsupport.AvailsFixtures;
+import com.movielabs.mddflib.testsupport.InstrumentedLogger;
+
+/**
+ * JUnit test verifying that generating the sheets of an XLSX workbook
+ * concurrently produces the same workbook, and logs the same messages in the
+ * same order, as generating them one after another.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class ParallelXlsxTest {
+
+	@Test
+	public void testNoErrors() throws Exception {
+		List<String> content = compareModes("Avails_noErrors_v2.3.xml", false);
+		/* both sheets are needed for their generation to be concurrent */
+		assertTrue(content.contains("Movies") && content.contains("TV"));
+	}
+
+	@Test
+	public void testWithErrors() throws Exception {
+		compareModes("Avails_withErrors.xml", false);
+	}
+
+	/**
+	 * Duplicating the Ratings results in warnings about values that are dropped.
+	 */
+	@Test
+	public void testWithWarnings() throws Exception {
+		List<String> content = compareModes("Avails_noErrors_v2.3.xml", true);
+		assertTrue(content.contains("Movies") && content.contains("TV"));
+	}
+
+	/**
+	 * @return the content of the workbook
+	 */
+	private List<String> compareModes(String testFileName, boolean addDuplicates) throws Exception {
+		List<String> sequentialLog = new ArrayList<String>();
+		List<String> sequential = generate(testFileName, addDuplicates, false, sequentialLog);
+		List<String> parallelLog = new ArrayList<String>();
+		List<String> parallel = generate(testFileName, addDuplicates, true, parallelLog);
+		assertEquals(sequential, parallel);
+		assertEquals(sequentialLog, parallelLog);
+		assertTrue(sequentialLog.size() > 0);
+		return sequential;
+	}
+
+	/**
+	 * @return the name of each sheet followed by the values in each of its rows
+	 */
+	private List<String> generate(String testFileName, boolean addDuplicates, boolean parallel,
+			List<String> msgList) throws Exception {
+		Document xmlDoc = AvailsFixtures.loadXml(testFileName);
+		if (addDuplicates) {
+			List<Element> ratingsList = new ArrayList<Element>();
+			for (Element ratingEl : xmlDoc.getRootElement().getDescendants(Filters.element("Rating", null))) {
+				ratingsList.add(ratingEl);
+			}
+			for (Element ratingEl : ratingsList) {
+				Element parentEl = ratingEl.getParentElement();
+				parentEl.addContent(parentEl.indexOf(ratingEl) + 1, ratingEl.clone());
+			}
+			assertTrue(ratingsList.size() > 0);
+		}
+		InstrumentedLogger iLog = new InstrumentedLogger();
+		iLog.setPrintToConsole(true);
+		iLog.setMinLevel(LogMgmt.LEV_DEBUG);
+		XlsxBuilder builder = new XlsxBuilder(xmlDoc.getRootElement(), AvailsSheet.Version.V1_7_3, iLog, 0,
+				TemplateWorkBook.ColumnSizing.EXACT, parallel);
+		msgList.addAll(iLog.getMsgList());
+		File xlsxFile = AvailsFixtures.export(builder.getWorkbook(), "parallelXlsxTest");
+
+		List<String> content = new ArrayList<String>();
+		DataFormatter dataF = new DataFormatter();
+		XSSFWorkbook result = new XSSFWorkbook(xlsxFile);
+		for (Sheet sheet : result) {
+			content.add(sheet.getSheetName());
+			for (Row row : sheet) {
+				StringBuilder values = new StringBuilder();
+				for (Cell cell : row) {
+					values.append(cell.getColumnIndex()).append("=").append(dataF.formatCellValue(cell)).append("|");
+				}
+				content.add(values.toString());
+			}
+		}
+		result.close();
+		return content;
+	}
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2016 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.avails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jdom2.Attribute;
+import org.jdom2.Element;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.avails.xml.Pedigree;
+import com.movielabs.mddflib.avails.xml.PedigreeStore;
+import com.movielabs.mddflib.logging.CellLocation;
+
+/**
+ * JUnit test of the <tt>PedigreeStore</tt>.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class PedigreeStoreTest {
+
+	@Test
+	public void testMatchesHashMap() {
+		PedigreeStore store = new PedigreeStore();
+		Map<Object, Pedigree> expected = new HashMap<Object, Pedigree>();
+		String[] sheets = { "Movies", "TV" };
+		for (int i = 0; i < 5000; i++) {
+			Element el = new Element("Item");
+			Pedigree pg = new Pedigree(new CellLocation(sheets[i % 2], i / 60, i % 60), "value" + i);
+			expected.put(el, pg);
+			store.put(el, pg);
+			if (i % 7 == 0) {
+				Attribute attr = new Attribute("lag", "P" + i);
+				pg = new Pedigree(null, "");
+				expected.put(attr, pg);
+				store.put(attr, pg);
+			}
+		}
+		assertEquals(expected.size(), store.size());
+		for (Map.Entry<Object, Pedigree> entry : expected.entrySet()) {
+			Pedigree actual = store.get(entry.getKey());
+			assertEquals(entry.getValue().getRawValue(), actual.getRawValue());
+			assertEquals(entry.getValue().getSource(), actual.getSource());
+		}
+		int cnt = 0;
+		for (Map.Entry<Object, Pedigree> entry : store.entrySet()) {
+			assertEquals(expected.get(entry.getKey()).getSource(), entry.getValue().getSource());
+			cnt++;
+		}
+		assertEquals(expected.size(), cnt);
+	}
+
+	@Test
+	public void testKeysAndSources() {
+		PedigreeStore store = new PedigreeStore();
+		Element el1 = new Element("Title");
+		Element el2 = new Element("Title");
+		Element srcEl = new Element("Source");
+		store.put(el1, new Pedigree(new CellLocation("Movies", 3, 4), "a"));
+		assertTrue(store.containsKey(el1));
+		assertFalse(store.containsKey(el2));
+		assertNull(store.get(el2));
+
+		/* non-cell sources are retained as-is */
+		Pedigree xmlPg = new Pedigree(srcEl, "b");
+		store.put(el2, xmlPg);
+		assertSame(xmlPg, store.get(el2));
+
+		/* replacing an entry returns the prior value */
+		Pedigree prior = store.put(el2, new Pedigree(new CellLocation("Movies", 5, 6), "c"));
+		assertSame(xmlPg, prior);
+		assertEquals(new CellLocation("Movies", 5, 6), store.get(el2).getSource());
+		assertEquals("c", store.get(el2).getRawValue());
+		assertEquals(2, store.size());
+
+		store.clear();
+		assertEquals(0, store.size());
+		assertNull(store.get(el1));
+	}
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.avails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.avails.xlsx.TemplateWorkBook;
+import com.movielabs.mddflib.testsupport.AvailsFixtures;
+import com.movielabs.mddflib.testsupport.InstrumentedLogger;
+
+/**
+ * JUnit test of how the rows of a <tt>TemplateWorkBook</tt> are assembled from
+ * column-indexed layers of values and of the rows generated by an
+ * <tt>XlsxBuilder</tt> for an Avail with multiple Assets and Transactions.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class RowAssemblyTest {
+
+	private static final List<String> COLUMNS = Arrays.asList("Avail:ALID", "AvailTrans:Territory",
+			"AvailTrans:Description", "AvailMetadata:TitleDisplayUnlimited");
+
+	@Test
+	public void testLayers() throws Exception {
+		TemplateWorkBook wrkBook = new TemplateWorkBook(new InstrumentedLogger());
+		Sheet sheet = wrkBook.addSheet("Movies", COLUMNS);
+		assertEquals(4, wrkBook.getColumnCount(sheet));
+		assertEquals(1, wrkBook.getColumnIndex(sheet, "AvailTrans:Territory"));
+		assertEquals(-1, wrkBook.getColumnIndex(sheet, "AvailTrans:End"));
+
+		String[] common = { "alid", null, null, "Common Title" };
+		String[] trans = { null, "US", "", "Trans Title" };
+		String[] overlay = { null, null, "Override", null };
+		wrkBook.addDataRow(sheet, trans, common);
+		wrkBook.addDataRow(sheet, common, overlay);
+		/* the equivalent of the 1st row when provided as a map */
+		Map<String, String> rowData = new HashMap<String, String>();
+		rowData.put("Avail:ALID", "alid");
+		rowData.put("AvailTrans:Territory", "US");
+		rowData.put("AvailTrans:Description", "");
+		rowData.put("AvailMetadata:TitleDisplayUnlimited", "Common Title");
+		wrkBook.addDataRow(rowData, sheet);
+
+		File xlsxFile = AvailsFixtures.export(wrkBook, "layerTest");
+		XSSFWorkbook result = new XSSFWorkbook(xlsxFile);
+		Sheet resultSheet = result.getSheetAt(0);
+		assertEquals(Arrays.asList("alid", "US", "", "Common Title"), values(resultSheet.getRow(3)));
+		assertEquals(Arrays.asList("alid", "", "Override", "Common Title"), values(resultSheet.getRow(4)));
+		assertEquals(values(resultSheet.getRow(3)), values(resultSheet.getRow(5)));
+		/* an empty value does not fill a cell */
+		assertEquals(null, resultSheet.getRow(3).getCell(2));
+		result.close();
+	}
+
+	/**
+	 * Each Asset's rows must contain only that Asset's values, even when a
+	 * later Asset lacks a field provided by an earlier one.
+	 */
+	@Test
+	public void testMultipleAssets() throws Exception {
+		Document xmlDoc = AvailsFixtures.loadXml("Avails_noErrors_v2.3.xml");
+		Element rootEl = xmlDoc.getRootElement();
+		Namespace availsNSpace = rootEl.getNamespace();
+		List<Element> availList = rootEl.getChildren("Avail", availsNSpace);
+		Element availEl = availList.get(0);
+		for (Element otherEl : availList.subList(1, availList.size()).toArray(new Element[0])) {
+			otherEl.detach();
+		}
+		Element assetEl = availEl.getChild("Asset", availsNSpace);
+		Element asset2El = assetEl.clone();
+		Element metadataEl = asset2El.getChild("Metadata", availsNSpace);
+		metadataEl.getChild("TitleDisplayUnlimited", availsNSpace).setText("Second Asset");
+		assertTrue(metadataEl.removeChild("TitleInternalAlias", availsNSpace));
+		availEl.addContent(availEl.indexOf(assetEl) + 1, asset2El);
+		int transCnt = availEl.getChildren("Transaction", availsNSpace).size();
+		assertEquals(2, transCnt);
+
+		File xlsxFile = AvailsFixtures.createWorkbook(rootEl, "assemblyTest");
+		XSSFWorkbook result = new XSSFWorkbook(xlsxFile);
+		Sheet sheet = result.getSheet("Movies");
+		assertEquals(3 + (2 * transCnt) - 1, sheet.getLastRowNum());
+		int titleCol = findColumn(sheet, "AvailMetadata", "TitleDisplayUnlimited");
+		int aliasCol = findColumn(sheet, "AvailMetadata", "TitleInternalAlias");
+		int territoryCol = findColumn(sheet, "AvailTrans", "Territory");
+		int alidCol = findColumn(sheet, "Avail", "ALID");
+		DataFormatter dataF = new DataFormatter();
+		for (int t = 0; t < transCnt; t++) {
+			Row asset1Row = sheet.getRow(3 + t);
+			Row asset2Row = sheet.getRow(3 + transCnt + t);
+			assertFalse(dataF.formatCellValue(asset1Row.getCell(aliasCol)).isEmpty());
+			assertEquals("", dataF.formatCellValue(asset2Row.getCell(aliasCol)));
+			assertEquals("Second Asset", dataF.formatCellValue(asset2Row.getCell(titleCol)));
+			assertEquals(dataF.formatCellValue(asset1Row.getCell(territoryCol)),
+					dataF.formatCellValue(asset2Row.getCell(territoryCol)));
+			assertEquals(dataF.formatCellValue(asset1Row.getCell(alidCol)),
+					dataF.formatCellValue(asset2Row.getCell(alidCol)));
+		}
+		result.close();
+	}
+
+	private int findColumn(Sheet sheet, String category, String name) {
+		DataFormatter dataF = new DataFormatter();
+		Row catRow = sheet.getRow(0);
+		Row nameRow = sheet.getRow(1);
+		for (int i = 0; i < nameRow.getLastCellNum(); i++) {
+			if (dataF.formatCellValue(catRow.getCell(i)).equals(category)
+					&& dataF.formatCellValue(nameRow.getCell(i)).equals(name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("No column " + category + ":" + name);
+	}
+
+	private List<String> values(Row row) {
+		DataFormatter dataF = new DataFormatter();
+		String[] values = new String[COLUMNS.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = dataF.formatCellValue(row.getCell(i));
+		}
+		return Arrays.asList(values);
+	}
+}
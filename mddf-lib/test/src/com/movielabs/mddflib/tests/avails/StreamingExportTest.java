@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2016 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.avails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.jdom2.Document;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.avails.xlsx.TemplateWorkBook;
+import com.movielabs.mddflib.avails.xlsx.XlsxBuilder;
+import com.movielabs.mddflib.avails.xml.AvailsSheet;
+import com.movielabs.mddflib.testsupport.AvailsFixtures;
+import com.movielabs.mddflib.testsupport.InstrumentedLogger;
+
+/**
+ * JUnit test verifying that a <tt>TemplateWorkBook</tt> using the streaming
+ * API exports the same spreadsheet as one that retains all rows in memory.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class StreamingExportTest {
+
+	@Test
+	public void testNoErrors() throws Exception {
+		compareModes("Avails_noErrors_v2.3.xml");
+	}
+
+	@Test
+	public void testWithErrors() throws Exception {
+		compareModes("Avails_withErrors.xml");
+	}
+
+	private void compareModes(String testFileName) throws Exception {
+		Document xmlDoc = AvailsFixtures.loadXml(testFileName);
+		/* a small window ensures rows are flushed while the sheets are built */
+		XSSFWorkbook expected = export(xmlDoc, 0);
+		XSSFWorkbook actual = export(xmlDoc, 2);
+		DataFormatter dataF = new DataFormatter();
+		assertTrue(expected.getNumberOfSheets() > 0);
+		assertEquals(expected.getNumberOfSheets(), actual.getNumberOfSheets());
+		for (int s = 0; s < expected.getNumberOfSheets(); s++) {
+			XSSFSheet expSheet = expected.getSheetAt(s);
+			XSSFSheet actSheet = actual.getSheetAt(s);
+			assertEquals(expSheet.getSheetName(), actSheet.getSheetName());
+			assertTrue(expSheet.getLastRowNum() > 3);
+			assertEquals(expSheet.getLastRowNum(), actSheet.getLastRowNum());
+			int colCount = expSheet.getRow(0).getLastCellNum();
+			for (int c = 0; c < colCount; c++) {
+				assertEquals(expSheet.isColumnHidden(c), actSheet.isColumnHidden(c), "column " + c);
+				assertEquals(expSheet.getColumnWidth(c), actSheet.getColumnWidth(c), "column " + c);
+			}
+			for (int r = 0; r <= expSheet.getLastRowNum(); r++) {
+				XSSFRow expRow = expSheet.getRow(r);
+				XSSFRow actRow = actSheet.getRow(r);
+				assertEquals(expRow.getLastCellNum(), actRow.getLastCellNum());
+				for (int c = 0; c < expRow.getLastCellNum(); c++) {
+					XSSFCell expCell = expRow.getCell(c);
+					XSSFCell actCell = actRow.getCell(c);
+					assertEquals(dataF.formatCellValue(expCell), dataF.formatCellValue(actCell));
+					if (r < 3) {
+						/* header styling */
+						assertEquals(expCell.getCellStyle().getFillForegroundXSSFColor().getARGBHex(),
+								actCell.getCellStyle().getFillForegroundXSSFColor().getARGBHex());
+						assertEquals(expCell.getCellStyle().getFont().getBold(),
+								actCell.getCellStyle().getFont().getBold());
+					}
+				}
+			}
+		}
+		expected.close();
+		actual.close();
+	}
+
+	private XSSFWorkbook export(Document xmlDoc, int rowWindow) throws Exception {
+		XlsxBuilder builder = new XlsxBuilder(xmlDoc.getRootElement(), AvailsSheet.Version.V1_7_3,
+				new InstrumentedLogger(), rowWindow);
+		TemplateWorkBook wrkBook = builder.getWorkbook();
+		assertEquals(rowWindow > 0, wrkBook.isStreaming());
+		File xlsxFile = AvailsFixtures.export(wrkBook, "streamingTest");
+		assertFalse(xlsxFile.length() == 0);
+		return new XSSFWorkbook(xlsxFile);
+	}
+}
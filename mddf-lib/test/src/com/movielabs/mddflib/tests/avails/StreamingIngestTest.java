@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.avails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Calendar;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.avails.xml.AvailsCell;
+import com.movielabs.mddflib.avails.xml.AvailsRow;
+import com.movielabs.mddflib.avails.xml.AvailsSheet;
+import com.movielabs.mddflib.avails.xml.AvailsWrkBook;
+import com.movielabs.mddflib.testsupport.AvailsFixtures;
+import com.movielabs.mddflib.testsupport.InstrumentedLogger;
+
+/**
+ * JUnit test of the streaming ingest of an XLSX. Verifies the rows and cells
+ * obtained via the streaming API have the same location, formatted value, and
+ * use of formulas as those obtained from an <tt>XSSFWorkbook</tt>.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class StreamingIngestTest {
+
+	@Test
+	public void testMatchesWorkbook() throws Exception {
+		File xlsxFile = AvailsFixtures.createTempFile("streamingTest", ".xlsx");
+		createWorkbook(xlsxFile);
+
+		AvailsSheet expected = new AvailsWrkBook(null, xlsxFile, new InstrumentedLogger(), false, false, false)
+				.ingestSheet(0);
+		AvailsSheet actual = new AvailsWrkBook(null, xlsxFile, new InstrumentedLogger(), false, false, true)
+				.ingestSheet("Movies");
+		assertEquals(expected.getVersion(), actual.getVersion());
+		assertEquals(expected.getColumnIdx("Avail/ALID"), actual.getColumnIdx("Avail/ALID"));
+		List<AvailsRow> expectedRows = expected.getRows();
+		List<AvailsRow> actualRows = actual.getRows();
+		assertEquals(4, expectedRows.size());
+		assertEquals(expectedRows.size(), actualRows.size());
+		for (int i = 0; i < expectedRows.size(); i++) {
+			AvailsRow expRow = expectedRows.get(i);
+			AvailsRow actRow = actualRows.get(i);
+			assertEquals(expRow.getRowNum(), actRow.getRowNum());
+			assertEquals(expRow.getLastCellNum(), actRow.getLastCellNum());
+			for (int j = 0; j <= expRow.getLastCellNum(); j++) {
+				AvailsCell expCell = expRow.getCell(j);
+				AvailsCell actCell = actRow.getCell(j);
+				String loc = "row " + expRow.getRowNum() + ", col " + j;
+				assertEquals(expRow.getFormattedValue(j), actRow.getFormattedValue(j), loc);
+				if (expCell == null) {
+					assertNull(actCell, loc);
+				} else {
+					assertEquals(expCell.isFormula(), actCell.isFormula(), loc);
+					assertEquals(expCell.getLocation(), actCell.getLocation(), loc);
+					assertEquals("Movies", actCell.getLocation().getSheetName(), loc);
+				}
+			}
+		}
+		assertEquals(expected.getCell("Avail/ALID", 3).getFormattedValue(),
+				actual.getCell("Avail/ALID", 3).getFormattedValue());
+	}
+
+	private void createWorkbook(File xlsxFile) throws Exception {
+		XSSFWorkbook wrkBook = new XSSFWorkbook();
+		XSSFSheet sheet = wrkBook.createSheet("Movies");
+		String[] headers = { "DisplayName", "ALID", "Territory", "Start", "Price", "Flag", "Director" };
+		Row row0 = sheet.createRow(0);
+		Row row1 = sheet.createRow(1);
+		for (int i = 0; i < headers.length; i++) {
+			row0.createCell(i).setCellValue("Avail");
+			row1.createCell(i).setCellValue(headers[i]);
+		}
+		sheet.createRow(2);
+		CellStyle dateStyle = wrkBook.createCellStyle();
+		dateStyle.setDataFormat(wrkBook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+		CellStyle priceStyle = wrkBook.createCellStyle();
+		priceStyle.setDataFormat(wrkBook.getCreationHelper().createDataFormat().getFormat("0.00"));
+		Calendar cal = Calendar.getInstance();
+		for (int r = 3; r < 7; r++) {
+			Row row = sheet.createRow(r);
+			row.createCell(0).setCellValue("Licensor " + r);
+			row.createCell(1).setCellValue("md:alid:eidr-s:" + r);
+			row.createCell(2).setCellValue(r == 5 ? "" : "US");
+			cal.set(2018, r, 15);
+			Cell dateCell = row.createCell(3);
+			dateCell.setCellValue(cal.getTime());
+			dateCell.setCellStyle(dateStyle);
+			Cell priceCell = row.createCell(4);
+			priceCell.setCellValue(r * 1.25);
+			priceCell.setCellStyle(priceStyle);
+			if (r == 4) {
+				row.createCell(5).setCellFormula("E5*2");
+			} else {
+				row.createCell(5).setCellValue(r % 2 == 0);
+			}
+			if (r != 6) {
+				row.createCell(6).setCellValue(123456 + r);
+			} else {
+				row.createCell(6).setCellStyle(priceStyle);
+			}
+		}
+		Row comment = sheet.createRow(7);
+		comment.createCell(0).setCellValue("// a comment row");
+		FileOutputStream outStream = new FileOutputStream(xlsxFile);
+		wrkBook.write(outStream);
+		outStream.close();
+		wrkBook.close();
+	}
+}
@@ -226,4 +226,24 @@ public class CMValidatorTest extends AbstractCmmTester {
 		assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_ERR));
 	}
 
+
+	/**
+	 * Test method for
+	 * {@link com.movielabs.mddflib.util.CMValidator#setValidationBudget(int, boolean)}
+	 * . The file contains 7 errors but only the first 3 should be reported.
+	 */
+	@Test
+	public void testValidationBudget() {
+		initialize("common/CM_withErrors.xml");
+		setValidationBudget(3, false);
+		validateCountries();
+		validateLanguageCodes();
+		validateCurrencyCodes();
+		assertTrue(isBudgetExhausted());
+		assertFalse(curFileIsValid);
+		assertEquals(3, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+
+		resetBudget();
+		assertFalse(isBudgetExhausted());
+	}
 }
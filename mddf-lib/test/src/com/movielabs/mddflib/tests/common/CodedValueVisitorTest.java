@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.jdom2.Attribute;
+import org.jdom2.Element;
+import org.jdom2.filter.Filters;
+import org.jdom2.xpath.XPathExpression;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.util.CodedValueVisitor;
+
+/**
+ * Verifies the single-pass <tt>CodedValueVisitor</tt> selects exactly the same
+ * nodes, in the same order, as the XPaths it replaced.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class CodedValueVisitorTest extends AbstractCmmTester {
+
+	private static final String LANG_SUFFIX_TEST = "[substring(name(), string-length(name()) - string-length('anguage') +1) = 'anguage']";
+
+	@Test
+	public void testMatchesXPath() {
+		initialize("common/CM_withErrors.xml");
+		compareWithXPath(new CodedValueVisitor(curRootEl, mdNSpace));
+	}
+
+	@Test
+	public void testManifestMatchesXPath() {
+		initialize("manifest/Manifest_v1.8_A.xml");
+		compareWithXPath(new CodedValueVisitor(curRootEl, mdNSpace));
+	}
+
+	@Test
+	public void testLogUnchanged() {
+		initialize("common/CM_withErrors.xml");
+		validateCountries();
+		validateLanguageCodes();
+		validateCurrencyCodes();
+		assertEquals(7, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+	}
+
+	/**
+	 * Verifies the match using a Manifest inflated by replicating its
+	 * <tt>Inventory</tt> content.
+	 */
+	@Test
+	public void testLargeManifestMatchesXPath() {
+		initialize("manifest/Manifest_v1.8_A.xml");
+		Element inventoryEl = curRootEl.getChild("Inventory", manifestNSpace);
+		List<Element> seedList = inventoryEl.getChildren();
+		int seedCnt = seedList.size();
+		for (int i = 0; i < 200; i++) {
+			for (int j = 0; j < seedCnt; j++) {
+				inventoryEl.addContent(seedList.get(j).clone());
+			}
+		}
+		compareWithXPath(new CodedValueVisitor(curRootEl, mdNSpace));
+	}
+
+	private List<?>[] evaluateXPaths() {
+		List<?>[] results = new List<?>[5];
+		XPathExpression<Element> xpElements = xpfac.compile(".//" + mdNSpace.getPrefix() + ":country",
+				Filters.element(), null, mdNSpace);
+		results[0] = xpElements.evaluate(curRootEl);
+		xpElements = xpfac.compile(".//*" + LANG_SUFFIX_TEST, Filters.element(), null, mdNSpace);
+		results[1] = xpElements.evaluate(curRootEl);
+		XPathExpression<Attribute> xpAttributes = xpfac.compile(".//@*" + LANG_SUFFIX_TEST, Filters.attribute(),
+				null, mdNSpace);
+		results[2] = xpAttributes.evaluate(curRootEl);
+		xpAttributes = xpfac.compile(".//@currency", Filters.attribute(), null, mdNSpace);
+		results[3] = xpAttributes.evaluate(curRootEl);
+		xpAttributes = xpfac.compile("//@region", Filters.attribute(), null, mdNSpace);
+		results[4] = xpAttributes.evaluate(curRootEl);
+		return results;
+	}
+
+	private void compareWithXPath(CodedValueVisitor visitor) {
+		List<?>[] expected = evaluateXPaths();
+		assertEquals(expected[0], visitor.getCountryElements());
+		assertEquals(expected[1], visitor.getLanguageElements());
+		assertEquals(expected[2], visitor.getLanguageAttributes());
+		assertEquals(expected[3], visitor.getCurrencyAttributes());
+		assertEquals(expected[4], visitor.getRegionAttributes());
+	}
+}
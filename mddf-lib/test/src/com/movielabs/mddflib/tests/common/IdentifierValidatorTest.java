@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.util.IdentifierValidator;
+import com.movielabs.mddflib.util.IdentifierValidator.Verdict;
+
+/**
+ * JUnit test of the <tt>IdentifierValidator</tt>.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class IdentifierValidatorTest {
+
+	private IdentifierValidator idValidator = IdentifierValidator.getInstance();
+
+	@Test
+	public void testMovieLabsSyntax() {
+		assertTrue(idValidator.isMovieLabsSyntax("md:cid:eidr-s:6FE7-5382-637F-2E34-7518-O"));
+		assertTrue(idValidator.isMovieLabsSyntax("md:alid:org:example.com:Movie-123"));
+		assertFalse(idValidator.isMovieLabsSyntax("md:cid:eidr-s"));
+		/* repeat to exercise the cached path */
+		assertFalse(idValidator.isMovieLabsSyntax("md:cid:eidr-s"));
+	}
+
+	@Test
+	public void testEidr() {
+		assertEquals(Verdict.VALID, idValidator.checkEidr("10.5240/77C5-ED35-8FC2-7D9D-9531-1"));
+		assertEquals(Verdict.VALID, idValidator.checkEidr("urn:eidr:10.5240:2156-FA16-777A-20BF-AF2B-C"));
+		assertEquals(Verdict.VALID, idValidator.checkSsid("eidr-s", "6FE7-5382-637F-2E34-7518-O"));
+		assertEquals(Verdict.VALID, idValidator.checkSsid("eidr-x", "0EF3-54F9-2642-0B49-6829-R:feature"));
+		assertEquals(Verdict.INVALID_CHECK_DIGIT, idValidator.checkSsid("eidr-s", "6FE7-5382-637F-2E34-7518-P"));
+		assertEquals(Verdict.INVALID_SYNTAX, idValidator.checkSsid("eidr-s", "6FE7-5382-637F-2E34-7518"));
+		assertEquals(Verdict.INVALID_SYNTAX, idValidator.checkSsid("eidr", "10.5240:77C5-ED35-8FC2-7D9D-9531-1"));
+		/* the cached verdict is keyed by form as well as value */
+		assertEquals(Verdict.INVALID_SYNTAX, idValidator.checkSsid("eidr-x", "6FE7-5382-637F-2E34-7518-O"));
+	}
+
+	@Test
+	public void testIsan() {
+		assertEquals(Verdict.VALID, idValidator.checkSsid("isan", "0000-0000-3A8D-0000-Z-0000-0000-6"));
+		assertEquals(Verdict.VALID, idValidator.checkSsid("isan", "0000-0000-3A8D-0000-Z"));
+		assertEquals(Verdict.INVALID_CHECK_DIGIT, idValidator.checkSsid("isan", "0000-0000-3A8D-0000-Y"));
+		assertEquals(Verdict.INVALID_CHECK_DIGIT, idValidator.checkSsid("isan", "0000-0000-3A8D-0000-Z-0000-0000-7"));
+		assertEquals(Verdict.INVALID_SYNTAX, idValidator.checkSsid("isan", "0000-0000-3A8D-0000"));
+	}
+
+	@Test
+	public void testUuidAndUnknown() {
+		assertEquals(Verdict.VALID, idValidator.checkSsid("uuid", "123e4567-e89b-12d3-a456-426655440000"));
+		assertEquals(Verdict.INVALID_SYNTAX, idValidator.checkSsid("uuid", "123e4567-e89b-12d3-a456"));
+		assertNull(idValidator.checkSsid("org", "anything"));
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jdom2.Attribute;
+import org.jdom2.Element;
+import org.jdom2.filter.Filters;
+import org.jdom2.xpath.XPathExpression;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.util.xml.SchemaWrapper;
+
+/**
+ * Verifies the single-pass <tt>validateNotEmpty()</tt> flags exactly the same
+ * nodes as evaluating each of the schema's required-value XPaths.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class NotEmptyTest extends AbstractCmmTester {
+
+	@Test
+	public void testNoErrors() {
+		initialize("manifest/Manifest_v1.8_A.xml");
+		validateNotEmpty(SchemaWrapper.factory("manifest-v1.8"));
+		assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+	}
+
+	/**
+	 * Blank every value in a Manifest and compare the number of errors with the
+	 * number of nodes selected by the XPaths.
+	 */
+	@Test
+	public void testMatchesXPath() {
+		initialize("manifest/Manifest_v1.8_A.xml");
+		iLog.setPrintToConsole(false);
+		List<Element> allElements = new ArrayList<Element>();
+		for (Element nextEl : curRootEl.getDescendants(Filters.element())) {
+			allElements.add(nextEl);
+		}
+		for (Element nextEl : allElements) {
+			if (nextEl.getChildren().isEmpty()) {
+				nextEl.setText("");
+			}
+			for (Attribute nextAtt : nextEl.getAttributes()) {
+				nextAtt.setValue("");
+			}
+		}
+		SchemaWrapper schema = SchemaWrapper.factory("manifest-v1.8");
+		int expected = 0;
+		for (XPathExpression<?> xpExp : schema.getReqElList()) {
+			List<?> nodeList = xpExp.evaluate(curRootEl);
+			expected += nodeList.size();
+		}
+		assertTrue(expected > 0);
+		validateNotEmpty(schema);
+		assertEquals(expected, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+	}
+}
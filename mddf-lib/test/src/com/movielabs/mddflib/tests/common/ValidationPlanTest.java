@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.util.ValidationPlan;
+import com.movielabs.mddflib.util.ValidationPlan.Check;
+
+/**
+ * JUnit test of the <tt>ValidationPlan</tt>.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class ValidationPlanTest {
+
+	@Test
+	public void testParse() {
+		ValidationPlan plan = ValidationPlan.parse("Schema, ids");
+		assertTrue(plan.includes(Check.SCHEMA));
+		assertTrue(plan.includes(Check.IDS));
+		assertFalse(plan.includes(Check.XREFS));
+		assertFalse(plan.includes(Check.VOCAB));
+		assertEquals("schema,ids", plan.toString());
+		assertSame(ValidationPlan.FULL, ValidationPlan.parse("all"));
+		for (Check next : Check.values()) {
+			assertTrue(ValidationPlan.FULL.includes(next));
+		}
+	}
+
+	@Test
+	public void testDependencies() {
+		ValidationPlan plan = ValidationPlan.of(Check.XREFS, Check.PROFILES);
+		assertTrue(plan.includes(Check.IDS));
+		assertTrue(plan.includes(Check.STRUCTURE));
+		assertFalse(plan.includes(Check.SCHEMA));
+	}
+
+	@Test
+	public void testInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> ValidationPlan.parse("schema,foobar"));
+		assertThrows(IllegalArgumentException.class, () -> ValidationPlan.parse(" , "));
+	}
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jdom2.Attribute;
+import org.jdom2.Element;
+import org.jdom2.filter.Filters;
+import org.jdom2.xpath.XPathExpression;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.util.XRefEngine;
+import com.movielabs.mddflib.util.XRefEngine.XRef;
+
+/**
+ * JUnit test of the <tt>XRefEngine</tt>. Verifies the single-pass matcher
+ * selects the same nodes as the equivalent XPath and that orphans are
+ * correctly identified.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class XRefEngineTest extends AbstractCmmTester {
+
+	private static final String[] rulePaths = { ".//manifest:Experience/manifest:ContentID",
+			".//manifest:ExperienceChild/manifest:ExperienceID[not(../manifest:ExternalManifestID)]",
+			".//manifest:ExperienceChild/manifest:ExperienceID[../manifest:ExternalManifestID]",
+			".//manifest:Audiovisual/@ContentID", ".//manifest:Audiovisual/manifest:PresentationID",
+			".//manifest:Picture/manifest:ImageID", ".//manifest:VideoTrackReference/manifest:VideoTrackID",
+			".//manifest:AudioTrackReference/manifest:AudioTrackID",
+			".//manifest:Experience/manifest:App/manifest:AppGroupID",
+			".//manifest:Inventory/manifest:ExternalManifest/@ManifestID",
+			".//manifest:ALIDExperienceMap/manifest:ExperienceID" };
+
+	/**
+	 * With no IDs registered every reference is dangling, so the set of dangling
+	 * references must equal the set of nodes selected by each rule's XPath.
+	 */
+	@Test
+	public void testMatchesXPath() {
+		initialize("manifest/Manifest_v1.8_A.xml");
+		XRefEngine engine = new XRefEngine(Arrays.asList(manifestNSpace, mdNSpace));
+		List<Element> expected = new ArrayList<Element>();
+		for (String path : rulePaths) {
+			engine.addRule(path, "Unknown");
+			if (path.contains("@")) {
+				XPathExpression<Attribute> xpExp = xpfac.compile(path, Filters.attribute(), null, manifestNSpace);
+				for (Attribute att : xpExp.evaluate(curRootEl)) {
+					expected.add(att.getParent());
+				}
+			} else {
+				XPathExpression<Element> xpExp = xpfac.compile(path, Filters.element(), null, manifestNSpace);
+				expected.addAll(xpExp.evaluate(curRootEl));
+			}
+		}
+		List<XRef> dangling = engine.resolve(curRootEl);
+		assertEquals(expected.size(), dangling.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertSame(expected.get(i), dangling.get(i).getElement());
+		}
+	}
+
+	@Test
+	public void testOrphans() {
+		initialize("manifest/Manifest_v1.8_A.xml");
+		XRefEngine engine = new XRefEngine(Arrays.asList(manifestNSpace, mdNSpace));
+		XPathExpression<Element> xpExp = xpfac.compile(".//manifest:Video", Filters.element(), null,
+				manifestNSpace);
+		List<Element> videoList = xpExp.evaluate(curRootEl);
+		engine.defineIdType("Video");
+		for (Element videoEl : videoList) {
+			engine.registerId("Video", videoEl.getAttributeValue("VideoTrackID"), videoEl);
+		}
+		engine.registerId("Video", "md:vidtrackid:eidr-x:unused", curRootEl);
+		engine.addRule(".//manifest:VideoTrackReference/manifest:VideoTrackID", "Video");
+		engine.resolve(curRootEl);
+		List<XRef> orphans = engine.getOrphans();
+		assertEquals(1, orphans.size());
+		assertEquals("md:vidtrackid:eidr-x:unused", orphans.get(0).getIdValue());
+		assertSame(curRootEl, orphans.get(0).getElement());
+
+		engine.ignoreOrphans("Video");
+		assertEquals(0, engine.getOrphans().size());
+	}
+}
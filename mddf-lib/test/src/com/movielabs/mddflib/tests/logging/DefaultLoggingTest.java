@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.logging.CellLocation;
+import com.movielabs.mddflib.logging.DefaultLogging;
+import com.movielabs.mddflib.logging.LogMgmt;
+import com.movielabs.mddflib.logging.LogReference;
+
+/**
+ * JUnit test of the provenance <tt>DefaultLogging</tt> records for issues
+ * found in a spreadsheet cell.
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class DefaultLoggingTest {
+
+	/**
+	 * Captures the line and details of the most recent entry.
+	 */
+	private static class CapturingLogger extends DefaultLogging {
+		private int line;
+		private String details;
+
+		@Override
+		protected void append(int level, int tag, String msg, File xmlFile, int line, String moduleID,
+				String details, LogReference srcRef) {
+			this.line = line;
+			this.details = details;
+		}
+	}
+
+	@Test
+	public void testCellIssueNamesSheet() throws Exception {
+		CapturingLogger logger = new CapturingLogger();
+		try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+			workbook.createSheet("Movies");
+			Cell cell = workbook.createSheet("TV").createRow(4).createCell(2);
+			logger.logIssue(LogMgmt.TAG_AVAIL, LogMgmt.LEV_ERR, cell, "Invalid value", "Unrecognized code", null,
+					"test");
+		}
+		assertEquals(4, logger.line);
+		assertEquals("Sheet 'TV': Unrecognized code", logger.details);
+	}
+
+	@Test
+	public void testCellLocationIssueNamesSheet() {
+		CapturingLogger logger = new CapturingLogger();
+		logger.logIssue(LogMgmt.TAG_AVAIL, LogMgmt.LEV_ERR, new CellLocation("Movies", 7, 0), "Invalid value", null,
+				null, "test");
+		assertEquals(7, logger.line);
+		assertEquals("Sheet 'Movies'", logger.details);
+	}
+}
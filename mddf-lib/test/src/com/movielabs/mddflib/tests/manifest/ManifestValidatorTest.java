@@ -41,6 +41,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import com.movielabs.mddflib.logging.LogMgmt;
 import com.movielabs.mddflib.manifest.validation.ManifestValidator;
 import com.movielabs.mddflib.testsupport.InstrumentedLogger;
+import com.movielabs.mddflib.util.ValidationPlan;
 import com.movielabs.mddflib.util.xml.MddfTarget;
 
 /**
@@ -131,6 +132,25 @@ public class ManifestValidatorTest extends ManifestValidator {
 		iLog.clearLog();
 	}
 
+	/**
+	 * Same file as <tt>testV16withErrors()</tt> but with a plan limited to schema
+	 * and ID checks.
+	 * 
+	 * @throws JDOMException
+	 * @throws IOException
+	 */
+	@Test
+	public void testV16withErrorsReducedPlan() throws IOException, JDOMException {
+		MddfTarget target = initialize("MMM_v1.6_errors.xml");
+		setValidationPlan(ValidationPlan.parse("schema,ids"));
+		execute(target);
+		assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_FATAL));
+		assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_ERR));
+		assertEquals(0, iLog.getCountForLevel(LogMgmt.LEV_WARN));
+		assertEquals(1, iLog.getCountForLevel(LogMgmt.LEV_NOTICE));
+		iLog.clearLog();
+	}
+
 	/**
 	 * @throws JDOMException
 	 * @throws IOException
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2016 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.util.xml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.util.xml.FormatConverter;
+
+/**
+ * JUnit test of the value conversions provided by <tt>FormatConverter</tt>.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class FormatConverterTest {
+
+	@Test
+	public void testDurationFromXml() {
+		assertEquals("01:30", FormatConverter.durationFromXml("PT1H30M"));
+		assertEquals("01:30:15", FormatConverter.durationFromXml("PT1H30M15S"));
+		assertEquals("50:00:05", FormatConverter.durationFromXml("P2DT2H5S"));
+		assertEquals("00", FormatConverter.durationFromXml("PT0H"));
+		assertEquals("1:30", FormatConverter.durationFromXml("1:30"));
+		assertEquals("", FormatConverter.durationFromXml(""));
+	}
+
+	@Test
+	public void testDurationToXml() {
+		assertEquals("PT1H", FormatConverter.durationToXml("1"));
+		assertEquals("PT01H30M", FormatConverter.durationToXml("01:30"));
+		assertEquals("PT01H30M15S", FormatConverter.durationToXml("01:30:15"));
+		assertEquals("PT1H30M", FormatConverter.durationToXml("PT1H30M"));
+		assertEquals("-P1D", FormatConverter.durationToXml("-P1D"));
+	}
+
+	@Test
+	public void testDates() {
+		assertEquals("2018-03-15T00:00:00", FormatConverter.dateTimeToXml("2018-03-15", true));
+		assertEquals("2018-03-15T23:59:59", FormatConverter.dateTimeToXml("2018-03-15", false));
+		assertEquals("2018-03-15T10:00:00", FormatConverter.dateTimeToXml("2018-03-15T10:00:00", false));
+		assertEquals("", FormatConverter.dateTimeToXml("March 15", true));
+		assertEquals("2018-03-15", FormatConverter.dateFromXml("2018-03-15T10:00:00"));
+		assertEquals("2018-03-15", FormatConverter.dateFromXml("2018-03-15"));
+	}
+
+	@Test
+	public void testBoolean() {
+		assertEquals("true", FormatConverter.booleanToXml("Yes"));
+		assertEquals("true", FormatConverter.booleanToXml("T"));
+		assertEquals("false", FormatConverter.booleanToXml("n"));
+		assertEquals("maybe", FormatConverter.booleanToXml("maybe"));
+	}
+}
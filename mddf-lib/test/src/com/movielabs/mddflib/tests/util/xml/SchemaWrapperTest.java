@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.tests.util.xml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.filter.Filters;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.xpath.XPathExpression;
+import org.jdom2.xpath.XPathFactory;
+import org.junit.jupiter.api.Test;
+
+import com.movielabs.mddflib.util.xml.SchemaModel;
+import com.movielabs.mddflib.util.xml.SchemaWrapper;
+
+/**
+ * JUnit test of the name-indexed queries supported by <tt>SchemaWrapper</tt>.
+ * Results are compared with those obtained by searching the XSD with the
+ * XPaths the index replaced.
+ *
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class SchemaWrapperTest {
+
+	private static XPathFactory xpfac = XPathFactory.instance();
+
+	@Test
+	public void testAvailsIndex() throws Exception {
+		compareWithXPath("avails-v2.3");
+	}
+
+	@Test
+	public void testManifestIndex() throws Exception {
+		compareWithXPath("manifest-v1.8");
+	}
+
+	@Test
+	public void testMdIndex() throws Exception {
+		compareWithXPath("md-v2.7");
+	}
+
+	@Test
+	public void testUndefined() {
+		SchemaWrapper schema = SchemaWrapper.factory("avails-v2.3");
+		assertThrows(IllegalArgumentException.class, () -> schema.getType("FooBar"));
+		assertThrows(IllegalArgumentException.class, () -> schema.isRequired("FooBar"));
+	}
+
+	@Test
+	public void testReqValueRules() {
+		SchemaWrapper schema = SchemaWrapper.factory("manifest-v1.8");
+		List<SchemaWrapper.ReqValueRule> ruleList = schema.getReqValueRules();
+		List<XPathExpression<?>> xpList = schema.getReqElList();
+		assertEquals(ruleList.size(), xpList.size());
+		for (int i = 0; i < ruleList.size(); i++) {
+			SchemaWrapper.ReqValueRule rule = ruleList.get(i);
+			assertEquals(i, rule.getIndex());
+			assertEquals(rule.getXPath(), xpList.get(i).getExpression());
+			assertEquals(true, schema.getReqValueRules(rule.getElementName()).contains(rule));
+		}
+		assertThrows(UnsupportedOperationException.class, () -> ruleList.remove(0));
+	}
+
+	/**
+	 * Concurrent requests for the same schema must all receive the same instance.
+	 */
+	@Test
+	public void testConcurrentFactory() throws Exception {
+		String[] xsdList = { "manifest-v1.6", "mdmec-v2.6", "avails-v2.2" };
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Callable<SchemaWrapper>> taskList = new ArrayList<Callable<SchemaWrapper>>();
+			for (int i = 0; i < 24; i++) {
+				String xsdRsrc = xsdList[i % xsdList.length];
+				taskList.add(() -> SchemaWrapper.factory(xsdRsrc));
+			}
+			List<Future<SchemaWrapper>> resultList = executor.invokeAll(taskList);
+			for (int i = 0; i < resultList.size(); i++) {
+				SchemaWrapper expected = SchemaWrapper.factory(xsdList[i % xsdList.length]);
+				assertSame(expected, resultList.get(i).get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertNull(SchemaWrapper.factory("foobar-v9.9"));
+	}
+
+	private void compareWithXPath(String xsdRsrc) throws Exception {
+		SchemaWrapper schema = SchemaWrapper.factory(xsdRsrc);
+		InputStream inp = SchemaWrapper.class.getResourceAsStream(SchemaWrapper.RSRC_PACKAGE + xsdRsrc + ".xsd");
+		Document xsdDoc = new SAXBuilder().build(inp);
+		Element rootEl = xsdDoc.getRootElement();
+		XPathExpression<Element> xpExp = xpfac.compile(".//xs:element[@name]", Filters.element(), null,
+				SchemaWrapper.xsNSpace);
+		Set<String> names = new HashSet<String>();
+		for (Element declEl : xpExp.evaluate(rootEl)) {
+			names.add(declEl.getAttributeValue("name"));
+		}
+		for (String name : names) {
+			XPathExpression<Element> xpExp2 = xpfac.compile(".//xs:element[@name='" + name + "']",
+					Filters.element(), null, SchemaWrapper.xsNSpace);
+			Element declEl = xpExp2.evaluateFirst(rootEl);
+			assertEquals(declEl.getAttributeValue("type", "xs:string"), schema.getType(name), name);
+			boolean required = !declEl.getAttributeValue("minOccurs", "1").equals("0");
+			assertEquals(required, schema.isRequired(name), name);
+		}
+		for (Element typeEl : rootEl.getChildren("simpleType", SchemaWrapper.xsNSpace)) {
+			assertEquals(true, schema.isSimpleType(typeEl.getAttributeValue("name")));
+		}
+		assertEquals(false, schema.isSimpleType("FooBar-type"));
+		SchemaModel model = schema.getModel();
+		for (Element typeEl : rootEl.getChildren("complexType", SchemaWrapper.xsNSpace)) {
+			String name = typeEl.getAttributeValue("name");
+			boolean isChoice = typeEl.getChild("choice", SchemaWrapper.xsNSpace) != null;
+			assertEquals(isChoice, schema.isChoice(name), name);
+			Element scEl = typeEl.getChild("simpleContent", SchemaWrapper.xsNSpace);
+			boolean isSC = (scEl != null) && (scEl.getChild("extension", SchemaWrapper.xsNSpace) != null);
+			assertEquals(isSC, schema.isSimpleContent(name), name);
+			Element seqEl = typeEl.getChild("sequence", SchemaWrapper.xsNSpace);
+			if (seqEl != null) {
+				List<SchemaModel.Particle> partList = model.getComplexType(name).getParticles();
+				List<Element> childList = seqEl.getChildren();
+				assertEquals(childList.size(), partList.size(), name);
+				for (int i = 0; i < childList.size(); i++) {
+					Element childEl = childList.get(i);
+					if (childEl.getName().equals("element")) {
+						assertEquals(childEl.getAttributeValue("name", childEl.getAttributeValue("ref")),
+								partList.get(i).getName());
+						assertEquals(childEl.getAttributeValue("maxOccurs", "1").replace("unbounded", "-1"),
+								Integer.toString(partList.get(i).getMaxOccurs()));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testModelEnumerations() throws Exception {
+		SchemaModel model = SchemaWrapper.factory("md-v2.7").getModel();
+		SchemaModel.SimpleType target = model.getSimpleType("ColorType-type");
+		assertEquals("xs:string", target.getRestrictionBase());
+		assertEquals(Arrays.asList("color", "bandw", "colorized", "composite", "unknown"), target.getEnumerations());
+	}
+}
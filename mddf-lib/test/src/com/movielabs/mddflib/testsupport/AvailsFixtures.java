@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2018 MovieLabs
+
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.movielabs.mddflib.testsupport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+
+import com.movielabs.mddflib.avails.xlsx.TemplateWorkBook;
+import com.movielabs.mddflib.avails.xlsx.XlsxBuilder;
+import com.movielabs.mddflib.avails.xml.AvailsSheet;
+import com.movielabs.mddflib.avails.xml.XmlBuilder;
+import com.movielabs.mddflib.logging.LogMgmt;
+
+/**
+ * Shared fixtures for JUnit tests of the conversion of Avails between the XML
+ * and XLSX formats. All files that are created are temporary and will be
+ * deleted when the JVM exits.
+ * 
+ * @author L. Levin, Critical Architectures LLC
+ *
+ */
+public class AvailsFixtures {
+
+	public static final String RSRC_PATH = "./test/resources/avails/";
+
+	private AvailsFixtures() {
+	}
+
+	/**
+	 * @param testFileName name of an XML file in the Avails test resources
+	 * @return the parsed document
+	 * @throws JDOMException
+	 * @throws IOException
+	 */
+	public static Document loadXml(String testFileName) throws JDOMException, IOException {
+		return new SAXBuilder().build(new File(RSRC_PATH + testFileName));
+	}
+
+	/**
+	 * @param prefix
+	 * @param suffix
+	 * @return an empty temporary file
+	 * @throws IOException
+	 */
+	public static File createTempFile(String prefix, String suffix) throws IOException {
+		File tempFile = File.createTempFile(prefix, suffix);
+		tempFile.deleteOnExit();
+		return tempFile;
+	}
+
+	/**
+	 * Export a workbook to a temporary XLSX file.
+	 * 
+	 * @param wrkBook
+	 * @param prefix  prefix for the name of the file
+	 * @return the XLSX file
+	 * @throws IOException
+	 */
+	public static File export(TemplateWorkBook wrkBook, String prefix) throws IOException {
+		File xlsxFile = createTempFile(prefix, ".xlsx");
+		wrkBook.export(xlsxFile.getPath());
+		return xlsxFile;
+	}
+
+	/**
+	 * Generate a v1.7.3 XLSX file from an Avails XML test resource.
+	 * 
+	 * @param testFileName name of an XML file in the Avails test resources
+	 * @param prefix       prefix for the name of the XLSX file
+	 * @return the XLSX file
+	 * @throws JDOMException
+	 * @throws IOException
+	 */
+	public static File createWorkbook(String testFileName, String prefix) throws JDOMException, IOException {
+		return createWorkbook(loadXml(testFileName).getRootElement(), prefix);
+	}
+
+	/**
+	 * Generate a v1.7.3 XLSX file from Avails XML.
+	 * 
+	 * @param docRootEl root element of the Avails XML
+	 * @param prefix    prefix for the name of the XLSX file
+	 * @return the XLSX file
+	 * @throws IOException
+	 */
+	public static File createWorkbook(Element docRootEl, String prefix) throws IOException {
+		XlsxBuilder builder = new XlsxBuilder(docRootEl, AvailsSheet.Version.V1_7_3, new InstrumentedLogger());
+		return export(builder.getWorkbook(), prefix);
+	}
+
+	/**
+	 * Convert a single sheet to v2.3 Avails XML.
+	 * 
+	 * @see #convert(List, File, LogMgmt, boolean)
+	 */
+	public static String convert(AvailsSheet aSheet, File srcFile, LogMgmt logger, boolean parallel) {
+		return convert(Collections.singletonList(aSheet), srcFile, logger, parallel);
+	}
+
+	/**
+	 * Convert the sheets of an Avails spreadsheet to v2.3 Avails XML.
+	 * 
+	 * @param sheets
+	 * @param srcFile  the spreadsheet's file
+	 * @param logger
+	 * @param parallel if <tt>true</tt>, rows are converted concurrently
+	 * @return the XML formatted for comparison with another conversion
+	 */
+	public static String convert(List<AvailsSheet> sheets, File srcFile, LogMgmt logger, boolean parallel) {
+		XmlBuilder xBuilder = new XmlBuilder(logger, sheets.get(0).getVersion());
+		xBuilder.setVersion("2.3");
+		xBuilder.setParallel(parallel);
+		Document doc = xBuilder.makeXmlAsJDom(sheets, "test", srcFile);
+		if (doc == null) {
+			throw new IllegalStateException("No XML generated from " + srcFile.getName());
+		}
+		return new XMLOutputter(Format.getPrettyFormat()).outputString(doc);
+	}
+}
@@ -32,6 +32,7 @@ import java.util.Map;
 import org.apache.poi.ss.usermodel.Cell;
 import org.jdom2.located.Located;
 
+import com.movielabs.mddflib.logging.CellLocation;
 import com.movielabs.mddflib.logging.DefaultLogging;
 import com.movielabs.mddflib.logging.LogEntryFolder;
 import com.movielabs.mddflib.logging.LogMgmt;
@@ -152,6 +153,8 @@ public class InstrumentedLogger extends DefaultLogging implements LogMgmt {
 				lineNum = ((Located) target).getLine();
 			} else if (target instanceof Cell) {
 				lineNum = ((Cell) target).getRowIndex();
+			} else if (target instanceof CellLocation) {
+				lineNum = ((CellLocation) target).getRowIndex();
 			}
 		}
 		if (explanation != null) {
@@ -173,6 +176,16 @@ public class InstrumentedLogger extends DefaultLogging implements LogMgmt {
 		msgList = new ArrayList<String>();
 	}
 
+	/**
+	 * Returns the messages recorded while <tt>printToConsole</tt> is enabled, in
+	 * the order they were logged.
+	 * 
+	 * @return
+	 */
+	public List<String> getMsgList() {
+		return msgList;
+	}
+
 	public void printLog() {
 		for (int i = 0; i < msgList.size(); i++) {
 			System.out.println(msgList.get(i));
@@ -42,6 +42,7 @@ import com.movielabs.mddf.MddfContext.FILE_FMT;
 import com.movielabs.mddflib.logging.DefaultLogging;
 import com.movielabs.mddflib.logging.LogMgmt;
 import com.movielabs.mddflib.util.Translator;
+import com.movielabs.mddflib.util.ValidationPlan;
 
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
@@ -101,6 +102,12 @@ public class ToolLauncher {
 				"[T/F] processing of a directory will be recursive (Default is 'T').");
 		options.addOption("v", "verbose", false, "Display log-file entries in terminal window during execution.");
 		options.addOption("V", "version", false, "Display software version and build date.");
+		options.addOption("maxErrors", true,
+				"Terminate validation of a file after the specified number of errors (Default is no limit).");
+		options.addOption("failFast", false, "Terminate validation of a file on the first fatal error.");
+		options.addOption("checks", true,
+				"Comma-separated list of the groups of checks to perform (Default is 'all'). Valid values are: "
+						+ ValidationPlan.getHelp());
 
 		/* Translation-related arguments: */
 		options.addOption("X", "exportAll", false, "export valid files in all applicable formats.");
@@ -164,6 +171,25 @@ public class ToolLauncher {
 			 */
 			// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
 			ValidationController vCtrl = new ValidationController(logger);
+			String maxErrArg = cmdLine.getOptionValue("maxErrors", "0");
+			int maxErrors = 0;
+			try {
+				maxErrors = Integer.parseInt(maxErrArg);
+			} catch (NumberFormatException e) {
+				String hdrMsg = "Invalid value '" + maxErrArg + "' for maxErrors";
+				printUsage(hdrMsg);
+				System.exit(0);
+			}
+			vCtrl.setValidationBudget(maxErrors, cmdLine.hasOption("failFast"));
+			String checks = cmdLine.getOptionValue("checks");
+			if (checks != null) {
+				try {
+					vCtrl.setValidationPlan(ValidationPlan.parse(checks));
+				} catch (IllegalArgumentException e) {
+					printUsage(e.getLocalizedMessage());
+					System.exit(0);
+				}
+			}
 			EnumSet<FILE_FMT> selections = EnumSet.noneOf(FILE_FMT.class);
 			String[] xlatFmts = cmdLine.getOptionValues("x");
 			if (xlatFmts == null || (xlatFmts.length == 0)) {
@@ -50,8 +50,10 @@ import com.movielabs.mddflib.manifest.validation.ManifestValidator;
 import com.movielabs.mddflib.manifest.validation.MecValidator;
 import com.movielabs.mddflib.manifest.validation.profiles.MMCoreValidator;
 import com.movielabs.mddflib.manifest.validation.profiles.ProfileValidator;
+import com.movielabs.mddflib.util.CMValidator;
 import com.movielabs.mddflib.util.StringUtils;
 import com.movielabs.mddflib.util.Translator;
+import com.movielabs.mddflib.util.ValidationPlan;
 import com.movielabs.mddflib.util.xml.MddfTarget;
 import com.movielabs.mddflib.util.xml.XmlIngester;
 
@@ -103,6 +105,9 @@ public class ValidationController {
 	private boolean validateC = true;
 	private boolean validateBP = false;
 	private boolean isRecursive = true;
+	private int maxErrors = 0;
+	private boolean failFast = false;
+	private ValidationPlan plan = ValidationPlan.FULL;
 	private LogMgmt logMgr;
 	private LogNavPanel logNav = null;
 	private EnumSet<FILE_FMT> xportFmts = null;
@@ -157,6 +162,41 @@ public class ValidationController {
 		validateBP = bestPrac;
 	}
 
+	/**
+	 * Limit the validation effort expended on any single file. This allows batch
+	 * runs to quickly triage badly broken files.
+	 * 
+	 * @param maxErrors terminate validation of a file once this many errors have
+	 *                  been reported (0 for no limit)
+	 * @param failFast  terminate validation of a file on the first fatal issue
+	 * @see com.movielabs.mddflib.util.CMValidator#setValidationBudget(int,
+	 *      boolean)
+	 */
+	public void setValidationBudget(int maxErrors, boolean failFast) {
+		this.maxErrors = maxErrors;
+		this.failFast = failFast;
+	}
+
+	/**
+	 * Restrict validation to the groups of checks included in the <tt>plan</tt>.
+	 * 
+	 * @param plan
+	 * @see com.movielabs.mddflib.util.ValidationPlan
+	 */
+	public void setValidationPlan(ValidationPlan plan) {
+		this.plan = (plan == null) ? ValidationPlan.FULL : plan;
+	}
+
+	/**
+	 * Apply the current validation budget and plan to a validator.
+	 * 
+	 * @param validator
+	 */
+	private void configure(CMValidator validator) {
+		validator.setValidationBudget(maxErrors, failFast);
+		validator.setValidationPlan(plan);
+	}
+
 	public void runScript(File scriptFile) throws IOException {
 		if ((scriptFile == null) || !scriptFile.isFile()) {
 			return;
@@ -487,6 +527,7 @@ public class ValidationController {
 			throws IOException, JDOMException {
 		boolean isValid = true;
 		AvailValidator tool1 = new AvailValidator(validateC, logMgr);
+		configure(tool1);
 		isValid = tool1.process(target, pedigreeMap);
 		if (!isValid) {
 			String msg = "Validation FAILED; Terminating processing of file";
@@ -545,6 +586,7 @@ public class ValidationController {
 	protected boolean validateMEC(MddfTarget target) throws IOException, JDOMException {
 		boolean isValid = true;
 		MecValidator tool1 = new MecValidator(validateC, logMgr);
+		configure(tool1);
 		isValid = tool1.process(target);
 		if (!isValid) {
 			String msg = "Validation FAILED; Terminating processing of file";
@@ -575,9 +617,15 @@ public class ValidationController {
 		String schemaVer = ManifestValidator.identifyXsdVersion(target);
 		ManifestValidator.setManifestVersion(schemaVer);
 
-		List<String> profileNameList = identifyProfiles(target, uxProfile);
+		List<String> profileNameList;
+		if (plan.includes(ValidationPlan.Check.PROFILES)) {
+			profileNameList = identifyProfiles(target, uxProfile);
+		} else {
+			profileNameList = new ArrayList<String>();
+		}
 		if (profileNameList.isEmpty() || profileNameList.contains("none")) {
 			ManifestValidator tool1 = new ManifestValidator(validateC, logMgr);
+			configure(tool1);
 			isValid = tool1.process(target);
 			Map<String, List<Element>> supportingFiles = ((ManifestValidator) tool1).getSupportingRsrcLocations();
 			Set<String> foobar = supportingFiles.keySet();
@@ -607,10 +655,12 @@ public class ValidationController {
 					case "IP-01":
 					case "IP-1":
 						pValidator = new CpeValidator(logMgr);
+						configure((CpeValidator) pValidator);
 						isValid = pValidator.process(target, profile, useCases) && isValid;
 						break;
 					case "MMC-1":
 						pValidator = new MMCoreValidator(logMgr);
+						configure((MMCoreValidator) pValidator);
 						isValid = pValidator.process(target, profile, useCases) && isValid;
 						Map<String, List<Element>> supportingFiles = ((ManifestValidator) pValidator)
 								.getSupportingRsrcLocations();
@@ -46,11 +46,11 @@ import javax.swing.JTextField;
 import javax.swing.event.TreeSelectionEvent;
 import javax.swing.event.TreeSelectionListener;
 
-import org.apache.poi.ss.usermodel.Cell;
 import org.jdom2.located.Located;
 
 import com.movielabs.mddf.tools.util.xml.EditorMgr;
 import com.movielabs.mddf.tools.util.xml.SimpleXmlEditor;
+import com.movielabs.mddflib.logging.CellLocation;
 import com.movielabs.mddflib.logging.LogEntryFolder;
 import com.movielabs.mddflib.logging.LogEntryNode;
 import com.movielabs.mddflib.logging.LogMgmt;
@@ -377,15 +377,21 @@ public class AdvLogPanel extends JPanel implements LoggerWidget, TreeSelectionLi
 		if (target != null) {
 			if (target instanceof Located) {
 				lineNum = ((Located) target).getLine();
-			} else if (target instanceof Cell) {
+			} else if (CellLocation.of(target) != null) {
+				CellLocation location = CellLocation.of(target);
 				/*
 				 * Add 1 to line number for display purposes. Code is zero-based
 				 * index but Excel spreadsheet displays using 1 as the 1st row.
 				 */
-				lineNum = ((Cell) target).getRowIndex() + 1;
-				/* Prefix an 'explanation' with column ID (e.g., 'X', 'AA') */
-				int colNum = ((Cell) target).getColumnIndex();
-				String prefix = "Column " + mapColNum(colNum);
+				lineNum = location.getRowIndex() + 1;
+				/*
+				 * Prefix an 'explanation' with the sheet name (if known) and column
+				 * ID (e.g., 'X', 'AA')
+				 */
+				String prefix = "Column " + mapColNum(location.getColumnIndex());
+				if (location.getSheetName() != null) {
+					prefix = "Sheet '" + location.getSheetName() + "', " + prefix;
+				}
 				if ((explanation == null) || (explanation.isEmpty())) {
 					explanation = prefix;
 				} else {